@@ -17,7 +17,8 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ TagCloudTests.class, TagCloudViewerTests.class })
+@SuiteClasses({ TagCloudTests.class, TagCloudViewerTests.class, TypeCollectorTests.class,
+		CloudLayoutEngineTests.class })
 public class AllTests {
 
 }
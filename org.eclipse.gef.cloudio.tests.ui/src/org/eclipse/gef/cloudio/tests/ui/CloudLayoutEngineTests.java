@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.cloudio.tests.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.gef.cloudio.internal.ui.Word;
+import org.eclipse.gef.cloudio.internal.ui.layout.CloudLayoutEngine;
+import org.eclipse.gef.cloudio.internal.ui.layout.DefaultLayouter;
+import org.eclipse.gef.cloudio.internal.ui.util.CloudMatrix;
+import org.eclipse.gef.cloudio.internal.ui.util.CollisionMask;
+import org.eclipse.gef.cloudio.internal.ui.util.GlyphKey;
+import org.eclipse.gef.cloudio.internal.ui.util.GlyphMask;
+import org.eclipse.gef.cloudio.internal.ui.util.GlyphMaskCache;
+import org.eclipse.gef.cloudio.internal.ui.util.IGlyphRasterizer;
+import org.eclipse.gef.cloudio.internal.ui.util.RectTree;
+import org.eclipse.swt.graphics.FontData;
+import org.junit.Test;
+
+public class CloudLayoutEngineTests {
+
+	/**
+	 * Renders each string as a filled box, without using a display.
+	 */
+	private static class BoxRasterizer implements IGlyphRasterizer {
+
+		private int count;
+
+		@Override
+		public synchronized GlyphMask rasterize(GlyphKey key, int accuracy) {
+			count++;
+			int width = key.getString().length() * key.getFontSize() / 2;
+			int height = key.getFontSize();
+			if (key.getAngle() != 0) {
+				int tmp = width;
+				width = height;
+				height = tmp;
+			}
+			CollisionMask cells = new CollisionMask((width + accuracy - 1) / accuracy,
+					(height + accuracy - 1) / accuracy);
+			for (int y = 0; y < cells.getHeight(); y++) {
+				for (int x = 0; x < cells.getWidth(); x++) {
+					cells.set(x, y);
+				}
+			}
+			return new GlyphMask(width, height, width, height, accuracy, cells);
+		}
+
+		public synchronized int getCount() {
+			return count;
+		}
+	}
+
+	private static List<Word> createWords() {
+		List<Word> words = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Word word = new Word("word" + (i % 40));
+			word.weight = (i % 10) / 10.0;
+			word.angle = i % 3 == 0 ? 90 : 0;
+			word.setFontData(new FontData[] { new FontData("Sans", 10, 0) });
+			words.add(word);
+		}
+		return words;
+	}
+
+	private static String getPositions(List<Word> words) {
+		StringBuilder positions = new StringBuilder();
+		for (Word word : words) {
+			positions.append(word.string).append(word.x).append(',').append(word.y).append(';');
+		}
+		return positions.toString();
+	}
+
+	@Test
+	public void layoutWithoutDisplay() {
+		BoxRasterizer rasterizer = new BoxRasterizer();
+		CloudLayoutEngine engine = new CloudLayoutEngine(5, 1280, rasterizer);
+		engine.setUseCollisionMasks(true);
+		engine.getLayouter().setOption(DefaultLayouter.SEED, 42L);
+		List<Word> words = createWords();
+		List<Word> placed = engine.layout(words, null);
+		assertEquals(words.size(), placed.size());
+
+		// words are sorted by area and numbered accordingly
+		for (int i = 0; i < words.size(); i++) {
+			assertEquals(i + 1, words.get(i).id);
+			if (i > 0) {
+				Word previous = words.get(i - 1);
+				assertTrue(previous.width * previous.height >= words.get(i).width * words.get(i).height);
+			}
+		}
+
+		// placed words do not overlap
+		CollisionMask occupied = new CollisionMask(1280 / 5, 1280 / 5);
+		for (Word word : placed) {
+			assertFalse(occupied.intersects(word.mask, word.x / 5, word.y / 5));
+			occupied.add(word.mask, word.x / 5, word.y / 5);
+			assertEquals(word.id, engine.getCloudMatrix().get(word.x / 5, word.y / 5));
+		}
+	}
+
+	@Test
+	public void cellsOutsideOfCollisionMaskMatrix() {
+		CloudMatrix matrix = new CloudMatrix(100, 5, true);
+		CollisionMask word = new CollisionMask(1, 1);
+		word.set(0, 0);
+		// the first cell of the second row
+		matrix.place(word, (short) 3, 0, 5);
+		assertEquals(3, matrix.get(0, 1));
+
+		// cells outside of the matrix are neither wrapped into the next row,
+		// nor out of range
+		for (int[] cell : new int[][] { { 20, 0 }, { -1, 1 }, { 0, 20 }, { 0, -1 } }) {
+			assertEquals(RectTree.EMPTY, matrix.get(cell[0], cell[1]));
+			assertFalse(matrix.isEmpty(cell[0], cell[1]));
+		}
+	}
+
+	@Test
+	public void reuseGlyphMasks() {
+		BoxRasterizer rasterizer = new BoxRasterizer();
+		CloudLayoutEngine engine = new CloudLayoutEngine(5, 1280, rasterizer);
+		engine.getLayouter().setOption(DefaultLayouter.SEED, 42L);
+		List<Word> words = createWords();
+		String positions = getPositions(engine.layout(words, null));
+		// equal words are only rendered once
+		int rendered = rasterizer.getCount();
+		assertEquals(rendered, engine.getGlyphMaskCache().size());
+		assertTrue(rendered < words.size());
+
+		// a relayout does not render any word again, and leads to the same
+		// result
+		engine.getLayouter().setOption(DefaultLayouter.SEED, 42L);
+		assertEquals(positions, getPositions(engine.layout(createWords(), null)));
+		assertEquals(rendered, rasterizer.getCount());
+
+		// only the words whose size changed are rendered again
+		engine.setMinFontSize(engine.getMinFontSize() + 1);
+		engine.layout(createWords(), null);
+		assertEquals(2 * rendered, rasterizer.getCount());
+
+		// masks are shared between equal words
+		GlyphKey key = new GlyphKey("word", "Sans", 0, 12, 0);
+		assertSame(engine.getGlyphMaskCache().get(key),
+				engine.getGlyphMaskCache().get(new GlyphKey("word", "Sans", 0, 12, 0)));
+	}
+
+	@Test
+	public void evictLeastRecentlyUsedGlyphMasks() {
+		BoxRasterizer rasterizer = new BoxRasterizer();
+		GlyphMaskCache cache = new GlyphMaskCache(rasterizer, 5, 2);
+		GlyphKey a = new GlyphKey("a", "Sans", 0, 12, 0);
+		GlyphKey b = new GlyphKey("b", "Sans", 0, 12, 0);
+		GlyphKey c = new GlyphKey("c", "Sans", 0, 12, 0);
+		GlyphMask maskA = cache.get(a);
+		GlyphMask maskB = cache.get(b);
+		// a is used more recently than b
+		assertSame(maskA, cache.get(a));
+		cache.get(c);
+		assertEquals(2, cache.size());
+		assertEquals(3, rasterizer.getCount());
+
+		// only b has been evicted
+		assertSame(maskA, cache.get(a));
+		assertEquals(3, rasterizer.getCount());
+		assertNotSame(maskB, cache.get(b));
+		assertEquals(4, rasterizer.getCount());
+	}
+}
@@ -19,6 +19,7 @@ import java.util.Set;
 
 import org.eclipse.gef.cloudio.internal.ui.TagCloud;
 import org.eclipse.gef.cloudio.internal.ui.Word;
+import org.eclipse.gef.cloudio.internal.ui.layout.DefaultLayouter;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.MouseEvent;
 import org.eclipse.swt.events.MouseListener;
@@ -28,6 +29,7 @@ import org.eclipse.swt.events.MouseWheelListener;
 import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.events.SelectionListener;
 import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.widgets.Composite;
@@ -481,6 +483,59 @@ public class TagCloudTests {
 		Assert.assertTrue(rectChanged);
 	}
 
+	@Test
+	public void testLayoutWithCollisionMasks() {
+		TagCloud cloud = new TagCloud(composite, SWT.NONE);
+		Assert.assertFalse(cloud.isUseCollisionMasks());
+		cloud.setUseCollisionMasks(true);
+		Assert.assertTrue(cloud.isUseCollisionMasks());
+		List<Word> words = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			words.add(getWord());
+		}
+		// All elements must have been placed
+		Assert.assertEquals(10, cloud.setWords(words, null));
+		// Elements must have been placed at different positions
+		Set<Point> positions = new HashSet<>();
+		for (Word word : words) {
+			Assert.assertNotNull(word.mask);
+			Assert.assertNull(word.tree);
+			Assert.assertTrue(positions.add(new Point(word.x, word.y)));
+		}
+		// Switching back requires the extents to be recalculated
+		cloud.setUseCollisionMasks(false);
+		Assert.assertEquals(10, cloud.layoutCloud(null, true));
+		for (Word word : words) {
+			Assert.assertNull(word.mask);
+			Assert.assertNotNull(word.tree);
+		}
+	}
+
+	@Test
+	public void testParallelPlacement() {
+		List<Point> positions = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			TagCloud cloud = new TagCloud(composite, SWT.NONE);
+			cloud.getLayouter().setOption(DefaultLayouter.SEED, 42L);
+			cloud.setParallelPlacement(i == 1);
+			Assert.assertEquals(i == 1, cloud.isParallelPlacement());
+			List<Word> words = new ArrayList<>();
+			for (int j = 0; j < 50; j++) {
+				words.add(getWord());
+			}
+			Assert.assertTrue(cloud.setWords(words, null) > 0);
+			for (int j = 0; j < words.size(); j++) {
+				Point position = new Point(words.get(j).x, words.get(j).y);
+				if (i == 0) {
+					positions.add(position);
+				} else {
+					// Parallel placement must yield the same positions
+					Assert.assertEquals(positions.get(j), position);
+				}
+			}
+		}
+	}
+
 	// @Test
 	// public void testLayoutTooLarge() {
 	// TagCloud cloud = new TagCloud(composite, SWT.NONE);
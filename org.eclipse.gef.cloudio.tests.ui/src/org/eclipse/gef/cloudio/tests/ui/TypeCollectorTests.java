@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.cloudio.tests.ui;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
+import org.eclipse.gef.cloudio.internal.ui.data.TermCounts;
+import org.eclipse.gef.cloudio.internal.ui.data.Type;
+import org.eclipse.gef.cloudio.internal.ui.data.TypeCollector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TypeCollectorTests {
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("cloudio", ".txt");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	private void write(String text, int repetitions) throws IOException {
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8")) {
+			for (int i = 0; i < repetitions; i++) {
+				writer.write(text);
+			}
+		}
+	}
+
+	@Test
+	public void countTerms() throws IOException {
+		write("The quick brown fox jumps over the lazy dog. The dog sleeps, the fox runs.\n", 1);
+		List<Type> types = TypeCollector.getData(file, "UTF-8");
+		assertEquals(11, types.size());
+		// equal counts are ordered alphabetically
+		assertEquals("The", types.get(0).getString());
+		assertEquals(2, types.get(0).getOccurrences());
+		assertEquals("dog", types.get(1).getString());
+		assertEquals(2, types.get(1).getOccurrences());
+		assertEquals("fox", types.get(2).getString());
+		assertEquals(2, types.get(2).getOccurrences());
+		assertEquals("the", types.get(3).getString());
+		assertEquals(2, types.get(3).getOccurrences());
+		assertEquals("brown", types.get(4).getString());
+		assertEquals(1, types.get(4).getOccurrences());
+
+		types = TypeCollector.getData(file, "UTF-8", 2, 1);
+		assertEquals(2, types.size());
+		assertEquals("The", types.get(0).getString());
+		assertEquals("dog", types.get(1).getString());
+	}
+
+	@Test
+	public void countTermsOfLargeFile() throws IOException {
+		// large enough to span several windows and to be split across threads
+		int repetitions = 200000;
+		write("Lorem ipsum dolor sit amet,\tconsectetur adipiscing elit über alles.\n", repetitions);
+		List<Type> sequential = TypeCollector.getData(file, "UTF-8", 0, 1);
+		List<Type> parallel = TypeCollector.getData(file, "UTF-8", 0, 4);
+		assertEquals(10, sequential.size());
+		assertEquals(sequential.size(), parallel.size());
+		for (int i = 0; i < sequential.size(); i++) {
+			assertEquals(repetitions, sequential.get(i).getOccurrences());
+			assertEquals(sequential.get(i).getString(), parallel.get(i).getString());
+			assertEquals(repetitions, parallel.get(i).getOccurrences());
+		}
+	}
+
+	@Test
+	public void mostFrequentTerms() {
+		TermCounts counts = new TermCounts();
+		for (int i = 0; i < 1000; i++) {
+			counts.add("term" + i, i % 100);
+		}
+		TermCounts other = new TermCounts();
+		other.add("term5", 1000);
+		counts.addAll(other);
+		assertEquals(1000, counts.size());
+		assertEquals(1005, counts.get("term5"));
+		assertEquals(0, counts.get("unknown"));
+
+		List<Type> types = counts.getMostFrequent(3);
+		assertEquals(3, types.size());
+		assertEquals("term5", types.get(0).getString());
+		assertEquals(1005, types.get(0).getOccurrences());
+		assertEquals("term199", types.get(1).getString());
+		assertEquals("term299", types.get(2).getString());
+		assertEquals(1000, counts.getMostFrequent(0).size());
+	}
+}
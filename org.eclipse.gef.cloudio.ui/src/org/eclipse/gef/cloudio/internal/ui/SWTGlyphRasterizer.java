@@ -0,0 +1,159 @@
+/******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.cloudio.internal.ui;
+
+import org.eclipse.gef.cloudio.internal.ui.util.CollisionMask;
+import org.eclipse.gef.cloudio.internal.ui.util.GlyphKey;
+import org.eclipse.gef.cloudio.internal.ui.util.GlyphMask;
+import org.eclipse.gef.cloudio.internal.ui.util.IGlyphRasterizer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Device;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Transform;
+
+/**
+ * An {@link IGlyphRasterizer} that renders strings using SWT, exactly as they
+ * are drawn by the {@link TagCloud}.
+ *
+ */
+public class SWTGlyphRasterizer implements IGlyphRasterizer {
+
+	private final Device device;
+
+	// system colors may only be queried from the UI thread, whereas masks are
+	// rasterized on worker threads
+	private final Color foreground;
+
+	private volatile int antialias = SWT.ON;
+
+	/**
+	 * Creates a new {@link SWTGlyphRasterizer}, which renders strings on the
+	 * given {@link Device}. If the device is a display, this constructor has to
+	 * be called from its UI thread.
+	 * 
+	 * @param device
+	 */
+	public SWTGlyphRasterizer(Device device) {
+		this.device = device;
+		this.foreground = device.getSystemColor(SWT.COLOR_BLACK);
+	}
+
+	/**
+	 * Converts the given image into a {@link CollisionMask}, with one cell per
+	 * <code>accuracy</code> pixels. Cells which contain a non-white pixel are
+	 * occupied.
+	 * 
+	 * @param id
+	 * @param accuracy
+	 * @return the occupied cells of the given image
+	 */
+	public static CollisionMask toCells(ImageData id, int accuracy) {
+		CollisionMask cells = new CollisionMask((id.width + accuracy - 1) / accuracy,
+				(id.height + accuracy - 1) / accuracy);
+		final int[] pixels = new int[id.width];
+		final PaletteData palette = id.palette;
+		for (int y = 0; y < id.height; y++) {
+			id.getPixels(0, y, id.width, pixels, 0);
+			for (int i = 0; i < pixels.length; i++) {
+				int pixel = pixels[i];
+				// Extracting color values as in PaletteData.getRGB(int pixel):
+				int r = pixel & palette.redMask;
+				r = (palette.redShift < 0) ? r >>> -palette.redShift : r << palette.redShift;
+				int g = pixel & palette.greenMask;
+				g = (palette.greenShift < 0) ? g >>> -palette.greenShift : g << palette.greenShift;
+				int b = pixel & palette.blueMask;
+				b = (palette.blueShift < 0) ? b >>> -palette.blueShift : b << palette.blueShift;
+				if (r < 250 || g < 250 || b < 250) {
+					cells.set(i / accuracy, y / accuracy);
+					i += accuracy - 1;
+				}
+			}
+		}
+		return cells;
+	}
+
+	/**
+	 * Returns the antialiasing setting used to render strings.
+	 * 
+	 * @return {@link SWT#ON}, {@link SWT#OFF}, or {@link SWT#DEFAULT}
+	 */
+	public int getAntialias() {
+		return antialias;
+	}
+
+	@Override
+	public GlyphMask rasterize(GlyphKey key, int accuracy) {
+		String[] fontNames = key.getFontName().split(",");
+		FontData[] fontData = new FontData[fontNames.length];
+		for (int i = 0; i < fontNames.length; i++) {
+			fontData[i] = new FontData(fontNames[i], key.getFontSize(), key.getFontStyle());
+		}
+		Font font = new Font(device, fontData);
+		try {
+			Image scratch = new Image(device, 1, 1);
+			GC g = new GC(scratch);
+			g.setFont(font);
+			final Point stringExtent = g.stringExtent(key.getString());
+			stringExtent.y = g.getFontMetrics().getHeight();
+			g.dispose();
+			scratch.dispose();
+
+			double radian = Math.toRadians(key.getAngle());
+			final double sin = Math.abs(Math.sin(radian));
+			final double cos = Math.abs(Math.cos(radian));
+			final int x = (int) ((cos * stringExtent.x) + (sin * stringExtent.y));
+			final int y = (int) ((cos * stringExtent.y) + (sin * stringExtent.x));
+			Image img = new Image(device, x, y);
+			g = new GC(img);
+			g.setAntialias(antialias);
+			g.setForeground(foreground);
+			Transform t = new Transform(device);
+			if (key.getAngle() < 0) {
+				t.translate(0, img.getBounds().height - (int) (cos * stringExtent.y));
+			} else {
+				t.translate((int) (sin * stringExtent.y), 0);
+			}
+			t.rotate(key.getAngle());
+			g.setTransform(t);
+			g.setFont(font);
+			// Why is drawString so slow? between 30 and 90 percent of the whole
+			// draw time...
+			g.drawString(key.getString(), 0, 0, false);
+			final ImageData id = img.getImageData();
+			t.dispose();
+			g.dispose();
+			img.dispose();
+			return new GlyphMask(x, y, stringExtent.x, stringExtent.y, accuracy, toCells(id, accuracy));
+		} finally {
+			font.dispose();
+		}
+	}
+
+	/**
+	 * Sets the antialiasing setting used to render strings. Masks which were
+	 * rendered with a different setting have to be discarded.
+	 * 
+	 * @param antialias
+	 *            {@link SWT#ON}, {@link SWT#OFF}, or {@link SWT#DEFAULT}
+	 */
+	public void setAntialias(int antialias) {
+		this.antialias = antialias;
+	}
+
+}
@@ -13,8 +13,6 @@ package org.eclipse.gef.cloudio.internal.ui;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.EventListener;
 import java.util.HashSet;
 import java.util.List;
@@ -25,11 +23,12 @@ import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.gef.cloudio.internal.ui.layout.DefaultLayouter;
+import org.eclipse.gef.cloudio.internal.ui.layout.CloudLayoutEngine;
 import org.eclipse.gef.cloudio.internal.ui.layout.ILayouter;
+import org.eclipse.gef.cloudio.internal.ui.layout.ISpeculativeLayouter;
 import org.eclipse.gef.cloudio.internal.ui.util.CloudMatrix;
+import org.eclipse.gef.cloudio.internal.ui.util.CollisionMask;
 import org.eclipse.gef.cloudio.internal.ui.util.RectTree;
-import org.eclipse.gef.cloudio.internal.ui.util.SmallRect;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.DisposeEvent;
@@ -43,12 +42,9 @@ import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.events.SelectionListener;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
-import org.eclipse.swt.graphics.FontData;
-import org.eclipse.swt.graphics.FontMetrics;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
-import org.eclipse.swt.graphics.PaletteData;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.graphics.Transform;
@@ -81,11 +77,6 @@ public class TagCloud extends Canvas {
 	 */
 	private final Rectangle cloudArea;
 
-	/**
-	 * Maximum Font Size.
-	 */
-	private int maxFontSize = 100;
-
 	private final GC gc;
 
 	/**
@@ -138,25 +129,25 @@ public class TagCloud extends Canvas {
 	private double currentZoom = 1;
 
 	/**
-	 * Minimum font size.
+	 * Set of selected words
 	 */
-	private int minFontSize = 12;
+	private Set<Word> selection = new HashSet<>();
 
 	/**
-	 * Set of selected words
+	 * Computes the layout of the words.
 	 */
-	private Set<Word> selection = new HashSet<>();
+	private final CloudLayoutEngine engine;
 
-	private CloudMatrix cloudMatrix;
+	/**
+	 * Renders the masks of the words for the {@link #engine}.
+	 */
+	private final SWTGlyphRasterizer rasterizer;
 
 	/**
-	 * Executor service to process the creation of {@link RectTree} objects in
-	 * parallel.
+	 * Executor service to draw the placed words.
 	 */
 	private ExecutorService executors;
 
-	private ILayouter layouter;
-
 	/**
 	 * The <code>boost</code> words with highest weight will be further
 	 * increased in size. Eye-Candy only.
@@ -203,8 +194,6 @@ public class TagCloud extends Canvas {
 
 	private Set<SelectionListener> selectionListeners = new HashSet<>();
 
-	private ImageData mask;
-
 	/**
 	 * Creates a new Tag cloud on the given parent. When using this constructor,
 	 * please read the following carefully: <br>
@@ -238,7 +227,8 @@ public class TagCloud extends Canvas {
 		cloudArea = new Rectangle(0, 0, maxSize, maxSize);
 		highlightColor = new Color(getDisplay(), Display.getDefault().getSystemColor(SWT.COLOR_RED).getRGB());
 		gc = new GC(this);
-		layouter = new DefaultLayouter(accuracy, accuracy);
+		rasterizer = new SWTGlyphRasterizer(getDisplay());
+		engine = new CloudLayoutEngine(accuracy, maxSize, rasterizer);
 		setBackground(new Color(getDisplay(), Display.getDefault().getSystemColor(SWT.COLOR_WHITE).getRGB()));
 		initListeners();
 		textLayerImage = new Image(getDisplay(), 100, 100);
@@ -394,19 +384,6 @@ public class TagCloud extends Canvas {
 		return cloudArea;
 	}
 
-	/**
-	 * Returns the font size of the given word. By default, this is calculated
-	 * as <code>8 + (word.weight * maxFontSize)</code>.
-	 * 
-	 * @param word
-	 * @return
-	 */
-	private float getFontSize(Word word) {
-		float size = (float) (word.weight * maxFontSize);
-		size += minFontSize;
-		return size;
-	}
-
 	/**
 	 * Draws a word with the given color.
 	 * 
@@ -451,132 +428,9 @@ public class TagCloud extends Canvas {
 	 */
 	protected void calcExtents(IProgressMonitor monitor) {
 		checkWidget();
-		if (monitor != null) {
-			monitor.subTask("Calculating word boundaries...");
-		}
 		if (wordsToUse == null)
 			return;
-		double step = 80D / wordsToUse.size();
-		double current = 0;
-		int next = 10;
-		executors = Executors.newFixedThreadPool(getNumberOfThreads());
-		final Color color = gc.getDevice().getSystemColor(SWT.COLOR_BLACK);
-		for (final Word word : wordsToUse) {
-			FontData[] fontData = word.getFontData();
-			int fontSize = (int) getFontSize(word);
-			for (FontData data : fontData) {
-				data.setHeight((int) fontSize);
-			}
-			final Font font = new Font(gc.getDevice(), fontData);
-			gc.setFont(font);
-			final Point stringExtent = gc.stringExtent(word.string);
-			FontMetrics fm = gc.getFontMetrics();
-			stringExtent.y = fm.getHeight();
-			executors.execute(new Runnable() {
-				@Override
-				public void run() {
-					double radian = Math.toRadians(word.angle);
-					final double sin = Math.abs(Math.sin(radian));
-					final double cos = Math.abs(Math.cos(radian));
-					final int x = (int) ((cos * stringExtent.x) + (sin * stringExtent.y));
-					final int y = (int) ((cos * stringExtent.y) + (sin * stringExtent.x));
-					ImageData id = createImageData(word, font, stringExtent, sin, cos, x, y, color);
-					calcWordExtents(word, id);
-					font.dispose();
-				}
-			});
-			if (monitor != null) {
-				current += step;
-				if (current > next) {
-					monitor.worked(5);
-					next += 5;
-				}
-			}
-		}
-		executors.shutdown();
-		try {
-			executors.awaitTermination(Integer.MAX_VALUE, TimeUnit.SECONDS);
-		} catch (InterruptedException e) {
-			e.printStackTrace();
-		}
-		Collections.sort(wordsToUse, new Comparator<Word>() {
-
-			@Override
-			public int compare(Word o1, Word o2) {
-				return (o2.width * o2.height) - (o1.width * o1.height);
-			}
-		});
-		short i = 1;
-		for (Word word : wordsToUse) {
-			word.id = i++;
-		}
-	}
-
-	private ImageData createImageData(final Word word, Font font, Point stringExtent, final double sin,
-			final double cos, int x, int y, Color color) {
-		Image img = new Image(null, x, y);
-		word.width = x;
-		word.height = y;
-		word.stringExtent = stringExtent;
-		GC g = new GC(img);
-		g.setAntialias(antialias);
-		g.setForeground(color);
-		Transform t = new Transform(img.getDevice());
-		if (word.angle < 0) {
-			t.translate(0, img.getBounds().height - (int) (cos * stringExtent.y));
-		} else {
-			t.translate((int) (sin * stringExtent.y), 0);
-		}
-		t.rotate(word.angle);
-		g.setTransform(t);
-		g.setFont(font);
-		// Why is drawString so slow? between 30 and 90 percent of the whole
-		// draw time...
-		g.drawString(word.string, 0, 0, false);
-		int max = Math.max(x, y);
-		int tmp = maxSize;
-		while (max < tmp) {
-			tmp = tmp / 2;
-		}
-		tmp = tmp * 2;
-		SmallRect root = new SmallRect(0, 0, tmp, tmp);
-		word.tree = new RectTree(root, accuracy);
-		final ImageData id = img.getImageData();
-		g.dispose();
-		img.dispose();
-		return id;
-	}
-
-	/**
-	 * Calculates the extents of a word, based on its rendered image.
-	 */
-	private void calcWordExtents(final Word word, final ImageData id) {
-		final int[] pixels = new int[id.width];
-		final PaletteData palette = id.palette;
-		Set<SmallRect> inserted = new HashSet<>();
-		for (int y = 0; y < id.height; y++) {
-			id.getPixels(0, y, id.width, pixels, 0);
-			for (int i = 0; i < pixels.length; i++) {
-				int pixel = pixels[i];
-				// Extracting color values as in PaletteData.getRGB(int pixel):
-				int r = pixel & palette.redMask;
-				r = (palette.redShift < 0) ? r >>> -palette.redShift : r << palette.redShift;
-				int g = pixel & palette.greenMask;
-				g = (palette.greenShift < 0) ? g >>> -palette.greenShift : g << palette.greenShift;
-				int b = pixel & palette.blueMask;
-				b = (palette.blueShift < 0) ? b >>> -palette.blueShift : b << palette.blueShift;
-				if (r < 250 || g < 250 || b < 250) {
-					SmallRect rect = new SmallRect((i / accuracy) * accuracy, (y / accuracy) * accuracy, accuracy,
-							accuracy);
-					if (!inserted.contains(rect)) {
-						word.tree.insert(rect, word.id);
-						inserted.add(rect);
-					}
-					i += accuracy - 1;
-				}
-			}
-		}
-		word.tree.releaseRects();
+		engine.calcExtents(wordsToUse, monitor);
 	}
 
 	/**
@@ -589,15 +443,10 @@ public class TagCloud extends Canvas {
 	 */
 	protected int layoutWords(Collection<Word> wordsToUse, IProgressMonitor monitor) {
 		checkWidget();
-		if (monitor != null) {
-			monitor.subTask("Placing words...");
-		}
 		Rectangle r = new Rectangle(Integer.MAX_VALUE, Integer.MAX_VALUE, 0, 0);
 		final Rectangle cloudArea = getCloudArea();
 		int w = cloudArea.width;
 		int h = cloudArea.height;
-		double current = 0;
-		int next = 10;
 		final Image tmpImage = new Image(getDisplay(), w, h);
 		GC gc = new GC(tmpImage);
 		gc.setBackground(getBackground());
@@ -607,15 +456,8 @@ public class TagCloud extends Canvas {
 		executors = Executors.newFixedThreadPool(1);
 		int success = 0;
 		if (wordsToUse != null) {
-			double step = 100D / wordsToUse.size();
 			final GC g = gc;
-			for (Word word : wordsToUse) {
-				Point point = layouter.getInitialOffset(word, cloudArea);
-				boolean result = layouter.layout(point, word, cloudArea, cloudMatrix);
-				if (!result) {
-					System.err.println("Failed to place " + word.string);
-					continue;
-				}
+			for (Word word : engine.layoutWords(wordsToUse, monitor)) {
 				success++;
 				if (word.x < r.x) {
 					r.x = word.x;
@@ -637,14 +479,6 @@ public class TagCloud extends Canvas {
 						drawWord(g, wrd, wrd.getColor());
 					}
 				});
-				current += step;
-				if (current > next) {
-					next += 5;
-					if (monitor != null) {
-						monitor.worked(5);
-					}
-				}
-
 			}
 			executors.shutdown();
 			try {
@@ -723,14 +557,7 @@ public class TagCloud extends Canvas {
 	 * Reset the initial matrix
 	 */
 	private void resetLayout() {
-		if (cloudMatrix == null) {
-			cloudMatrix = new CloudMatrix(maxSize, accuracy);
-		} else {
-			cloudMatrix.reset();
-		}
-		if (mask != null) {
-			resetMask();
-		}
+		engine.reset();
 	}
 
 	/**
@@ -744,9 +571,7 @@ public class TagCloud extends Canvas {
 	 *            a square containing black and white pixels only
 	 */
 	public void setBackgroundMask(ImageData bgData) {
-		if (mask != null) {
-			mask = null;
-		}
+		engine.setBackgroundMask(null);
 		if (bgData != null) {
 			Image img = new Image(null, cloudArea.width, cloudArea.height);
 			GC gc = new GC(img);
@@ -757,21 +582,10 @@ public class TagCloud extends Canvas {
 			tmp.dispose();
 			img.dispose();
 			gc.dispose();
-			mask = id;
+			engine.setBackgroundMask(SWTGlyphRasterizer.toCells(id, accuracy));
 		}
 	}
 
-	private void resetMask() {
-		Word word = new Word("mask");
-		word.tree = new RectTree(new SmallRect(0, 0, cloudArea.width, cloudArea.height), accuracy);
-		calcWordExtents(word, mask);
-		word.tree.place(cloudMatrix, RectTree.BACKGROUND);
-	}
-
-	private int getNumberOfThreads() {
-		return Runtime.getRuntime().availableProcessors();
-	}
-
 	/**
 	 * Initialize internal listeners (scrollbar, mouse, paint...).
 	 */
@@ -912,17 +726,18 @@ public class TagCloud extends Canvas {
 	 * @return
 	 */
 	private Word getWordAt(Point point) {
+		CloudMatrix cloudMatrix = engine.getCloudMatrix();
 		if (cloudMatrix == null || regionOffset == null)
 			return null;
 		Point translatedMousePos = translateMousePos(point.x, point.y);
 		translatedMousePos.x += regionOffset.x;
 		translatedMousePos.y += regionOffset.y;
-		int x = translatedMousePos.x / accuracy;
-		int y = translatedMousePos.y / accuracy;
-		if (x >= maxSize || y >= maxSize) {
+		if (translatedMousePos.x < 0 || translatedMousePos.y < 0 || translatedMousePos.x >= maxSize
+				|| translatedMousePos.y >= maxSize) {
 			return null;
 		}
-		short wordId = cloudMatrix.get(x, y);
+		// the matrix is indexed by cells, not by pixels
+		short wordId = cloudMatrix.get(translatedMousePos.x / accuracy, translatedMousePos.y / accuracy);
 		if (wordId > 0) {
 			Word clicked = wordsToUse.get(wordId - 1);
 			return clicked;
@@ -1228,8 +1043,7 @@ public class TagCloud extends Canvas {
 	 */
 	public void setMaxFontSize(int maxSize) {
 		checkWidget();
-		Assert.isLegal(maxSize > 0, "Font Size must be greater than zero, but was " + maxSize + "!");
-		maxFontSize = maxSize;
+		engine.setMaxFontSize(maxSize);
 	}
 
 	/**
@@ -1253,8 +1067,7 @@ public class TagCloud extends Canvas {
 	 */
 	public void setMinFontSize(int size) {
 		checkWidget();
-		Assert.isLegal(size > 0, "Font Size must be greater zero: " + size);
-		this.minFontSize = size;
+		engine.setMinFontSize(size);
 	}
 
 	/**
@@ -1283,6 +1096,31 @@ public class TagCloud extends Canvas {
 		this.boost = boost;
 	}
 
+	/**
+	 * Enable or disable parallel placement of words. If enabled (and the
+	 * {@link ILayouter} is an {@link ISpeculativeLayouter}), the positions of
+	 * several words are searched in parallel, using all available processors,
+	 * while the result stays the same as when placing the words one after
+	 * another. Disabled by default.
+	 * 
+	 * @param enabled
+	 */
+	public void setParallelPlacement(boolean enabled) {
+		checkWidget();
+		engine.setParallelPlacement(enabled);
+	}
+
+	/**
+	 * Returns whether the positions of words are searched in parallel.
+	 * 
+	 * @return <code>true</code> if parallel placement is enabled,
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean isParallelPlacement() {
+		checkWidget();
+		return engine.isParallelPlacement();
+	}
+
 	/**
 	 * Enable or disable antialiasing. Enabled by default.
 	 * 
@@ -1295,6 +1133,35 @@ public class TagCloud extends Canvas {
 		} else {
 			antialias = SWT.OFF;
 		}
+		if (rasterizer.getAntialias() != antialias) {
+			// the cached masks were rendered with the old setting
+			rasterizer.setAntialias(antialias);
+			engine.getGlyphMaskCache().clear();
+		}
+	}
+
+	/**
+	 * Enable or disable the use of {@link CollisionMask}s, i.e. bit masks, for
+	 * collision handling instead of {@link RectTree}s. Bit masks are
+	 * considerably faster when placing many words. Disabled by default. The
+	 * setting is applied when the word extents are (re-)calculated.
+	 * 
+	 * @param enabled
+	 */
+	public void setUseCollisionMasks(boolean enabled) {
+		checkWidget();
+		engine.setUseCollisionMasks(enabled);
+	}
+
+	/**
+	 * Returns whether {@link CollisionMask}s are used for collision handling.
+	 * 
+	 * @return <code>true</code> if {@link CollisionMask}s are used,
+	 *         <code>false</code> if {@link RectTree}s are used.
+	 */
+	public boolean isUseCollisionMasks() {
+		checkWidget();
+		return engine.isUseCollisionMasks();
 	}
 
 	// /**
@@ -1413,18 +1280,17 @@ public class TagCloud extends Canvas {
 
 	public void setLayouter(ILayouter layouter) {
 		checkWidget();
-		Assert.isLegal(layouter != null, "Layouter must not be null!");
-		this.layouter = layouter;
+		engine.setLayouter(layouter);
 	}
 
 	public int getMaxFontSize() {
 		checkWidget();
-		return maxFontSize;
+		return engine.getMaxFontSize();
 	}
 
 	public int getMinFontSize() {
 		checkWidget();
-		return minFontSize;
+		return engine.getMinFontSize();
 	}
 
 	public int getBoost() {
@@ -1442,7 +1308,17 @@ public class TagCloud extends Canvas {
 	}
 
 	public ILayouter getLayouter() {
-		return layouter;
+		return engine.getLayouter();
+	}
+
+	/**
+	 * Returns the {@link CloudLayoutEngine} which computes the layout of the
+	 * words.
+	 * 
+	 * @return the {@link CloudLayoutEngine} of this cloud
+	 */
+	public CloudLayoutEngine getLayoutEngine() {
+		return engine;
 	}
 
 }
@@ -12,6 +12,7 @@
 package org.eclipse.gef.cloudio.internal.ui;
 
 import org.eclipse.core.runtime.Assert;
+import org.eclipse.gef.cloudio.internal.ui.util.CollisionMask;
 import org.eclipse.gef.cloudio.internal.ui.util.RectTree;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.FontData;
@@ -41,6 +42,8 @@ public class Word {
 
 	public RectTree tree;
 
+	public CollisionMask mask;
+
 	public float angle;
 
 	private FontData[] fontData;
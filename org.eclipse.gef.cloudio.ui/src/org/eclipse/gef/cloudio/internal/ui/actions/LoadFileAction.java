@@ -40,7 +40,8 @@ public class LoadFileAction extends AbstractTagCloudAction {
 			return;
 		ProgressMonitorDialog pd = new ProgressMonitorDialog(getShell());
 		try {
-			List<Type> types = TypeCollector.getData(new File(sourceFile), "UTF-8");
+			List<Type> types = TypeCollector.getData(new File(sourceFile), "UTF-8", 0,
+					Runtime.getRuntime().availableProcessors());
 			pd.setBlockOnOpen(false);
 			pd.open();
 			pd.getProgressMonitor().beginTask("Generating cloud...", 200);
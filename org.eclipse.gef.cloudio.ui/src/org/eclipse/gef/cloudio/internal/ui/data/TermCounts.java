@@ -0,0 +1,200 @@
+/******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.cloudio.internal.ui.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hash map from terms to their number of occurrences, which stores the
+ * counts as primitive <code>int</code> values (using open addressing), so that
+ * its memory consumption only depends on the number of distinct terms.
+ *
+ */
+public class TermCounts {
+
+	private String[] terms = new String[64];
+
+	private int[] counts = new int[64];
+
+	private int size;
+
+	/**
+	 * Increments the number of occurrences of the given term by one.
+	 *
+	 * @param term
+	 */
+	public void add(String term) {
+		add(term, 1);
+	}
+
+	/**
+	 * Increments the number of occurrences of the given term by the given
+	 * count.
+	 *
+	 * @param term
+	 * @param count
+	 */
+	public void add(String term, int count) {
+		int slot = slot(term);
+		if (terms[slot] == null) {
+			terms[slot] = term;
+			if (++size * 2 > terms.length) {
+				grow();
+			}
+			slot = slot(term);
+		}
+		counts[slot] += count;
+	}
+
+	/**
+	 * Adds the occurrences of all terms of the given {@link TermCounts} to
+	 * this one.
+	 *
+	 * @param other
+	 */
+	public void addAll(TermCounts other) {
+		for (int i = 0; i < other.terms.length; i++) {
+			if (other.terms[i] != null) {
+				add(other.terms[i], other.counts[i]);
+			}
+		}
+	}
+
+	private int compare(int slot1, int slot2) {
+		// more occurrences first, ties are broken alphabetically, so that the
+		// order does not depend on the hash layout
+		if (counts[slot1] != counts[slot2]) {
+			return counts[slot1] > counts[slot2] ? -1 : 1;
+		}
+		return terms[slot1].compareTo(terms[slot2]);
+	}
+
+	/**
+	 * Returns the number of occurrences of the given term.
+	 *
+	 * @param term
+	 * @return the number of occurrences, or <code>0</code> if the term did not
+	 *         occur
+	 */
+	public int get(String term) {
+		int slot = slot(term);
+		return terms[slot] == null ? 0 : counts[slot];
+	}
+
+	/**
+	 * Returns the terms with the most occurrences, ordered by decreasing number
+	 * of occurrences (and alphabetically for equal numbers of occurrences).
+	 * The terms are selected via a heap that is bounded by the given number of
+	 * terms, so that not all terms need to be sorted.
+	 *
+	 * @param maxTypes
+	 *            the maximum number of terms to return, or a value
+	 *            <code>&lt;= 0</code> to return all terms
+	 * @return the {@link Type}s with the most occurrences
+	 */
+	public List<Type> getMostFrequent(int maxTypes) {
+		int k = maxTypes <= 0 ? size : Math.min(maxTypes, size);
+		// a heap of slots, whose root is the least frequent selected term
+		int[] heap = new int[k];
+		int heapSize = 0;
+		for (int slot = 0; slot < terms.length && k > 0; slot++) {
+			if (terms[slot] == null) {
+				continue;
+			}
+			if (heapSize < k) {
+				heap[heapSize] = slot;
+				siftUp(heap, heapSize++);
+			} else if (compare(slot, heap[0]) < 0) {
+				heap[0] = slot;
+				siftDown(heap, heapSize, 0);
+			}
+		}
+		// remove the least frequent terms first
+		Type[] types = new Type[heapSize];
+		while (heapSize > 0) {
+			int slot = heap[0];
+			heap[0] = heap[--heapSize];
+			siftDown(heap, heapSize, 0);
+			types[heapSize] = new Type(terms[slot], counts[slot]);
+		}
+		List<Type> result = new ArrayList<>(types.length);
+		for (Type type : types) {
+			result.add(type);
+		}
+		return result;
+	}
+
+	private void grow() {
+		String[] oldTerms = terms;
+		int[] oldCounts = counts;
+		terms = new String[oldTerms.length * 2];
+		counts = new int[oldTerms.length * 2];
+		for (int i = 0; i < oldTerms.length; i++) {
+			if (oldTerms[i] != null) {
+				int slot = slot(oldTerms[i]);
+				terms[slot] = oldTerms[i];
+				counts[slot] = oldCounts[i];
+			}
+		}
+	}
+
+	private void siftDown(int[] heap, int heapSize, int index) {
+		int slot = heap[index];
+		while (2 * index + 1 < heapSize) {
+			int child = 2 * index + 1;
+			// the root of the heap is the selected term that is ranked last
+			if (child + 1 < heapSize && compare(heap[child + 1], heap[child]) > 0) {
+				child++;
+			}
+			if (compare(heap[child], slot) <= 0) {
+				break;
+			}
+			heap[index] = heap[child];
+			index = child;
+		}
+		heap[index] = slot;
+	}
+
+	private void siftUp(int[] heap, int index) {
+		int slot = heap[index];
+		while (index > 0) {
+			int parent = (index - 1) / 2;
+			if (compare(heap[parent], slot) >= 0) {
+				break;
+			}
+			heap[index] = heap[parent];
+			index = parent;
+		}
+		heap[index] = slot;
+	}
+
+	/**
+	 * Returns the number of distinct terms.
+	 *
+	 * @return the number of distinct terms
+	 */
+	public int size() {
+		return size;
+	}
+
+	private int slot(String term) {
+		int mask = terms.length - 1;
+		int h = term.hashCode() * 0x9E3779B9;
+		int slot = (h ^ (h >>> 16)) & mask;
+		while (terms[slot] != null && !terms[slot].equals(term)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+}
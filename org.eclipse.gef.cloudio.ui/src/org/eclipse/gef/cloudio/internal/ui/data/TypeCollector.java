@@ -16,19 +16,26 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.text.BreakIterator;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * 
@@ -37,75 +44,232 @@ import java.util.Set;
  */
 public class TypeCollector {
 
+	/**
+	 * Number of characters that are read and tokenized at once.
+	 */
+	private static final int WINDOW_SIZE = 64 * 1024;
+
+	/**
+	 * Minimum number of bytes per thread when splitting a file.
+	 */
+	private static final long MIN_SPLIT_SIZE = 4 * 1024 * 1024;
+
 	private static String stopWords;
 
+	/**
+	 * Reads a subrange of a file.
+	 */
+	private static class RangeInputStream extends InputStream {
+
+		private final FileChannel channel;
+
+		private long position;
+
+		private final long end;
+
+		public RangeInputStream(FileChannel channel, long start, long end) {
+			this.channel = channel;
+			this.position = start;
+			this.end = end;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (position >= end) {
+				return -1;
+			}
+			int read = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+			if (read > 0) {
+				position += read;
+			}
+			return read;
+		}
+	}
+
+	/**
+	 * Counts the terms of the given file, whose text is read in windows of
+	 * {@link #WINDOW_SIZE} characters, so that the memory consumption only
+	 * depends on the number of distinct terms. All terms are returned, ordered
+	 * by decreasing number of occurrences.
+	 * 
+	 * @param file
+	 * @param encoding
+	 * @return the {@link Type}s of the given file
+	 * @throws IOException
+	 */
 	public static List<Type> getData(File file, String encoding) throws IOException {
-		BufferedInputStream bis = new BufferedInputStream(new FileInputStream(file));
-		BufferedReader br = new BufferedReader(new InputStreamReader(bis, encoding));
-		StringBuffer text = new StringBuffer();
-		String s;
-		while ((s = br.readLine()) != null) {
-			text.append(s + "\n");
+		return getData(file, encoding, 0, 1);
+	}
+
+	/**
+	 * Counts the terms of the given file and returns the <code>maxTypes</code>
+	 * most frequent ones, ordered by decreasing number of occurrences. If more
+	 * than one thread is requested, large files are split into ranges (at line
+	 * breaks) that are counted in parallel, and the counts are merged
+	 * afterwards. Splitting is only supported for encodings in which a line
+	 * break is a single byte that does not occur within other characters (e.g.
+	 * UTF-8 or ISO-8859-1); other files are counted by a single thread.
+	 * 
+	 * @param file
+	 * @param encoding
+	 * @param maxTypes
+	 *            the maximum number of types to return, or a value
+	 *            <code>&lt;= 0</code> to return all types
+	 * @param threads
+	 *            the maximum number of threads to use
+	 * @return the most frequent {@link Type}s of the given file
+	 * @throws IOException
+	 */
+	public static List<Type> getData(File file, String encoding, int maxTypes, int threads) throws IOException {
+		final Charset charset = Charset.forName(encoding);
+		final Set<String> stops = getStopWords(charset);
+		int ranges = (int) Math.min(threads, file.length() / MIN_SPLIT_SIZE);
+		if (ranges <= 1 || !isSplittable(charset)) {
+			TermCounts counts = new TermCounts();
+			try (Reader reader = new InputStreamReader(new BufferedInputStream(new FileInputStream(file)), charset)) {
+				count(reader, stops, counts);
+			}
+			return counts.getMostFrequent(maxTypes);
 		}
-		br.close();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			final FileChannel channel = raf.getChannel();
+			final long[] bounds = getRangeBounds(channel, ranges);
+			List<Callable<TermCounts>> tasks = new ArrayList<>();
+			for (int i = 0; i < ranges; i++) {
+				final int range = i;
+				tasks.add(new Callable<TermCounts>() {
+
+					@Override
+					public TermCounts call() throws Exception {
+						TermCounts counts = new TermCounts();
+						try (Reader reader = new InputStreamReader(
+								new RangeInputStream(channel, bounds[range], bounds[range + 1]), charset)) {
+							count(reader, stops, counts);
+						}
+						return counts;
+					}
+				});
+			}
+			ExecutorService executor = Executors.newFixedThreadPool(ranges);
+			try {
+				// merge the counts of the ranges
+				TermCounts counts = new TermCounts();
+				for (Future<TermCounts> result : executor.invokeAll(tasks)) {
+					counts.addAll(result.get());
+				}
+				return counts.getMostFrequent(maxTypes);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while reading " + file, e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+				throw new IOException("Failed to read " + file, e.getCause());
+			} finally {
+				executor.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Splits the given file into the given number of ranges, whose bounds are
+	 * moved to the start of the next line.
+	 */
+	private static long[] getRangeBounds(FileChannel channel, int ranges) throws IOException {
+		long size = channel.size();
+		long[] bounds = new long[ranges + 1];
+		bounds[ranges] = size;
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		for (int i = 1; i < ranges; i++) {
+			long position = Math.max(bounds[i - 1], size * i / ranges);
+			boolean found = false;
+			while (!found && position < size) {
+				buffer.clear();
+				int read = channel.read(buffer, position);
+				if (read <= 0) {
+					break;
+				}
+				for (int j = 0; j < read && !found; j++) {
+					position++;
+					found = buffer.get(j) == '\n';
+				}
+			}
+			bounds[i] = Math.min(position, size);
+		}
+		return bounds;
+	}
+
+	private static Set<String> getStopWords(Charset charset) throws IOException {
 		Set<String> stops = new HashSet<>();
 		if (stopWords != null) {
-			bis = new BufferedInputStream(new FileInputStream(stopWords));
-			br = new BufferedReader(new InputStreamReader(bis, encoding));
+			BufferedInputStream bis = new BufferedInputStream(new FileInputStream(stopWords));
+			BufferedReader br = new BufferedReader(new InputStreamReader(bis, charset));
+			String s;
 			while ((s = br.readLine()) != null) {
 				stops.add(s.toLowerCase().trim());
 			}
 			br.close();
 		}
+		return stops;
+	}
+
+	private static boolean isSplittable(Charset charset) {
+		return StandardCharsets.UTF_8.equals(charset) || charset.newEncoder().maxBytesPerChar() == 1
+				&& "\n".equals(new String(new byte[] { '\n' }, charset));
+	}
+
+	/**
+	 * Reads the given {@link Reader} window by window and adds the terms to
+	 * the given {@link TermCounts}. A window is only tokenized up to its last
+	 * whitespace character, so that a term is never split across windows.
+	 */
+	private static void count(Reader reader, Set<String> stops, TermCounts counts) throws IOException {
 		BreakIterator iterator = BreakIterator.getWordInstance(Locale.getDefault());
-		String txt = text.toString();
-		iterator.setText(txt);
-		final Map<String, Integer> strings = new HashMap<>();
-		int boundary = iterator.first();
-		int lastBoundary = iterator.first();
-		while (boundary != BreakIterator.DONE) {
-			boundary = iterator.next();
-			if (boundary != -1) {
-				String string = txt.substring(lastBoundary, boundary).trim();
+		CharBuffer window = CharBuffer.allocate(WINDOW_SIZE);
+		boolean eof = false;
+		while (!eof) {
+			eof = reader.read(window) < 0;
+			if (!eof && window.hasRemaining()) {
+				continue;
+			}
+			window.flip();
+			int end = window.limit();
+			if (!eof) {
+				int lastWhitespace = end - 1;
+				while (lastWhitespace >= 0 && !Character.isWhitespace(window.get(lastWhitespace))) {
+					lastWhitespace--;
+				}
+				if (lastWhitespace >= 0) {
+					end = lastWhitespace + 1;
+				}
+			}
+			String text = window.subSequence(0, end).toString();
+			window.position(end);
+			window.compact();
+			iterator.setText(text);
+			int lastBoundary = iterator.first();
+			int boundary = iterator.next();
+			while (boundary != BreakIterator.DONE) {
+				String string = text.substring(lastBoundary, boundary).trim();
 				if (string.length() != 0) {
 					if (!Character.isLetter(string.charAt(string.length() - 1))) {
 						string = string.substring(0, string.length() - 1);
 					}
-					if (stops.contains(string.toLowerCase()) || string.trim().length() <= 1) {
-						lastBoundary = boundary;
-						continue;
-					}
-					Integer count = strings.get(string);
-					if (count == null) {
-						strings.put(string, 1);
-					} else {
-						count = count + 1;
-						strings.put(string, count);
+					if (!stops.contains(string.toLowerCase()) && string.trim().length() > 1) {
+						counts.add(string);
 					}
 				}
+				lastBoundary = boundary;
+				boundary = iterator.next();
 			}
-			lastBoundary = boundary;
 		}
-		return getMostImportantTypes(strings);
-	}
-
-	private static List<Type> getMostImportantTypes(final Map<String, Integer> strings) {
-		List<Type> types = new ArrayList<>();
-		Iterator<Entry<String, Integer>> iterator = strings.entrySet().iterator();
-		while (iterator.hasNext()) {
-			Entry<String, Integer> entry = iterator.next();
-			Type type = new Type(entry.getKey(), entry.getValue());
-			types.add(type);
-		}
-		List<Type> sorted = new ArrayList<>(types);
-		Collections.sort(sorted, new Comparator<Type>() {
-
-			@Override
-			public int compare(Type o1, Type o2) {
-				return o2.getOccurrences() - o1.getOccurrences();
-			}
-		});
-		return sorted;
 	}
 
 	public static void setStopwords(String sourceFile) {
@@ -0,0 +1,520 @@
+/******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.cloudio.internal.ui.layout;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.gef.cloudio.internal.ui.Word;
+import org.eclipse.gef.cloudio.internal.ui.layout.ISpeculativeLayouter.IPlacement;
+import org.eclipse.gef.cloudio.internal.ui.util.CloudMatrix;
+import org.eclipse.gef.cloudio.internal.ui.util.CollisionMask;
+import org.eclipse.gef.cloudio.internal.ui.util.GlyphKey;
+import org.eclipse.gef.cloudio.internal.ui.util.GlyphMask;
+import org.eclipse.gef.cloudio.internal.ui.util.GlyphMaskCache;
+import org.eclipse.gef.cloudio.internal.ui.util.IGlyphRasterizer;
+import org.eclipse.gef.cloudio.internal.ui.util.RectTree;
+import org.eclipse.gef.cloudio.internal.ui.util.SmallRect;
+import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * Computes the layout of a word cloud without rendering it, so that it can be
+ * used without a display (e.g. in combination with an
+ * {@link org.eclipse.gef.cloudio.internal.ui.util.AWTGlyphRasterizer}), as
+ * well as by the <code>TagCloud</code> widget. The shapes of the words are
+ * obtained as {@link GlyphMask}s from a {@link GlyphMaskCache}, so that a
+ * relayout only needs to render those words whose string, font, size, or
+ * angle changed.
+ *
+ */
+public class CloudLayoutEngine {
+
+	/**
+	 * Number of words per thread whose positions are searched in parallel if
+	 * parallel placement is enabled.
+	 */
+	private static final int PLACEMENT_BATCH_SIZE = 4;
+
+	/**
+	 * Minimum 'resolution' used for collision handling.
+	 */
+	private final int accuracy;
+
+	/**
+	 * Maximum size of the drawable area.
+	 */
+	private final int maxSize;
+
+	private final Rectangle cloudArea;
+
+	private final GlyphMaskCache glyphMasks;
+
+	private CloudMatrix cloudMatrix;
+
+	private ILayouter layouter;
+
+	private int maxFontSize = 100;
+
+	private int minFontSize = 12;
+
+	private boolean parallelPlacement;
+
+	private boolean useCollisionMasks;
+
+	/**
+	 * Cells of the drawable area that must not be used, if any.
+	 */
+	private CollisionMask backgroundMask;
+
+	/**
+	 * Creates a new {@link CloudLayoutEngine}. Parameter <code>maxSize</code>
+	 * defines the maximum size of the drawable area and <strong>must</strong>
+	 * be a power of <code>accuracy</code>, such that
+	 * <code>accuracy^n=maxSize</code> holds.
+	 * 
+	 * @param accuracy
+	 * @param maxSize
+	 * @param rasterizer
+	 *            the {@link IGlyphRasterizer} used to render the words
+	 */
+	public CloudLayoutEngine(int accuracy, int maxSize, IGlyphRasterizer rasterizer) {
+		Assert.isLegal(accuracy > 0, "Parameter accuracy must be greater than 0, but was " + accuracy);
+		Assert.isLegal(maxSize > 0, "Parameter maxSize must be greater than 0, but was " + maxSize);
+		int tmp = maxSize;
+		while (tmp > accuracy) {
+			tmp /= 2;
+		}
+		Assert.isLegal(tmp == accuracy, "Parameter maxSize must be a power of accuracy");
+		this.accuracy = accuracy;
+		this.maxSize = maxSize;
+		this.cloudArea = new Rectangle(0, 0, maxSize, maxSize);
+		this.glyphMasks = new GlyphMaskCache(rasterizer, accuracy);
+		this.layouter = new DefaultLayouter(accuracy, accuracy);
+	}
+
+	/**
+	 * Calculates the bounds and the {@link GlyphMask} of each word, sets the
+	 * font size of its {@link FontData}, and sorts the given list by
+	 * decreasing area of the words, which are numbered accordingly (starting
+	 * at <code>1</code>). Masks that are not cached yet are rendered in
+	 * parallel.
+	 * 
+	 * @param words
+	 * @param monitor
+	 *            may be <code>null</code>.
+	 */
+	public void calcExtents(List<Word> words, IProgressMonitor monitor) {
+		if (monitor != null) {
+			monitor.subTask("Calculating word boundaries...");
+		}
+		double step = 80D / words.size();
+		double current = 0;
+		int next = 10;
+		List<Callable<Object>> tasks = new ArrayList<>();
+		for (final Word word : words) {
+			int fontSize = (int) getFontSize(word);
+			FontData[] fontData = word.getFontData();
+			for (FontData data : fontData) {
+				data.setHeight(fontSize);
+			}
+			final GlyphKey key = getGlyphKey(word, fontSize);
+			tasks.add(new Callable<Object>() {
+
+				@Override
+				public Object call() throws Exception {
+					setGlyphMask(word, glyphMasks.get(key));
+					return null;
+				}
+			});
+			if (monitor != null) {
+				current += step;
+				if (current > next) {
+					monitor.worked(5);
+					next += 5;
+				}
+			}
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(getNumberOfThreads());
+		try {
+			for (Future<Object> result : executor.invokeAll(tasks)) {
+				result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while calculating word boundaries", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Failed to calculate word boundaries", e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+		Collections.sort(words, new Comparator<Word>() {
+
+			@Override
+			public int compare(Word o1, Word o2) {
+				return (o2.width * o2.height) - (o1.width * o1.height);
+			}
+		});
+		short i = 1;
+		for (Word word : words) {
+			word.id = i++;
+		}
+	}
+
+	private RectTree createTree(CollisionMask cells, int size, short id) {
+		RectTree tree = new RectTree(new SmallRect(0, 0, size, size), accuracy);
+		for (int row = 0; row < cells.getHeight(); row++) {
+			for (int column = cells.nextSet(0, row); column >= 0; column = cells.nextSet(column + 1, row)) {
+				tree.insert(new SmallRect(column * accuracy, row * accuracy, accuracy, accuracy), id);
+			}
+		}
+		tree.releaseRects();
+		return tree;
+	}
+
+	public int getAccuracy() {
+		return accuracy;
+	}
+
+	/**
+	 * Returns the cells of the drawable area that must not be used.
+	 * 
+	 * @return the background mask, or <code>null</code>
+	 */
+	public CollisionMask getBackgroundMask() {
+		return backgroundMask;
+	}
+
+	public Rectangle getCloudArea() {
+		return cloudArea;
+	}
+
+	/**
+	 * Returns the {@link CloudMatrix} containing the placed words, which is
+	 * <code>null</code> until {@link #reset()} was called.
+	 * 
+	 * @return the current {@link CloudMatrix}
+	 */
+	public CloudMatrix getCloudMatrix() {
+		return cloudMatrix;
+	}
+
+	/**
+	 * Returns the font size of the given word. By default, this is calculated
+	 * as <code>minFontSize + (word.weight * maxFontSize)</code>.
+	 * 
+	 * @param word
+	 * @return the font size of the given word
+	 */
+	public float getFontSize(Word word) {
+		float size = (float) (word.weight * maxFontSize);
+		size += minFontSize;
+		return size;
+	}
+
+	private GlyphKey getGlyphKey(Word word, int fontSize) {
+		FontData[] fontData = word.getFontData();
+		StringBuilder fontName = new StringBuilder();
+		for (FontData data : fontData) {
+			if (fontName.length() > 0) {
+				fontName.append(',');
+			}
+			fontName.append(data.getName());
+		}
+		int fontStyle = fontData.length > 0 ? fontData[0].getStyle() : 0;
+		return new GlyphKey(word.string, fontName.toString(), fontStyle, fontSize, word.angle);
+	}
+
+	/**
+	 * Returns the {@link GlyphMaskCache} from which the masks of the words are
+	 * obtained. It has to be cleared if the rendering parameters of the
+	 * {@link IGlyphRasterizer} change.
+	 * 
+	 * @return the {@link GlyphMaskCache}
+	 */
+	public GlyphMaskCache getGlyphMaskCache() {
+		return glyphMasks;
+	}
+
+	public ILayouter getLayouter() {
+		return layouter;
+	}
+
+	public int getMaxFontSize() {
+		return maxFontSize;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public int getMinFontSize() {
+		return minFontSize;
+	}
+
+	private int getNumberOfThreads() {
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	public boolean isParallelPlacement() {
+		return parallelPlacement;
+	}
+
+	public boolean isUseCollisionMasks() {
+		return useCollisionMasks;
+	}
+
+	/**
+	 * Resets the {@link CloudMatrix}, calculates the extents of the given
+	 * words (see {@link #calcExtents(List, IProgressMonitor)}), and places
+	 * them.
+	 * 
+	 * @param words
+	 * @param monitor
+	 *            may be <code>null</code>.
+	 * @return the words which could be placed, in placement order
+	 */
+	public List<Word> layout(List<Word> words, IProgressMonitor monitor) {
+		reset();
+		calcExtents(words, monitor);
+		return layoutWords(words, monitor);
+	}
+
+	/**
+	 * Places the given words, whose extents have to be calculated before (see
+	 * {@link #calcExtents(List, IProgressMonitor)}), in the given order.
+	 * 
+	 * @param words
+	 * @param monitor
+	 *            may be <code>null</code>.
+	 * @return the words which could be placed, in placement order
+	 */
+	public List<Word> layoutWords(Collection<Word> words, IProgressMonitor monitor) {
+		if (monitor != null) {
+			monitor.subTask("Placing words...");
+		}
+		List<Word> placedWords = new ArrayList<>();
+		if (words == null || words.isEmpty()) {
+			return placedWords;
+		}
+		if (cloudMatrix == null) {
+			reset();
+		}
+		double step = 100D / words.size();
+		double current = 0;
+		int next = 10;
+		ExecutorService placementExecutor = null;
+		int batchSize = 1;
+		if (parallelPlacement && layouter instanceof ISpeculativeLayouter) {
+			placementExecutor = Executors.newFixedThreadPool(getNumberOfThreads());
+			batchSize = PLACEMENT_BATCH_SIZE * getNumberOfThreads();
+		}
+		try {
+			List<Word> wordList = new ArrayList<>(words);
+			for (int start = 0; start < wordList.size(); start += batchSize) {
+				List<Word> batch = wordList.subList(start, Math.min(start + batchSize, wordList.size()));
+				boolean[] placed = placeWords(batch, placementExecutor);
+				for (int i = 0; i < batch.size(); i++) {
+					Word word = batch.get(i);
+					if (!placed[i]) {
+						System.err.println("Failed to place " + word.string);
+						continue;
+					}
+					placedWords.add(word);
+					current += step;
+					if (current > next) {
+						next += 5;
+						if (monitor != null) {
+							monitor.worked(5);
+						}
+					}
+				}
+			}
+		} finally {
+			if (placementExecutor != null) {
+				placementExecutor.shutdown();
+			}
+		}
+		return placedWords;
+	}
+
+	/**
+	 * Places the given words in order. If a placement executor is given, the
+	 * candidate positions of all words are searched in parallel against the
+	 * current state of the {@link CloudMatrix}, before the words are placed
+	 * one after another. A found position is only used if it does not
+	 * overlap with the words placed before; otherwise the search is resumed
+	 * from there. The result is thus the same as when placing the words
+	 * sequentially.
+	 * 
+	 * @param words
+	 * @param placementExecutor
+	 *            may be <code>null</code>.
+	 * @return whether the respective word could be placed
+	 */
+	private boolean[] placeWords(List<Word> words, ExecutorService placementExecutor) {
+		boolean[] placed = new boolean[words.size()];
+		if (placementExecutor == null) {
+			for (int i = 0; i < words.size(); i++) {
+				Word word = words.get(i);
+				Point point = layouter.getInitialOffset(word, cloudArea);
+				placed[i] = layouter.layout(point, word, cloudArea, cloudMatrix);
+			}
+			return placed;
+		}
+		// prepare the placements in order, so that the random start points
+		// do not depend on the number of threads
+		final CloudMatrix snapshot = cloudMatrix;
+		List<IPlacement> placements = new ArrayList<>();
+		List<Callable<Integer>> searches = new ArrayList<>();
+		for (Word word : words) {
+			Point point = layouter.getInitialOffset(word, cloudArea);
+			final IPlacement placement = ((ISpeculativeLayouter) layouter).preparePlacement(point, word, cloudArea,
+					cloudMatrix);
+			placements.add(placement);
+			searches.add(new Callable<Integer>() {
+
+				@Override
+				public Integer call() throws Exception {
+					return placement.find(snapshot, 0);
+				}
+			});
+		}
+		try {
+			List<Future<Integer>> results = placementExecutor.invokeAll(searches);
+			for (int i = 0; i < words.size(); i++) {
+				IPlacement placement = placements.get(i);
+				int index = results.get(i).get();
+				if (index >= 0 && !placement.fits(cloudMatrix, index)) {
+					// the position is occupied by a word placed in the
+					// meantime; as all preceding positions were already
+					// occupied before, resume the search from there
+					index = placement.find(cloudMatrix, index + 1);
+				}
+				if (index >= 0) {
+					placement.place(cloudMatrix, index);
+					placed[i] = true;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while placing words", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Failed to place words", e.getCause());
+		}
+		return placed;
+	}
+
+	/**
+	 * Resets the {@link CloudMatrix}, such that only the background mask (if
+	 * any) is occupied.
+	 */
+	public void reset() {
+		if (cloudMatrix == null || cloudMatrix.usesCollisionMask() != useCollisionMasks) {
+			cloudMatrix = new CloudMatrix(maxSize, accuracy, useCollisionMasks);
+		} else {
+			cloudMatrix.reset();
+		}
+		if (backgroundMask != null) {
+			if (useCollisionMasks) {
+				cloudMatrix.place(backgroundMask, RectTree.BACKGROUND, 0, 0);
+			} else {
+				createTree(backgroundMask, cloudArea.width, RectTree.BACKGROUND).place(cloudMatrix,
+						RectTree.BACKGROUND);
+			}
+		}
+	}
+
+	/**
+	 * Sets the cells of the drawable area (with one cell per
+	 * <code>accuracy</code> pixels) that must not be used. If parameter
+	 * <code>mask</code> is <code>null</code>, the old mask will be removed.
+	 * The mask is applied on the next {@link #reset()}.
+	 * 
+	 * @param mask
+	 */
+	public void setBackgroundMask(CollisionMask mask) {
+		Assert.isLegal(mask == null || cloudArea.width / accuracy <= mask.getWidth()
+				&& cloudArea.height / accuracy <= mask.getHeight(), "Mask must cover the drawable area");
+		this.backgroundMask = mask;
+	}
+
+	private void setGlyphMask(Word word, GlyphMask mask) {
+		word.width = mask.getWidth();
+		word.height = mask.getHeight();
+		word.stringExtent = new Point(mask.getExtentWidth(), mask.getExtentHeight());
+		if (useCollisionMasks) {
+			// masks are not modified during placement, so they can be shared
+			word.tree = null;
+			word.mask = mask.getCells();
+		} else {
+			int max = Math.max(word.width, word.height);
+			int tmp = maxSize;
+			while (max < tmp) {
+				tmp = tmp / 2;
+			}
+			tmp = tmp * 2;
+			word.tree = createTree(mask.getCells(), tmp, word.id);
+			word.mask = null;
+		}
+	}
+
+	public void setLayouter(ILayouter layouter) {
+		Assert.isLegal(layouter != null, "Layouter must not be null!");
+		this.layouter = layouter;
+	}
+
+	public void setMaxFontSize(int maxSize) {
+		Assert.isLegal(maxSize > 0, "Font Size must be greater than zero, but was " + maxSize + "!");
+		maxFontSize = maxSize;
+	}
+
+	public void setMinFontSize(int size) {
+		Assert.isLegal(size > 0, "Font Size must be greater zero: " + size);
+		this.minFontSize = size;
+	}
+
+	/**
+	 * Enable or disable parallel placement of words. If enabled (and the
+	 * {@link ILayouter} is an {@link ISpeculativeLayouter}), the positions of
+	 * several words are searched in parallel, while the result stays the same
+	 * as when placing the words one after another.
+	 * 
+	 * @param enabled
+	 */
+	public void setParallelPlacement(boolean enabled) {
+		this.parallelPlacement = enabled;
+	}
+
+	/**
+	 * Enable or disable the use of {@link CollisionMask}s for collision
+	 * handling instead of {@link RectTree}s. The setting is applied when the
+	 * word extents are (re-)calculated.
+	 * 
+	 * @param enabled
+	 */
+	public void setUseCollisionMasks(boolean enabled) {
+		this.useCollisionMasks = enabled;
+	}
+
+}
@@ -11,11 +11,13 @@
  *******************************************************************************/
 package org.eclipse.gef.cloudio.internal.ui.layout;
 
+import java.util.Arrays;
 import java.util.Random;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.gef.cloudio.internal.ui.Word;
 import org.eclipse.gef.cloudio.internal.ui.util.CloudMatrix;
+import org.eclipse.gef.cloudio.internal.ui.util.CollisionMask;
 import org.eclipse.gef.cloudio.internal.ui.util.RectTree;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
@@ -25,12 +27,130 @@ import org.eclipse.swt.graphics.Rectangle;
  * @author sschwieb
  *
  */
-public class DefaultLayouter implements ILayouter {
+public class DefaultLayouter implements ISpeculativeLayouter {
 
 	public static final String X_AXIS_VARIATION = "xaxis";
 
 	public static final String Y_AXIS_VARIATION = "yaxis";
 
+	/**
+	 * Seed of the random numbers used to choose the start points. By
+	 * default, the random numbers are not seeded.
+	 */
+	public static final String SEED = "seed";
+
+	/**
+	 * Maximum number of candidate positions that are tested per word.
+	 */
+	private static final int MAX_STEPS = 5000;
+
+	/**
+	 * The candidate positions of a word, which are visited in a spiral manner
+	 * around the start point. The positions are computed lazily and cached, so
+	 * that the search can be resumed.
+	 */
+	private static class SpiralPlacement implements IPlacement {
+
+		private final Word word;
+
+		private final Rectangle cloudArea;
+
+		private final Point offset;
+
+		private final Point next;
+
+		private final int accuracy;
+
+		private double growFactor = 1.6;
+
+		private int[] xs = new int[64];
+
+		private int[] ys = new int[64];
+
+		private int computed;
+
+		public SpiralPlacement(Word word, Rectangle cloudArea, Point offset, Point start, int accuracy) {
+			this.word = word;
+			this.cloudArea = cloudArea;
+			this.offset = offset;
+			this.next = start;
+			this.accuracy = accuracy;
+		}
+
+		private void compute(int index) {
+			if (index >= xs.length) {
+				int length = Math.min(MAX_STEPS, Math.max(index + 1, 2 * xs.length));
+				xs = Arrays.copyOf(xs, length);
+				ys = Arrays.copyOf(ys, length);
+			}
+			while (computed <= index) {
+				final double radius = Math.sqrt((double) (next.x * next.x + next.y * next.y)) + growFactor;
+				double atan = Math.atan2(next.y, next.x);
+				if (growFactor > 1.1) {
+					growFactor -= 0.0007;
+				}
+				if (radius < 80) {
+					atan += 0.7;
+				} else {
+					atan += 20 / radius;
+				}
+				if (growFactor < 0.0005) {
+					growFactor = 0.0005;
+				}
+				next.x = (int) (radius * Math.cos(atan));
+				next.y = (int) (radius * Math.sin(atan));
+				xs[computed] = ((next.x + offset.x) / accuracy) * accuracy;
+				ys[computed] = ((next.y + offset.y) / accuracy) * accuracy;
+				computed++;
+			}
+		}
+
+		@Override
+		public int find(CloudMatrix cloudMatrix, int from) {
+			if (word.mask == null && word.tree == null) {
+				return -1;
+			}
+			for (int i = from; i < MAX_STEPS; i++) {
+				if (fits(cloudMatrix, i)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		public boolean fits(CloudMatrix cloudMatrix, int index) {
+			compute(index);
+			int x = xs[index];
+			int y = ys[index];
+			if (cloudArea.x > x || cloudArea.y > y || cloudArea.x + cloudArea.width < x + word.width
+					|| cloudArea.y + cloudArea.height < y + word.height) {
+				return false;
+			}
+			if (word.mask != null) {
+				return cloudMatrix.fits(word.mask, x, y);
+			}
+			if (word.tree != null) {
+				word.tree.move(x, y);
+				return word.tree.fits(cloudMatrix);
+			}
+			return false;
+		}
+
+		@Override
+		public void place(CloudMatrix cloudMatrix, int index) {
+			compute(index);
+			word.x = xs[index];
+			word.y = ys[index];
+			if (word.mask != null) {
+				cloudMatrix.place(word.mask, word.id, word.x, word.y);
+			} else {
+				word.tree.move(word.x, word.y);
+				word.tree.place(cloudMatrix, word.id);
+			}
+		}
+	}
+
 	private Random random = new Random();
 
 	/**
@@ -79,10 +199,10 @@ public class DefaultLayouter implements ILayouter {
 
 	/**
 	 * Tries to position the given word in the given area. First a start point
-	 * is chosen, then the {@link RectTree} of the word and the main area is
-	 * used to detect whether the word can be placed at the given position, or
-	 * not. If not, the current point is moved slightly in a spiral manner,
-	 * similar to the approach of Wordle.
+	 * is chosen, then the {@link CollisionMask} (or {@link RectTree}) of the
+	 * word and the main area is used to detect whether the word can be placed
+	 * at the given position, or not. If not, the current point is moved
+	 * slightly in a spiral manner, similar to the approach of Wordle.
 	 * 
 	 * @param word
 	 * @param cloudArea
@@ -90,45 +210,24 @@ public class DefaultLayouter implements ILayouter {
 	 *         area
 	 */
 	public boolean layout(Point offset, final Word word, final Rectangle cloudArea, CloudMatrix mainTree) {
+		IPlacement placement = preparePlacement(offset, word, cloudArea, mainTree);
+		int index = placement.find(mainTree, 0);
+		if (index < 0) {
+			return false;
+		}
+		placement.place(mainTree, index);
+		return true;
+	}
+
+	public IPlacement preparePlacement(Point offset, final Word word, final Rectangle cloudArea,
+			CloudMatrix mainTree) {
 		Assert.isLegal(word != null, "Word cannot be null!");
 		Point next = new Point(-word.width / 2, -word.height / 2);
 		next.x += random.nextInt(25);
 		next.y += random.nextInt(25);
-		double growFactor = 1.6;
 		offset.x += cloudArea.width / 2;
 		offset.y += cloudArea.height / 2;
-		final int accuracy = mainTree.getMinResolution();
-		for (int i = 0; i < 5000; i++) {
-			final double radius = Math.sqrt((double) (next.x * next.x + next.y * next.y)) + growFactor;
-			double atan = Math.atan2(next.y, next.x);
-			if (growFactor > 1.1) {
-				growFactor -= 0.0007;
-			}
-			if (radius < 80) {
-				atan += 0.7;
-			} else {
-				atan += 20 / radius;
-			}
-			if (growFactor < 0.0005) {
-				growFactor = 0.0005;
-			}
-			next.x = (int) (radius * Math.cos(atan));
-			next.y = (int) (radius * Math.sin(atan));
-			word.x = ((next.x + offset.x) / accuracy) * accuracy;
-			word.y = ((next.y + offset.y) / accuracy) * accuracy;
-			RectTree rt = word.tree;
-			if (rt == null)
-				break;
-			rt.move(word.x, word.y);
-			if (cloudArea.x <= word.x && cloudArea.y <= word.y && cloudArea.x + cloudArea.width >= word.x + word.width
-					&& cloudArea.y + cloudArea.height >= word.y + word.height) {
-				if (rt.fits(mainTree)) {
-					rt.place(mainTree, word.id);
-					return true;
-				}
-			}
-		}
-		return false;
+		return new SpiralPlacement(word, cloudArea, offset, next, mainTree.getMinResolution());
 	}
 
 	public void setOption(String optionName, Object object) {
@@ -146,6 +245,11 @@ public class DefaultLayouter implements ILayouter {
 			this.yAxisVariation = value;
 			return;
 		}
+		if (SEED.equals(optionName)) {
+			Long value = (Long) object;
+			this.random = value == null ? new Random() : new Random(value);
+			return;
+		}
 		System.err.println("Unrecognized option: " + optionName);
 	}
 
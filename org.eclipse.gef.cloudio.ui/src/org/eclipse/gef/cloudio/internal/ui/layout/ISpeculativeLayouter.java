@@ -0,0 +1,85 @@
+/******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.cloudio.internal.ui.layout;
+
+import org.eclipse.gef.cloudio.internal.ui.Word;
+import org.eclipse.gef.cloudio.internal.ui.util.CloudMatrix;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * An {@link ILayouter} that allows to search positions for several words in
+ * parallel. The candidate positions of a word are prepared in placement order
+ * (so that the result does not depend on the number of threads), and can then
+ * be evaluated against a {@link CloudMatrix} that is not modified
+ * concurrently. As the occupied area only grows, a candidate that does not fit
+ * into an earlier state of the {@link CloudMatrix} does not fit into a later
+ * state either, so that the search can be resumed after the words placed in
+ * the meantime were committed.
+ *
+ */
+public interface ISpeculativeLayouter extends ILayouter {
+
+	/**
+	 * The sequence of candidate positions of a single word.
+	 */
+	public interface IPlacement {
+
+		/**
+		 * Returns the index of the first candidate position, starting at the
+		 * given index, at which the word fits into the given
+		 * {@link CloudMatrix}. The {@link CloudMatrix} is not modified, so
+		 * that the placements of several words may be searched in parallel.
+		 *
+		 * @param cloudMatrix
+		 * @param from
+		 * @return the index of the first matching candidate position, or
+		 *         <code>-1</code> if the word does not fit at any of the
+		 *         remaining candidate positions
+		 */
+		public int find(CloudMatrix cloudMatrix, int from);
+
+		/**
+		 * Tests whether the word fits into the given {@link CloudMatrix} at
+		 * the candidate position with the given index.
+		 *
+		 * @param cloudMatrix
+		 * @param index
+		 * @return whether the word fits at the given candidate position
+		 */
+		public boolean fits(CloudMatrix cloudMatrix, int index);
+
+		/**
+		 * Moves the word to the candidate position with the given index and
+		 * marks the area it occupies within the given {@link CloudMatrix}.
+		 *
+		 * @param cloudMatrix
+		 * @param index
+		 */
+		public void place(CloudMatrix cloudMatrix, int index);
+	}
+
+	/**
+	 * Prepares the placement of the given word within the defined rectangle,
+	 * starting at the initial position. Placements have to be prepared in the
+	 * order in which the words are placed.
+	 *
+	 * @param initial
+	 * @param word
+	 * @param cloudArea
+	 * @param cloudMatrix
+	 * @return the {@link IPlacement} of the given word
+	 */
+	public IPlacement preparePlacement(Point initial, final Word word, final Rectangle cloudArea,
+			CloudMatrix cloudMatrix);
+
+}
@@ -0,0 +1,112 @@
+/******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.cloudio.internal.ui.util;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * An {@link IGlyphRasterizer} that renders strings using Java2D into
+ * off-screen images, so that it does not require a display (e.g. when
+ * generating clouds in a batch job, using <code>java.awt.headless</code>).
+ * Font sizes are interpreted as points at 72 dpi, and only the first font
+ * name of a {@link GlyphKey} is used.
+ *
+ */
+public class AWTGlyphRasterizer implements IGlyphRasterizer {
+
+	/**
+	 * Pixels whose alpha value is at least this threshold are considered to
+	 * be occupied.
+	 */
+	private static final int ALPHA_THRESHOLD = 6;
+
+	private final boolean antialias;
+
+	/**
+	 * Creates a new {@link AWTGlyphRasterizer} that renders antialiased
+	 * strings.
+	 */
+	public AWTGlyphRasterizer() {
+		this(true);
+	}
+
+	/**
+	 * Creates a new {@link AWTGlyphRasterizer}.
+	 *
+	 * @param antialias
+	 *            Whether strings are rendered antialiased.
+	 */
+	public AWTGlyphRasterizer(boolean antialias) {
+		this.antialias = antialias;
+	}
+
+	private Graphics2D createGraphics(BufferedImage image, Font font) {
+		Graphics2D g = image.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, antialias
+				? RenderingHints.VALUE_TEXT_ANTIALIAS_ON : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+		g.setFont(font);
+		return g;
+	}
+
+	@Override
+	public GlyphMask rasterize(GlyphKey key, int accuracy) {
+		String fontName = key.getFontName();
+		int separator = fontName.indexOf(',');
+		if (separator >= 0) {
+			fontName = fontName.substring(0, separator);
+		}
+		Font font = new Font(fontName.trim(), key.getFontStyle() & (Font.BOLD | Font.ITALIC), key.getFontSize());
+		Graphics2D g = createGraphics(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB), font);
+		FontMetrics fm = g.getFontMetrics();
+		int extentWidth = fm.stringWidth(key.getString());
+		int extentHeight = fm.getHeight();
+		int ascent = fm.getAscent();
+		g.dispose();
+
+		double radian = Math.toRadians(key.getAngle());
+		double sin = Math.abs(Math.sin(radian));
+		double cos = Math.abs(Math.cos(radian));
+		int width = (int) ((cos * extentWidth) + (sin * extentHeight));
+		int height = (int) ((cos * extentHeight) + (sin * extentWidth));
+		CollisionMask cells = new CollisionMask((width + accuracy - 1) / accuracy, (height + accuracy - 1) / accuracy);
+		if (width > 0 && height > 0) {
+			BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+			g = createGraphics(image, font);
+			// same placement as when drawing the word onto the cloud
+			if (key.getAngle() < 0) {
+				g.translate(0, height - (int) (cos * extentHeight));
+			} else {
+				g.translate((int) (sin * extentHeight), 0);
+			}
+			g.rotate(radian);
+			g.drawString(key.getString(), 0, ascent);
+			g.dispose();
+			int[] pixels = new int[width];
+			for (int y = 0; y < height; y++) {
+				image.getRGB(0, y, width, 1, pixels, 0, width);
+				for (int x = 0; x < width; x++) {
+					if ((pixels[x] >>> 24) >= ALPHA_THRESHOLD) {
+						cells.set(x / accuracy, y / accuracy);
+						// skip the remaining pixels of the cell
+						x = (x / accuracy) * accuracy + accuracy - 1;
+					}
+				}
+			}
+		}
+		return new GlyphMask(width, height, extentWidth, extentHeight, accuracy, cells);
+	}
+
+}
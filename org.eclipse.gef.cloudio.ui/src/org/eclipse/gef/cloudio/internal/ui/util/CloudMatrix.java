@@ -12,11 +12,19 @@
 
 package org.eclipse.gef.cloudio.internal.ui.util;
 
+import java.util.Arrays;
+
 import org.eclipse.gef.cloudio.internal.ui.util.RectTree.RectNode;
 
 /**
  * This class contains all global information about the drawable area and the
- * layouted words in form of a {@link RectTree}.
+ * layouted words in form of a {@link RectTree}, or, alternatively, in form of
+ * a {@link CollisionMask} (see {@link #CloudMatrix(int, int, boolean)}).
+ * <p>
+ * Words may be placed using either their {@link RectTree} or their
+ * {@link CollisionMask}, independent of the representation used by the
+ * matrix, while testing a {@link CollisionMask} against a matrix that uses a
+ * {@link CollisionMask} is the fastest.
  * 
  * @author sschwieb
  *
@@ -25,39 +33,182 @@ public class CloudMatrix {
 
 	private RectTree tree;
 
+	private CollisionMask mask;
+
+	// the word id per cell, if a collision mask is used
+	private short[] ids;
+
 	private final int max;
 
 	private final int minResolution;
 
+	private final boolean useCollisionMask;
+
 	public int getMinResolution() {
 		return minResolution;
 	}
 
 	public CloudMatrix(int maxSize, int minResolution) {
+		this(maxSize, minResolution, false);
+	}
+
+	/**
+	 * Creates a new {@link CloudMatrix}, which uses a {@link CollisionMask}
+	 * (with one cell per <code>minResolution</code> pixels) instead of a
+	 * {@link RectTree} to store the occupied area, if
+	 * <code>useCollisionMask</code> is <code>true</code>.
+	 * 
+	 * @param maxSize
+	 * @param minResolution
+	 * @param useCollisionMask
+	 */
+	public CloudMatrix(int maxSize, int minResolution, boolean useCollisionMask) {
 		this.max = maxSize;
 		this.minResolution = minResolution;
+		this.useCollisionMask = useCollisionMask;
 		reset();
 	}
 
+	private boolean contains(int x, int y) {
+		return x >= 0 && y >= 0 && x < mask.getWidth() && y < mask.getHeight();
+	}
+
+	/**
+	 * Tests whether the given word mask can be placed at the given position
+	 * (in pixels) without overlapping any other word.
+	 * 
+	 * @param wordMask
+	 *            The {@link CollisionMask} of the word, with one cell per
+	 *            {@link #getMinResolution()} pixels.
+	 * @param x
+	 * @param y
+	 * @return whether the word mask fits at the given position
+	 */
+	public boolean fits(CollisionMask wordMask, int x, int y) {
+		int cellX = x / minResolution;
+		int cellY = y / minResolution;
+		if (mask != null) {
+			return mask.contains(wordMask, cellX, cellY) && !mask.intersects(wordMask, cellX, cellY);
+		}
+		for (int row = 0; row < wordMask.getHeight(); row++) {
+			for (int column = wordMask.nextSet(0, row); column >= 0; column = wordMask.nextSet(column + 1, row)) {
+				if (!isEmpty(cellX + column, cellY + row)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the id of the word that occupies the given cell, or
+	 * {@link RectTree#EMPTY} if the cell is not occupied or lies outside of
+	 * the matrix.
+	 * 
+	 * @param x
+	 *            The column of the cell.
+	 * @param y
+	 *            The row of the cell.
+	 * @return the id of the word at the given cell
+	 */
 	public short get(int x, int y) {
+		if (mask != null) {
+			if (!contains(x, y)) {
+				return RectTree.EMPTY;
+			}
+			return ids[y * mask.getWidth() + x];
+		}
 		return tree.getRoot().getWordId(x * minResolution, y * minResolution);
 	}
 
+	/**
+	 * Tests whether the given cell is not occupied by any word. If a
+	 * {@link CollisionMask} is used, cells outside of the matrix are not
+	 * empty, so that no word can be placed there.
+	 * 
+	 * @param x
+	 *            The column of the cell.
+	 * @param y
+	 *            The row of the cell.
+	 * @return whether the given cell is empty
+	 */
 	public boolean isEmpty(int x, int y) {
+		if (mask != null) {
+			return contains(x, y) && !mask.isSet(x, y);
+		}
 		short id = tree.getRoot().getWordId(x * minResolution, y * minResolution);
 		return id == RectTree.EMPTY;
 	}
 
+	/**
+	 * Marks the cells of the given word mask as occupied by the word with the
+	 * given id, placing the mask at the given position (in pixels).
+	 * 
+	 * @param wordMask
+	 *            The {@link CollisionMask} of the word, with one cell per
+	 *            {@link #getMinResolution()} pixels.
+	 * @param id
+	 * @param x
+	 * @param y
+	 */
+	public void place(CollisionMask wordMask, short id, int x, int y) {
+		int cellX = x / minResolution;
+		int cellY = y / minResolution;
+		if (mask != null) {
+			mask.add(wordMask, cellX, cellY);
+		}
+		for (int row = 0; row < wordMask.getHeight(); row++) {
+			for (int column = wordMask.nextSet(0, row); column >= 0; column = wordMask.nextSet(column + 1, row)) {
+				if (mask != null) {
+					ids[(cellY + row) * mask.getWidth() + cellX + column] = id;
+				} else {
+					SmallRect rect = new SmallRect((cellX + column) * minResolution, (cellY + row) * minResolution,
+							minResolution, minResolution);
+					tree.insert(rect, id);
+				}
+			}
+		}
+	}
+
 	public void reset() {
-		SmallRect root = new SmallRect(0, 0, max, max);
-		tree = new RectTree(root, minResolution);
+		if (useCollisionMask) {
+			int size = max / minResolution;
+			if (mask == null) {
+				mask = new CollisionMask(size, size);
+				ids = new short[size * size];
+			} else {
+				mask.clear();
+			}
+			Arrays.fill(ids, RectTree.EMPTY);
+		} else {
+			SmallRect root = new SmallRect(0, 0, max, max);
+			tree = new RectTree(root, minResolution);
+		}
 	}
 
 	public void set(RectNode node, short id, short xOffset, short yOffset, int minResolution) {
 		int cleanX = ((xOffset + node.rect.x) / minResolution) * minResolution;
 		int cleanY = ((yOffset + node.rect.y) / minResolution) * minResolution;
+		if (mask != null) {
+			int cellX = cleanX / this.minResolution;
+			int cellY = cleanY / this.minResolution;
+			mask.set(cellX, cellY);
+			ids[cellY * mask.getWidth() + cellX] = id;
+			return;
+		}
 		SmallRect rect = new SmallRect(cleanX, cleanY, minResolution, minResolution);
 		tree.insert(rect, id);
 	}
 
+	/**
+	 * Returns whether this matrix uses a {@link CollisionMask} instead of a
+	 * {@link RectTree} to store the occupied area.
+	 * 
+	 * @return <code>true</code> if a {@link CollisionMask} is used,
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean usesCollisionMask() {
+		return useCollisionMask;
+	}
+
 }
@@ -0,0 +1,373 @@
+/******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.cloudio.internal.ui.util;
+
+import java.util.Arrays;
+
+/**
+ * A bit mask of occupied cells, which is used as an alternative to
+ * {@link RectTree} for collision handling. Each row of cells is packed into
+ * <code>long</code> values, so that overlaps can be detected using word-wide
+ * AND operations. In addition, a coarse summary of which blocks of
+ * {@link #BLOCK_SIZE}x{@link #BLOCK_SIZE} cells are partially or completely
+ * occupied is maintained, so that empty and full regions can be skipped
+ * quickly.
+ *
+ */
+public class CollisionMask {
+
+	/**
+	 * The number of cells (in each direction) that are summarized by a
+	 * single bit of the coarse summary level.
+	 */
+	public static final int BLOCK_SIZE = 8;
+
+	private static final int BLOCK_SHIFT = 3;
+
+	private static final long BLOCK_ROW = (1L << BLOCK_SIZE) - 1;
+
+	private final int width;
+
+	private final int height;
+
+	// number of longs per row of cells
+	private final int wordsPerRow;
+
+	private final long[] rows;
+
+	// number of longs per row of blocks
+	private final int blockWordsPerRow;
+
+	// blocks containing at least one occupied cell
+	private final long[] anyBlocks;
+
+	// blocks whose cells are all occupied
+	private final long[] fullBlocks;
+
+	// index of the first and last row that contains an occupied cell
+	private int minRow = Integer.MAX_VALUE;
+
+	private int maxRow = -1;
+
+	/**
+	 * Creates a new empty {@link CollisionMask} of the given size.
+	 *
+	 * @param width
+	 *            The number of cells per row.
+	 * @param height
+	 *            The number of rows.
+	 */
+	public CollisionMask(int width, int height) {
+		if (width < 0 || height < 0) {
+			throw new IllegalArgumentException("Size must not be negative, but was " + width + "x" + height);
+		}
+		this.width = width;
+		this.height = height;
+		wordsPerRow = (width + 63) >>> 6;
+		rows = new long[wordsPerRow * height];
+		int blockColumns = (width + BLOCK_SIZE - 1) >>> BLOCK_SHIFT;
+		int blockRows = (height + BLOCK_SIZE - 1) >>> BLOCK_SHIFT;
+		blockWordsPerRow = (blockColumns + 63) >>> 6;
+		anyBlocks = new long[blockWordsPerRow * blockRows];
+		fullBlocks = new long[blockWordsPerRow * blockRows];
+	}
+
+	/**
+	 * Marks all cells that are occupied in the given mask as occupied in this
+	 * mask, placing the given mask at the given cell position.
+	 *
+	 * @param mask
+	 *            The {@link CollisionMask} to add.
+	 * @param x
+	 *            The column at which to place the given mask.
+	 * @param y
+	 *            The row at which to place the given mask.
+	 */
+	public void add(CollisionMask mask, int x, int y) {
+		checkContains(mask, x, y);
+		if (mask.maxRow < 0) {
+			return;
+		}
+		int base = x >>> 6;
+		int shift = x & 63;
+		for (int r = mask.minRow; r <= mask.maxRow; r++) {
+			int i = (y + r) * wordsPerRow + base;
+			int j = r * mask.wordsPerRow;
+			for (int k = 0; k < mask.wordsPerRow; k++, i++, j++) {
+				long bits = mask.rows[j];
+				if (bits == 0) {
+					continue;
+				}
+				rows[i] |= bits << shift;
+				if (shift != 0) {
+					long high = bits >>> (64 - shift);
+					if (high != 0) {
+						rows[i + 1] |= high;
+					}
+				}
+			}
+		}
+		minRow = Math.min(minRow, y + mask.minRow);
+		maxRow = Math.max(maxRow, y + mask.maxRow);
+		updateBlocks(x, y + mask.minRow, x + mask.width - 1, y + mask.maxRow);
+	}
+
+	private void checkContains(CollisionMask mask, int x, int y) {
+		if (!contains(mask, x, y)) {
+			throw new IllegalArgumentException("Mask of size " + mask.width + "x" + mask.height + " at (" + x + ", "
+					+ y + ") exceeds bounds " + width + "x" + height);
+		}
+	}
+
+	/**
+	 * Tests whether the given mask, placed at the given cell position, lies
+	 * completely within the bounds of this mask.
+	 *
+	 * @param mask
+	 *            The {@link CollisionMask} to test.
+	 * @param x
+	 *            The column at which to place the given mask.
+	 * @param y
+	 *            The row at which to place the given mask.
+	 * @return <code>true</code> if the given mask lies within the bounds of
+	 *         this mask, <code>false</code> otherwise.
+	 */
+	public boolean contains(CollisionMask mask, int x, int y) {
+		return x >= 0 && y >= 0 && x + mask.width <= width && y + mask.height <= height;
+	}
+
+	/**
+	 * Returns the number of rows of this mask.
+	 *
+	 * @return The height of this mask.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the number of cells per row of this mask.
+	 *
+	 * @return The width of this mask.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Tests whether the given mask, placed at the given cell position,
+	 * overlaps with an occupied cell of this mask.
+	 *
+	 * @param mask
+	 *            The {@link CollisionMask} to test.
+	 * @param x
+	 *            The column at which to place the given mask.
+	 * @param y
+	 *            The row at which to place the given mask.
+	 * @return <code>true</code> if an occupied cell of the given mask
+	 *         overlaps with an occupied cell of this mask, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean intersects(CollisionMask mask, int x, int y) {
+		checkContains(mask, x, y);
+		if (mask.maxRow < 0 || maxRow < 0) {
+			return false;
+		}
+		int top = Math.max(y + mask.minRow, minRow);
+		int bottom = Math.min(y + mask.maxRow, maxRow);
+		if (top > bottom) {
+			return false;
+		}
+		int fromBlock = x >>> BLOCK_SHIFT;
+		int toBlock = (x + mask.width - 1) >>> BLOCK_SHIFT;
+		int base = x >>> 6;
+		int shift = x & 63;
+		// process the rows band by band, so that the summary can be used to
+		// skip empty bands and to reject full bands
+		int bandTop = top;
+		while (bandTop <= bottom) {
+			int band = bandTop >>> BLOCK_SHIFT;
+			int bandBottom = Math.min(bottom, (band << BLOCK_SHIFT) + BLOCK_SIZE - 1);
+			int blockRow = band * blockWordsPerRow;
+			if (anyInRange(anyBlocks, blockRow, fromBlock, toBlock)) {
+				if (allInRange(fullBlocks, blockRow, fromBlock, toBlock)) {
+					// every cell of the band is occupied, so any occupied cell
+					// of the mask within the band overlaps
+					if (mask.anyInRows(bandTop - y, bandBottom - y)) {
+						return true;
+					}
+					bandTop = bandBottom + 1;
+					continue;
+				}
+				for (int r = bandTop - y; r <= bandBottom - y; r++) {
+					int i = (y + r) * wordsPerRow + base;
+					int j = r * mask.wordsPerRow;
+					for (int k = 0; k < mask.wordsPerRow; k++, i++, j++) {
+						long bits = mask.rows[j];
+						if (bits == 0) {
+							continue;
+						}
+						if ((rows[i] & (bits << shift)) != 0) {
+							return true;
+						}
+						if (shift != 0) {
+							long high = bits >>> (64 - shift);
+							if (high != 0 && (rows[i + 1] & high) != 0) {
+								return true;
+							}
+						}
+					}
+				}
+			}
+			bandTop = bandBottom + 1;
+		}
+		return false;
+	}
+
+	private boolean anyInRows(int from, int to) {
+		for (int i = from * wordsPerRow; i < (to + 1) * wordsPerRow; i++) {
+			if (rows[i] != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Tests whether the given cell is occupied.
+	 *
+	 * @param x
+	 *            The column of the cell.
+	 * @param y
+	 *            The row of the cell.
+	 * @return <code>true</code> if the given cell is occupied,
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean isSet(int x, int y) {
+		return (rows[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+	}
+
+	/**
+	 * Marks the given cell as occupied.
+	 *
+	 * @param x
+	 *            The column of the cell.
+	 * @param y
+	 *            The row of the cell.
+	 */
+	public void set(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			throw new IndexOutOfBoundsException("Cell (" + x + ", " + y + ") exceeds bounds " + width + "x" + height);
+		}
+		rows[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+		minRow = Math.min(minRow, y);
+		maxRow = Math.max(maxRow, y);
+		updateBlocks(x, y, x, y);
+	}
+
+	/**
+	 * Returns the column of the next occupied cell in the given row, starting
+	 * at the given column (inclusive).
+	 *
+	 * @param x
+	 *            The column from which to start searching.
+	 * @param y
+	 *            The row in which to search.
+	 * @return The column of the next occupied cell, or <code>-1</code> if
+	 *         there is no further occupied cell in the given row.
+	 */
+	public int nextSet(int x, int y) {
+		if (x >= width) {
+			return -1;
+		}
+		int i = x >>> 6;
+		int offset = y * wordsPerRow;
+		long bits = rows[offset + i] & (-1L << x);
+		while (bits == 0) {
+			if (++i == wordsPerRow) {
+				return -1;
+			}
+			bits = rows[offset + i];
+		}
+		return (i << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * Removes all occupied cells.
+	 */
+	public void clear() {
+		Arrays.fill(rows, 0);
+		Arrays.fill(anyBlocks, 0);
+		Arrays.fill(fullBlocks, 0);
+		minRow = Integer.MAX_VALUE;
+		maxRow = -1;
+	}
+
+	/*
+	 * Recomputes the summary of all blocks that intersect the given range of
+	 * cells.
+	 */
+	private void updateBlocks(int x1, int y1, int x2, int y2) {
+		for (int by = y1 >>> BLOCK_SHIFT; by <= y2 >>> BLOCK_SHIFT; by++) {
+			int rowFrom = by << BLOCK_SHIFT;
+			int rowTo = Math.min(height, rowFrom + BLOCK_SIZE);
+			for (int bx = x1 >>> BLOCK_SHIFT; bx <= x2 >>> BLOCK_SHIFT; bx++) {
+				int column = bx << BLOCK_SHIFT;
+				// the cells of a block are contained in a single long per row,
+				// as the number of bits of a long is a multiple of the block
+				// size; cells beyond the last column are ignored
+				long expected = BLOCK_ROW;
+				if (column + BLOCK_SIZE > width) {
+					expected = (1L << (width - column)) - 1;
+				}
+				boolean any = false;
+				boolean full = true;
+				for (int r = rowFrom; r < rowTo; r++) {
+					long cells = (rows[r * wordsPerRow + (column >>> 6)] >>> (column & 63)) & expected;
+					any |= cells != 0;
+					full &= cells == expected;
+				}
+				int i = by * blockWordsPerRow + (bx >>> 6);
+				long bit = 1L << bx;
+				anyBlocks[i] = any ? anyBlocks[i] | bit : anyBlocks[i] & ~bit;
+				fullBlocks[i] = full ? fullBlocks[i] | bit : fullBlocks[i] & ~bit;
+			}
+		}
+	}
+
+	private static long rangeMask(int index, int from, int to) {
+		// the bits of the given long (index) that lie within [from, to]
+		int first = Math.max(from, index << 6) & 63;
+		int last = Math.min(to, (index << 6) + 63) & 63;
+		return (-1L << first) & (-1L >>> (63 - last));
+	}
+
+	private static boolean anyInRange(long[] bits, int offset, int from, int to) {
+		for (int i = from >>> 6; i <= to >>> 6; i++) {
+			if ((bits[offset + i] & rangeMask(i, from, to)) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean allInRange(long[] bits, int offset, int from, int to) {
+		for (int i = from >>> 6; i <= to >>> 6; i++) {
+			long mask = rangeMask(i, from, to);
+			if ((bits[offset + i] & mask) != mask) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
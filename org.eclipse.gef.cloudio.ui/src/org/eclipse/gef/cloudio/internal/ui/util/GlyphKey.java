@@ -0,0 +1,134 @@
+/******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.cloudio.internal.ui.util;
+
+/**
+ * Identifies the rendering of a string, i.e. the string together with the
+ * font (name, style and size) and the angle it is drawn with. Strings that
+ * share a {@link GlyphKey} share the same {@link GlyphMask}.
+ *
+ */
+public final class GlyphKey {
+
+	private final String string;
+
+	private final String fontName;
+
+	private final int fontStyle;
+
+	private final int fontSize;
+
+	private final float angle;
+
+	/**
+	 * Creates a new {@link GlyphKey}.
+	 *
+	 * @param string
+	 *            The string to render.
+	 * @param fontName
+	 *            The name of the font, or a comma-separated list of font names
+	 *            in order of preference.
+	 * @param fontStyle
+	 *            The style of the font, a combination of <code>BOLD</code>
+	 *            (<code>1</code>) and <code>ITALIC</code> (<code>2</code>).
+	 * @param fontSize
+	 *            The size of the font, in points.
+	 * @param angle
+	 *            The angle (in degrees) the string is rotated by.
+	 */
+	public GlyphKey(String string, String fontName, int fontStyle, int fontSize, float angle) {
+		if (string == null || fontName == null) {
+			throw new IllegalArgumentException("String and font name must not be null");
+		}
+		this.string = string;
+		this.fontName = fontName;
+		this.fontStyle = fontStyle;
+		this.fontSize = fontSize;
+		this.angle = angle;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof GlyphKey)) {
+			return false;
+		}
+		GlyphKey other = (GlyphKey) obj;
+		return fontStyle == other.fontStyle && fontSize == other.fontSize
+				&& Float.floatToIntBits(angle) == Float.floatToIntBits(other.angle) && string.equals(other.string)
+				&& fontName.equals(other.fontName);
+	}
+
+	/**
+	 * Returns the angle (in degrees) the string is rotated by.
+	 *
+	 * @return The angle of the string.
+	 */
+	public float getAngle() {
+		return angle;
+	}
+
+	/**
+	 * Returns the name of the font, or a comma-separated list of font names in
+	 * order of preference.
+	 *
+	 * @return The font name.
+	 */
+	public String getFontName() {
+		return fontName;
+	}
+
+	/**
+	 * Returns the size of the font, in points.
+	 *
+	 * @return The font size.
+	 */
+	public int getFontSize() {
+		return fontSize;
+	}
+
+	/**
+	 * Returns the style of the font.
+	 *
+	 * @return The font style.
+	 */
+	public int getFontStyle() {
+		return fontStyle;
+	}
+
+	/**
+	 * Returns the string to render.
+	 *
+	 * @return The string.
+	 */
+	public String getString() {
+		return string;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = string.hashCode();
+		result = 31 * result + fontName.hashCode();
+		result = 31 * result + fontStyle;
+		result = 31 * result + fontSize;
+		result = 31 * result + Float.floatToIntBits(angle);
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "GlyphKey(" + string + ", " + fontName + ", " + fontStyle + ", " + fontSize + ", " + angle + ")";
+	}
+
+}
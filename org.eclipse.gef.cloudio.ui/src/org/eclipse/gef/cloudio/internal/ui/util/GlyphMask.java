@@ -0,0 +1,119 @@
+/******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.cloudio.internal.ui.util;
+
+/**
+ * The rasterized shape of a rendered string (see {@link GlyphKey}), which is
+ * independent of any graphics toolkit. It consists of the bounds of the
+ * (rotated) string, the extent of the unrotated string, and a
+ * {@link CollisionMask} of the occupied cells, with one cell per
+ * <code>accuracy</code> pixels.
+ * <p>
+ * A {@link GlyphMask} must not be modified once it has been created, so that
+ * it can be shared between words and between layouts.
+ *
+ */
+public class GlyphMask {
+
+	private final int width;
+
+	private final int height;
+
+	private final int extentWidth;
+
+	private final int extentHeight;
+
+	private final int accuracy;
+
+	private final CollisionMask cells;
+
+	/**
+	 * Creates a new {@link GlyphMask}.
+	 *
+	 * @param width
+	 *            The width (in pixels) of the bounds of the rotated string.
+	 * @param height
+	 *            The height (in pixels) of the bounds of the rotated string.
+	 * @param extentWidth
+	 *            The width (in pixels) of the unrotated string.
+	 * @param extentHeight
+	 *            The height (in pixels) of the unrotated string.
+	 * @param accuracy
+	 *            The number of pixels (in each direction) per cell.
+	 * @param cells
+	 *            The occupied cells, which is not copied.
+	 */
+	public GlyphMask(int width, int height, int extentWidth, int extentHeight, int accuracy, CollisionMask cells) {
+		this.width = width;
+		this.height = height;
+		this.extentWidth = extentWidth;
+		this.extentHeight = extentHeight;
+		this.accuracy = accuracy;
+		this.cells = cells;
+	}
+
+	/**
+	 * Returns the number of pixels (in each direction) per cell.
+	 *
+	 * @return The accuracy of this mask.
+	 */
+	public int getAccuracy() {
+		return accuracy;
+	}
+
+	/**
+	 * Returns the occupied cells. The returned {@link CollisionMask} is shared
+	 * and must not be modified.
+	 *
+	 * @return The occupied cells.
+	 */
+	public CollisionMask getCells() {
+		return cells;
+	}
+
+	/**
+	 * Returns the height (in pixels) of the unrotated string.
+	 *
+	 * @return The height of the string extent.
+	 */
+	public int getExtentHeight() {
+		return extentHeight;
+	}
+
+	/**
+	 * Returns the width (in pixels) of the unrotated string.
+	 *
+	 * @return The width of the string extent.
+	 */
+	public int getExtentWidth() {
+		return extentWidth;
+	}
+
+	/**
+	 * Returns the height (in pixels) of the bounds of the rotated string.
+	 *
+	 * @return The height of this mask.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the width (in pixels) of the bounds of the rotated string.
+	 *
+	 * @return The width of this mask.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+}
@@ -0,0 +1,154 @@
+/******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.cloudio.internal.ui.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A thread-safe cache of {@link GlyphMask}s, which are rendered by an
+ * {@link IGlyphRasterizer} on demand. As a {@link GlyphMask} only depends on
+ * its {@link GlyphKey}, masks can be reused across layouts, so that only
+ * strings whose font size or angle changed need to be rendered again.
+ *
+ */
+public class GlyphMaskCache {
+
+	/**
+	 * The default maximum number of cached masks.
+	 */
+	public static final int DEFAULT_LIMIT = 8192;
+
+	private final IGlyphRasterizer rasterizer;
+
+	private final int accuracy;
+
+	// access-ordered, so that the least recently used mask is evicted once the
+	// limit is exceeded; guarded by itself
+	private final Map<GlyphKey, GlyphMask> masks;
+
+	/**
+	 * Creates a new {@link GlyphMaskCache} with the {@link #DEFAULT_LIMIT}.
+	 *
+	 * @param rasterizer
+	 *            The {@link IGlyphRasterizer} used to render missing masks.
+	 * @param accuracy
+	 *            The number of pixels (in each direction) per cell of the
+	 *            masks.
+	 */
+	public GlyphMaskCache(IGlyphRasterizer rasterizer, int accuracy) {
+		this(rasterizer, accuracy, DEFAULT_LIMIT);
+	}
+
+	/**
+	 * Creates a new {@link GlyphMaskCache}. If the given number of masks is
+	 * exceeded, the least recently used mask is evicted.
+	 *
+	 * @param rasterizer
+	 *            The {@link IGlyphRasterizer} used to render missing masks.
+	 * @param accuracy
+	 *            The number of pixels (in each direction) per cell of the
+	 *            masks.
+	 * @param limit
+	 *            The maximum number of cached masks.
+	 */
+	public GlyphMaskCache(IGlyphRasterizer rasterizer, int accuracy, int limit) {
+		if (rasterizer == null) {
+			throw new IllegalArgumentException("Rasterizer must not be null");
+		}
+		if (accuracy <= 0 || limit <= 0) {
+			throw new IllegalArgumentException(
+					"Accuracy and limit must be greater than 0, but were " + accuracy + " and " + limit);
+		}
+		this.rasterizer = rasterizer;
+		this.accuracy = accuracy;
+		masks = new LinkedHashMap<GlyphKey, GlyphMask>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<GlyphKey, GlyphMask> eldest) {
+				return size() > limit;
+			}
+		};
+	}
+
+	/**
+	 * Removes all cached masks, e.g. because rendering parameters of the
+	 * {@link IGlyphRasterizer} changed.
+	 */
+	public void clear() {
+		synchronized (masks) {
+			masks.clear();
+		}
+	}
+
+	/**
+	 * Returns the {@link GlyphMask} for the given {@link GlyphKey}, which is
+	 * rendered if it is not cached yet.
+	 *
+	 * @param key
+	 *            The {@link GlyphKey} to retrieve the mask for.
+	 * @return The {@link GlyphMask} for the given key.
+	 */
+	public GlyphMask get(GlyphKey key) {
+		GlyphMask mask;
+		synchronized (masks) {
+			mask = masks.get(key);
+		}
+		if (mask == null) {
+			// masks are rendered outside of the lock, so that the rendering of
+			// different strings is not serialized; if the same string is
+			// rendered concurrently, the first result wins
+			mask = rasterizer.rasterize(key, accuracy);
+			synchronized (masks) {
+				GlyphMask existing = masks.get(key);
+				if (existing != null) {
+					mask = existing;
+				} else {
+					masks.put(key, mask);
+				}
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns the number of pixels (in each direction) per cell of the masks.
+	 *
+	 * @return The accuracy of the masks.
+	 */
+	public int getAccuracy() {
+		return accuracy;
+	}
+
+	/**
+	 * Returns the {@link IGlyphRasterizer} that is used to render missing
+	 * masks.
+	 *
+	 * @return The {@link IGlyphRasterizer} of this cache.
+	 */
+	public IGlyphRasterizer getRasterizer() {
+		return rasterizer;
+	}
+
+	/**
+	 * Returns the number of cached masks.
+	 *
+	 * @return The number of cached masks.
+	 */
+	public int size() {
+		synchronized (masks) {
+			return masks.size();
+		}
+	}
+
+}
@@ -0,0 +1,34 @@
+/******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.cloudio.internal.ui.util;
+
+/**
+ * Renders strings into {@link GlyphMask}s. Implementations have to be
+ * thread-safe, as the strings of a cloud are rasterized in parallel.
+ *
+ */
+public interface IGlyphRasterizer {
+
+	/**
+	 * Renders the string described by the given {@link GlyphKey} and returns
+	 * its {@link GlyphMask}.
+	 *
+	 * @param key
+	 *            The {@link GlyphKey} describing the string to render.
+	 * @param accuracy
+	 *            The number of pixels (in each direction) per cell of the
+	 *            resulting mask.
+	 * @return The {@link GlyphMask} of the given string.
+	 */
+	public GlyphMask rasterize(GlyphKey key, int accuracy);
+
+}
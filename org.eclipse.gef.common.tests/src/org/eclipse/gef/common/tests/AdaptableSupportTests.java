@@ -17,6 +17,9 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.gef.common.adapt.AdaptableSupport;
@@ -27,6 +30,7 @@ import org.junit.Test;
 import com.google.common.reflect.TypeToken;
 
 import javafx.beans.property.ReadOnlyMapProperty;
+import javafx.collections.MapChangeListener;
 import javafx.collections.ObservableMap;
 
 public class AdaptableSupportTests {
@@ -130,6 +134,65 @@ public class AdaptableSupportTests {
 	private class ParameterType2 extends Object {
 	}
 
+	@Test
+	public void lookupCacheInvalidation() {
+		AdaptableSupportWrapper td = new AdaptableSupportWrapper();
+
+		// lookups without a matching adapter are cached as well
+		assertNull(td.getAdapter(ParameterType1.class));
+
+		ParameterType1 adapter1 = new ParameterType1();
+		td.setAdapter(adapter1);
+		assertEquals(adapter1, td.getAdapter(ParameterType1.class));
+		assertEquals(adapter1, td.getAdapter(Object.class));
+		assertEquals(adapter1, td.getAdapter(AdapterKey.get(Object.class)));
+
+		// registering another adapter renders the lookup ambiguous
+		ParameterType2 adapter2 = new ParameterType2();
+		td.setAdapter(adapter2, "r2");
+		assertEquals(adapter1, td.getAdapter(ParameterType1.class));
+		assertEquals(adapter2, td.getAdapter(ParameterType2.class));
+		// fall back to the default role
+		assertEquals(adapter1, td.getAdapter(Object.class));
+		assertNull(td.getAdapter(AdapterKey.get(ParameterType2.class)));
+		assertEquals(adapter2,
+				td.getAdapter(AdapterKey.get(ParameterType2.class, "r2")));
+
+		// unregistering the adapter has to be reflected by subsequent lookups
+		td.unsetAdapter(adapter1);
+		assertNull(td.getAdapter(ParameterType1.class));
+		assertEquals(adapter2, td.getAdapter(Object.class));
+		assertNull(td.getAdapter(AdapterKey.get(Object.class)));
+
+		td.clear();
+		assertNull(td.getAdapter(ParameterType2.class));
+		assertNull(td.getAdapter(Object.class));
+	}
+
+	@Test
+	public void lookupCacheInvalidationDuringChangeNotification() {
+		final AdaptableSupportWrapper td = new AdaptableSupportWrapper();
+		final List<Object> lookups = new ArrayList<>();
+		td.adaptersProperty().addListener(
+				new MapChangeListener<AdapterKey<?>, Object>() {
+					@Override
+					public void onChanged(
+							MapChangeListener.Change<? extends AdapterKey<?>, ? extends Object> change) {
+						lookups.add(td.getAdapter(ParameterType1.class));
+					}
+				});
+
+		// cache a lookup without a matching adapter
+		assertNull(td.getAdapter(ParameterType1.class));
+
+		// listeners have to obtain (and may cache) the changed adapters
+		ParameterType1 adapter = new ParameterType1();
+		td.setAdapter(adapter);
+		td.unsetAdapter(adapter);
+		assertEquals(Arrays.asList(adapter, null), lookups);
+		assertNull(td.getAdapter(ParameterType1.class));
+	}
+
 	@SuppressWarnings({ "serial", "rawtypes" })
 	@Test
 	public void registrationWithAdapterTypeOnly() {
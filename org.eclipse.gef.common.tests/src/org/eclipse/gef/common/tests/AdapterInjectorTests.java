@@ -13,7 +13,9 @@
 package org.eclipse.gef.common.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.InvocationTargetException;
@@ -538,6 +540,52 @@ public class AdapterInjectorTests {
 				}, role3)));
 	}
 
+	/**
+	 * Tests that adapters are injected into each instance of an adaptable type
+	 * (and only into those with a matching context), when the same adapter
+	 * map bindings are evaluated for many instances.
+	 */
+	@Test
+	public void injectAdaptersToMultipleInstances() {
+		Module module = new AbstractModule() {
+			@Override
+			protected void configure() {
+				install(new AdapterInjectionSupport());
+
+				MapBinder<AdapterKey<?>, Object> adapterMapBinder = AdapterMaps
+						.getAdapterMapBinder(binder(), AdapterStore.class);
+				adapterMapBinder.addBinding(AdapterKey.role("a1"))
+						.to(AdapterStoreBoundAdaptable.class);
+				adapterMapBinder.addBinding(AdapterKey.role("a2"))
+						.to(AdapterStoreBoundAdaptable.class);
+
+				// only bound to the adaptable of the first role
+				AdapterMaps
+						.getAdapterMapBinder(binder(),
+								AdapterStoreBoundAdaptable.class,
+								AdapterKey.get(AdapterStoreBoundAdaptable.class,
+										"a1"))
+						.addBinding(AdapterKey.defaultRole()).to(RawType.class);
+			}
+		};
+		Injector injector = Guice.createInjector(module);
+		List<RawType> rawTypes = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			AdapterStore adapterStore = new AdapterStore();
+			injector.injectMembers(adapterStore);
+			AdapterStoreBoundAdaptable a1 = adapterStore.getAdapter(
+					AdapterKey.get(AdapterStoreBoundAdaptable.class, "a1"));
+			AdapterStoreBoundAdaptable a2 = adapterStore.getAdapter(
+					AdapterKey.get(AdapterStoreBoundAdaptable.class, "a2"));
+			assertNotNull(a1);
+			assertNotNull(a2);
+			assertNotNull(a1.getAdapter(RawType.class));
+			assertNull(a2.getAdapter(RawType.class));
+			assertFalse(rawTypes.contains(a1.getAdapter(RawType.class)));
+			rawTypes.add(a1.getAdapter(RawType.class));
+		}
+	}
+
 	protected List<String> performInjection(AdapterStore adaptable,
 			Module module) throws NoSuchMethodException, IllegalAccessException,
 			InvocationTargetException {
@@ -247,11 +247,9 @@ public class ObservableListTests {
 				assertEquals(expectedString.toString(), change.toString());
 			}
 
-			// check previous value of change (only in case of JavaFX change)
-			if (!(change instanceof AtomicChange)) {
-				assertEquals(previousValue,
-						CollectionUtils.getPreviousContents(change));
-			}
+			// check previous value of change
+			assertEquals(previousValue,
+					CollectionUtils.getPreviousContents(change));
 		}
 	}
 
@@ -1026,6 +1024,140 @@ public class ObservableListTests {
 		observable.addListener(listChangeListener);
 	}
 
+	/**
+	 * Confirm that the previous contents of changes (which are reconstructed
+	 * lazily) are correct, even if they are requested after the list has been
+	 * changed further.
+	 */
+	@Test
+	public void previousContentsOfRetainedChanges() {
+		assumeTrue(
+				"Skip for all except ObservableListWrapperEx, SimpleListPropertyEx, or ReadOnlyListWrapperEx",
+				observable.getClass().getSimpleName()
+						.equals("ObservableListWrapperEx")
+						|| observable instanceof SimpleListPropertyEx
+						|| observable instanceof ReadOnlyListWrapperEx);
+
+		final List<ListChangeListener.Change<? extends Integer>> changes = new ArrayList<>();
+		final List<List<Integer>> snapshots = new ArrayList<>();
+		snapshots.add(new ArrayList<>(observable));
+		observable.addListener(new ListChangeListener<Integer>() {
+			@Override
+			public void onChanged(
+					ListChangeListener.Change<? extends Integer> change) {
+				changes.add(change);
+				snapshots.add(new ArrayList<>(observable));
+			}
+		});
+
+		for (int i = 0; i < 10; i++) {
+			observable.add(i);
+		}
+		observable.add(3, 42);
+		observable.addAll(Arrays.asList(7, 8));
+		observable.addAll(2, Arrays.asList(5, 6));
+		observable.remove(4);
+		observable.remove(Integer.valueOf(7));
+		observable.remove(1, 3);
+		observable.set(0, 13);
+		observable.removeAll(8, 9);
+		CollectionUtils.sort(observable);
+		observable.retainAll(0, 2, 4, 6, 8, 13);
+		observable.setAll(1, 2, 3);
+		observable.add(4);
+		observable.clear();
+		observable.add(5);
+
+		assertEquals(snapshots.size() - 1, changes.size());
+		// check the oldest change first, so that all subsequent changes have
+		// to be reverted to reconstruct its previous contents
+		for (int i = 0; i < changes.size(); i++) {
+			assertEquals(snapshots.get(i),
+					CollectionUtils.getPreviousContents(changes.get(i)));
+		}
+	}
+
+	/**
+	 * Confirm that the previous contents of a retained change are correct
+	 * after a long sequence of subsequent changes (of which the chain of
+	 * lazily reconstructed changes is cut off).
+	 */
+	@Test
+	public void previousContentsOfRetainedChangeAfterManyChanges() {
+		assumeTrue(
+				"Skip for all except ObservableListWrapperEx, SimpleListPropertyEx, or ReadOnlyListWrapperEx",
+				observable.getClass().getSimpleName()
+						.equals("ObservableListWrapperEx")
+						|| observable instanceof SimpleListPropertyEx
+						|| observable instanceof ReadOnlyListWrapperEx);
+
+		final List<ListChangeListener.Change<? extends Integer>> changes = new ArrayList<>();
+		final List<List<Integer>> snapshots = new ArrayList<>();
+		observable.addListener(new ListChangeListener<Integer>() {
+			@Override
+			public void onChanged(
+					ListChangeListener.Change<? extends Integer> change) {
+				// only retain every 100th change
+				if (observable.size() % 100 == 1) {
+					changes.add(change);
+					snapshots.add(new ArrayList<>(observable.subList(0,
+							observable.size() - 1)));
+				}
+			}
+		});
+
+		for (int i = 0; i < 1000; i++) {
+			observable.add(i);
+		}
+		assertEquals(10, changes.size());
+		for (int i = 0; i < changes.size(); i++) {
+			assertEquals(snapshots.get(i),
+					CollectionUtils.getPreviousContents(changes.get(i)));
+		}
+	}
+
+	/**
+	 * Confirm that the previous contents of retained changes are not captured
+	 * eagerly so often that appending elements takes quadratic time.
+	 */
+	@Test
+	public void previousContentsOfRetainedChangesAreCapturedRarely() {
+		assumeTrue("Skip for all except ObservableListWrapperEx",
+				observable.getClass().getSimpleName()
+						.equals("ObservableListWrapperEx"));
+
+		// count the elements that are copied from the backing list
+		final int[] copied = new int[1];
+		ObservableList<Integer> list = CollectionUtils
+				.observableList(new ArrayList<Integer>() {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					public Object[] toArray() {
+						copied[0] += size();
+						return super.toArray();
+					}
+				});
+		final List<ListChangeListener.Change<? extends Integer>> changes = new ArrayList<>();
+		list.addListener(new ListChangeListener<Integer>() {
+			@Override
+			public void onChanged(
+					ListChangeListener.Change<? extends Integer> change) {
+				changes.add(change);
+			}
+		});
+
+		int count = 10000;
+		for (int i = 0; i < count; i++) {
+			list.add(i);
+		}
+		assertTrue(copied[0] < 4 * count);
+		for (int i : new int[] { 0, 1, count / 3, count - 1 }) {
+			assertEquals(list.subList(0, i),
+					CollectionUtils.getPreviousContents(changes.get(i)));
+		}
+	}
+
 	@Test
 	public void remove() {
 		// initialize list with some values
@@ -14,7 +14,6 @@ package org.eclipse.gef.common.adapt;
 import java.beans.PropertyChangeSupport;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -51,6 +50,13 @@ public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 	private ReadOnlyMapWrapperEx<AdapterKey<?>, Object> adaptersUnmodifiableProperty;
 	private A source;
 
+	// caches for the results of adapter lookups, which are invalidated
+	// whenever an adapter is registered or unregistered; results for type
+	// keys are stored per role, using null for lookups that ignore the role
+	private static final Object NO_ADAPTER = new Object();
+	private final Map<Class<?>, Object> classLookupCache = new HashMap<>();
+	private final Map<TypeToken<?>, Map<String, Object>> lookupCache = new HashMap<>();
+
 	/**
 	 * Creates a new {@link AdaptableSupport} for the given source
 	 * {@link IAdaptable} and a related {@link PropertyChangeSupport}.
@@ -93,6 +99,7 @@ public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 	public void dispose() {
 		Map<AdapterKey<?>, Object> oldAdapters = new HashMap<>(adapters);
 		for (AdapterKey<?> key : oldAdapters.keySet()) {
+			invalidateLookupCaches();
 			Object adapter = adapters.remove(key);
 			if (adapter != null) {
 				// unbind adapter (if its bound)
@@ -107,10 +114,43 @@ public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 			}
 		}
 
+		invalidateLookupCaches();
 		adapters.clear();
 		source = null;
 	}
 
+	/**
+	 * Returns the cached result of an adapter lookup for the given type key
+	 * and role, or <code>null</code> if no result is cached.
+	 */
+	private Object getCachedLookup(TypeToken<?> key, String role) {
+		Map<String, Object> lookupsPerRole = lookupCache.get(key);
+		return lookupsPerRole == null ? null : lookupsPerRole.get(role);
+	}
+
+	/**
+	 * Returns the single adapter (instance) that is registered under a key
+	 * that matches the given type key and role (any role if <code>null</code>
+	 * is passed in), {@link #NO_ADAPTER} if there is none, or
+	 * <code>null</code> if the adapter is ambiguous.
+	 */
+	private Object findUnambiguousAdapter(TypeToken<?> typeKey, String role) {
+		Object match = NO_ADAPTER;
+		for (Map.Entry<AdapterKey<?>, Object> entry : adapters.entrySet()) {
+			AdapterKey<?> k = entry.getKey();
+			if ((role == null || k.getRole().equals(role))
+					&& Types.isAssignable(typeKey, k.getKey())) {
+				// an adapter instance may be registered under different keys
+				if (match == NO_ADAPTER) {
+					match = entry.getValue();
+				} else if (!match.equals(entry.getValue())) {
+					return null;
+				}
+			}
+		}
+		return match;
+	}
+
 	/**
 	 * Returns an adapter for the given {@link AdapterKey} if one can
 	 * unambiguously be retrieved, i.e. if there is only a single adapter
@@ -126,22 +166,22 @@ public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 	 *
 	 * @see IAdaptable#getAdapter(AdapterKey)
 	 */
+	@SuppressWarnings("unchecked")
 	public <T> T getAdapter(AdapterKey<T> key) {
 		if (adapters.isEmpty()) {
 			return null;
 		}
 
-		// see if we can unambiguously retrieve a matching adapter
-		Map<AdapterKey<? extends T>, T> adaptersForTypeKey = getAdapters(
-				key.getKey(), key.getRole());
-
-		// an adapter instance may be registered under different keys
-		int adapterCount = new HashSet<>(adaptersForTypeKey.values()).size();
-		if (adapterCount == 1) {
-			return adaptersForTypeKey.values().iterator().next();
+		Object adapter = getCachedLookup(key.getKey(), key.getRole());
+		if (adapter == null) {
+			// see if we can unambiguously retrieve a matching adapter
+			adapter = findUnambiguousAdapter(key.getKey(), key.getRole());
+			if (adapter == null) {
+				adapter = NO_ADAPTER;
+			}
+			putCachedLookup(key.getKey(), key.getRole(), adapter);
 		}
-
-		return null;
+		return adapter == NO_ADAPTER ? null : (T) adapter;
 	}
 
 	/**
@@ -160,8 +200,15 @@ public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 	 *
 	 * @see IAdaptable#getAdapter(Class)
 	 */
+	@SuppressWarnings("unchecked")
 	public <T> T getAdapter(Class<T> key) {
-		return this.<T> getAdapter(TypeToken.of(key));
+		// fast path, which does not require to create a type key
+		Object adapter = classLookupCache.get(key);
+		if (adapter == null) {
+			adapter = this.<T> getAdapter(TypeToken.of(key));
+			classLookupCache.put(key, adapter == null ? NO_ADAPTER : adapter);
+		}
+		return adapter == NO_ADAPTER ? null : (T) adapter;
 	}
 
 	/**
@@ -182,26 +229,27 @@ public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 	 *
 	 * @see IAdaptable#getAdapter(TypeToken)
 	 */
+	@SuppressWarnings("unchecked")
 	public <T> T getAdapter(TypeToken<T> key) {
-		// if we have only one adapter (instance) for the given type key
-		// (disregarding the
-		// role), return this one
-		Map<AdapterKey<? extends T>, T> adaptersForTypeKey = getAdapters(key,
-				null);
-
-		// an adapter instance may be registered under different keys
-		int adapterCount = new HashSet<>(adaptersForTypeKey.values()).size();
-		if (adapterCount == 1) {
-			return adaptersForTypeKey.values().iterator().next();
+		if (key == null) {
+			throw new IllegalArgumentException("typeKey may not be null");
 		}
-
-		if (adapterCount > 1) {
-			// if we have more than one adapter instance, try to retrieve one
-			// unambiguously by using the default role
-			return getAdapter(AdapterKey.get(key, AdapterKey.DEFAULT_ROLE));
+		Object adapter = getCachedLookup(key, null);
+		if (adapter == null) {
+			// if we have only one adapter (instance) for the given type key
+			// (disregarding the role), return this one
+			adapter = findUnambiguousAdapter(key, null);
+			if (adapter == null) {
+				// if we have more than one adapter instance, try to retrieve
+				// one unambiguously by using the default role
+				adapter = findUnambiguousAdapter(key, AdapterKey.DEFAULT_ROLE);
+				if (adapter == null) {
+					adapter = NO_ADAPTER;
+				}
+			}
+			putCachedLookup(key, null, adapter);
 		}
-
-		return null;
+		return adapter == NO_ADAPTER ? null : (T) adapter;
 	}
 
 	/**
@@ -297,29 +345,24 @@ public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 		return typeSafeAdapters;
 	}
 
-	@SuppressWarnings("unchecked")
-	private <T> Map<AdapterKey<? extends T>, T> getAdapters(
-			TypeToken<? super T> typeKey, String role) {
-		if (typeKey == null) {
-			throw new IllegalArgumentException("typeKey may not be null");
-		}
-		if (adapters.isEmpty()) {
-			return Collections.emptyMap();
-		}
-
-		Map<AdapterKey<? extends T>, T> typeSafeAdapters = new TreeMap<>();
-		for (AdapterKey<?> k : adapters.keySet()) {
-			if (role == null || k.getRole().equals(role)) {
-				// return all adapters assignable to the given type
-				// key
-				if (Types.isAssignable(typeKey, k.getKey())) {
-					typeSafeAdapters.put((AdapterKey<? extends T>) k,
-							(T) adapters.get(k));
+	/**
+	 * Clears the cached lookups. Has to be called right before the adapters
+	 * are changed, so that listeners, which are notified about the change,
+	 * do not obtain (and thereby re-cache) outdated lookups.
+	 */
+	private void invalidateLookupCaches() {
+		classLookupCache.clear();
+		lookupCache.clear();
+	}
 
-				}
-			}
+	private void putCachedLookup(TypeToken<?> key, String role,
+			Object adapter) {
+		Map<String, Object> lookupsPerRole = lookupCache.get(key);
+		if (lookupsPerRole == null) {
+			lookupsPerRole = new HashMap<>();
+			lookupCache.put(key, lookupsPerRole);
 		}
-		return typeSafeAdapters;
+		lookupsPerRole.put(role, adapter);
 	}
 
 	/**
@@ -426,6 +469,7 @@ public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 			}
 		}
 
+		invalidateLookupCaches();
 		adapters.put(key, adapter);
 
 		if (adapter instanceof IAdaptable.Bound) {
@@ -456,6 +500,7 @@ public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 		// process all keys and remove those pointing to the given adapter
 		for (AdapterKey<?> key : new HashMap<>(adapters).keySet()) {
 			if (adapters.get(key) == adapter) {
+				invalidateLookupCaches();
 				adapters.remove(key);
 			}
 		}
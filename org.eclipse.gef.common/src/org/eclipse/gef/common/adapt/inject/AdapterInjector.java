@@ -16,7 +16,9 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 
 import org.eclipse.gef.common.adapt.AdapterKey;
@@ -79,6 +81,25 @@ import javafx.beans.value.ObservableValue;
  */
 public class AdapterInjector implements MembersInjector<IAdaptable> {
 
+	/**
+	 * An entry of an injection plan, i.e. an adapter binding of an applicable
+	 * adapter map binding, together with the adapter type that could be
+	 * inferred from it.
+	 */
+	private static class AdapterBindingPlan {
+
+		private final AdapterKey<?> adapterKey;
+		private final Binding<?> binding;
+		private final TypeToken<?> bindingInferredType;
+
+		public AdapterBindingPlan(AdapterKey<?> adapterKey, Binding<?> binding,
+				TypeToken<?> bindingInferredType) {
+			this.adapterKey = adapterKey;
+			this.binding = binding;
+			this.bindingInferredType = bindingInferredType;
+		}
+	}
+
 	private BindingTargetVisitor<Object, TypeToken<?>> ADAPTER_TYPE_INFERRER = new BindingTargetVisitor<Object, TypeToken<?>>() {
 
 		@Override
@@ -214,6 +235,10 @@ public class AdapterInjector implements MembersInjector<IAdaptable> {
 
 	private LoggingMode loggingMode;
 
+	// the injection plans per adaptable context (see getAdaptableContext()),
+	// which have to be re-computed when the injector changes
+	private final Map<List<Object>, List<AdapterBindingPlan>> injectionPlans = new HashMap<>();
+
 	/**
 	 * Creates a new {@link AdapterInjector} to inject the given {@link Method},
 	 * annotated with the given {@link AdapterMap} method annotation.
@@ -233,6 +258,90 @@ public class AdapterInjector implements MembersInjector<IAdaptable> {
 		this.loggingMode = loggingMode;
 	}
 
+	/**
+	 * Determines the adapter map bindings that are applicable to adaptables
+	 * with the given context, and infers the types of the adapters bound by
+	 * them.
+	 *
+	 * @param adaptableContext
+	 *            The adaptable context, as returned by
+	 *            {@link #getAdaptableContext(IAdaptable)}.
+	 * @return A list of {@link AdapterBindingPlan}s, in the order in which
+	 *         the adapters are to be injected.
+	 */
+	private List<AdapterBindingPlan> createInjectionPlan(
+			List<Object> adaptableContext) {
+		Class<?> adaptableType = (Class<?>) adaptableContext.get(0);
+		List<AdapterBindingPlan> injectionPlan = new ArrayList<>();
+		// check which bindings are applicable
+		for (final Entry<Key<?>, Binding<?>> entry : injector.getAllBindings()
+				.entrySet()) {
+			// keep track of the applicable adapter map binding (so it can be
+			// used for injection later)
+			MapBinderBinding<?> adapterMapBinding = null;
+
+			// only consider bindings that are qualified by an AdapterMap
+			// binding annotation.
+			Key<?> key = entry.getKey();
+			Binding<?> binding = entry.getValue();
+
+			if ((key.getAnnotationType() != null)
+					&& AdapterMap.class.equals(key.getAnnotationType())) {
+				final AdapterMap keyAnnotation = (AdapterMap) key
+						.getAnnotation();
+				if (keyAnnotation.adaptableType()
+						.isAssignableFrom(adaptableType)) {
+					if (keyAnnotation.adaptableContext().length != 0) {
+						// the adapter map binding is targeting a specific
+						// context
+						// if the adaptable is itself Adaptable.Bound and uses a
+						// role for its registration, consider that role here
+						if (isContextApplicable(adaptableContext,
+								keyAnnotation.adaptableContext())) {
+							// XXX: The MapBinderBindings of relevance are
+							// wrapped into
+							// ProviderInstanceBindings, so they an instance
+							// check is not
+							// sufficient
+							// to retrieve them, but a
+							// MultibindingsTargetVisitor is to be used.
+							adapterMapBinding = binding.acceptTargetVisitor(
+									ADAPTER_MAP_BINDING_FILTER);
+						}
+					} else {
+						// XXX: All adapter (map) bindings that are bound to the
+						// adaptable type, or to a super type or super interface
+						// will be considered.
+
+						// XXX: The MapBinderBindings of relevance are wrapped
+						// into
+						// ProviderInstanceBindings, so they an instance check
+						// is not
+						// sufficient
+						// to retrieve them, but a MultibindingsTargetVisitor is
+						// to be used.
+						adapterMapBinding = binding.acceptTargetVisitor(
+								ADAPTER_MAP_BINDING_FILTER);
+					}
+				}
+			}
+
+			if (adapterMapBinding != null) {
+				for (final Entry<?, Binding<?>> adapterBinding : adapterMapBinding
+						.getEntries()) {
+					// try to infer the actual type of the adapter from the
+					// binding
+					injectionPlan.add(new AdapterBindingPlan(
+							(AdapterKey<?>) adapterBinding.getKey(),
+							adapterBinding.getValue(),
+							adapterBinding.getValue().acceptTargetVisitor(
+									ADAPTER_TYPE_INFERRER)));
+				}
+			}
+		}
+		return injectionPlan;
+	}
+
 	private void deferAdapterInjection(IAdaptable adaptable,
 			Runnable runnable) {
 		if (adaptable instanceof IAdaptable.Bound) {
@@ -263,6 +372,39 @@ public class AdapterInjector implements MembersInjector<IAdaptable> {
 		}
 	}
 
+	/**
+	 * Computes the context of the given adaptable, which determines the
+	 * applicable adapter map bindings. It consists of the type of the
+	 * adaptable, followed by the role and type of each element of its
+	 * adaptable chain.
+	 *
+	 * @param adaptable
+	 *            The adaptable for which to compute the context.
+	 * @return A list containing the type of the given adaptable, followed by
+	 *         role-type pairs for the elements of its adaptable chain.
+	 */
+	private List<Object> getAdaptableContext(IAdaptable adaptable) {
+		List<Object> adaptableContext = new ArrayList<>();
+		adaptableContext.add(adaptable.getClass());
+		IAdaptable chainElement = adaptable;
+		while (chainElement instanceof IAdaptable.Bound) {
+			IAdaptable nextChainElement = ((IAdaptable.Bound<?>) chainElement)
+					.getAdaptable();
+			// an incomplete chain is indicated by a null role (it is only
+			// reported when evaluating a context-specific binding)
+			AdapterKey<?> chainElementKey = nextChainElement == null ? null
+					: nextChainElement.getAdapterKey(chainElement);
+			adaptableContext.add(
+					chainElementKey == null ? null : chainElementKey.getRole());
+			adaptableContext.add(chainElement.getClass());
+			if (chainElementKey == null) {
+				break;
+			}
+			chainElement = nextChainElement;
+		}
+		return adaptableContext;
+	}
+
 	/**
 	 * Infers the type of the given adapter, evaluating either the related
 	 * bindings or the runtime type of the adapter.
@@ -271,6 +413,9 @@ public class AdapterInjector implements MembersInjector<IAdaptable> {
 	 *            The key of the map binding, which is an {@link AdapterKey}.
 	 * @param binding
 	 *            The binding related to the {@link AdapterKey}.
+	 * @param bindingInferredType
+	 *            The type that could be inferred from the binding, or
+	 *            <code>null</code>.
 	 * @param adapter
 	 *            The adapter instance.
 	 * @param issues
@@ -281,11 +426,8 @@ public class AdapterInjector implements MembersInjector<IAdaptable> {
 	 *         instance.
 	 */
 	private TypeToken<?> inferAdapterType(AdapterKey<?> adapterKey,
-			Binding<?> binding, Object adapter, List<String> issues) {
-		// try to infer the actual type of the adapter from the binding
-		TypeToken<?> bindingInferredType = binding
-				.acceptTargetVisitor(ADAPTER_TYPE_INFERRER);
-
+			Binding<?> binding, TypeToken<?> bindingInferredType,
+			Object adapter, List<String> issues) {
 		// perform some sanity checks
 		validateAdapterBinding(adapterKey, binding, adapter,
 				bindingInferredType, issues);
@@ -332,7 +474,7 @@ public class AdapterInjector implements MembersInjector<IAdaptable> {
 		}
 	}
 
-	private boolean isContextApplicable(IAdaptable injectionTarget,
+	private boolean isContextApplicable(List<Object> adaptableContext,
 			BoundAdapter[] injectionContext) {
 		// walk up the adaptable chain and see whether context elements can be
 		// found
@@ -341,25 +483,17 @@ public class AdapterInjector implements MembersInjector<IAdaptable> {
 		TypeToken<?> contextType = Types
 				.deserialize(injectionContext[contextIndex].adapterType());
 
-		IAdaptable chainElement = injectionTarget;
-		while (chainElement instanceof IAdaptable.Bound) {
-			IAdaptable nextChainElement = ((IAdaptable.Bound<?>) chainElement)
-					.getAdaptable();
-			if (nextChainElement == null) {
+		for (int i = 1; i < adaptableContext.size(); i += 2) {
+			String chainElementRole = (String) adaptableContext.get(i);
+			Class<?> chainElementType = (Class<?>) adaptableContext.get(i + 1);
+			if (chainElementRole == null) {
 				// this should not happen, as we defer injection
 				// until the chain is complete
 				throw new IllegalStateException(
-						"Adapter injection seems to have been performed while the adaptable chain is not complete yet. The adaptable is not yet set.");
-			}
-			if (nextChainElement.getAdapterKey(chainElement) == null) {
-				throw new IllegalStateException(
-						"Adapter injection seems to have been performed while the adaptable chain is not complete yet. The adapter is not yet set.");
+						"Adapter injection seems to have been performed while the adaptable chain is not complete yet.");
 			}
-			if (contextRole
-					.equals(nextChainElement.getAdapterKey(chainElement)
-							.getRole())
-					&& Types.isAssignable(contextType,
-							TypeToken.of(chainElement.getClass()))) {
+			if (contextRole.equals(chainElementRole) && Types
+					.isAssignable(contextType, TypeToken.of(chainElementType))) {
 				contextIndex++;
 				if (contextIndex == injectionContext.length) {
 					return true;
@@ -368,7 +502,6 @@ public class AdapterInjector implements MembersInjector<IAdaptable> {
 				contextType = Types.deserialize(
 						injectionContext[contextIndex].adapterType());
 			}
-			chainElement = nextChainElement;
 		}
 		return false;
 	}
@@ -387,91 +520,36 @@ public class AdapterInjector implements MembersInjector<IAdaptable> {
 		// System.out.println("Entering scope of " + adaptable);
 		AdaptableScopes.enter(adaptable);
 
-		// check which bindings are applicable
-		for (final Entry<Key<?>, Binding<?>> entry : injector.getAllBindings()
-				.entrySet()) {
-			// keep track of the applicable adapter map binding (so it can be
-			// used for injection later)
-			MapBinderBinding<?> adapterMapBinding = null;
-
-			// only consider bindings that are qualified by an AdapterMap
-			// binding annotation.
-			Key<?> key = entry.getKey();
-			Binding<?> binding = entry.getValue();
-
-			if ((key.getAnnotationType() != null)
-					&& AdapterMap.class.equals(key.getAnnotationType())) {
-				final AdapterMap keyAnnotation = (AdapterMap) key
-						.getAnnotation();
-				if (keyAnnotation.adaptableType()
-						.isAssignableFrom(adaptable.getClass())) {
-					if (keyAnnotation.adaptableContext().length != 0) {
-						// the adapter map binding is targeting a specific
-						// context
-						// if the adaptable is itself Adaptable.Bound and uses a
-						// role for its registration, consider that role here
-						if (isContextApplicable(adaptable,
-								keyAnnotation.adaptableContext())) {
-							// XXX: The MapBinderBindings of relevance are
-							// wrapped into
-							// ProviderInstanceBindings, so they an instance
-							// check is not
-							// sufficient
-							// to retrieve them, but a
-							// MultibindingsTargetVisitor is to be used.
-							adapterMapBinding = binding.acceptTargetVisitor(
-									ADAPTER_MAP_BINDING_FILTER);
-						}
-					} else {
-						// XXX: All adapter (map) bindings that are bound to the
-						// adaptable type, or to a super type or super interface
-						// will be considered.
-
-						// System.out.println("Applying binding for " +
-						// keyAnnotation.value() + " to " + type +
-						// " as subtype of " + methodAnnotation.value());
-
-						// XXX: The MapBinderBindings of relevance are wrapped
-						// into
-						// ProviderInstanceBindings, so they an instance check
-						// is not
-						// sufficient
-						// to retrieve them, but a MultibindingsTargetVisitor is
-						// to be used.
-						adapterMapBinding = binding.acceptTargetVisitor(
-								ADAPTER_MAP_BINDING_FILTER);
-					}
-				}
-			}
+		// the applicable adapter map bindings only depend on the adaptable
+		// context, so they are only determined once per context
+		List<Object> adaptableContext = getAdaptableContext(adaptable);
+		List<AdapterBindingPlan> injectionPlan = injectionPlans
+				.get(adaptableContext);
+		if (injectionPlan == null) {
+			injectionPlan = createInjectionPlan(adaptableContext);
+			injectionPlans.put(adaptableContext, injectionPlan);
+		}
 
-			if (adapterMapBinding != null) {
-				for (final Entry<?, Binding<?>> adapterBinding : adapterMapBinding
-						.getEntries()) {
-					AdapterKey<?> adapterKey = (AdapterKey<?>) adapterBinding
-							.getKey();
-					Object adapter = adapterBinding.getValue().getProvider()
-							.get();
-
-					// determine adapter type
-					TypeToken<?> adapterType = inferAdapterType(adapterKey,
-							adapterBinding.getValue(), adapter, issues);
-
-					// inject the adapter
-					try {
-						// System.out.println("Inject adapter " + adapter
-						// + " with type " + adapterType + " for key "
-						// + key + " to adaptable " + adaptable);
-						method.setAccessible(true);
-						method.invoke(adaptable, new Object[] { adapterType,
-								adapter, adapterKey.getRole() });
-					} catch (final IllegalAccessException e) {
-						throw new IllegalStateException(e);
-					} catch (final InvocationTargetException e) {
-						issues.add("*** ERROR: Cannot inject binding "
-								+ adapterBinding.getValue().getSource() + ": "
-								+ e.getCause().getMessage());
-					}
-				}
+		for (AdapterBindingPlan adapterBinding : injectionPlan) {
+			AdapterKey<?> adapterKey = adapterBinding.adapterKey;
+			Object adapter = adapterBinding.binding.getProvider().get();
+
+			// determine adapter type
+			TypeToken<?> adapterType = inferAdapterType(adapterKey,
+					adapterBinding.binding, adapterBinding.bindingInferredType,
+					adapter, issues);
+
+			// inject the adapter
+			try {
+				method.setAccessible(true);
+				method.invoke(adaptable, new Object[] { adapterType, adapter,
+						adapterKey.getRole() });
+			} catch (final IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			} catch (final InvocationTargetException e) {
+				issues.add("*** ERROR: Cannot inject binding "
+						+ adapterBinding.binding.getSource() + ": "
+						+ e.getCause().getMessage());
 			}
 		}
 
@@ -491,6 +569,7 @@ public class AdapterInjector implements MembersInjector<IAdaptable> {
 	@Inject
 	public void setInjector(final Injector injector) {
 		this.injector = injector;
+		injectionPlans.clear();
 		// perform injections for those instances that had to be exercised
 		// before the injector was available (if there have been any)
 		for (final IAdaptable instance : deferredInstances) {
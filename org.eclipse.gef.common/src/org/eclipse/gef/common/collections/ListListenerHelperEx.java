@@ -45,10 +45,49 @@ public class ListListenerHelperEx<E> {
 	 */
 	public static class AtomicChange<E> extends ListChangeListener.Change<E> {
 
+		// the minimum number of elements that may be affected by chained
+		// changes before the previous contents are captured eagerly
+		private static final int MIN_CHAINED_SIZE = 64;
+
 		private int cursor = -1;
 		private ElementarySubChange<E>[] elementarySubChanges;
 
 		private List<E> previousContents;
+		// the change from which the previous contents are to be retrieved
+		// lazily (in case this change was inferred from it)
+		private AtomicChange<? extends E> previousContentsChange;
+		// the subsequent change of the source list (if any) in case the
+		// previous contents are to be reconstructed lazily
+		private AtomicChange<E> successor;
+		// the number of elements affected by this change and all preceding
+		// changes, which may have to be reverted to reconstruct the previous
+		// contents
+		private long chainedSize;
+
+		/**
+		 * Creates a new {@link ListListenerHelperEx.AtomicChange} that
+		 * represents a change comprising a single elementary sub-change. The
+		 * previous contents are not copied, but reconstructed lazily from the
+		 * contents of the source {@link ObservableList} by reverting the
+		 * elementary sub-change, when they are requested.
+		 * <p>
+		 * As the source {@link ObservableList} may be changed further, all
+		 * subsequent changes have to be passed to
+		 * {@link #setSuccessor(AtomicChange)}.
+		 *
+		 * @param source
+		 *            The source {@link ObservableList} from which the change
+		 *            originated.
+		 * @param elementarySubChange
+		 *            The elementary sub-change that has been applied.
+		 */
+		@SuppressWarnings("unchecked")
+		AtomicChange(ObservableList<E> source,
+				ElementarySubChange<E> elementarySubChange) {
+			super(source);
+			this.elementarySubChanges = new ElementarySubChange[] {
+					elementarySubChange };
+		}
 
 		/**
 		 * Creates a new {@link ListListenerHelperEx.AtomicChange} that
@@ -115,9 +154,14 @@ public class ListListenerHelperEx<E> {
 				ListChangeListener.Change<? extends E> change) {
 			super(source);
 
-			// copy previous contents
-			this.previousContents = new ArrayList<>(
-					CollectionUtils.getPreviousContents(change));
+			if (change instanceof AtomicChange) {
+				// retrieve previous contents lazily
+				this.previousContentsChange = (AtomicChange<? extends E>) change;
+			} else {
+				// copy previous contents
+				this.previousContents = new ArrayList<>(
+						CollectionUtils.getPreviousContents(change));
+			}
 
 			// retrieve elementary sub-changes by iterating them
 			// TODO: we could introduce an initialized field inside Change
@@ -187,6 +231,16 @@ public class ListListenerHelperEx<E> {
 		 *         list.
 		 */
 		public List<E> getPreviousContents() {
+			if (previousContents == null) {
+				if (previousContentsChange != null) {
+					previousContents = new ArrayList<>(
+							previousContentsChange.getPreviousContents());
+					previousContentsChange = null;
+				} else {
+					previousContents = reconstructPreviousContents();
+					successor = null;
+				}
+			}
 			return Collections.unmodifiableList(previousContents);
 		}
 
@@ -214,11 +268,122 @@ public class ListListenerHelperEx<E> {
 			return cursor < elementarySubChanges.length;
 		}
 
+		/**
+		 * Returns the number of elements that are affected by the elementary
+		 * sub-changes of this change (counting each elementary sub-change at
+		 * least once).
+		 *
+		 * @return The number of added, removed, and permutated elements.
+		 */
+		private int getSize() {
+			int size = 0;
+			for (ElementarySubChange<E> c : elementarySubChanges) {
+				size += 1 + c.getAdded().size() + c.getRemoved().size();
+				if (ElementarySubChange.Kind.PERMUTATE.equals(c.getKind())) {
+					size += c.getTo() - c.getFrom();
+				}
+			}
+			return size;
+		}
+
+		/**
+		 * Reconstructs the previous contents by reverting this change and all
+		 * subsequent changes of the source list, starting from the current
+		 * contents of the source list or from the previous contents of the
+		 * first subsequent change that provides them.
+		 *
+		 * @return A new list containing the previous contents.
+		 */
+		private List<E> reconstructPreviousContents() {
+			List<AtomicChange<E>> changes = new ArrayList<>();
+			AtomicChange<E> change = this;
+			while (change != null && change.previousContents == null
+					&& change.previousContentsChange == null) {
+				changes.add(change);
+				change = change.successor;
+			}
+			List<E> contents = new ArrayList<>(
+					change == null ? getList() : change.getPreviousContents());
+			for (int i = changes.size() - 1; i >= 0; i--) {
+				changes.get(i).revert(contents);
+			}
+			return contents;
+		}
+
 		@Override
 		public void reset() {
 			cursor = -1;
 		}
 
+		/**
+		 * Reverts the elementary sub-changes of this change (in reverse
+		 * order) on the given list.
+		 *
+		 * @param contents
+		 *            The list representing the contents of the source list
+		 *            after this change was applied.
+		 */
+		private void revert(List<E> contents) {
+			for (int i = elementarySubChanges.length - 1; i >= 0; i--) {
+				ElementarySubChange<E> c = elementarySubChanges[i];
+				int from = c.getFrom();
+				int to = c.getTo();
+				if (ElementarySubChange.Kind.ADD.equals(c.getKind())
+						|| ElementarySubChange.Kind.REPLACE
+								.equals(c.getKind())) {
+					// remove added elements
+					contents.subList(from, to).clear();
+				}
+				if (ElementarySubChange.Kind.REMOVE.equals(c.getKind())
+						|| ElementarySubChange.Kind.REPLACE
+								.equals(c.getKind())) {
+					// add removed elements
+					contents.addAll(from, c.getRemoved());
+				}
+				if (ElementarySubChange.Kind.PERMUTATE.equals(c.getKind())) {
+					// restore previous order
+					int[] permutation = c.getPermutation();
+					List<E> permutated = new ArrayList<>(
+							contents.subList(from, to));
+					for (int j = from; j < to; j++) {
+						contents.set(j,
+								permutated.get(permutation[j - from] - from));
+					}
+				}
+			}
+		}
+
+		/**
+		 * Registers the subsequent change of the source list, which is needed
+		 * to lazily reconstruct the previous contents of this change after the
+		 * source list has been changed further. The given successor has to be
+		 * registered directly after it has been applied to the source list.
+		 * <p>
+		 * In order to bound the changes that have to be retained (and
+		 * reverted) to reconstruct the previous contents, the previous
+		 * contents of the successor are captured eagerly once the chained
+		 * changes affect more elements than the source list contains, so that
+		 * the chain is cut off at the successor. As capturing the previous
+		 * contents is linear in the size of the source list, this keeps the
+		 * amortized costs of a change proportional to the number of elements
+		 * it affects.
+		 *
+		 * @param successor
+		 *            The change that was applied to the source list after this
+		 *            one.
+		 */
+		void setSuccessor(AtomicChange<E> successor) {
+			if (previousContents == null && previousContentsChange == null) {
+				successor.chainedSize = chainedSize + successor.getSize();
+				if (successor.chainedSize > Math.max(MIN_CHAINED_SIZE,
+						successor.getList().size())) {
+					// reconstruct from the current contents of the source list
+					successor.getPreviousContents();
+				}
+				this.successor = successor;
+			}
+		}
+
 		@Override
 		public String toString() {
 			StringBuffer sb = new StringBuffer();
@@ -11,6 +11,7 @@
  *******************************************************************************/
 package org.eclipse.gef.common.collections;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -48,6 +49,12 @@ import javafx.collections.ObservableList;
  * (https://bugs.openjdk.java.net/browse/JDK-8092504): fixed by using
  * {@link ListListenerHelperEx} as a replacement for ListListenerHelper.</li>
  * </ul>
+ * <p>
+ * To keep mutations that only affect single elements or ranges (add, remove,
+ * and set) cheap, the previous contents are not copied for these, but
+ * reconstructed lazily from the elementary sub-changes, when a listener
+ * requests them (see
+ * {@link ListListenerHelperEx.AtomicChange#getPreviousContents()}).
  *
  * @author anyssen
  * @param <E>
@@ -59,6 +66,9 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 
 	private ListListenerHelperEx<E> helper = new ListListenerHelperEx<>(this);
 	private List<E> backingList;
+	// the last change, which needs to be informed about subsequent changes
+	// as long as it is retained by a listener
+	private WeakReference<ListListenerHelperEx.AtomicChange<E>> lastChange;
 
 	/**
 	 * Creates a new {@link ObservableList} wrapping the given {@link List}.
@@ -73,40 +83,34 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 
 	@Override
 	public boolean add(E element) {
-		List<E> previousContents = delegateCopy();
+		int index = size();
 		boolean result = super.add(element);
 		if (result) {
-			helper.fireValueChangedEvent(
-					new ListListenerHelperEx.AtomicChange<>(this,
-							previousContents,
-							ListListenerHelperEx.ElementarySubChange.added(
-									Collections.singletonList(element),
-									previousContents.size(),
-									previousContents.size() + 1)));
+			fireValueChangedEvent(new ListListenerHelperEx.AtomicChange<>(this,
+					ListListenerHelperEx.ElementarySubChange.added(
+							Collections.singletonList(element), index,
+							index + 1)));
 		}
 		return result;
 	}
 
 	@Override
 	public void add(int index, E element) {
-		List<E> previousContents = delegateCopy();
 		super.add(index, element);
-		helper.fireValueChangedEvent(
-				new ListListenerHelperEx.AtomicChange<>(this, previousContents,
-						ListListenerHelperEx.ElementarySubChange.added(
-								Collections.singletonList(element), index,
-								index + 1)));
+		fireValueChangedEvent(new ListListenerHelperEx.AtomicChange<>(this,
+				ListListenerHelperEx.ElementarySubChange.added(
+						Collections.singletonList(element), index,
+						index + 1)));
 	}
 
 	@Override
 	public boolean addAll(Collection<? extends E> collection) {
-		List<E> previousContents = delegateCopy();
+		int index = size();
 		boolean result = super.addAll(collection);
-		helper.fireValueChangedEvent(new ListListenerHelperEx.AtomicChange<>(
-				this, previousContents,
+		fireValueChangedEvent(new ListListenerHelperEx.AtomicChange<>(this,
 				ListListenerHelperEx.ElementarySubChange.added(
-						new ArrayList<>(collection), previousContents.size(),
-						previousContents.size() + collection.size())));
+						new ArrayList<>(collection), index,
+						index + collection.size())));
 		return result;
 	}
 
@@ -118,13 +122,11 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 
 	@Override
 	public boolean addAll(int index, Collection<? extends E> elements) {
-		List<E> previousContents = delegateCopy();
 		boolean result = super.addAll(index, elements);
-		helper.fireValueChangedEvent(
-				new ListListenerHelperEx.AtomicChange<>(this, previousContents,
-						ListListenerHelperEx.ElementarySubChange.added(
-								new ArrayList<>(elements), index,
-								index + elements.size())));
+		fireValueChangedEvent(new ListListenerHelperEx.AtomicChange<>(this,
+				ListListenerHelperEx.ElementarySubChange.added(
+						new ArrayList<>(elements), index,
+						index + elements.size())));
 		return result;
 	}
 
@@ -143,7 +145,7 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 		List<E> previousContents = delegateCopy();
 		super.clear();
 		if (!previousContents.isEmpty()) {
-			helper.fireValueChangedEvent(
+			fireValueChangedEvent(
 					new ListListenerHelperEx.AtomicChange<>(this,
 							previousContents,
 							ListListenerHelperEx.ElementarySubChange
@@ -166,43 +168,56 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 		return new ArrayList<>(backingList);
 	}
 
+	/**
+	 * Notifies listeners about the given change, after registering it as the
+	 * successor of the last change, so that the previous contents of the
+	 * last change can still be reconstructed. The last change is only
+	 * referenced weakly, so that it (including its removed elements and
+	 * previous contents) can be reclaimed if no listener retained it.
+	 *
+	 * @param change
+	 *            The change to notify listeners about.
+	 */
+	private void fireValueChangedEvent(
+			ListListenerHelperEx.AtomicChange<E> change) {
+		ListListenerHelperEx.AtomicChange<E> last = lastChange == null ? null
+				: lastChange.get();
+		if (last != null) {
+			last.setSuccessor(change);
+		}
+		lastChange = new WeakReference<>(change);
+		helper.fireValueChangedEvent(change);
+	}
+
 	@Override
 	public E remove(int index) {
-		List<E> previousContents = delegateCopy();
 		E result = super.remove(index);
-		helper.fireValueChangedEvent(
-				new ListListenerHelperEx.AtomicChange<>(this, previousContents,
-						ListListenerHelperEx.ElementarySubChange.removed(
-								Collections.singletonList(result), index,
-								index)));
+		fireValueChangedEvent(new ListListenerHelperEx.AtomicChange<>(this,
+				ListListenerHelperEx.ElementarySubChange.removed(
+						Collections.singletonList(result), index, index)));
 		return result;
 	}
 
 	@Override
 	public void remove(int from, int to) {
-		List<E> previousContents = delegateCopy();
-		List<E> removed = new ArrayList<>();
-		for (int i = to - 1; i >= from; i--) {
-			removed.add(0, super.remove(i));
-		}
-		helper.fireValueChangedEvent(new ListListenerHelperEx.AtomicChange<>(
-				this, previousContents, ListListenerHelperEx.ElementarySubChange
-						.removed(removed, from, from)));
+		List<E> removed = new ArrayList<>(subList(from, to));
+		delegate().subList(from, to).clear();
+		fireValueChangedEvent(new ListListenerHelperEx.AtomicChange<>(this,
+				ListListenerHelperEx.ElementarySubChange.removed(removed, from,
+						from)));
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public boolean remove(Object object) {
-		List<E> previousContents = delegateCopy();
-		if (super.remove(object)) {
+		int index = indexOf(object);
+		if (index >= 0) {
+			super.remove(index);
 			// XXX: if remove was successful, its safe to cast here
-			int index = previousContents.indexOf(object);
-			helper.fireValueChangedEvent(
-					new ListListenerHelperEx.AtomicChange<>(this,
-							previousContents,
-							ListListenerHelperEx.ElementarySubChange.removed(
-									Collections.singletonList((E) object),
-									index, index)));
+			fireValueChangedEvent(new ListListenerHelperEx.AtomicChange<>(this,
+					ListListenerHelperEx.ElementarySubChange.removed(
+							Collections.singletonList((E) object), index,
+							index)));
 			return true;
 		}
 		return false;
@@ -249,9 +264,8 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 			}
 			// determine lowest index that was removed (will be used as from and
 			// to index)
-			helper.fireValueChangedEvent(
-					new ListListenerHelperEx.AtomicChange<>(this,
-							previousContents, elementaryChanges));
+			fireValueChangedEvent(new ListListenerHelperEx.AtomicChange<>(
+					this, previousContents, elementaryChanges));
 			return true;
 		}
 		return false;
@@ -314,9 +328,8 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 			}
 			// determine lowest index that was removed (will be used as from and
 			// to index)
-			helper.fireValueChangedEvent(
-					new ListListenerHelperEx.AtomicChange<>(this,
-							previousContents, elementaryChanges));
+			fireValueChangedEvent(new ListListenerHelperEx.AtomicChange<>(
+					this, previousContents, elementaryChanges));
 			return true;
 		}
 		return false;
@@ -330,17 +343,13 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 
 	@Override
 	public E set(int index, E element) {
-		List<E> previousContents = delegateCopy();
 		if (get(index) != element) {
-			E result = super.remove(index);
-			super.add(index, element);
-			helper.fireValueChangedEvent(
-					new ListListenerHelperEx.AtomicChange<>(this,
-							previousContents,
-							ElementarySubChange.replaced(
-									Collections.singletonList(result),
-									Collections.singletonList(element), index,
-									index + 1)));
+			E result = super.set(index, element);
+			fireValueChangedEvent(new ListListenerHelperEx.AtomicChange<>(this,
+					ElementarySubChange.replaced(
+							Collections.singletonList(result),
+							Collections.singletonList(element), index,
+							index + 1)));
 			return result;
 		}
 		return element;
@@ -352,7 +361,7 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 		if (!previousContents.equals(collection)) {
 			delegate().clear();
 			delegate().addAll(collection);
-			helper.fireValueChangedEvent(
+			fireValueChangedEvent(
 					new ListListenerHelperEx.AtomicChange<>(this,
 							previousContents, ElementarySubChange.replaced(
 									previousContents, delegate(), 0, size())));
@@ -418,7 +427,7 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 			previousIndexIterator.remove();
 		}
 		if (changed) {
-			helper.fireValueChangedEvent(
+			fireValueChangedEvent(
 					new ListListenerHelperEx.AtomicChange<>(this,
 							previousContents,
 							ListListenerHelperEx.ElementarySubChange
@@ -285,10 +285,12 @@ public class DotAttributeProcessor extends AbstractFieldProcessor {
 									paramType(c, context));
 							method.setReturnType(attributeParsedType);
 
+							// parse the raw value, so the parsed value can be
+							// cached by the (immutable) ID
 							StringBuilder body = new StringBuilder();
 							body.append(
 									"return " + parsed(
-											getterName(field) + "("
+											rawGetterName(field) + "("
 													+ paramName(c) + ")",
 											attributeParsedType) + ";");
 							method.setBody((ctx) -> body.toString());
@@ -14,8 +14,10 @@
 package org.eclipse.gef.dot.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -29,6 +31,7 @@ import org.eclipse.gef.dot.internal.language.arrowtype.DeprecatedArrowShape;
 import org.eclipse.gef.dot.internal.language.arrowtype.DeprecatedShape;
 import org.eclipse.gef.dot.internal.language.arrowtype.PrimitiveShape;
 import org.eclipse.gef.dot.internal.language.clustermode.ClusterMode;
+import org.eclipse.gef.dot.internal.language.color.Color;
 import org.eclipse.gef.dot.internal.language.color.ColorFactory;
 import org.eclipse.gef.dot.internal.language.color.HSVColor;
 import org.eclipse.gef.dot.internal.language.color.RGBColor;
@@ -3266,4 +3269,40 @@ public class DotAttributesTests {
 					e.getMessage());
 		}
 	}
+
+	@Test
+	public void parsedValuesAreCached() {
+		Node n1 = new Node.Builder().buildNode();
+		Node n2 = new Node.Builder().buildNode();
+		Edge edge = new Edge.Builder(n1, n2).buildEdge();
+
+		// the parsed value is cached for the raw value
+		DotAttributes.setColor(n1, "#ffffff");
+		Color color = DotAttributes.getColorParsed(n1);
+		assertSame(color, DotAttributes.getColorParsed(n1));
+
+		// equal raw values are parsed only once, but each attribute gets its
+		// own copy of the (interned) parsed value
+		DotAttributes.setColor(n2, "#ffffff");
+		DotAttributes.setColor(edge, "#ffffff");
+		Color n2Color = DotAttributes.getColorParsed(n2);
+		Color edgeColor = DotAttributes.getColorParsed(edge);
+		assertNotSame(color, n2Color);
+		assertNotSame(n2Color, edgeColor);
+		assertTrue(EcoreUtil.equals(color, n2Color));
+		assertTrue(EcoreUtil.equals(color, edgeColor));
+
+		// changing the raw value invalidates the cached value
+		DotAttributes.setColor(n1, "white");
+		Color stringColor = DotAttributes.getColorParsed(n1);
+		assertNotSame(color, stringColor);
+		assertTrue(stringColor instanceof StringColor);
+		assertEquals("white", ((StringColor) stringColor).getName());
+
+		// values of other types are cached independently
+		DotAttributes.setShape(n1, "box");
+		Shape shape = DotAttributes.getShapeParsed(n1);
+		assertSame(shape, DotAttributes.getShapeParsed(n1));
+		assertSame(stringColor, DotAttributes.getColorParsed(n1));
+	}
 }
@@ -17,12 +17,14 @@ import com.google.inject.Injector
 import java.io.StringReader
 import java.util.Collections
 import java.util.Iterator
+import java.util.LinkedHashMap
 import java.util.List
 import java.util.Map
 import org.eclipse.emf.common.util.BasicDiagnostic
 import org.eclipse.emf.common.util.Diagnostic
 import org.eclipse.emf.ecore.EObject
 import org.eclipse.emf.ecore.EStructuralFeature
+import org.eclipse.emf.ecore.util.EcoreUtil
 import org.eclipse.gef.common.reflect.ReflectionUtils
 import org.eclipse.gef.dot.internal.generator.DotAttribute
 import org.eclipse.gef.dot.internal.language.DotArrowTypeStandaloneSetup
@@ -315,6 +317,41 @@ class DotAttributes {
 		if (attributeValue === null) null else parser.parse(attributeValue).parsedValue
 	}
 
+	/**
+	 * Parses the given (raw) attribute value, using the given
+	 * {@link IAttributeValueParser}. The parsed value is cached by the given
+	 * (immutable) {@link ID}, so that it is only re-parsed when the raw value
+	 * of the attribute is changed (i.e. replaced by another {@link ID}).
+	 * <p>
+	 * The cached value is returned by all subsequent calls for the same
+	 * {@link ID}, so it has to be treated as immutable; callers that need to
+	 * modify it have to work on a copy.
+	 * 
+	 * @param <T>
+	 *            The (primitive) object type of the parsed value.
+	 * @param parser
+	 *            The parser to be used for parsing.
+	 * @param attributeValue
+	 *            The (raw) attribute value that is to be parsed.
+	 * @return The parsed value, or <code>null</code> if the value could not be
+	 *         parsed.
+	 */
+	@SuppressWarnings("unchecked")
+	private static def <T> T parseAttributeValue(IAttributeValueParser<T> parser, ID attributeValue) {
+		if (attributeValue === null) {
+			return null
+		}
+		val T cachedValue = attributeValue.getParsedValue(parser) as T
+		if (cachedValue !== null) {
+			return cachedValue
+		}
+		val T parsedValue = parseAttributeValue(parser, attributeValue.toValue)
+		if (parsedValue !== null) {
+			attributeValue.setParsedValue(parser, parsedValue)
+		}
+		parsedValue
+	}
+
 	// TODO: separate validation from parsing
 	private static def <T> List<Diagnostic> validateAttributeRawValue(IAttributeValueParser<T> parser,
 		IAttributeValueValidator<T> validator, Context attributeContext, String attributeName, ID attributeValue) {
@@ -524,16 +561,64 @@ class DotAttributes {
 
 	private static class EObjectParser<T extends EObject> implements IAttributeValueParser<T> {
 
+		/**
+		 * The maximum number of parse results that are interned per parser.
+		 */
+		static val INTERNED_RESULTS_LIMIT = 1024
+
 		val Injector injector
 		var IParser xtextParser
 		var Class<T> parsedType
 
+		// parse results of common values (e.g. colors or shapes) are interned,
+		// so that they are only parsed once; the least recently used results
+		// are evicted once the limit is exceeded
+		val boolean interning
+		val Map<String, IAttributeValueParser.ParseResult<T>> internedResults = new LinkedHashMap(16, 0.75f, true)
+
 		new(Injector injector) {
+			this(injector, true)
+		}
+
+		/**
+		 * Creates a new parser that interns its parse results if
+		 * <i>interning</i> is <code>true</code>. Interning should be disabled
+		 * for values that are (almost) unique per attribute, such as layout
+		 * positions.
+		 */
+		new(Injector injector, boolean interning) {
 			this.injector = injector
+			this.interning = interning
 		}
 
-		@SuppressWarnings("unchecked")
 		override IAttributeValueParser.ParseResult<T> parse(String attributeValue) {
+			if (!interning) {
+				return doParse(attributeValue)
+			}
+			var IAttributeValueParser.ParseResult<T> result
+			synchronized (internedResults) {
+				result = internedResults.get(attributeValue)
+			}
+			if (result === null) {
+				result = doParse(attributeValue)
+				synchronized (internedResults) {
+					internedResults.put(attributeValue, result)
+					if (internedResults.size > INTERNED_RESULTS_LIMIT) {
+						val eldest = internedResults.keySet.iterator
+						eldest.next
+						eldest.remove
+					}
+				}
+			}
+			if (result.hasSyntaxErrors) {
+				return result
+			}
+			// interned values are mutable EObjects, so never hand them out
+			new IAttributeValueParser.ParseResult<T>(EcoreUtil.copy(result.parsedValue))
+		}
+
+		@SuppressWarnings("unchecked")
+		protected def IAttributeValueParser.ParseResult<T> doParse(String attributeValue) {
 			val IParseResult xtextParseResult = parser.parse(new StringReader(attributeValue))
 			if (xtextParseResult.hasSyntaxErrors) {
 				val List<Diagnostic> syntaxProblems = newArrayList
@@ -1068,9 +1153,10 @@ class DotAttributes {
 	static val Injector rectInjector = new DotRectStandaloneSetup().createInjectorAndDoEMFRegistration
 
 	/**
-	 * The parser for rect attribute values.
+	 * The parser for rect attribute values. As these are layout positions (bb),
+	 * which are hardly shared between attributes, its results are not interned.
 	 */
-	static val RECT_PARSER = new EObjectParser<Rect>(rectInjector)
+	static val RECT_PARSER = new EObjectParser<Rect>(rectInjector, false)
 
 	/**
 	 * The serializer for rect attribute values.
@@ -1080,9 +1166,11 @@ class DotAttributes {
 	static val Injector pointInjector = new DotPointStandaloneSetup().createInjectorAndDoEMFRegistration
 
 	/**
-	 * The parser for point attribute values.
+	 * The parser for point attribute values. As these are layout positions
+	 * (e.g. pos or lp), which are hardly shared between attributes, its results
+	 * are not interned.
 	 */
-	static val POINT_PARSER = new EObjectParser<Point>(pointInjector)
+	static val POINT_PARSER = new EObjectParser<Point>(pointInjector, false)
 
 	/**
 	 * The serializer for point attribute values.
@@ -1105,9 +1193,11 @@ class DotAttributes {
 		createInjectorAndDoEMFRegistration
 
 	/**
-	 * The parser for splinetype attribute values.
+	 * The parser for splinetype attribute values. As these are layout
+	 * positions (pos), which are hardly shared between attributes, its results
+	 * are not interned.
 	 */
-	static val SPLINETYPE_PARSER = new EObjectParser<SplineType>(splineTypeInjector)
+	static val SPLINETYPE_PARSER = new EObjectParser<SplineType>(splineTypeInjector, false)
 
 	/**
 	 * The serializer for splinetype attribute values.
@@ -33,6 +33,22 @@ public class ID {
 	private String string;
 	private Type type;
 
+	// the decoded value and the parsed value (along with the parser that
+	// produced it) are computed lazily and cached, as IDs are immutable
+	private String value;
+	private ParsedValue parsedValue;
+
+	private static final class ParsedValue {
+
+		private final Object parser;
+		private final Object value;
+
+		private ParsedValue(Object parser, Object value) {
+			this.parser = parser;
+			this.value = value;
+		}
+	}
+
 	/**
 	 * The terminal type of the Dot ID according to the DOT grammar.
 	 */
@@ -275,7 +291,41 @@ public class ID {
 	 * @return The (decoded) value.
 	 */
 	public String toValue() {
-		return decode(string, type);
+		if (value == null) {
+			value = decode(string, type);
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the parsed value that was cached for the given parser via
+	 * {@link #setParsedValue(Object, Object)}.
+	 * 
+	 * @param parser
+	 *            The parser for which to return the cached value.
+	 * @return The cached parsed value, or <code>null</code> if no value was
+	 *         cached for the given parser.
+	 */
+	public Object getParsedValue(Object parser) {
+		ParsedValue cached = parsedValue;
+		return cached != null && cached.parser == parser ? cached.value
+				: null;
+	}
+
+	/**
+	 * Caches the given value as the result of parsing this ID with the given
+	 * parser, replacing any value that was cached for another parser. As IDs
+	 * are immutable, the cached value remains valid until the ID is replaced
+	 * by another one. The cached value is shared by all callers and may thus
+	 * not be modified.
+	 * 
+	 * @param parser
+	 *            The parser that produced the given value.
+	 * @param value
+	 *            The parsed value to cache.
+	 */
+	public void setParsedValue(Object parser, Object value) {
+		parsedValue = new ParsedValue(parser, value);
 	}
 
 	@Override
@@ -128,6 +128,35 @@ public class ConnectionTests {
 		assertEquals(newEndPoint, connection.getEndPoint());
 	}
 
+	@Test
+	public void deferredRefresh() {
+		Connection connection = new Connection();
+		connection.setStartPoint(new Point(0, 0));
+		connection.setEndPoint(new Point(100, 0));
+		@SuppressWarnings("unchecked")
+		GeometryNode<ICurve> curve = (GeometryNode<ICurve>) connection.getCurve();
+		assertEquals(new Point(100, 0), curve.getGeometry().getP2());
+
+		// changes do not lead to a re-route until the connection is flushed
+		connection.setRefreshDeferred(true);
+		connection.setEndPoint(new Point(200, 0));
+		connection.setEndPoint(new Point(300, 0));
+		assertEquals(new Point(100, 0), curve.getGeometry().getP2());
+		connection.flush();
+		assertEquals(new Point(300, 0), curve.getGeometry().getP2());
+		assertEquals(new Point(300, 0), connection.getEndPoint());
+
+		// the layout pass performs a pending refresh
+		connection.setEndPoint(new Point(350, 0));
+		connection.layout();
+		assertEquals(new Point(350, 0), curve.getGeometry().getP2());
+
+		// a pending refresh is performed when deferring is disabled
+		connection.setEndPoint(new Point(400, 0));
+		connection.setRefreshDeferred(false);
+		assertEquals(new Point(400, 0), curve.getGeometry().getP2());
+	}
+
 	@Test
 	public void pointConversions() {
 		Point startPoint = new Point(123, 456);
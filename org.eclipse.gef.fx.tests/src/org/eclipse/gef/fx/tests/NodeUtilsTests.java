@@ -14,12 +14,16 @@ package org.eclipse.gef.fx.tests;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import org.eclipse.gef.fx.nodes.GeometryNode;
 import org.eclipse.gef.fx.utils.NodeUtils;
 import org.eclipse.gef.geometry.planar.IGeometry;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.junit.Test;
 
+import javafx.scene.Group;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.StrokeType;
 
@@ -62,6 +66,25 @@ public class NodeUtilsTests {
 		assertEquals(new Rectangle(33, 43, 30, 40), NodeUtils.localToParent(geometryNode, geometricOutline).getBounds());
 	}
 
+	@Test
+	public void getNodesAt() {
+		javafx.scene.shape.Rectangle a = new javafx.scene.shape.Rectangle(0, 0, 100, 100);
+		javafx.scene.shape.Rectangle g1 = new javafx.scene.shape.Rectangle(50, 50, 100, 100);
+		javafx.scene.shape.Rectangle g2 = new javafx.scene.shape.Rectangle(200, 200, 10, 10);
+		Group g = new Group(g1, g2);
+		javafx.scene.shape.Rectangle b = new javafx.scene.shape.Rectangle(80, 80, 50, 50);
+		javafx.scene.shape.Rectangle transparent = new javafx.scene.shape.Rectangle(0, 0, 200, 200);
+		transparent.setMouseTransparent(true);
+		Group root = new Group(a, g, b, transparent);
+
+		// top-most first, i.e. later siblings before earlier ones, and
+		// children before their parents
+		assertEquals(Arrays.asList(b, g1, g, a, root), NodeUtils.getNodesAt(root, 90, 90));
+		assertEquals(Arrays.asList(a, root), NodeUtils.getNodesAt(root, 5, 5));
+		assertEquals(Arrays.asList(g2, g, root), NodeUtils.getNodesAt(root, 205, 205));
+		assertEquals(Collections.emptyList(), NodeUtils.getNodesAt(root, 300, 300));
+	}
+
 	@Test
 	public void getShapeOutline() {
 		// GeometryNode
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.gef.fx.nodes.ObstacleAvoidingRouter;
+import org.eclipse.gef.fx.nodes.OrthogonalRoutingGraph;
+import org.eclipse.gef.geometry.planar.Point;
+
+import javafx.scene.Group;
+import javafx.scene.shape.Rectangle;
+
+/**
+ * A standalone benchmark that measures the time needed to reroute many
+ * connections through an {@link OrthogonalRoutingGraph}, which is shared by
+ * the {@link ObstacleAvoidingRouter}s of a diagram, after one of the obstacles
+ * was moved.
+ * <p>
+ * It is not part of the test suite, as its results depend on the machine it
+ * is executed on. Run it via its {@link #main(String[])} method, optionally
+ * passing the number of measured rounds as the first argument.
+ */
+public class ObstacleAvoidingRouterBenchmark {
+
+	private static final int[] OBSTACLE_COUNTS = { 250, 500, 1000 };
+	private static final int COLUMNS = 40;
+	private static final int WARMUP_ROUNDS = 3;
+
+	/**
+	 * Runs the benchmark for each of the numbers of obstacles, routing as many
+	 * connections as there are obstacles.
+	 *
+	 * @param args
+	 *            The number of measured rounds (optional, defaults to 5).
+	 */
+	public static void main(String[] args) {
+		int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+		for (int count : OBSTACLE_COUNTS) {
+			new ObstacleAvoidingRouterBenchmark(count).run(rounds);
+		}
+	}
+
+	private final OrthogonalRoutingGraph graph = new OrthogonalRoutingGraph();
+	private final List<Rectangle> nodes = new ArrayList<>();
+	private final int[] sources;
+	private final int[] targets;
+	private int moved;
+
+	/**
+	 * Creates a grid of the given number of obstacles, and connects each of
+	 * them to a nearby obstacle.
+	 */
+	private ObstacleAvoidingRouterBenchmark(int count) {
+		Group root = new Group();
+		for (int i = 0; i < count; i++) {
+			Rectangle node = new Rectangle((i % COLUMNS) * 100,
+					(i / COLUMNS) * 100, 50, 40);
+			root.getChildren().add(node);
+			graph.addObstacle(node);
+			nodes.add(node);
+		}
+		Random random = new Random(7);
+		sources = new int[count];
+		targets = new int[count];
+		for (int i = 0; i < count; i++) {
+			sources[i] = random.nextInt(count);
+			targets[i] = Math.min(count - 1,
+					Math.max(0, sources[i] + random.nextInt(5) - 2
+							+ COLUMNS * (random.nextInt(5) - 2)));
+		}
+	}
+
+	/**
+	 * Moves one obstacle, and reroutes all connections.
+	 */
+	private void reroute() {
+		Rectangle node = nodes.get(moved++ % nodes.size());
+		node.setTranslateX(node.getTranslateX() == 0 ? 5 : 0);
+		for (int i = 0; i < sources.length; i++) {
+			Rectangle source = nodes.get(sources[i]);
+			Rectangle target = nodes.get(targets[i]);
+			Point start = new Point(source.getX() + 25 + source.getTranslateX(),
+					source.getY() + 20);
+			Point end = new Point(target.getX() + 25 + target.getTranslateX(),
+					target.getY() + 20);
+			if (graph.findRoute(start, source, end, target) == null) {
+				throw new IllegalStateException(
+						"No route from " + start + " to " + end);
+			}
+		}
+	}
+
+	private void run(int rounds) {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			reroute();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < rounds; i++) {
+			reroute();
+		}
+		long duration = System.nanoTime() - start;
+		System.out.println(String.format(
+				"%d obstacles: %d connections rerouted in %.1f ms "
+						+ "(%.1f us per connection)",
+				nodes.size(), sources.length, duration / 1e6 / rounds,
+				duration / 1e3 / rounds / sources.length));
+	}
+}
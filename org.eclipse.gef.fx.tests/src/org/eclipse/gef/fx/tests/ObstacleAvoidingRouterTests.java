@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.gef.fx.anchors.DynamicAnchor;
+import org.eclipse.gef.fx.nodes.Connection;
+import org.eclipse.gef.fx.nodes.ObstacleAvoidingRouter;
+import org.eclipse.gef.fx.nodes.OrthogonalRoutingGraph;
+import org.eclipse.gef.geometry.convert.fx.FX2Geometry;
+import org.eclipse.gef.geometry.planar.Point;
+import org.junit.Test;
+
+import javafx.scene.Group;
+import javafx.scene.shape.Rectangle;
+
+public class ObstacleAvoidingRouterTests {
+
+	private static boolean crosses(Point p, Point q, Rectangle r) {
+		// tests if the axis-parallel segment (p, q) crosses the interior of
+		// the given (translated) rectangle
+		double minX = Math.min(p.x, q.x);
+		double maxX = Math.max(p.x, q.x);
+		double minY = Math.min(p.y, q.y);
+		double maxY = Math.max(p.y, q.y);
+		double x = r.getX() + r.getTranslateX();
+		double y = r.getY() + r.getTranslateY();
+		return maxX > x && minX < x + r.getWidth() && maxY > y
+				&& minY < y + r.getHeight();
+	}
+
+	private static List<Point> getPath(Point start, List<Point> bendPoints,
+			Point end) {
+		List<Point> path = new ArrayList<>();
+		path.add(start);
+		path.addAll(bendPoints);
+		path.add(end);
+		return path;
+	}
+
+	private static void assertOrthogonal(List<Point> path) {
+		for (int i = 0; i < path.size() - 1; i++) {
+			Point p = path.get(i);
+			Point q = path.get(i + 1);
+			assertTrue("segment " + p + " -> " + q + " is not orthogonal",
+					Math.abs(p.x - q.x) < 1e-9 || Math.abs(p.y - q.y) < 1e-9);
+		}
+	}
+
+	@Test
+	public void routeAvoidsObstacles() {
+		Group root = new Group();
+		Rectangle source = new Rectangle(0, 0, 50, 50);
+		Rectangle target = new Rectangle(300, 0, 50, 50);
+		Rectangle blocker = new Rectangle(150, -100, 50, 300);
+		root.getChildren().addAll(source, target, blocker);
+
+		OrthogonalRoutingGraph graph = new OrthogonalRoutingGraph();
+		graph.addObstacle(source);
+		graph.addObstacle(target);
+		graph.addObstacle(blocker);
+
+		Point start = new Point(25, 25);
+		Point end = new Point(325, 25);
+		List<Point> path = getPath(start,
+				graph.findRoute(start, source, end, target), end);
+		assertOrthogonal(path);
+		for (int i = 0; i < path.size() - 1; i++) {
+			assertFalse(crosses(path.get(i), path.get(i + 1), blocker));
+		}
+		// the route passes the blocker (including its margin) at the shorter
+		// side
+		assertEquals(4, path.size());
+		assertEquals(-100 - graph.getMargin(), path.get(1).y, 1e-9);
+
+		// move the blocker out of the way, so that a straight route is found
+		blocker.setTranslateY(200);
+		assertTrue(graph.findRoute(start, source, end, target).isEmpty());
+
+		// removed obstacles are no longer avoided
+		blocker.setTranslateY(0);
+		graph.removeObstacle(blocker);
+		assertTrue(graph.findRoute(start, source, end, target).isEmpty());
+	}
+
+	@Test
+	public void routeInContentLayer() {
+		Group root = new Group();
+		Group contentLayer = new Group();
+		contentLayer.setTranslateX(100);
+		contentLayer.setScaleX(2);
+		contentLayer.setScaleY(2);
+		root.getChildren().add(contentLayer);
+		Rectangle source = new Rectangle(0, 0, 50, 50);
+		Rectangle target = new Rectangle(300, 0, 50, 50);
+		Rectangle blocker = new Rectangle(150, -100, 50, 300);
+		contentLayer.getChildren().addAll(source, target, blocker);
+
+		OrthogonalRoutingGraph graph = new OrthogonalRoutingGraph(contentLayer);
+		graph.addObstacle(source);
+		graph.addObstacle(target);
+		graph.addObstacle(blocker);
+
+		// the margin is applied in content layer coordinates
+		Point start = FX2Geometry.toPoint(contentLayer.localToScene(25, 25));
+		Point end = FX2Geometry.toPoint(contentLayer.localToScene(325, 25));
+		List<Point> bendPoints = graph.findRoute(start, source, end, target);
+		assertEquals(2, bendPoints.size());
+		assertEquals(-110, contentLayer.sceneToLocal(bendPoints.get(0).x,
+				bendPoints.get(0).y).getY(), 1e-9);
+
+		// scrolling the content layer translates the route
+		contentLayer.setTranslateX(0);
+		start = FX2Geometry.toPoint(contentLayer.localToScene(25, 25));
+		end = FX2Geometry.toPoint(contentLayer.localToScene(325, 25));
+		bendPoints = graph.findRoute(start, source, end, target);
+		assertEquals(2, bendPoints.size());
+		assertEquals(-110, contentLayer.sceneToLocal(bendPoints.get(0).x,
+				bendPoints.get(0).y).getY(), 1e-9);
+	}
+
+	@Test
+	public void routeConnection() {
+		Group root = new Group();
+		Rectangle source = new Rectangle(0, 0, 50, 50);
+		Rectangle target = new Rectangle(300, 100, 50, 50);
+		Rectangle blocker = new Rectangle(150, -100, 50, 300);
+		Connection connection = new Connection();
+		root.getChildren().addAll(source, target, blocker, connection);
+
+		OrthogonalRoutingGraph graph = new OrthogonalRoutingGraph();
+		graph.addObstacle(source);
+		graph.addObstacle(target);
+		graph.addObstacle(blocker);
+
+		connection.setRouter(new ObstacleAvoidingRouter(graph));
+		connection.setStartAnchor(new DynamicAnchor(source));
+		connection.setEndAnchor(new DynamicAnchor(target));
+
+		List<Point> points = connection.getPointsUnmodifiable();
+		assertOrthogonal(points);
+		for (int i = 0; i < points.size() - 1; i++) {
+			assertFalse(crosses(points.get(i), points.get(i + 1), blocker));
+		}
+		// start and end point lie on the anchorage outlines, the route passes
+		// the blocker at the bottom
+		assertEquals(new Point(25, 50), points.get(0));
+		assertEquals(new Point(325, 150), points.get(points.size() - 1));
+	}
+
+	/**
+	 * Routes connections between the obstacles of a grid, and reroutes them
+	 * after some of the obstacles were moved into the gaps between them.
+	 */
+	@Test
+	public void rerouteConnectionsAfterObstaclesMoved() {
+		Group root = new Group();
+		OrthogonalRoutingGraph graph = new OrthogonalRoutingGraph();
+		List<Rectangle> nodes = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Rectangle node = new Rectangle((i % 10) * 100, (i / 10) * 100, 50,
+					40);
+			root.getChildren().add(node);
+			graph.addObstacle(node);
+			nodes.add(node);
+		}
+		Random random = new Random(7);
+		int[] sources = new int[50];
+		int[] targets = new int[50];
+		for (int i = 0; i < sources.length; i++) {
+			sources[i] = random.nextInt(nodes.size());
+			// connect to a nearby node
+			do {
+				targets[i] = Math.min(nodes.size() - 1,
+						Math.max(0, sources[i] + random.nextInt(5) - 2
+								+ 10 * (random.nextInt(5) - 2)));
+			} while (targets[i] == sources[i]);
+		}
+		for (int iteration = 0; iteration < 3; iteration++) {
+			for (int i = iteration; i < nodes.size() && iteration > 0; i += 7) {
+				nodes.get(i).setTranslateX(50);
+			}
+			for (int i = 0; i < sources.length; i++) {
+				Rectangle source = nodes.get(sources[i]);
+				Rectangle target = nodes.get(targets[i]);
+				Point start = new Point(
+						source.getX() + 25 + source.getTranslateX(),
+						source.getY() + 20);
+				Point end = new Point(
+						target.getX() + 25 + target.getTranslateX(),
+						target.getY() + 20);
+				List<Point> bendPoints = graph.findRoute(start, source, end,
+						target);
+				assertNotNull(bendPoints);
+				List<Point> path = getPath(start, bendPoints, end);
+				assertOrthogonal(path);
+				for (Rectangle obstacle : nodes) {
+					if (obstacle == source || obstacle == target) {
+						continue;
+					}
+					for (int k = 0; k < path.size() - 1; k++) {
+						assertFalse(crosses(path.get(k), path.get(k + 1),
+								obstacle));
+					}
+				}
+			}
+		}
+	}
+}
@@ -77,7 +77,37 @@ public class OrthogonalProjectionStrategyTests {
 		a.getComputationParameter(anchorKey, AnchoredReferencePoint.class).set(new Point(125, 12.5));
 		assertEquals(new Point(37.5, 12.5), a.getPosition(anchorKey));
 	}
-	
-	
+
+	@Test
+	public void projectionFollowsAnchorageTransformAndGeometryChanges() {
+		javafx.scene.shape.Rectangle anchorage = new javafx.scene.shape.Rectangle(0, 0, 50, 50);
+		DynamicAnchor a = new DynamicAnchor(anchorage, new OrthogonalProjectionStrategy());
+		AnchorageReferenceGeometry computationParameter = a.getComputationParameter(AnchorageReferenceGeometry.class);
+		if(computationParameter.isBound()){
+			computationParameter.unbind();
+		}
+		computationParameter.set(new Rectangle(0, 0, 50, 50));
+
+		// two anchor keys share the cached anchorage outline
+		javafx.scene.shape.Rectangle anchored = new javafx.scene.shape.Rectangle(200, 0, 50, 50);
+		AnchorKey firstKey = new AnchorKey(anchored, "first");
+		AnchorKey secondKey = new AnchorKey(anchored, "second");
+		a.attach(firstKey);
+		a.attach(secondKey);
+		a.getComputationParameter(firstKey, AnchoredReferencePoint.class).set(new Point(225, 10));
+		a.getComputationParameter(secondKey, AnchoredReferencePoint.class).set(new Point(225, 40));
+		assertEquals(new Point(50, 10), a.getPosition(firstKey));
+		assertEquals(new Point(50, 40), a.getPosition(secondKey));
+
+		// move the anchorage, so that its local-to-scene transform changes
+		anchorage.setTranslateX(100);
+		a.getComputationParameter(firstKey, AnchoredReferencePoint.class).set(new Point(225, 20));
+		assertEquals(new Point(150, 20), a.getPosition(firstKey));
+
+		// exchange the geometry
+		computationParameter.set(new Rectangle(0, 0, 80, 50));
+		assertEquals(new Point(180, 20), a.getPosition(firstKey));
+		assertEquals(new Point(180, 40), a.getPosition(secondKey));
+	}
 
 }
@@ -13,8 +13,10 @@
 package org.eclipse.gef.fx.anchors;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -29,6 +31,8 @@ import org.eclipse.gef.fx.anchors.IComputationStrategy.Parameter.Kind;
 import org.eclipse.gef.fx.utils.NodeUtils;
 import org.eclipse.gef.geometry.convert.fx.FX2Geometry;
 import org.eclipse.gef.geometry.convert.fx.Geometry2FX;
+import org.eclipse.gef.geometry.planar.AffineTransform;
+import org.eclipse.gef.geometry.planar.ICurve;
 import org.eclipse.gef.geometry.planar.IGeometry;
 import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
@@ -59,9 +63,26 @@ public class DynamicAnchor extends AbstractAnchor {
 	/**
 	 * An {@link IComputationStrategy.Parameter} that encapsulates an
 	 * (anchorage) reference geometry.
+	 * <p>
+	 * As the parameter is shared by all {@link AnchorKey}s of a
+	 * {@link DynamicAnchor}, it caches the geometry transformed into scene
+	 * coordinates, together with its outline segments, so that these are only
+	 * recomputed when the geometry is exchanged or the local-to-scene
+	 * transformation of the anchorage changes. Therefore, the geometry may not
+	 * be modified in place, but has to be replaced by a new value.
 	 */
 	public static class AnchorageReferenceGeometry
 			extends Parameter<IGeometry> {
+
+		// the anchorage and its local-to-scene transformation for which the
+		// scene geometry was computed
+		private Node anchorage;
+		private AffineTransform localToSceneTx;
+		private IGeometry geometryInScene;
+		// the strategy that determined the outline segments
+		private ProjectionStrategy outlineStrategy;
+		private List<ICurve> outlinesInScene;
+
 		/**
 		 * Creates a new {@link AnchorageReferenceGeometry} with no default
 		 * value.
@@ -81,6 +102,49 @@ public class DynamicAnchor extends AbstractAnchor {
 			super(Kind.ANCHORAGE);
 			set(defaultValue);
 		}
+
+		/**
+		 * Returns the geometry transformed into the scene coordinate system
+		 * of the given anchorage. The result is cached until the geometry or
+		 * the local-to-scene transformation of the anchorage changes.
+		 */
+		IGeometry getGeometryInScene(Node anchorage) {
+			AffineTransform tx = NodeUtils.getLocalToSceneTx(anchorage);
+			if (geometryInScene == null || this.anchorage != anchorage
+					|| !tx.equals(localToSceneTx)) {
+				geometryInScene = get().getTransformed(tx);
+				this.anchorage = anchorage;
+				localToSceneTx = tx;
+				outlinesInScene = null;
+			}
+			return geometryInScene;
+		}
+
+		/**
+		 * Returns the outline segments of the geometry in scene coordinates,
+		 * as determined by the given {@link ProjectionStrategy}. The result is
+		 * cached in the same way as {@link #getGeometryInScene(Node)}.
+		 */
+		List<ICurve> getOutlineSegmentsInScene(Node anchorage,
+				ProjectionStrategy strategy) {
+			IGeometry geometry = getGeometryInScene(anchorage);
+			if (outlinesInScene == null || outlineStrategy != strategy) {
+				outlinesInScene = Collections.unmodifiableList(
+						strategy.getOutlineSegments(geometry));
+				outlineStrategy = strategy;
+			}
+			return outlinesInScene;
+		}
+
+		@Override
+		protected void invalidated() {
+			// drop the cache when the geometry changes
+			anchorage = null;
+			localToSceneTx = null;
+			geometryInScene = null;
+			outlineStrategy = null;
+			outlinesInScene = null;
+		}
 	}
 
 	/**
@@ -13,7 +13,6 @@
 package org.eclipse.gef.fx.anchors;
 
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Set;
 
 import org.eclipse.gef.geometry.planar.Point;
@@ -79,26 +78,22 @@ public interface IComputationStrategy {
 		protected static <T extends Parameter<?>> T get(
 				Collection<? extends Parameter<?>> parameters,
 				Class<T> parameterType) {
-			Set<T> parametersOfType = new HashSet<>();
+			T parameterOfType = null;
 			for (Parameter<?> p : parameters) {
 				if (parameterType.equals(p.getClass())) {
-					parametersOfType.add((T) p);
+					if (parameterOfType != null && parameterOfType != p) {
+						// this should already be guarded, but we provide an
+						// additional check here
+						throw new IllegalArgumentException(
+								"The given set of parameters contains more than one parameter of type "
+										+ parameterType.getSimpleName() + ": "
+										+ parameters);
+					}
+					parameterOfType = (T) p;
 				}
 			}
-			if (parametersOfType.isEmpty()) {
-				return null;
-			} else if (parametersOfType.size() > 1) {
-				// this should already be guarded, but we provide an additional
-				// check here
-				throw new IllegalArgumentException(
-						"The given set of parameters contains "
-								+ parameters.size() + " parameters of type "
-								+ parameterType.getSimpleName() + ": "
-								+ parameters);
-			} else {
-				// TODO: create one if needed (using default constructor)
-				return parametersOfType.iterator().next();
-			}
+			// TODO: create one if needed (using default constructor)
+			return parameterOfType;
 		}
 
 		/**
@@ -247,7 +242,13 @@ public interface IComputationStrategy {
 			Set<Parameter<?>> parameters);
 
 	/**
-	 * Returns the types of parameters required by this strategy.
+	 * Returns the types of parameters required by this strategy. As this
+	 * method is queried for each position computation, implementations may
+	 * return an unmodifiable {@link Set} that is shared between invocations
+	 * (and instances). Therefore, callers must not modify the returned
+	 * {@link Set}, and subclasses that require additional parameters have to
+	 * return a new {@link Set} instead of adding to the one that is returned
+	 * by the super implementation.
 	 *
 	 * @return The parameters required by this strategy.
 	 */
@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.eclipse.gef.fx.anchors;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -36,6 +37,8 @@ import javafx.geometry.Orientation;
  */
 public class OrthogonalProjectionStrategy extends ProjectionStrategy {
 
+	private Set<Class<? extends Parameter<?>>> requiredParameters;
+
 	@Override
 	protected Point computeProjectionInScene(
 			List<ICurve> anchorageOutlinesInScene,
@@ -185,12 +188,22 @@ public class OrthogonalProjectionStrategy extends ProjectionStrategy {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The returned set is unmodifiable. It is created on first access and
+	 * reused afterwards.
+	 */
 	@Override
 	public Set<Class<? extends Parameter<?>>> getRequiredParameters() {
-		Set<Class<? extends Parameter<?>>> dynamicParameters = new HashSet<>();
-		dynamicParameters.addAll(super.getRequiredParameters());
-		dynamicParameters.add(PreferredOrientation.class);
-		return dynamicParameters;
+		if (requiredParameters == null) {
+			Set<Class<? extends Parameter<?>>> dynamicParameters = new HashSet<>();
+			dynamicParameters.addAll(super.getRequiredParameters());
+			dynamicParameters.add(PreferredOrientation.class);
+			requiredParameters = Collections
+					.unmodifiableSet(dynamicParameters);
+		}
+		return requiredParameters;
 	}
 
 	/**
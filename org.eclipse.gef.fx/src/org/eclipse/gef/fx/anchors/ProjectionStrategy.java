@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.eclipse.gef.fx.anchors;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -37,7 +38,9 @@ import javafx.scene.Node;
  * In detail, the computation is done as follows:
  * <ol>
  * <li>Compute the anchorage outlines (in scene) based on the anchorage
- * reference geometry,using {@link #getOutlineSegments(IGeometry)}.</li>
+ * reference geometry,using {@link #getOutlineSegments(IGeometry)}. The
+ * outlines are cached by the {@link AnchorageReferenceGeometry} parameter, so
+ * that they are shared by all anchor keys of a {@link DynamicAnchor}.</li>
  * <li>Transform the given anchored reference point to scene coordinates.</li>
  * <li>Project the anchored reference point (in scene) onto the anchorage
  * outlines.</li>
@@ -49,22 +52,25 @@ import javafx.scene.Node;
  */
 public class ProjectionStrategy implements IComputationStrategy {
 
+	private static final Set<Class<? extends Parameter<?>>> REQUIRED_PARAMETERS = Collections
+			.unmodifiableSet(new HashSet<Class<? extends Parameter<?>>>(
+					Arrays.<Class<? extends Parameter<?>>> asList(
+							AnchorageReferenceGeometry.class,
+							AnchoredReferencePoint.class)));
+
 	@Override
 	public Point computePositionInScene(Node anchorage, Node anchored,
 			Set<Parameter<?>> parameters) {
 		// retrieve required computation parameters
-		IGeometry anchorageReferenceGeometryInLocal = Parameter
-				.get(parameters, AnchorageReferenceGeometry.class).get();
+		AnchorageReferenceGeometry anchorageReferenceGeometry = Parameter
+				.get(parameters, AnchorageReferenceGeometry.class);
 		Point anchoredReferencePointInLocal = Parameter
 				.get(parameters, AnchoredReferencePoint.class).get();
 
-		// determine anchorage geometry in scene
-		IGeometry anchorageGeometryInScene = NodeUtils.localToScene(anchorage,
-				anchorageReferenceGeometryInLocal);
-
-		// determine anchorage outlines in scene
-		List<ICurve> anchorageOutlinesInScene = getOutlineSegments(
-				anchorageGeometryInScene);
+		// determine anchorage outlines in scene (cached by the parameter, so
+		// that they are shared by all anchor keys)
+		List<ICurve> anchorageOutlinesInScene = anchorageReferenceGeometry
+				.getOutlineSegmentsInScene(anchorage, this);
 
 		// transform anchored reference point to scene
 		Point anchoredReferencePointInScene = NodeUtils.localToScene(anchored,
@@ -124,11 +130,14 @@ public class ProjectionStrategy implements IComputationStrategy {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The returned set is unmodifiable and shared by all
+	 * {@link ProjectionStrategy} instances.
+	 */
 	@Override
 	public Set<Class<? extends Parameter<?>>> getRequiredParameters() {
-		Set<Class<? extends Parameter<?>>> parameters = new HashSet<>();
-		parameters.add(AnchorageReferenceGeometry.class);
-		parameters.add(AnchoredReferencePoint.class);
-		return parameters;
+		return REQUIRED_PARAMETERS;
 	}
 }
\ No newline at end of file
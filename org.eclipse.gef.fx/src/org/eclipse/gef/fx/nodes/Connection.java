@@ -76,6 +76,15 @@ import javafx.scene.transform.Transform;
  * {@link Connection} can be controlled via start and end decorations. They will
  * be rendered 'on-top' of the curveProperty shape and the curveProperty shape
  * will be properly clipped at the decorations (so it does not paint through).
+ * <p>
+ * Per default, a {@link Connection} is refreshed synchronously upon every
+ * change of its anchors, hints, or transformations. When moving many connected
+ * nodes at once, this leads to a multitude of redundant refreshes per frame.
+ * Therefore, refreshes may be deferred (see
+ * {@link #setRefreshDeferred(boolean)}), so that the {@link Connection} only
+ * marks itself invalid upon changes and is refreshed at most once per JavaFX
+ * pulse, during the layout pass. The {@link #flush()} method can be used to
+ * perform a pending refresh immediately.
  *
  * @author anyssen
  * @author mwienand
@@ -312,6 +321,8 @@ public class Connection extends Group {
 		}
 	};
 	private boolean inRefresh = false;
+	private boolean refreshDeferred = false;
+	private boolean refreshPending = false;
 
 	/**
 	 * Constructs a new {@link Connection} whose start and end point are set to
@@ -613,6 +624,20 @@ public class Connection extends Group {
 		return endDecorationProperty;
 	}
 
+	/**
+	 * Performs a pending refresh immediately, in case refreshes are
+	 * {@link #isRefreshDeferred() deferred} and this {@link Connection} was
+	 * invalidated since it was last refreshed. Needs to be called by clients
+	 * that require an up-to-date route or curve geometry before the next
+	 * layout pass.
+	 */
+	public void flush() {
+		if (refreshPending) {
+			refreshPending = false;
+			doRefresh();
+		}
+	}
+
 	/**
 	 * Returns the anchor at the given index. The start anchor will be provided
 	 * for <code>index == 0</code>, the end anchor for the last defined index.
@@ -1066,6 +1091,18 @@ public class Connection extends Group {
 		return isConnected(getEndAnchor());
 	}
 
+	/**
+	 * Returns <code>true</code> if refreshes of this {@link Connection} are
+	 * deferred to the next layout pass. Otherwise returns <code>false</code>.
+	 *
+	 * @return <code>true</code> if refreshes are deferred, otherwise
+	 *         <code>false</code>.
+	 * @see #setRefreshDeferred(boolean)
+	 */
+	public boolean isRefreshDeferred() {
+		return refreshDeferred;
+	}
+
 	/**
 	 * Returns <code>true</code> if the currently assigned
 	 * {@link #getStartAnchor() start anchor} is bound to an anchorage.
@@ -1079,6 +1116,13 @@ public class Connection extends Group {
 		return isConnected(getStartAnchor());
 	}
 
+	@Override
+	protected void layoutChildren() {
+		// perform a deferred refresh (at most once per pulse)
+		flush();
+		super.layoutChildren();
+	}
+
 	@Override
 	public double maxHeight(double width) {
 		return Double.MAX_VALUE;
@@ -1182,7 +1226,10 @@ public class Connection extends Group {
 	 * transformation, etc. changes. This method is safe against reentrance,
 	 * i.e. changes performed by {@link #refresh()} are allowed to lead to
 	 * another {@link #refresh()} call. However, when this method is called
-	 * reentrant, it returns immediately.
+	 * reentrant, it returns immediately. If refreshes are
+	 * {@link #isRefreshDeferred() deferred}, this method only marks this
+	 * {@link Connection} as invalid and requests a layout pass, during which
+	 * the refresh is performed.
 	 * <p>
 	 * The process of refreshing a {@link Connection} is somewhat complicated as
 	 * it involves transforming points according to a transformation change,
@@ -1229,6 +1276,22 @@ public class Connection extends Group {
 	 * </ol>
 	 */
 	protected void refresh() {
+		// guard against refreshing while refreshing
+		if (inRefresh) {
+			return;
+		}
+		if (refreshDeferred) {
+			// coalesce all refreshes until the next layout pass
+			if (!refreshPending) {
+				refreshPending = true;
+				requestLayout();
+			}
+			return;
+		}
+		doRefresh();
+	}
+
+	private void doRefresh() {
 		// guard against refreshing while refreshing
 		if (inRefresh) {
 			return;
@@ -1826,6 +1889,26 @@ public class Connection extends Group {
 		refresh();
 	}
 
+	/**
+	 * Specifies whether refreshes of this {@link Connection} are deferred. If
+	 * enabled, changes of anchor positions, hints, or transformations only mark
+	 * this {@link Connection} as invalid, and routing and interpolation are
+	 * performed at most once per JavaFX pulse, during the layout pass. A
+	 * pending refresh can be performed immediately using {@link #flush()}.
+	 * Disabling deferred refreshes performs a pending refresh immediately.
+	 * Default is <code>false</code>.
+	 *
+	 * @param refreshDeferred
+	 *            <code>true</code> to defer refreshes to the next layout pass,
+	 *            <code>false</code> to refresh synchronously.
+	 */
+	public void setRefreshDeferred(boolean refreshDeferred) {
+		this.refreshDeferred = refreshDeferred;
+		if (!refreshDeferred) {
+			flush();
+		}
+	}
+
 	/**
 	 * Sets the {@link IConnectionRouter} of this {@link Connection} to the
 	 * given value.
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.nodes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.gef.fx.anchors.IAnchor;
+import org.eclipse.gef.fx.utils.NodeUtils;
+import org.eclipse.gef.geometry.planar.IGeometry;
+import org.eclipse.gef.geometry.planar.Point;
+
+import javafx.scene.Node;
+
+/**
+ * An {@link IConnectionRouter} that routes the segments between the way points
+ * of a {@link Connection} orthogonally around obstacles. The routes are
+ * computed by an {@link OrthogonalRoutingGraph}, which maintains the
+ * obstacles and is usually shared by all connections of a viewer.
+ * <p>
+ * Connected anchors are routed from (and to) the center of their anchorage
+ * geometry, so that the first (and last) route segment is aligned with the
+ * center and, thus, hits the anchorage outline orthogonally. The anchorages of
+ * a route's end points are not treated as obstacles for that route. If no
+ * route can be found (e.g. because an end point is enclosed by obstacles), a
+ * single bend is inserted.
+ *
+ */
+public class ObstacleAvoidingRouter extends AbstractRouter {
+
+	private final OrthogonalRoutingGraph routingGraph;
+
+	// bend points of the individual segments (in connection coordinates)
+	// that are computed before the anchor parameters are updated
+	private List<List<Point>> routes = new ArrayList<>();
+
+	/**
+	 * Constructs a new {@link ObstacleAvoidingRouter} that computes routes
+	 * using the given {@link OrthogonalRoutingGraph}.
+	 *
+	 * @param routingGraph
+	 *            The {@link OrthogonalRoutingGraph} that maintains the
+	 *            obstacles.
+	 */
+	public ObstacleAvoidingRouter(OrthogonalRoutingGraph routingGraph) {
+		this.routingGraph = routingGraph;
+	}
+
+	private List<Point> computeRoute(Connection connection, int index,
+			Point start, Point end) {
+		Point startInScene = NodeUtils.localToScene(connection, start);
+		Point endInScene = NodeUtils.localToScene(connection, end);
+		List<Point> bendPointsInScene = routingGraph.findRoute(startInScene,
+				getAnchorage(connection, index), endInScene,
+				getAnchorage(connection, index + 1));
+		if (bendPointsInScene == null) {
+			// fall back to a single bend
+			if (start.x == end.x || start.y == end.y) {
+				return Collections.emptyList();
+			}
+			return Collections.singletonList(new Point(end.x, start.y));
+		}
+		List<Point> bendPoints = new ArrayList<>();
+		for (Point p : bendPointsInScene) {
+			bendPoints.add(NodeUtils.sceneToLocal(connection, p));
+		}
+		return bendPoints;
+	}
+
+	private Node getAnchorage(Connection connection, int index) {
+		IAnchor anchor = connection.getAnchor(index);
+		return connection.isConnected(anchor) ? anchor.getAnchorage() : null;
+	}
+
+	@Override
+	protected Point getAnchoredReferencePoint(List<Point> points, int index) {
+		if (index < 0 || index >= points.size()) {
+			throw new IndexOutOfBoundsException();
+		}
+		// use the adjacent bend point, so that the anchor is hit orthogonally
+		if (index < routes.size() && !routes.get(index).isEmpty()) {
+			return routes.get(index).get(0);
+		}
+		if (index > 0 && !routes.get(index - 1).isEmpty()) {
+			List<Point> route = routes.get(index - 1);
+			return route.get(route.size() - 1);
+		}
+		// fall back to the adjacent way point (or anchorage center)
+		return getRoutingPoint(points, index < points.size() - 1 ? index + 1
+				: index - 1);
+	}
+
+	/**
+	 * Returns the {@link OrthogonalRoutingGraph} that is used to compute the
+	 * routes.
+	 *
+	 * @return The {@link OrthogonalRoutingGraph} of this router.
+	 */
+	public OrthogonalRoutingGraph getRoutingGraph() {
+		return routingGraph;
+	}
+
+	/**
+	 * Returns the point from which the route of the given way point starts
+	 * (within the coordinate system of the {@link Connection}), i.e. the
+	 * center of the anchorage geometry for connected anchors, and the way
+	 * point itself otherwise.
+	 */
+	private Point getRoutingPoint(List<Point> points, int index) {
+		IGeometry geometry = getAnchorageGeometry(index);
+		if (geometry != null) {
+			return geometry.getBounds().getCenter();
+		}
+		return points.get(index);
+	}
+
+	@Override
+	protected void insertRouterAnchors(Connection connection) {
+		ControlPointManipulator cpm = createControlPointManipulator(connection);
+		for (int i = 0; i < routes.size(); i++) {
+			List<Point> route = routes.get(i);
+			if (route.isEmpty()) {
+				continue;
+			}
+			double[] deltas = new double[2 * route.size()];
+			for (int j = 0; j < route.size(); j++) {
+				deltas[2 * j] = route.get(j).x;
+				deltas[2 * j + 1] = route.get(j).y;
+			}
+			cpm.addRoutingPoints(i + 1, new Point(), deltas);
+		}
+		cpm.applyChanges();
+	}
+
+	@Override
+	protected void updateComputationParameters(Connection connection) {
+		// compute the routes between the (user-defined) way points first, so
+		// that the anchors can be provided with the adjacent bend points
+		List<Point> points = new ArrayList<>(
+				connection.getPointsUnmodifiable());
+		routes = new ArrayList<>();
+		for (int i = 0; i < points.size() - 1; i++) {
+			routes.add(computeRoute(connection, i, getRoutingPoint(points, i),
+					getRoutingPoint(points, i + 1)));
+		}
+		super.updateComputationParameters(connection);
+	}
+}
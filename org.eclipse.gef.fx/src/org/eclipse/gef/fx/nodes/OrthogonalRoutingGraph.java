@@ -0,0 +1,629 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.nodes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.gef.geometry.convert.fx.FX2Geometry;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+
+/**
+ * The {@link OrthogonalRoutingGraph} maintains the obstacles (i.e. the bounds
+ * of the registered {@link Node}s) that orthogonal routes have to avoid, and
+ * computes such routes. It is intended to be shared by all
+ * {@link ObstacleAvoidingRouter}s of a viewer.
+ * <p>
+ * The obstacle bounds are maintained relative to a content layer, i.e. a
+ * common ancestor of the obstacles (e.g. the content group of an
+ * {@link InfiniteCanvas}), so that scrolling or zooming the viewport (which
+ * transforms the content layer) does not invalidate the obstacles. Without a
+ * content layer, the bounds are maintained relative to the root of the scene
+ * graph. Transformations of the ancestors between an obstacle and the content
+ * layer are not observed.
+ * <p>
+ * The routing graph is the orthogonal visibility graph of the obstacles: its
+ * vertices are the intersections of the horizontal and vertical lines that
+ * pass along the obstacle sides (at a distance of the {@link #getMargin()
+ * margin}) and through the route end points, and its edges connect adjacent
+ * vertices whose connecting segment does not cross an obstacle. The graph is
+ * not materialized, but explored implicitly by an A* search, which minimizes
+ * the route length plus a penalty per bend.
+ * <p>
+ * The graph registers listeners at the bounds in parent (and the parent) of
+ * the obstacle {@link Node}s, so that it is updated incrementally when a
+ * {@link Node} is moved or resized: only the
+ * changed obstacle is re-inserted into the coordinate sets and the spatial
+ * index (a uniform grid of buckets). Updates are performed lazily before the
+ * next route is computed, so that several changes within one frame are
+ * processed only once.
+ */
+public class OrthogonalRoutingGraph {
+
+	/**
+	 * A registered obstacle with its bounds in content layer coordinates,
+	 * expanded by the margin.
+	 */
+	private static final class Obstacle {
+		private final Node node;
+		private ChangeListener<Object> listener;
+		private Rectangle bounds;
+		private long[] cells = new long[0];
+
+		private Obstacle(Node node) {
+			this.node = node;
+		}
+	}
+
+	/**
+	 * An entry of the A* search queue.
+	 */
+	private static final class SearchEntry {
+		private final long state;
+		private final double f;
+		private final double h;
+
+		private SearchEntry(long state, double f, double h) {
+			this.state = state;
+			this.f = f;
+			this.h = h;
+		}
+	}
+
+	/**
+	 * The costs and predecessors of the states that were reached by the A*
+	 * search, stored in an open addressing hash table to avoid boxing. States
+	 * are non-negative, so that -1 marks empty slots.
+	 */
+	private static final class StateTable {
+		private long[] states = new long[1024];
+		private double[] costs = new double[1024];
+		private long[] predecessors = new long[1024];
+		private int size;
+
+		private StateTable() {
+			Arrays.fill(states, -1);
+		}
+
+		private int find(long state) {
+			int mask = states.length - 1;
+			int slot = (int) (state * 0x9e3779b97f4a7c15L >>> 32) & mask;
+			while (states[slot] != -1 && states[slot] != state) {
+				slot = slot + 1 & mask;
+			}
+			return slot;
+		}
+
+		/**
+		 * Returns the cost of the given state, or infinity if the state was
+		 * not reached yet.
+		 */
+		private double getCost(long state) {
+			int slot = find(state);
+			return states[slot] == -1 ? Double.POSITIVE_INFINITY
+					: costs[slot];
+		}
+
+		/**
+		 * Returns the predecessor of the given state, or -1 if the state has
+		 * no predecessor.
+		 */
+		private long getPredecessor(long state) {
+			int slot = find(state);
+			return states[slot] == -1 ? -1 : predecessors[slot];
+		}
+
+		private void put(long state, double cost, long predecessor) {
+			int slot = find(state);
+			if (states[slot] == -1) {
+				if (2 * (size + 1) > states.length) {
+					grow();
+					slot = find(state);
+				}
+				states[slot] = state;
+				size++;
+			}
+			costs[slot] = cost;
+			predecessors[slot] = predecessor;
+		}
+
+		private void grow() {
+			long[] oldStates = states;
+			double[] oldCosts = costs;
+			long[] oldPredecessors = predecessors;
+			states = new long[2 * oldStates.length];
+			costs = new double[states.length];
+			predecessors = new long[states.length];
+			Arrays.fill(states, -1);
+			for (int i = 0; i < oldStates.length; i++) {
+				if (oldStates[i] != -1) {
+					int slot = find(oldStates[i]);
+					states[slot] = oldStates[i];
+					costs[slot] = oldCosts[i];
+					predecessors[slot] = oldPredecessors[i];
+				}
+			}
+		}
+	}
+
+	/**
+	 * The default distance that routes keep to obstacles.
+	 */
+	public static final double DEFAULT_MARGIN = 10;
+
+	/**
+	 * The default cost of a bend, in relation to the route length.
+	 */
+	public static final double DEFAULT_BEND_PENALTY = 30;
+
+	/**
+	 * The edge length of the spatial index buckets.
+	 */
+	private static final double CELL_SIZE = 128;
+
+	/**
+	 * The maximum number of states the A* search expands before giving up.
+	 */
+	private static final int MAX_EXPANSIONS = 100000;
+
+	// directions: +x, -x, +y, -y, and none (for the start state)
+	private static final int[] DX = { 1, -1, 0, 0 };
+	private static final int[] DY = { 0, 0, 1, -1 };
+	private static final int NONE = 4;
+
+	private final Node contentLayer;
+	private final Map<Node, Obstacle> obstacles = new IdentityHashMap<>();
+	private final Set<Obstacle> dirtyObstacles = new LinkedHashSet<>();
+	private final Map<Long, List<Obstacle>> buckets = new HashMap<>();
+	private final TreeMap<Double, Integer> xCounts = new TreeMap<>();
+	private final TreeMap<Double, Integer> yCounts = new TreeMap<>();
+	private double[] xs = new double[0];
+	private double[] ys = new double[0];
+	private boolean coordinatesChanged = false;
+
+	private double margin = DEFAULT_MARGIN;
+	private double bendPenalty = DEFAULT_BEND_PENALTY;
+
+	/**
+	 * Constructs a new {@link OrthogonalRoutingGraph} that maintains the
+	 * obstacle bounds relative to the root of the scene graph.
+	 */
+	public OrthogonalRoutingGraph() {
+		this(null);
+	}
+
+	/**
+	 * Constructs a new {@link OrthogonalRoutingGraph} that maintains the
+	 * obstacle bounds relative to the given content layer, which has to be an
+	 * ancestor of all obstacles.
+	 *
+	 * @param contentLayer
+	 *            The {@link Node} relative to which the obstacle bounds are
+	 *            maintained, or <code>null</code> to use the root of the scene
+	 *            graph.
+	 */
+	public OrthogonalRoutingGraph(Node contentLayer) {
+		this.contentLayer = contentLayer;
+	}
+
+	/**
+	 * Registers the given {@link Node} as an obstacle that is to be avoided by
+	 * routes.
+	 *
+	 * @param node
+	 *            The {@link Node} to register as an obstacle.
+	 */
+	public void addObstacle(Node node) {
+		if (obstacles.containsKey(node)) {
+			return;
+		}
+		final Obstacle obstacle = new Obstacle(node);
+		obstacle.listener = new ChangeListener<Object>() {
+			@Override
+			public void changed(ObservableValue<? extends Object> observable,
+					Object oldValue, Object newValue) {
+				dirtyObstacles.add(obstacle);
+			}
+		};
+		node.boundsInParentProperty().addListener(obstacle.listener);
+		node.parentProperty().addListener(obstacle.listener);
+		obstacles.put(node, obstacle);
+		dirtyObstacles.add(obstacle);
+	}
+
+	/**
+	 * Computes an orthogonal route from the given start point to the given end
+	 * point (both in scene coordinates) that avoids all obstacles except for
+	 * the given start and end obstacles (which usually contain the start and
+	 * end point, respectively). Returns the bend points of the route (in scene
+	 * coordinates, excluding the start and end point), or <code>null</code> if
+	 * no such route exists.
+	 *
+	 * @param startInScene
+	 *            The start point of the route in scene coordinates.
+	 * @param startObstacle
+	 *            The {@link Node} that may be crossed at the start of the
+	 *            route, or <code>null</code>.
+	 * @param endInScene
+	 *            The end point of the route in scene coordinates.
+	 * @param endObstacle
+	 *            The {@link Node} that may be crossed at the end of the route,
+	 *            or <code>null</code>.
+	 * @return The bend points of the route, or <code>null</code> if no route
+	 *         was found.
+	 */
+	public List<Point> findRoute(Point startInScene, Node startObstacle,
+			Point endInScene, Node endObstacle) {
+		validate();
+		Point start = sceneToContentLayer(startInScene);
+		Point end = sceneToContentLayer(endInScene);
+		double[] routeXs = insert(insert(xs, start.x), end.x);
+		double[] routeYs = insert(insert(ys, start.y), end.y);
+		int nx = routeXs.length;
+		int ny = routeYs.length;
+		int startI = Arrays.binarySearch(routeXs, start.x);
+		int startJ = Arrays.binarySearch(routeYs, start.y);
+		int endI = Arrays.binarySearch(routeXs, end.x);
+		int endJ = Arrays.binarySearch(routeYs, end.y);
+		if (startI == endI && startJ == endJ) {
+			return Collections.emptyList();
+		}
+		Obstacle ignored1 = startObstacle == null ? null
+				: obstacles.get(startObstacle);
+		Obstacle ignored2 = endObstacle == null ? null
+				: obstacles.get(endObstacle);
+
+		// A* search over states (vertex, direction of arrival)
+		StateTable table = new StateTable();
+		PriorityQueue<SearchEntry> queue = new PriorityQueue<>(
+				new Comparator<SearchEntry>() {
+					@Override
+					public int compare(SearchEntry e1, SearchEntry e2) {
+						if (e1.f != e2.f) {
+							return Double.compare(e1.f, e2.f);
+						}
+						return Double.compare(e1.h, e2.h);
+					}
+				});
+		long startState = ((long) startI * ny + startJ) * 5 + NONE;
+		table.put(startState, 0, -1);
+		double h = estimate(routeXs[startI], routeYs[startJ], end);
+		queue.add(new SearchEntry(startState, h, h));
+		int expansions = 0;
+		long goal = -1;
+		while (!queue.isEmpty() && expansions < MAX_EXPANSIONS) {
+			SearchEntry entry = queue.poll();
+			long state = entry.state;
+			long vertex = state / 5;
+			int direction = (int) (state % 5);
+			int i = (int) (vertex / ny);
+			int j = (int) (vertex % ny);
+			double cost = table.getCost(state);
+			if (entry.f > cost + estimate(routeXs[i], routeYs[j], end)) {
+				// stale entry
+				continue;
+			}
+			if (i == endI && j == endJ) {
+				goal = state;
+				break;
+			}
+			expansions++;
+			for (int d = 0; d < 4; d++) {
+				// do not reverse the direction
+				if (direction != NONE && d == (direction ^ 1)) {
+					continue;
+				}
+				int ni = i + DX[d];
+				int nj = j + DY[d];
+				if (ni < 0 || ni >= nx || nj < 0 || nj >= ny) {
+					continue;
+				}
+				double x = routeXs[i];
+				double y = routeYs[j];
+				double nextX = routeXs[ni];
+				double nextY = routeYs[nj];
+				// as no obstacle side lies strictly between adjacent
+				// coordinates, testing the midpoint suffices
+				if (isBlocked((x + nextX) / 2, (y + nextY) / 2, ignored1,
+						ignored2)) {
+					continue;
+				}
+				double nextCost = cost + Math.abs(nextX - x)
+						+ Math.abs(nextY - y)
+						+ (direction != NONE && direction != d ? bendPenalty
+								: 0);
+				long nextState = ((long) ni * ny + nj) * 5 + d;
+				if (nextCost < table.getCost(nextState)) {
+					table.put(nextState, nextCost, state);
+					double nextH = estimate(nextX, nextY, end);
+					queue.add(new SearchEntry(nextState, nextCost + nextH,
+							nextH));
+				}
+			}
+		}
+		if (goal < 0) {
+			return null;
+		}
+
+		// collect the bend points
+		List<Point> bendPoints = new ArrayList<>();
+		long state = goal;
+		long predecessor;
+		while ((predecessor = table.getPredecessor(state)) >= 0) {
+			long direction = predecessor % 5;
+			if (direction != NONE && direction != state % 5) {
+				long vertex = predecessor / 5;
+				bendPoints.add(contentLayerToScene(new Point(
+						routeXs[(int) (vertex / ny)],
+						routeYs[(int) (vertex % ny)])));
+			}
+			state = predecessor;
+		}
+		Collections.reverse(bendPoints);
+		return bendPoints;
+	}
+
+	/**
+	 * Returns the cost of a bend, in relation to the route length.
+	 *
+	 * @return The cost of a bend.
+	 */
+	public double getBendPenalty() {
+		return bendPenalty;
+	}
+
+	/**
+	 * Returns the distance that routes keep to obstacles.
+	 *
+	 * @return The distance that routes keep to obstacles.
+	 */
+	public double getMargin() {
+		return margin;
+	}
+
+	/**
+	 * Returns the {@link Node}s that are registered as obstacles.
+	 *
+	 * @return The {@link Node}s that are registered as obstacles.
+	 */
+	public Set<Node> getObstacles() {
+		return Collections.unmodifiableSet(obstacles.keySet());
+	}
+
+	/**
+	 * Unregisters the given {@link Node}, so that it is no longer avoided by
+	 * routes.
+	 *
+	 * @param node
+	 *            The {@link Node} to unregister.
+	 */
+	public void removeObstacle(Node node) {
+		Obstacle obstacle = obstacles.remove(node);
+		if (obstacle == null) {
+			return;
+		}
+		node.boundsInParentProperty().removeListener(obstacle.listener);
+		node.parentProperty().removeListener(obstacle.listener);
+		dirtyObstacles.remove(obstacle);
+		remove(obstacle);
+	}
+
+	/**
+	 * Sets the cost of a bend, in relation to the route length. Default is
+	 * {@link #DEFAULT_BEND_PENALTY}.
+	 *
+	 * @param bendPenalty
+	 *            The cost of a bend.
+	 */
+	public void setBendPenalty(double bendPenalty) {
+		this.bendPenalty = bendPenalty;
+	}
+
+	/**
+	 * Sets the distance that routes keep to obstacles. Default is
+	 * {@link #DEFAULT_MARGIN}.
+	 *
+	 * @param margin
+	 *            The distance that routes keep to obstacles.
+	 */
+	public void setMargin(double margin) {
+		this.margin = margin;
+		dirtyObstacles.addAll(obstacles.values());
+	}
+
+	/**
+	 * Returns an estimate of the remaining cost from the given location to the
+	 * given end point, which does not overestimate the actual cost.
+	 */
+	private double estimate(double x, double y, Point end) {
+		double h = Math.abs(end.x - x) + Math.abs(end.y - y);
+		if (x != end.x && y != end.y) {
+			// at least one bend is needed
+			h += bendPenalty;
+		}
+		return h;
+	}
+
+	/**
+	 * Computes the layout bounds of the given obstacle {@link Node} relative to
+	 * the content layer.
+	 */
+	private Rectangle computeBounds(Node node) {
+		Bounds bounds = node.localToParent(node.getLayoutBounds());
+		Parent parent = node.getParent();
+		while (parent != null && parent != contentLayer) {
+			bounds = parent.localToParent(bounds);
+			parent = parent.getParent();
+		}
+		return FX2Geometry.toRectangle(bounds);
+	}
+
+	private Point contentLayerToScene(Point point) {
+		if (contentLayer == null) {
+			return point;
+		}
+		return FX2Geometry
+				.toPoint(contentLayer.localToScene(point.x, point.y));
+	}
+
+	private Point sceneToContentLayer(Point point) {
+		if (contentLayer == null) {
+			return point;
+		}
+		return FX2Geometry
+				.toPoint(contentLayer.sceneToLocal(point.x, point.y));
+	}
+
+	private static long getCell(double x, double y) {
+		long cellX = (long) Math.floor(x / CELL_SIZE);
+		long cellY = (long) Math.floor(y / CELL_SIZE);
+		return cellX << 32 ^ cellY & 0xffffffffL;
+	}
+
+	private static double[] insert(double[] coordinates, double value) {
+		int index = Arrays.binarySearch(coordinates, value);
+		if (index >= 0) {
+			return coordinates;
+		}
+		index = -index - 1;
+		double[] result = new double[coordinates.length + 1];
+		System.arraycopy(coordinates, 0, result, 0, index);
+		result[index] = value;
+		System.arraycopy(coordinates, index, result, index + 1,
+				coordinates.length - index);
+		return result;
+	}
+
+	private boolean isBlocked(double x, double y, Obstacle ignored1,
+			Obstacle ignored2) {
+		List<Obstacle> bucket = buckets.get(getCell(x, y));
+		if (bucket == null) {
+			return false;
+		}
+		for (Obstacle obstacle : bucket) {
+			if (obstacle == ignored1 || obstacle == ignored2) {
+				continue;
+			}
+			Rectangle b = obstacle.bounds;
+			if (x > b.getX() && x < b.getX() + b.getWidth() && y > b.getY()
+					&& y < b.getY() + b.getHeight()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void remove(Obstacle obstacle) {
+		if (obstacle.bounds == null) {
+			return;
+		}
+		Rectangle b = obstacle.bounds;
+		decrement(xCounts, b.getX());
+		decrement(xCounts, b.getX() + b.getWidth());
+		decrement(yCounts, b.getY());
+		decrement(yCounts, b.getY() + b.getHeight());
+		for (long cell : obstacle.cells) {
+			List<Obstacle> bucket = buckets.get(cell);
+			bucket.remove(obstacle);
+			if (bucket.isEmpty()) {
+				buckets.remove(cell);
+			}
+		}
+		obstacle.bounds = null;
+		obstacle.cells = new long[0];
+		coordinatesChanged = true;
+	}
+
+	private void decrement(TreeMap<Double, Integer> counts, double value) {
+		int count = counts.get(value);
+		if (count == 1) {
+			counts.remove(value);
+		} else {
+			counts.put(value, count - 1);
+		}
+	}
+
+	private void increment(TreeMap<Double, Integer> counts, double value) {
+		Integer count = counts.get(value);
+		counts.put(value, count == null ? 1 : count + 1);
+	}
+
+	/**
+	 * Re-inserts all changed obstacles and updates the coordinate arrays.
+	 */
+	private void validate() {
+		for (Obstacle obstacle : dirtyObstacles) {
+			remove(obstacle);
+			Rectangle b = computeBounds(obstacle.node).expand(margin, margin);
+			obstacle.bounds = b;
+			increment(xCounts, b.getX());
+			increment(xCounts, b.getX() + b.getWidth());
+			increment(yCounts, b.getY());
+			increment(yCounts, b.getY() + b.getHeight());
+			long minCell = getCell(b.getX(), b.getY());
+			long maxCell = getCell(b.getX() + b.getWidth(),
+					b.getY() + b.getHeight());
+			int minX = (int) (minCell >> 32);
+			int minY = (int) minCell;
+			int maxX = (int) (maxCell >> 32);
+			int maxY = (int) maxCell;
+			obstacle.cells = new long[(maxX - minX + 1) * (maxY - minY + 1)];
+			int c = 0;
+			for (long cellX = minX; cellX <= maxX; cellX++) {
+				for (long cellY = minY; cellY <= maxY; cellY++) {
+					long cell = cellX << 32 ^ cellY & 0xffffffffL;
+					List<Obstacle> bucket = buckets.get(cell);
+					if (bucket == null) {
+						bucket = new ArrayList<>(2);
+						buckets.put(cell, bucket);
+					}
+					bucket.add(obstacle);
+					obstacle.cells[c++] = cell;
+				}
+			}
+			coordinatesChanged = true;
+		}
+		dirtyObstacles.clear();
+		if (coordinatesChanged) {
+			xs = toArray(xCounts);
+			ys = toArray(yCounts);
+			coordinatesChanged = false;
+		}
+	}
+
+	private static double[] toArray(TreeMap<Double, Integer> counts) {
+		double[] result = new double[counts.size()];
+		int i = 0;
+		for (double value : counts.keySet()) {
+			result[i++] = value;
+		}
+		return result;
+	}
+}
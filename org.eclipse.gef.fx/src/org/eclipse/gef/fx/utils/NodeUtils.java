@@ -14,7 +14,10 @@
 package org.eclipse.gef.fx.utils;
 
 import java.awt.geom.NoninvertibleTransformException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -257,12 +260,13 @@ public class NodeUtils {
 			double sceneY) {
 		List<Node> picked = new ArrayList<>();
 
-		// start with given root node
-		List<Node> nodes = new ArrayList<>();
-		nodes.add(root);
+		// start with given root node (children are pushed in reverse order, so
+		// that they are processed in order)
+		Deque<Node> nodes = new ArrayDeque<>();
+		nodes.push(root);
 
 		while (!nodes.isEmpty()) {
-			Node current = nodes.remove(0);
+			Node current = nodes.pop();
 			// transform to local coordinates
 			Point2D pLocal = current.sceneToLocal(sceneX, sceneY);
 			// check if bounds contains (necessary to find children in mouse
@@ -271,15 +275,20 @@ public class NodeUtils {
 					&& current.getBoundsInLocal().contains(pLocal)) {
 				// check precisely
 				if (current.contains(pLocal)) {
-					picked.add(0, current);
+					picked.add(current);
 				}
 				// test all children, too
 				if (current instanceof Parent) {
-					nodes.addAll(0,
-							((Parent) current).getChildrenUnmodifiable());
+					List<Node> children = ((Parent) current)
+							.getChildrenUnmodifiable();
+					for (int i = children.size() - 1; i >= 0; i--) {
+						nodes.push(children.get(i));
+					}
 				}
 			}
 		}
+		// nodes that were picked last are the top-most ones
+		Collections.reverse(picked);
 		return picked;
 	}
 
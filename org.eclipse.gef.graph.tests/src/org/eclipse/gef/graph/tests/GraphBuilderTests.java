@@ -12,6 +12,7 @@
 package org.eclipse.gef.graph.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -127,6 +128,58 @@ public class GraphBuilderTests {
 				"n3");
 	}
 
+	@Test
+	public void buildChain() {
+		int count = 1000;
+		Builder gb = new Graph.Builder();
+		for (int i = 0; i < count; i++) {
+			gb.node(i).attr("label", Integer.toString(i));
+			if (i > 0) {
+				gb.edge(i - 1, i);
+			}
+		}
+		Graph graph = gb.build();
+		assertEquals(count, graph.getNodes().size());
+		assertEquals(count - 1, graph.getEdges().size());
+		// nodes and edges keep the order in which they were added
+		for (int i = 0; i < count; i++) {
+			Node n = graph.getNodes().get(i);
+			assertSame(graph, n.getGraph());
+			assertEquals(Integer.toString(i), n.getAttributes().get("label"));
+			if (i > 0) {
+				Edge e = graph.getEdges().get(i - 1);
+				assertSame(graph, e.getGraph());
+				assertSame(graph.getNodes().get(i - 1), e.getSource());
+				assertSame(n, e.getTarget());
+			}
+		}
+
+		// construct a graph from existing nodes and edges
+		Graph copy = new Graph(new ArrayList<>(graph.getNodes()),
+				new ArrayList<>(graph.getEdges()));
+		assertEquals(count, copy.getNodes().size());
+		for (Node n : copy.getNodes()) {
+			assertSame(copy, n.getGraph());
+		}
+		for (Edge e : copy.getEdges()) {
+			assertSame(copy, e.getGraph());
+		}
+	}
+
+	@Test
+	public void buildWithDuplicateNodes() {
+		Node n1 = new Node();
+		Node n2 = new Node();
+		Graph graph = new Graph.Builder().nodes(n1, n2, n1).nodes(n2)
+				.build();
+		// each node is contained once, in order of its first occurrence
+		assertEquals(2, graph.getNodes().size());
+		assertSame(n1, graph.getNodes().get(0));
+		assertSame(n2, graph.getNodes().get(1));
+		assertSame(graph, n1.getGraph());
+		assertSame(graph, n2.getGraph());
+	}
+
 	@Test
 	public void buildSemanticTwice() {
 		Builder b = new Graph.Builder();
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.graph.tests;
+
+import java.util.ArrayList;
+
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Graph.Builder;
+
+/**
+ * A standalone benchmark that measures the time needed to construct chains of
+ * increasing length, via a {@link Graph.Builder} as well as from existing
+ * nodes and edges. As the graph membership of the added nodes and edges is
+ * checked in constant time, the time per element should not depend on the
+ * size of the {@link Graph}.
+ * <p>
+ * It is not part of the test suite, as its results depend on the machine it
+ * is executed on. Run it via its {@link #main(String[])} method, optionally
+ * passing the number of measured rounds as the first argument.
+ */
+public class GraphConstructionBenchmark {
+
+	private static final int[] NODE_COUNTS = { 1000, 10000, 100000 };
+	private static final int WARMUP_ROUNDS = 5;
+
+	/**
+	 * Runs the benchmark for each of the chain lengths.
+	 *
+	 * @param args
+	 *            The number of measured rounds (optional, defaults to 10).
+	 */
+	public static void main(String[] args) {
+		int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		for (int count : NODE_COUNTS) {
+			new GraphConstructionBenchmark(count).run(rounds);
+		}
+	}
+
+	private final int count;
+	private long buildTime;
+	private long copyTime;
+
+	private GraphConstructionBenchmark(int count) {
+		this.count = count;
+	}
+
+	/**
+	 * Builds a chain of nodes, and constructs another graph from its nodes
+	 * and edges.
+	 */
+	private void construct() {
+		long start = System.nanoTime();
+		Builder gb = new Graph.Builder();
+		for (int i = 0; i < count; i++) {
+			gb.node(i).attr("label", Integer.toString(i));
+			if (i > 0) {
+				gb.edge(i - 1, i);
+			}
+		}
+		Graph graph = gb.build();
+		long built = System.nanoTime();
+		new Graph(new ArrayList<>(graph.getNodes()),
+				new ArrayList<>(graph.getEdges()));
+		long copied = System.nanoTime();
+		buildTime += built - start;
+		copyTime += copied - built;
+	}
+
+	private void run(int rounds) {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			construct();
+		}
+		buildTime = 0;
+		copyTime = 0;
+		for (int i = 0; i < rounds; i++) {
+			construct();
+		}
+		long elements = (2L * count - 1) * rounds;
+		System.out.println(String.format(
+				"%d nodes: built in %.1f ms (%.3f us per element), "
+						+ "constructed from existing elements in %.1f ms "
+						+ "(%.3f us per element)",
+				count, buildTime / 1e6 / rounds, buildTime / 1e3 / elements,
+				copyTime / 1e6 / rounds, copyTime / 1e3 / elements));
+	}
+}
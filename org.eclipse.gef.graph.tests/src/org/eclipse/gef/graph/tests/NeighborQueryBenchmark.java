@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.graph.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+
+/**
+ * A standalone benchmark that measures the time needed to query the
+ * neighbors, incoming edges, and outgoing edges of all nodes of sparse graphs
+ * of increasing size. As the edges are indexed per {@link Node}, the time per
+ * query should only depend on the degree of the node, and not on the size of
+ * the {@link Graph}.
+ * <p>
+ * It is not part of the test suite, as its results depend on the machine it
+ * is executed on. Run it via its {@link #main(String[])} method, optionally
+ * passing the number of measured rounds as the first argument.
+ */
+public class NeighborQueryBenchmark {
+
+	private static final int[] NODE_COUNTS = { 1000, 10000, 100000 };
+	private static final int WARMUP_ROUNDS = 10;
+
+	/**
+	 * Runs the benchmark for each of the graph sizes.
+	 *
+	 * @param args
+	 *            The number of measured rounds (optional, defaults to 20).
+	 */
+	public static void main(String[] args) {
+		int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		for (int count : NODE_COUNTS) {
+			new NeighborQueryBenchmark(count).run(rounds);
+		}
+	}
+
+	private final List<Node> nodes = new ArrayList<>();
+	private long queries;
+
+	/**
+	 * Creates a chain of the given number of nodes, where every tenth node is
+	 * additionally connected to the first node.
+	 */
+	private NeighborQueryBenchmark(int count) {
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			nodes.add(new Node());
+			if (i > 0) {
+				edges.add(new Edge(nodes.get(i - 1), nodes.get(i)));
+			}
+			if (i > 1 && i % 10 == 0) {
+				edges.add(new Edge(nodes.get(i), nodes.get(0)));
+			}
+		}
+		new Graph(nodes, edges);
+	}
+
+	/**
+	 * Queries the adjacency of all nodes, and returns the total number of
+	 * adjacent nodes and edges, so that the queries cannot be optimized away.
+	 */
+	private int query() {
+		int adjacent = 0;
+		for (Node node : nodes) {
+			adjacent += node.getNeighbors().size();
+			adjacent += node.getIncomingEdges().size();
+			adjacent += node.getOutgoingEdges().size();
+			queries += 3;
+		}
+		return adjacent;
+	}
+
+	private void run(int rounds) {
+		int adjacent = 0;
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			adjacent += query();
+		}
+		queries = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < rounds; i++) {
+			adjacent += query();
+		}
+		long duration = System.nanoTime() - start;
+		System.out.println(String.format(
+				"%d nodes: %d queries in %.1f ms (%.3f us per query, checksum %d)",
+				nodes.size(), queries, duration / 1e6, duration / 1e3 / queries,
+				adjacent));
+	}
+}
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.junit.Test;
+
+public class NodeTests {
+
+	@Test
+	public void adjacencyAfterEdgeRemoval() {
+		Node n1 = new Node();
+		Node n2 = new Node();
+		Edge e = new Edge(n1, n2);
+		Graph g = new Graph(Arrays.asList(n1, n2), Arrays.asList(e));
+		assertEquals(Collections.singleton(e), n1.getOutgoingEdges());
+		assertEquals(Collections.singleton(e), n2.getIncomingEdges());
+
+		g.getEdges().remove(e);
+		assertTrue(n1.getOutgoingEdges().isEmpty());
+		assertTrue(n2.getIncomingEdges().isEmpty());
+		assertTrue(n1.getNeighbors().isEmpty());
+		assertTrue(n2.getNeighbors().isEmpty());
+
+		g.getEdges().add(e);
+		assertEquals(Collections.singleton(n2), n1.getSuccessorNodes());
+		assertEquals(Collections.singleton(n1), n2.getPredecessorNodes());
+	}
+
+	@Test
+	public void adjacencyAfterSourceAndTargetChange() {
+		Node n1 = new Node();
+		Node n2 = new Node();
+		Node n3 = new Node();
+		Edge e = new Edge(n1, n2);
+		new Graph(Arrays.asList(n1, n2, n3), Arrays.asList(e));
+
+		e.setTarget(n3);
+		assertTrue(n2.getIncomingEdges().isEmpty());
+		assertEquals(Collections.singleton(e), n3.getIncomingEdges());
+		assertEquals(Collections.singleton(n3), n1.getSuccessorNodes());
+
+		e.setSource(n2);
+		assertTrue(n1.getOutgoingEdges().isEmpty());
+		assertEquals(Collections.singleton(e), n2.getOutgoingEdges());
+		assertEquals(Collections.singleton(n2), n3.getPredecessorNodes());
+		assertEquals(Collections.singleton(n3), n2.getNeighbors());
+	}
+
+	@Test
+	public void adjacencyIgnoresUnassociatedEdges() {
+		Node n1 = new Node();
+		Node n2 = new Node();
+		new Graph(Arrays.asList(n1, n2), Collections.<Edge> emptyList());
+		// edge is not contained in any graph
+		Edge e = new Edge(n1, n2);
+		e.setTarget(n1);
+		assertTrue(n1.getIncomingEdges().isEmpty());
+		assertTrue(n1.getOutgoingEdges().isEmpty());
+		assertTrue(n2.getIncomingEdges().isEmpty());
+	}
+
+	@Test
+	public void adjacencyOfNestedGraph() {
+		// edges between nodes of a nested graph and nodes of the nesting graph
+		// are contained in the nesting graph, and are thus not local to the
+		// nested node
+		Node inner = new Node();
+		Graph nested = new Graph(Arrays.asList(inner),
+				Collections.<Edge> emptyList());
+		Node outer = new Node();
+		Node nesting = new Node();
+		nesting.setNestedGraph(nested);
+		Edge e = new Edge(outer, inner);
+		new Graph(Arrays.asList(outer, nesting), Arrays.asList(e));
+
+		assertTrue(inner.getIncomingEdges().isEmpty());
+		assertEquals(Collections.singleton(e), outer.getOutgoingEdges());
+	}
+
+	@Test
+	public void adjacencyOfSelfLoop() {
+		Node n = new Node();
+		Edge e = new Edge(n, n);
+		new Graph(Arrays.asList(n), Arrays.asList(e));
+		assertEquals(Collections.singleton(e), n.getIncomingEdges());
+		assertEquals(Collections.singleton(e), n.getOutgoingEdges());
+		assertEquals(Collections.singleton(n), n.getNeighbors());
+	}
+
+	@Test
+	public void graphAfterRemovalOfDuplicate() {
+		Node n = new Node();
+		Graph g = new Graph(Arrays.asList(n, n),
+				Collections.<Edge> emptyList());
+		assertSame(g, n.getGraph());
+		// node is still contained after removing one occurrence
+		g.getNodes().remove(n);
+		assertSame(g, n.getGraph());
+		g.getNodes().remove(n);
+		assertNull(n.getGraph());
+	}
+
+	@Test
+	public void adjacencyOfChainWithHub() {
+		// a chain, where each node is also connected to a hub node
+		int count = 100;
+		Node hub = new Node();
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> chainEdges = new ArrayList<>();
+		List<Edge> hubEdges = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			nodes.add(new Node());
+			if (i > 0) {
+				chainEdges.add(new Edge(nodes.get(i - 1), nodes.get(i)));
+			}
+			hubEdges.add(new Edge(hub, nodes.get(i)));
+		}
+		List<Node> allNodes = new ArrayList<>(nodes);
+		allNodes.add(hub);
+		List<Edge> allEdges = new ArrayList<>(chainEdges);
+		allEdges.addAll(hubEdges);
+		Graph g = new Graph(allNodes, allEdges);
+
+		assertTrue(hub.getIncomingEdges().isEmpty());
+		assertEquals(new HashSet<>(hubEdges), hub.getOutgoingEdges());
+		assertEquals(new HashSet<>(nodes), hub.getNeighbors());
+		for (int i = 0; i < count; i++) {
+			Node n = nodes.get(i);
+			Set<Edge> incoming = new HashSet<>();
+			Set<Edge> outgoing = new HashSet<>();
+			Set<Node> neighbors = new HashSet<>();
+			incoming.add(hubEdges.get(i));
+			neighbors.add(hub);
+			if (i > 0) {
+				incoming.add(chainEdges.get(i - 1));
+				neighbors.add(nodes.get(i - 1));
+			}
+			if (i < count - 1) {
+				outgoing.add(chainEdges.get(i));
+				neighbors.add(nodes.get(i + 1));
+			}
+			assertEquals(incoming, n.getIncomingEdges());
+			assertEquals(outgoing, n.getOutgoingEdges());
+			assertEquals(neighbors, n.getNeighbors());
+		}
+
+		// removing the hub edges only affects the hub and its neighbors
+		g.getEdges().removeAll(hubEdges);
+		assertTrue(hub.getOutgoingEdges().isEmpty());
+		assertTrue(hub.getNeighbors().isEmpty());
+		for (int i = 0; i < count; i++) {
+			Node n = nodes.get(i);
+			assertEquals(i > 0 ? 1 : 0, n.getIncomingEdges().size());
+			assertEquals(i < count - 1 ? 1 : 0, n.getOutgoingEdges().size());
+			assertEquals(i > 0 && i < count - 1 ? 2 : 1,
+					n.getNeighbors().size());
+		}
+	}
+
+}
@@ -297,10 +297,28 @@ public class Edge implements IAttributeStore {
 	 *            The new {@link Graph} for this {@link Edge}.
 	 */
 	void setGraph(Graph graph) {
-		if (graph != null && !graph.getEdges().contains(this)) {
+		if (graph != null && !graph.containsEdge(this)) {
 			throw new IllegalArgumentException("Edge is not contained in graph " + graph);
 		}
+		Graph oldGraph = this.graph;
 		this.graph = graph;
+		// keep the adjacency indexes of source and target up-to-date (only
+		// edges that are associated with a graph are indexed)
+		if (oldGraph == null && graph != null) {
+			if (source != null) {
+				source.addOutgoingEdge(this);
+			}
+			if (target != null) {
+				target.addIncomingEdge(this);
+			}
+		} else if (oldGraph != null && graph == null) {
+			if (source != null) {
+				source.removeOutgoingEdge(this);
+			}
+			if (target != null) {
+				target.removeIncomingEdge(this);
+			}
+		}
 	}
 
 	/**
@@ -310,7 +328,16 @@ public class Edge implements IAttributeStore {
 	 *            The new source {@link Node} for this {@link Edge}.
 	 */
 	public void setSource(Node source) {
+		Node oldSource = this.source;
 		this.source = source;
+		if (graph != null && oldSource != source) {
+			if (oldSource != null) {
+				oldSource.removeOutgoingEdge(this);
+			}
+			if (source != null) {
+				source.addOutgoingEdge(this);
+			}
+		}
 	}
 
 	/**
@@ -320,7 +347,16 @@ public class Edge implements IAttributeStore {
 	 *            The new target {@link Node} for this {@link Edge}.
 	 */
 	public void setTarget(Node target) {
+		Node oldTarget = this.target;
 		this.target = target;
+		if (graph != null && oldTarget != target) {
+			if (oldTarget != null) {
+				oldTarget.removeIncomingEdge(this);
+			}
+			if (target != null) {
+				target.addIncomingEdge(this);
+			}
+		}
 	}
 
 	@Override
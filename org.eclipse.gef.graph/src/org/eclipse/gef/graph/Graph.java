@@ -17,10 +17,13 @@ import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
 import java.util.function.BiConsumer;
@@ -147,9 +150,17 @@ public final class Graph implements IAttributeStore {
 			for (Edge.Builder eb : context.edgeBuilders) {
 				edges.add(eb.buildEdge());
 			}
+			// a node may be registered more than once (e.g. when the same Node
+			// instance is passed to nodes() repeatedly), so add each node only
+			// once, in order of its first occurrence; an identity set keeps
+			// this linear in the number of nodes
 			List<Node> nodeList = new ArrayList<>();
+			Set<Node> added = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
 			for (Object key : context.nodeKeys) {
-				nodeList.add(nodes.get(key));
+				Node node = nodes.get(key);
+				if (added.add(node)) {
+					nodeList.add(node);
+				}
 			}
 			Graph g = new Graph(nodeList, edges);
 			for (Entry<Object, Object> s : attr) {
@@ -332,6 +343,18 @@ public final class Graph implements IAttributeStore {
 	 */
 	private Node nestingNode; // when contained as a nested graph within a node
 
+	/**
+	 * Identity-based occurrence counts of the {@link Node}s contained in the
+	 * {@link #nodesProperty()}, used to check containment in constant time.
+	 */
+	private final Map<Node, Integer> nodeMembership = new IdentityHashMap<>();
+
+	/**
+	 * Identity-based occurrence counts of the {@link Edge}s contained in the
+	 * {@link #edgesProperty()}, used to check containment in constant time.
+	 */
+	private final Map<Edge, Integer> edgeMembership = new IdentityHashMap<>();
+
 	/**
 	 * Default constructor, using empty collections for attributes, nodes, and
 	 * edges.
@@ -372,11 +395,21 @@ public final class Graph implements IAttributeStore {
 			@Override
 			public void onChanged(ListChangeListener.Change<? extends Node> c) {
 				while (c.next()) {
+					// update membership before associating nodes, so
+					// containment can be checked in constant time
+					for (Node n : c.getRemoved()) {
+						release(nodeMembership, n);
+					}
 					for (Node n : c.getAddedSubList()) {
-						n.setGraph(Graph.this);
+						retain(nodeMembership, n);
 					}
 					for (Node n : c.getRemoved()) {
-						n.setGraph(null);
+						if (n.getGraph() == Graph.this && !nodeMembership.containsKey(n)) {
+							n.setGraph(null);
+						}
+					}
+					for (Node n : c.getAddedSubList()) {
+						n.setGraph(Graph.this);
 					}
 				}
 			}
@@ -385,24 +418,100 @@ public final class Graph implements IAttributeStore {
 			@Override
 			public void onChanged(ListChangeListener.Change<? extends Edge> c) {
 				while (c.next()) {
+					// update membership before associating edges, so
+					// containment can be checked in constant time
+					for (Edge e : c.getRemoved()) {
+						release(edgeMembership, e);
+					}
 					for (Edge e : c.getAddedSubList()) {
-						e.setGraph(Graph.this);
+						retain(edgeMembership, e);
 					}
 					for (Edge e : c.getRemoved()) {
-						e.setGraph(null);
+						if (e.getGraph() == Graph.this && !edgeMembership.containsKey(e)) {
+							e.setGraph(null);
+						}
+					}
+					for (Edge e : c.getAddedSubList()) {
+						e.setGraph(Graph.this);
 					}
 				}
 			}
 		});
+		// add all nodes and edges in bulk, so that only a single (atomic)
+		// change is fired for each of them
 		this.nodesProperty.addAll(nodes);
 		this.edgesProperty.addAll(edges);
 	}
 
+	/**
+	 * Decrements the occurrence count of the given element within the given
+	 * membership map, removing the element when no occurrences are left.
+	 *
+	 * @param membership
+	 *            The membership map to update.
+	 * @param element
+	 *            The element of which an occurrence was removed.
+	 */
+	private static <T> void release(Map<T, Integer> membership, T element) {
+		Integer count = membership.get(element);
+		if (count != null) {
+			if (count > 1) {
+				membership.put(element, count - 1);
+			} else {
+				membership.remove(element);
+			}
+		}
+	}
+
+	/**
+	 * Increments the occurrence count of the given element within the given
+	 * membership map.
+	 *
+	 * @param membership
+	 *            The membership map to update.
+	 * @param element
+	 *            The element of which an occurrence was added.
+	 */
+	private static <T> void retain(Map<T, Integer> membership, T element) {
+		Integer count = membership.get(element);
+		membership.put(element, count == null ? 1 : count + 1);
+	}
+
 	@Override
 	public ReadOnlyMapProperty<String, Object> attributesProperty() {
 		return attributesProperty.getReadOnlyProperty();
 	}
 
+	/**
+	 * Checks whether the given {@link Edge} is contained in the
+	 * {@link #getEdges() edges} of this {@link Graph}. In contrast to
+	 * <code>getEdges().contains(edge)</code>, identity is used for comparison
+	 * and the check is performed in constant time.
+	 *
+	 * @param edge
+	 *            The {@link Edge} to test.
+	 * @return <code>true</code> if the given {@link Edge} is contained,
+	 *         <code>false</code> otherwise.
+	 */
+	boolean containsEdge(Edge edge) {
+		return edgeMembership.containsKey(edge);
+	}
+
+	/**
+	 * Checks whether the given {@link Node} is contained in the
+	 * {@link #getNodes() nodes} of this {@link Graph}. In contrast to
+	 * <code>getNodes().contains(node)</code>, identity is used for comparison
+	 * and the check is performed in constant time.
+	 *
+	 * @param node
+	 *            The {@link Node} to test.
+	 * @return <code>true</code> if the given {@link Node} is contained,
+	 *         <code>false</code> otherwise.
+	 */
+	boolean containsNode(Node node) {
+		return nodeMembership.containsKey(node);
+	}
+
 	/**
 	 * Returns a read-only list property containing the {@link Edge}s of this
 	 * {@link Graph}.
@@ -221,6 +221,19 @@ public class Node implements IAttributeStore {
 	 */
 	private Graph nestedGraph;
 
+	/**
+	 * The {@link Edge}s that are associated with a {@link Graph} and use this
+	 * {@link Node} as their target, maintained by {@link Edge}. Lazily
+	 * created.
+	 */
+	private Set<Edge> incomingEdgesIndex;
+	/**
+	 * The {@link Edge}s that are associated with a {@link Graph} and use this
+	 * {@link Node} as their source, maintained by {@link Edge}. Lazily
+	 * created.
+	 */
+	private Set<Edge> outgoingEdgesIndex;
+
 	/**
 	 * Constructs a new {@link Node}.
 	 */
@@ -242,6 +255,34 @@ public class Node implements IAttributeStore {
 		this.attributesProperty.putAll(attributes);
 	}
 
+	/**
+	 * Registers the given {@link Edge}, which has this {@link Node} as its
+	 * target, within the incoming edges index.
+	 *
+	 * @param edge
+	 *            The incoming {@link Edge} to register.
+	 */
+	void addIncomingEdge(Edge edge) {
+		if (incomingEdgesIndex == null) {
+			incomingEdgesIndex = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>(4));
+		}
+		incomingEdgesIndex.add(edge);
+	}
+
+	/**
+	 * Registers the given {@link Edge}, which has this {@link Node} as its
+	 * source, within the outgoing edges index.
+	 *
+	 * @param edge
+	 *            The outgoing {@link Edge} to register.
+	 */
+	void addOutgoingEdge(Edge edge) {
+		if (outgoingEdgesIndex == null) {
+			outgoingEdgesIndex = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>(4));
+		}
+		outgoingEdgesIndex.add(edge);
+	}
+
 	@Override
 	public ReadOnlyMapProperty<String, Object> attributesProperty() {
 		return attributesProperty.getReadOnlyProperty();
@@ -363,9 +404,13 @@ public class Node implements IAttributeStore {
 			return Collections.emptySet();
 		}
 		Set<Edge> incoming = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
-		for (Edge e : graph.getEdges()) {
-			if (e.getTarget() == this) {
-				incoming.add(e);
+		if (incomingEdgesIndex != null) {
+			// the index contains the edges of all graphs, so we have to filter
+			// for those of the associated graph
+			for (Edge e : incomingEdgesIndex) {
+				if (e.getGraph() == graph) {
+					incoming.add(e);
+				}
 			}
 		}
 		return incoming;
@@ -407,9 +452,13 @@ public class Node implements IAttributeStore {
 			return Collections.emptySet();
 		}
 		Set<Edge> outgoing = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
-		for (Edge e : graph.getEdges()) {
-			if (e.getSource() == this) {
-				outgoing.add(e);
+		if (outgoingEdgesIndex != null) {
+			// the index contains the edges of all graphs, so we have to filter
+			// for those of the associated graph
+			for (Edge e : outgoingEdgesIndex) {
+				if (e.getGraph() == graph) {
+					outgoing.add(e);
+				}
 			}
 		}
 		return outgoing;
@@ -445,6 +494,30 @@ public class Node implements IAttributeStore {
 		return successors;
 	}
 
+	/**
+	 * Unregisters the given {@link Edge} from the incoming edges index.
+	 *
+	 * @param edge
+	 *            The incoming {@link Edge} to unregister.
+	 */
+	void removeIncomingEdge(Edge edge) {
+		if (incomingEdgesIndex != null) {
+			incomingEdgesIndex.remove(edge);
+		}
+	}
+
+	/**
+	 * Unregisters the given {@link Edge} from the outgoing edges index.
+	 *
+	 * @param edge
+	 *            The outgoing {@link Edge} to unregister.
+	 */
+	void removeOutgoingEdge(Edge edge) {
+		if (outgoingEdgesIndex != null) {
+			outgoingEdgesIndex.remove(edge);
+		}
+	}
+
 	/**
 	 * Sets the {@link Graph} to which this {@link Node} belongs to the given
 	 * value.
@@ -453,7 +526,7 @@ public class Node implements IAttributeStore {
 	 *            The new {@link Graph} for this {@link Node}.
 	 */
 	void setGraph(Graph graph) {
-		if (graph != null && !graph.getNodes().contains(this)) {
+		if (graph != null && !graph.containsNode(this)) {
 			throw new IllegalArgumentException("Node is not contained in graph " + graph);
 		}
 		this.graph = graph;
@@ -0,0 +1,320 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.MultilevelLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.OverlapRemovalAlgorithm;
+import org.eclipse.gef.layout.algorithms.SpringLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.CrossingReducer;
+
+/**
+ * A standalone benchmark that measures the time needed by layout algorithms
+ * to lay out large graphs of increasing size, so that the scaling of the
+ * algorithms can be compared.
+ * <p>
+ * It is not part of the test suite, as its results depend on the machine it
+ * is executed on. Run it via its {@link #main(String[])} method, optionally
+ * passing the number of measured rounds as the first argument.
+ */
+public class LayoutAlgorithmBenchmark {
+
+	/**
+	 * A benchmark scenario, which applies a freshly created layout algorithm
+	 * to a freshly created graph in each round.
+	 */
+	private static abstract class Scenario {
+
+		private final String name;
+
+		public Scenario(String name) {
+			this.name = name;
+		}
+
+		protected abstract ILayoutAlgorithm createAlgorithm();
+
+		protected abstract Graph createGraph();
+
+		/**
+		 * Applies the layout algorithm once, and returns the time it took in
+		 * nanoseconds.
+		 */
+		private long layout() {
+			LayoutContext context = new LayoutContext();
+			context.setGraph(createGraph());
+			context.setLayoutAlgorithm(createAlgorithm());
+			long start = System.nanoTime();
+			context.applyLayout(true);
+			return System.nanoTime() - start;
+		}
+
+		public void run(int rounds) {
+			for (int i = 0; i < WARMUP_ROUNDS; i++) {
+				layout();
+			}
+			long duration = 0;
+			for (int i = 0; i < rounds; i++) {
+				duration += layout();
+			}
+			System.out.println(String.format("%s: %.1f ms per layout pass",
+					name, duration / 1e6 / rounds));
+		}
+	}
+
+	private static final int WARMUP_ROUNDS = 2;
+
+	private static final int[] MULTILEVEL_GRID_SIZES = { 50, 100, 150 };
+
+	private static final int[] OVERLAP_REMOVAL_NODE_COUNTS = { 2500, 5000,
+			10000 };
+
+	private static final int[] SPRING_NODE_COUNTS = { 1000, 2000, 4000 };
+	private static final double[] SPRING_THETAS = { 0, 0.8 };
+	private static final int SPRING_ITERATIONS = 20;
+
+	private static final int SUGIYAMA_LAYER_COUNT = 8;
+	private static final int[] SUGIYAMA_LAYER_SIZES = { 100, 250, 500 };
+	private static final String[] SUGIYAMA_CROSSING_REDUCERS = {
+			"GreedyCrossingReducer", "BarycentricCrossingReducer",
+			"SplitCrossingReducer" };
+
+	/**
+	 * Creates a random graph with the given number of nodes and edges, whose
+	 * nodes are randomly placed within the graph bounds.
+	 */
+	private static Graph createRandomGraph(int nodeCount, int edgeCount,
+			long seed) {
+		Random random = new Random(seed);
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < nodeCount; i++) {
+			Node node = new Node();
+			LayoutProperties.setLocation(node, new Point(
+					random.nextDouble() * 1000, random.nextDouble() * 1000));
+			LayoutProperties.setSize(node, new Dimension(10, 10));
+			nodes.add(node);
+		}
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 0; i < edgeCount; i++) {
+			edges.add(new Edge(nodes.get(random.nextInt(nodeCount)),
+					nodes.get(random.nextInt(nodeCount))));
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 1000, 1000));
+		return graph;
+	}
+
+	/**
+	 * Creates a square grid graph with the given number of nodes per row and
+	 * column, whose nodes are all placed at the origin.
+	 */
+	private static Graph createGrid(int size) {
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < size * size; i++) {
+			Node node = new Node();
+			LayoutProperties.setSize(node, new Dimension(1, 1));
+			LayoutProperties.setLocation(node, new Point());
+			nodes.add(node);
+		}
+		List<Edge> edges = new ArrayList<>();
+		for (int row = 0; row < size; row++) {
+			for (int column = 0; column < size; column++) {
+				Node node = nodes.get(row * size + column);
+				if (column + 1 < size) {
+					edges.add(
+							new Edge(node, nodes.get(row * size + column + 1)));
+				}
+				if (row + 1 < size) {
+					edges.add(
+							new Edge(node, nodes.get((row + 1) * size + column)));
+				}
+			}
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 1000, 1000));
+		return graph;
+	}
+
+	/**
+	 * Creates a graph of the given number of randomly sized nodes without any
+	 * edges, whose nodes are randomly placed, so that they overlap. The
+	 * density of the nodes does not depend on their number.
+	 */
+	private static Graph createOverlappingNodes(int nodeCount, long seed) {
+		Random random = new Random(seed);
+		double extent = 20 * Math.sqrt(nodeCount);
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < nodeCount; i++) {
+			Node node = new Node();
+			LayoutProperties.setSize(node, new Dimension(
+					10 + random.nextInt(50), 10 + random.nextInt(20)));
+			LayoutProperties.setLocation(node, new Point(
+					random.nextDouble() * extent, random.nextDouble() * extent));
+			nodes.add(node);
+		}
+		Graph graph = new Graph(nodes, new ArrayList<Edge>());
+		LayoutProperties.setBounds(graph,
+				new Rectangle(0, 0, extent, extent));
+		return graph;
+	}
+
+	/**
+	 * Creates a random layered graph with the given number of layers and nodes
+	 * per layer, whose edges connect adjacent layers only.
+	 */
+	private static Graph createRandomLayeredGraph(int layerCount,
+			int layerSize, long seed) {
+		Random random = new Random(seed);
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		for (int l = 0; l < layerCount; l++) {
+			for (int i = 0; i < layerSize; i++) {
+				Node node = new Node();
+				LayoutProperties.setSize(node, new Dimension(10, 10));
+				if (l > 0) {
+					// one to three distinct predecessors on the previous layer
+					Set<Integer> predecessors = new HashSet<>();
+					int count = 1 + random.nextInt(3);
+					while (predecessors.size() < count) {
+						predecessors.add((l - 1) * layerSize
+								+ random.nextInt(layerSize));
+					}
+					for (int predecessor : predecessors) {
+						edges.add(new Edge(nodes.get(predecessor), node));
+					}
+				}
+				nodes.add(node);
+			}
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 1000, 1000));
+		return graph;
+	}
+
+	/**
+	 * Creates a new {@link CrossingReducer} of the given name, as crossing
+	 * reducers hold state.
+	 */
+	private static CrossingReducer createCrossingReducer(String name) {
+		switch (name) {
+		case "GreedyCrossingReducer":
+			return new SugiyamaLayoutAlgorithm.GreedyCrossingReducer();
+		case "BarycentricCrossingReducer":
+			return new SugiyamaLayoutAlgorithm.BarycentricCrossingReducer();
+		case "SplitCrossingReducer":
+			return new SugiyamaLayoutAlgorithm.SplitCrossingReducer();
+		default:
+			throw new IllegalArgumentException(name);
+		}
+	}
+
+	private static SpringLayoutAlgorithm createSpringLayoutAlgorithm(
+			double theta) {
+		SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+		algorithm.setRandom(false);
+		algorithm.setSpringTimeout(0);
+		algorithm.setIterations(SPRING_ITERATIONS);
+		algorithm.setBarnesHutTheta(theta);
+		return algorithm;
+	}
+
+	/**
+	 * Runs the benchmark scenarios.
+	 *
+	 * @param args
+	 *            The number of measured rounds (optional, defaults to 5).
+	 */
+	public static void main(String[] args) {
+		int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+		for (final int count : SPRING_NODE_COUNTS) {
+			for (final double theta : SPRING_THETAS) {
+				new Scenario(String.format(
+						"SpringLayoutAlgorithm, %d nodes, theta %.1f", count,
+						theta)) {
+					@Override
+					protected ILayoutAlgorithm createAlgorithm() {
+						return createSpringLayoutAlgorithm(theta);
+					}
+
+					@Override
+					protected Graph createGraph() {
+						return createRandomGraph(count, count * 3 / 2, 42);
+					}
+				}.run(rounds);
+			}
+		}
+		for (final int size : MULTILEVEL_GRID_SIZES) {
+			new Scenario(String.format(
+					"MultilevelLayoutAlgorithm, %d nodes (grid)", size * size)) {
+				@Override
+				protected ILayoutAlgorithm createAlgorithm() {
+					return new MultilevelLayoutAlgorithm();
+				}
+
+				@Override
+				protected Graph createGraph() {
+					return createGrid(size);
+				}
+			}.run(rounds);
+		}
+		for (final int count : OVERLAP_REMOVAL_NODE_COUNTS) {
+			new Scenario(String.format("OverlapRemovalAlgorithm, %d nodes",
+					count)) {
+				@Override
+				protected ILayoutAlgorithm createAlgorithm() {
+					return new OverlapRemovalAlgorithm();
+				}
+
+				@Override
+				protected Graph createGraph() {
+					return createOverlappingNodes(count, 3);
+				}
+			}.run(rounds);
+		}
+		for (final int layerSize : SUGIYAMA_LAYER_SIZES) {
+			for (final String crossingReducer : SUGIYAMA_CROSSING_REDUCERS) {
+				new Scenario(String.format(
+						"SugiyamaLayoutAlgorithm, %d nodes, %s",
+						SUGIYAMA_LAYER_COUNT * layerSize, crossingReducer)) {
+					@Override
+					protected ILayoutAlgorithm createAlgorithm() {
+						return new SugiyamaLayoutAlgorithm(
+								SugiyamaLayoutAlgorithm.Direction.VERTICAL,
+								null, null,
+								createCrossingReducer(crossingReducer));
+					}
+
+					@Override
+					protected Graph createGraph() {
+						return createRandomLayeredGraph(SUGIYAMA_LAYER_COUNT,
+								layerSize, 42);
+					}
+				}.run(rounds);
+			}
+		}
+	}
+}
@@ -10,11 +10,53 @@
  *******************************************************************************/
 package org.eclipse.gef.layout.tests;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
 import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutGraph;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.GridLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.MultilevelLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.NearestNeighborIndex;
+import org.eclipse.gef.layout.algorithms.OverlapRemovalAlgorithm;
+import org.eclipse.gef.layout.algorithms.RadialLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SpringLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.NodeWrapper;
+import org.eclipse.gef.layout.algorithms.TidyTreeLayoutHelper;
+import org.eclipse.gef.layout.algorithms.TreeLayoutAlgorithm;
 import org.eclipse.gef.layout.algorithms.TreeLayoutHelper;
 import org.junit.Assert;
 import org.junit.Test;
 
+import javafx.collections.MapChangeListener;
+
 /**
  * Tests involving the {@link ILayoutAlgorithm} interface.
  *
@@ -38,6 +80,1265 @@ public class LayoutAlgorithmTests {
 			descendant.parent = this;
 			descendant.depth = this.depth + 1;
 		}
+
+		void appendChild(TestNode child) {
+			addChild(child);
+		}
+
+		void removeChild(TestNode child) {
+			children.remove(child);
+		}
+	}
+
+	/**
+	 * An {@link Executor} that queues the submitted commands, so that their
+	 * execution can be controlled.
+	 */
+	private static class QueueExecutor implements Executor {
+		private final List<Runnable> queue = new ArrayList<>();
+
+		@Override
+		public void execute(Runnable command) {
+			queue.add(command);
+		}
+
+		void runAll() {
+			while (!queue.isEmpty()) {
+				queue.remove(0).run();
+			}
+		}
+	}
+
+	/**
+	 * Creates a random graph with the given number of nodes and edges, whose
+	 * nodes are randomly placed within the graph bounds.
+	 */
+	private static Graph createRandomGraph(int nodeCount, int edgeCount,
+			long seed) {
+		Random random = new Random(seed);
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < nodeCount; i++) {
+			Node node = new Node();
+			LayoutProperties.setLocation(node, new Point(
+					random.nextDouble() * 1000, random.nextDouble() * 1000));
+			LayoutProperties.setSize(node, new Dimension(10, 10));
+			nodes.add(node);
+		}
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 0; i < edgeCount; i++) {
+			edges.add(new Edge(nodes.get(random.nextInt(nodeCount)),
+					nodes.get(random.nextInt(nodeCount))));
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 1000, 1000));
+		return graph;
+	}
+
+	private static void applySpringLayout(Graph graph, double theta,
+			int iterations) {
+		applySpringLayout(graph, theta, iterations, null);
+	}
+
+	private static void applySpringLayout(Graph graph, double theta,
+			int iterations, ForkJoinPool pool) {
+		SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+		algorithm.setForkJoinPool(pool);
+		algorithm.setRandom(false);
+		algorithm.setSpringTimeout(0);
+		algorithm.setIterations(iterations);
+		algorithm.setBarnesHutTheta(theta);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		context.applyLayout(true);
+	}
+
+	/**
+	 * Ensures that the Barnes-Hut approximation of the spring layout yields
+	 * the results of the exact computation when (almost) no approximation is
+	 * performed.
+	 */
+	@Test
+	public void testSpringLayoutApproximationMatchesExactForces() {
+		Graph exact = createRandomGraph(100, 150, 42);
+		Graph approximated = createRandomGraph(100, 150, 42);
+		applySpringLayout(exact, 0, 20);
+		applySpringLayout(approximated, 1e-9, 20);
+		for (int i = 0; i < exact.getNodes().size(); i++) {
+			Point expected = LayoutProperties
+					.getLocation(exact.getNodes().get(i));
+			Point actual = LayoutProperties
+					.getLocation(approximated.getNodes().get(i));
+			Assert.assertEquals(expected.x, actual.x, 1e-3);
+			Assert.assertEquals(expected.y, actual.y, 1e-3);
+		}
+	}
+
+	/**
+	 * Ensures that the random placement of the spring layout is reproducible
+	 * if a seed is set.
+	 */
+	@Test
+	public void testSpringLayoutWithSeedIsReproducible() {
+		Graph first = createRandomGraph(50, 80, 3);
+		Graph second = createRandomGraph(50, 80, 3);
+		for (Graph graph : Arrays.asList(first, second)) {
+			SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+			algorithm.setRandom(true);
+			algorithm.setRandomSeed(11L);
+			algorithm.setSpringTimeout(0);
+			algorithm.setIterations(20);
+			LayoutContext context = new LayoutContext();
+			context.setGraph(graph);
+			context.setLayoutAlgorithm(algorithm);
+			context.applyLayout(true);
+		}
+		for (int i = 0; i < first.getNodes().size(); i++) {
+			Point expected = LayoutProperties
+					.getLocation(first.getNodes().get(i));
+			Point actual = LayoutProperties
+					.getLocation(second.getNodes().get(i));
+			Assert.assertEquals(expected.x, actual.x, 0);
+			Assert.assertEquals(expected.y, actual.y, 0);
+		}
+	}
+
+	/**
+	 * Ensures that the parallel computation of the spring layout is
+	 * reproducible, independent of the parallelism, and yields the results of
+	 * the sequential computation (except for rounding errors).
+	 */
+	@Test
+	public void testSpringLayoutParallelComputationIsReproducible() {
+		for (double theta : new double[] { 0, 0.8 }) {
+			Graph sequential = createRandomGraph(300, 400, 7);
+			Graph parallel1 = createRandomGraph(300, 400, 7);
+			Graph parallel4 = createRandomGraph(300, 400, 7);
+			ForkJoinPool pool1 = new ForkJoinPool(1);
+			ForkJoinPool pool4 = new ForkJoinPool(4);
+			try {
+				applySpringLayout(sequential, theta, 10);
+				applySpringLayout(parallel1, theta, 10, pool1);
+				applySpringLayout(parallel4, theta, 10, pool4);
+			} finally {
+				pool1.shutdown();
+				pool4.shutdown();
+			}
+			for (int i = 0; i < sequential.getNodes().size(); i++) {
+				Point expected = LayoutProperties
+						.getLocation(sequential.getNodes().get(i));
+				Point actual1 = LayoutProperties
+						.getLocation(parallel1.getNodes().get(i));
+				Point actual4 = LayoutProperties
+						.getLocation(parallel4.getNodes().get(i));
+				Assert.assertEquals(actual1.x, actual4.x, 0);
+				Assert.assertEquals(actual1.y, actual4.y, 0);
+				Assert.assertEquals(expected.x, actual4.x, 1e-3);
+				Assert.assertEquals(expected.y, actual4.y, 1e-3);
+			}
+		}
+	}
+
+	/**
+	 * Ensures that the parallel computation of the spring layout can handle an
+	 * empty graph.
+	 */
+	@Test
+	public void testSpringLayoutParallelComputationOfEmptyGraph() {
+		for (double theta : new double[] { 0, 0.8 }) {
+			Graph graph = createRandomGraph(0, 0, 7);
+			ForkJoinPool pool = new ForkJoinPool(4);
+			try {
+				applySpringLayout(graph, theta, 10, pool);
+			} finally {
+				pool.shutdown();
+			}
+			Assert.assertTrue(graph.getNodes().isEmpty());
+		}
+	}
+
+	/**
+	 * Ensures that the Barnes-Hut approximation of the spring layout keeps all
+	 * nodes of a larger graph within the layout bounds.
+	 */
+	@Test
+	public void testSpringLayoutApproximationKeepsNodesWithinBounds() {
+		Graph graph = createRandomGraph(1000, 1500, 42);
+		applySpringLayout(graph, 0.8, 20);
+		Rectangle bounds = LayoutProperties.getBounds(graph);
+		for (Node node : graph.getNodes()) {
+			Point location = LayoutProperties.getLocation(node);
+			Assert.assertTrue(bounds.getExpanded(1, 1).contains(location));
+		}
+	}
+
+	/**
+	 * Ensures that an asynchronous layout pass does not modify the graph while
+	 * the algorithm is applied, and commits the results of the synchronous
+	 * computation.
+	 */
+	@Test
+	public void testAsyncLayoutCommitsResults() {
+		Graph expected = createRandomGraph(50, 0, 11);
+		Graph actual = createRandomGraph(50, 0, 11);
+		LayoutContext expectedContext = new LayoutContext();
+		expectedContext.setGraph(expected);
+		expectedContext.setLayoutAlgorithm(new GridLayoutAlgorithm());
+		expectedContext.applyLayout(true);
+
+		LayoutContext context = new LayoutContext();
+		context.setGraph(actual);
+		context.setLayoutAlgorithm(new GridLayoutAlgorithm());
+		QueueExecutor executor = new QueueExecutor();
+		QueueExecutor commitExecutor = new QueueExecutor();
+		List<Point> locations = new ArrayList<>();
+		for (Node node : actual.getNodes()) {
+			locations.add(LayoutProperties.getLocation(node));
+		}
+		CompletableFuture<Void> future = context.applyLayoutAsync(true,
+				executor, commitExecutor);
+		executor.runAll();
+		for (int i = 0; i < locations.size(); i++) {
+			Assert.assertSame(locations.get(i),
+					LayoutProperties.getLocation(actual.getNodes().get(i)));
+		}
+		Assert.assertFalse(future.isDone());
+
+		commitExecutor.runAll();
+		Assert.assertTrue(future.isDone());
+		for (int i = 0; i < locations.size(); i++) {
+			Assert.assertEquals(
+					LayoutProperties.getLocation(expected.getNodes().get(i)),
+					LayoutProperties.getLocation(actual.getNodes().get(i)));
+		}
+	}
+
+	/**
+	 * Ensures that a superseded asynchronous layout pass is cancelled and its
+	 * results are not committed.
+	 */
+	@Test
+	public void testAsyncLayoutIsSuperseded() {
+		Graph graph = createRandomGraph(20, 0, 5);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new GridLayoutAlgorithm());
+		QueueExecutor executor = new QueueExecutor();
+		QueueExecutor commitExecutor = new QueueExecutor();
+		CompletableFuture<Void> superseded = context.applyLayoutAsync(true,
+				executor, commitExecutor);
+		executor.runAll();
+
+		// results of the first pass are computed, but not yet committed
+		final List<Point> committed = new ArrayList<>();
+		context.schedulePostLayoutPass(new Runnable() {
+			@Override
+			public void run() {
+				committed.add(LayoutProperties
+						.getLocation(graph.getNodes().get(0)));
+			}
+		});
+		CompletableFuture<Void> current = context.applyLayoutAsync(true,
+				executor, commitExecutor);
+		Assert.assertTrue(superseded.isCancelled());
+		executor.runAll();
+		commitExecutor.runAll();
+		Assert.assertTrue(current.isDone());
+		Assert.assertFalse(current.isCancelled());
+		Assert.assertEquals(1, committed.size());
+	}
+
+	/**
+	 * Ensures that an asynchronous layout pass fails (instead of remaining
+	 * pending) when one of the executors rejects it.
+	 */
+	@Test
+	public void testAsyncLayoutFailsOnRejectedExecution() {
+		Graph graph = createRandomGraph(20, 0, 5);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new GridLayoutAlgorithm());
+		Executor rejectingExecutor = new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				throw new RejectedExecutionException();
+			}
+		};
+		QueueExecutor executor = new QueueExecutor();
+		CompletableFuture<Void> rejected = context
+				.applyLayoutAsync(true, rejectingExecutor, executor);
+		Assert.assertTrue(rejected.isCompletedExceptionally());
+
+		CompletableFuture<Void> rejectedCommit = context
+				.applyLayoutAsync(true, executor, rejectingExecutor);
+		executor.runAll();
+		Assert.assertTrue(rejectedCommit.isCompletedExceptionally());
+		Assert.assertFalse(rejectedCommit.isCancelled());
+	}
+
+	/**
+	 * Ensures that a synchronous layout pass does not apply the layout
+	 * algorithm while it is still applied by a superseded asynchronous layout
+	 * pass.
+	 */
+	@Test
+	public void testSyncLayoutWaitsForAsyncLayout() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final AtomicInteger active = new AtomicInteger();
+		final AtomicInteger maxActive = new AtomicInteger();
+		LayoutContext context = new LayoutContext();
+		context.setGraph(createRandomGraph(20, 0, 5));
+		context.setLayoutAlgorithm(new ILayoutAlgorithm() {
+			@Override
+			public void applyLayout(LayoutContext layoutContext,
+					boolean clean) {
+				maxActive.set(
+						Math.max(maxActive.get(), active.incrementAndGet()));
+				started.countDown();
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				active.decrementAndGet();
+			}
+		});
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			context.applyLayoutAsync(true, executor, new QueueExecutor());
+			Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+			context.applyLayout(true);
+			context.applyIncrementalLayout(Collections.<Node> emptySet());
+		} finally {
+			executor.shutdown();
+		}
+		Assert.assertEquals(1, maxActive.get());
+	}
+
+	/**
+	 * Ensures that a superseded asynchronous layout pass is cancelled, so that
+	 * a synchronous layout pass does not wait for its remainder.
+	 */
+	@Test
+	public void testSupersededAsyncLayoutIsCancelled() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final AtomicBoolean cancelled = new AtomicBoolean();
+		final LayoutContext context = new LayoutContext();
+		context.setGraph(createRandomGraph(20, 0, 5));
+		context.setLayoutAlgorithm(new ILayoutAlgorithm() {
+			@Override
+			public void applyLayout(LayoutContext layoutContext,
+					boolean clean) {
+				if (layoutContext == context) {
+					// the synchronous layout pass
+					return;
+				}
+				started.countDown();
+				long deadline = System.currentTimeMillis() + 10000;
+				while (!layoutContext.isLayoutCancelled()
+						&& System.currentTimeMillis() < deadline) {
+					Thread.yield();
+				}
+				cancelled.set(layoutContext.isLayoutCancelled());
+			}
+		});
+		Assert.assertFalse(context.isLayoutCancelled());
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			CompletableFuture<Void> future = context.applyLayoutAsync(true,
+					executor, new QueueExecutor());
+			Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+			context.applyLayout(true);
+			Assert.assertTrue(future.isCancelled());
+			Assert.assertTrue(cancelled.get());
+		} finally {
+			executor.shutdown();
+		}
+		Assert.assertFalse(context.isLayoutCancelled());
+	}
+
+	/**
+	 * Ensures that an incremental update of the spring layout only moves the
+	 * nodes in the neighborhood of the changed nodes, and places an added node
+	 * next to its neighbor, without disturbing the (converged) layout.
+	 */
+	@Test
+	public void testSpringLayoutIncrementalUpdateKeepsUnaffectedNodes() {
+		Graph graph = createRandomGraph(200, 250, 3);
+		SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+		algorithm.setRandom(false);
+		algorithm.setSpringTimeout(0);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		context.applyLayout(true);
+
+		List<Point> locations = new ArrayList<>();
+		for (Node node : graph.getNodes()) {
+			locations.add(LayoutProperties.getLocation(node));
+		}
+		Node neighbor = graph.getNodes().get(0);
+		Node added = new Node();
+		LayoutProperties.setLocation(added, new Point());
+		LayoutProperties.setSize(added, new Dimension(10, 10));
+		graph.getNodes().add(added);
+		graph.getEdges().add(new Edge(added, neighbor));
+		context.applyIncrementalLayout(Collections.singleton(added));
+
+		Set<Node> region = new HashSet<>(neighbor.getNeighbors());
+		region.add(neighbor);
+		for (int i = 0; i < locations.size(); i++) {
+			Node node = graph.getNodes().get(i);
+			if (!region.contains(node)) {
+				Assert.assertEquals(locations.get(i),
+						LayoutProperties.getLocation(node));
+			}
+		}
+		Point location = LayoutProperties.getLocation(added);
+		Point neighborLocation = LayoutProperties.getLocation(neighbor);
+		Assert.assertTrue(location.getDistance(neighborLocation) < 100);
+		Assert.assertTrue(neighborLocation.getDistance(locations.get(0)) < 100);
+	}
+
+	/**
+	 * Ensures that an incremental update of the tree layout does not
+	 * re-position the nodes of unaffected trees.
+	 */
+	@Test
+	public void testTreeLayoutIncrementalUpdateKeepsUnaffectedTrees() {
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			Node node = new Node();
+			LayoutProperties.setSize(node, new Dimension(10, 10));
+			nodes.add(node);
+		}
+		Graph graph = new Graph(nodes,
+				Arrays.asList(new Edge(nodes.get(0), nodes.get(1)),
+						new Edge(nodes.get(0), nodes.get(2)),
+						new Edge(nodes.get(3), nodes.get(4))));
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 1000, 1000));
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new TreeLayoutAlgorithm(
+				TreeLayoutAlgorithm.TOP_DOWN, new Dimension(100, 100)));
+		context.applyLayout(true);
+
+		List<Point> locations = new ArrayList<>();
+		for (Node node : nodes) {
+			locations.add(LayoutProperties.getLocation(node));
+		}
+		Node added = new Node();
+		LayoutProperties.setSize(added, new Dimension(10, 10));
+		graph.getNodes().add(added);
+		graph.getEdges().add(new Edge(nodes.get(4), added));
+		context.applyIncrementalLayout(Collections.singleton(added));
+
+		// first tree is not re-positioned
+		for (int i = 0; i < 3; i++) {
+			Assert.assertSame(locations.get(i),
+					LayoutProperties.getLocation(nodes.get(i)));
+		}
+		// added node is positioned below its parent
+		Assert.assertEquals(
+				LayoutProperties.getLocation(nodes.get(4)).y + 100,
+				LayoutProperties.getLocation(added).y, 1e-9);
+	}
+
+	/**
+	 * Ensures that the tidy tree layout packs subtrees as close as their
+	 * contours permit, instead of reserving one slot per leaf.
+	 */
+	@Test
+	public void testTreeLayoutTidyPacksSubtrees() {
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			Node node = new Node();
+			LayoutProperties.setSize(node, new Dimension(10, 10));
+			nodes.add(node);
+		}
+		// root 0 with leaf 1 and node 2, which has the leaves 3 and 4
+		Graph graph = new Graph(nodes,
+				Arrays.asList(new Edge(nodes.get(0), nodes.get(1)),
+						new Edge(nodes.get(0), nodes.get(2)),
+						new Edge(nodes.get(2), nodes.get(3)),
+						new Edge(nodes.get(2), nodes.get(4))));
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 1000, 1000));
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		TreeLayoutAlgorithm algorithm = new TreeLayoutAlgorithm(
+				TreeLayoutAlgorithm.TOP_DOWN, new Dimension(100, 100));
+		context.setLayoutAlgorithm(algorithm);
+		context.applyLayout(true);
+		// node 2 is centered above the slots of its leaves
+		Assert.assertEquals(150,
+				Math.abs(LayoutProperties.getLocation(nodes.get(2)).x
+						- LayoutProperties.getLocation(nodes.get(1)).x),
+				1e-9);
+
+		algorithm.setTidy(true);
+		context.applyLayout(true);
+		// node 2 is placed right next to its sibling
+		Assert.assertEquals(100,
+				Math.abs(LayoutProperties.getLocation(nodes.get(2)).x
+						- LayoutProperties.getLocation(nodes.get(1)).x),
+				1e-9);
+		Assert.assertEquals(100,
+				Math.abs(LayoutProperties.getLocation(nodes.get(4)).x
+						- LayoutProperties.getLocation(nodes.get(3)).x),
+				1e-9);
+		Assert.assertEquals(
+				(LayoutProperties.getLocation(nodes.get(1)).x
+						+ LayoutProperties.getLocation(nodes.get(2)).x) / 2,
+				LayoutProperties.getLocation(nodes.get(0)).x, 1e-9);
+	}
+
+	private static TidyTreeLayoutHelper createTidyTree(
+			final Map<TreeLayoutHelper.TreeNode, Double> breadths,
+			final Set<TreeLayoutHelper.TreeNode> collapsed) {
+		return new TidyTreeLayoutHelper(2, 4) {
+			@Override
+			protected double getBreadth(TreeLayoutHelper.TreeNode node) {
+				return breadths.get(node);
+			}
+
+			@Override
+			protected List<TreeLayoutHelper.TreeNode> getChildren(
+					TreeLayoutHelper.TreeNode node) {
+				return collapsed.contains(node)
+						? Collections.<TreeLayoutHelper.TreeNode> emptyList()
+						: node.getChildren();
+			}
+		};
+	}
+
+	/**
+	 * Ensures that an incremental tidy tree layout, which only recomputes the
+	 * paths from changed nodes to the root, yields the same positions as a
+	 * full layout, and that the nodes within a layer do not overlap.
+	 */
+	@Test
+	public void testTidyTreeIncrementalLayoutMatchesFullLayout() {
+		Random random = new Random(42);
+		Map<TreeLayoutHelper.TreeNode, Double> breadths = new IdentityHashMap<>();
+		Set<TreeLayoutHelper.TreeNode> collapsed = Collections
+				.newSetFromMap(
+						new IdentityHashMap<TreeLayoutHelper.TreeNode, Boolean>());
+		List<TestNode> treeNodes = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			TestNode node = new TestNode();
+			if (i > 0) {
+				treeNodes.get(random.nextInt(i)).appendChild(node);
+			}
+			breadths.put(node, 5.0 + random.nextInt(20));
+			treeNodes.add(node);
+		}
+		TestNode root = treeNodes.get(0);
+
+		TidyTreeLayoutHelper incremental = createTidyTree(breadths, collapsed);
+		incremental.layout(root);
+		for (int i = 0; i < 20; i++) {
+			TestNode changed = treeNodes.get(random.nextInt(treeNodes.size()));
+			if (!collapsed.remove(changed)) {
+				collapsed.add(changed);
+			}
+			incremental.invalidate(changed);
+			incremental.layout(root);
+			TidyTreeLayoutHelper full = createTidyTree(breadths, collapsed);
+			full.layout(root);
+
+			List<TreeLayoutHelper.TreeNode> layer = Collections
+					.<TreeLayoutHelper.TreeNode> singletonList(root);
+			while (!layer.isEmpty()) {
+				List<TreeLayoutHelper.TreeNode> nextLayer = new ArrayList<>();
+				for (int j = 0; j < layer.size(); j++) {
+					TreeLayoutHelper.TreeNode node = layer.get(j);
+					Assert.assertEquals(full.getPosition(node),
+							incremental.getPosition(node), 1e-9);
+					if (j > 0) {
+						TreeLayoutHelper.TreeNode previous = layer.get(j - 1);
+						Assert.assertTrue(full.getPosition(previous)
+								+ breadths.get(previous) / 2
+								+ 2 <= full.getPosition(node)
+										- breadths.get(node) / 2 + 1e-9);
+					}
+					if (!collapsed.contains(node)) {
+						nextLayer.addAll(node.getChildren());
+					}
+				}
+				layer = nextLayer;
+			}
+		}
+	}
+
+	/**
+	 * Ensures that a tidy tree layout detects changed breadths and children
+	 * without an explicit invalidation, and that the layout information of
+	 * removed nodes is discarded when pruning.
+	 */
+	@Test
+	public void testTidyTreeDetectsChangesAndPrunesRemovedNodes() {
+		Map<TreeLayoutHelper.TreeNode, Double> breadths = new IdentityHashMap<>();
+		Set<TreeLayoutHelper.TreeNode> collapsed = Collections.emptySet();
+		TestNode root = new TestNode();
+		TestNode a = new TestNode();
+		TestNode b = new TestNode();
+		TestNode c = new TestNode();
+		root.appendChild(a);
+		root.appendChild(b);
+		b.appendChild(c);
+		for (TestNode node : Arrays.asList(root, a, b, c)) {
+			breadths.put(node, 10.0);
+		}
+		TidyTreeLayoutHelper tidyTree = createTidyTree(breadths, collapsed);
+		tidyTree.layout(root);
+
+		// change a breadth and remove a child
+		breadths.put(a, 30.0);
+		b.removeChild(c);
+		tidyTree.prune(root);
+		tidyTree.layout(root);
+		TidyTreeLayoutHelper full = createTidyTree(breadths, collapsed);
+		full.layout(root);
+		for (TestNode node : Arrays.asList(root, a, b)) {
+			Assert.assertEquals(full.getPosition(node),
+					tidyTree.getPosition(node), 1e-9);
+		}
+		try {
+			tidyTree.getPosition(c);
+			Assert.fail("The removed node should have been pruned.");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Ensures that a tidy tree layout that reuses the layout of the
+	 * unchanged subtrees after nodes were added and removed yields the same
+	 * locations as a new tree layout.
+	 */
+	@Test
+	public void testTreeLayoutTidyReusesUnchangedSubtrees() {
+		Random random = new Random(42);
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			Node node = new Node();
+			LayoutProperties.setSize(node, new Dimension(10, 10));
+			if (i > 0) {
+				edges.add(new Edge(nodes.get(random.nextInt(i)), node));
+			}
+			nodes.add(node);
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 1000, 1000));
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		TreeLayoutAlgorithm algorithm = new TreeLayoutAlgorithm(
+				TreeLayoutAlgorithm.TOP_DOWN, new Dimension(20, 20));
+		algorithm.setTidy(true);
+		context.setLayoutAlgorithm(algorithm);
+		context.applyLayout(true);
+
+		// remove the last node (which is a leaf), and add a new leaf
+		Node removed = nodes.get(nodes.size() - 1);
+		graph.getEdges().remove(edges.get(edges.size() - 1));
+		graph.getNodes().remove(removed);
+		Node added = new Node();
+		LayoutProperties.setSize(added, new Dimension(10, 10));
+		graph.getNodes().add(added);
+		graph.getEdges().add(new Edge(nodes.get(17), added));
+		context.applyLayout(true);
+
+		List<Point> locations = new ArrayList<>();
+		for (Node node : graph.getNodes()) {
+			locations.add(LayoutProperties.getLocation(node).getCopy());
+		}
+		TreeLayoutAlgorithm newAlgorithm = new TreeLayoutAlgorithm(
+				TreeLayoutAlgorithm.TOP_DOWN, new Dimension(20, 20));
+		newAlgorithm.setTidy(true);
+		context.setLayoutAlgorithm(newAlgorithm);
+		context.applyLayout(true);
+		for (int i = 0; i < locations.size(); i++) {
+			Point expected = LayoutProperties
+					.getLocation(graph.getNodes().get(i));
+			Assert.assertEquals(expected.x, locations.get(i).x, 1e-9);
+			Assert.assertEquals(expected.y, locations.get(i).y, 1e-9);
+		}
+	}
+
+	/**
+	 * Ensures that the queries of the nearest neighbor index yield the same
+	 * results as comparing all points, including the resolution of ties.
+	 */
+	@Test
+	public void testNearestNeighborIndexMatchesBruteForce() {
+		Random random = new Random(7);
+		int n = 1500;
+		double[] xs = new double[n];
+		double[] ys = new double[n];
+		for (int i = 0; i < n; i++) {
+			// use a coarse grid to provoke ties and duplicate points
+			xs[i] = random.nextInt(100) * 10;
+			ys[i] = random.nextInt(100) * 10;
+		}
+		NearestNeighborIndex index = new NearestNeighborIndex(xs, ys);
+
+		// closest pair (lexicographically smallest among the closest ones)
+		int[] expectedPair = null;
+		double minDistance = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				if (index.getDistanceSquared(i, j) < minDistance) {
+					minDistance = index.getDistanceSquared(i, j);
+					expectedPair = new int[] { i, j };
+				}
+			}
+		}
+		Assert.assertArrayEquals(expectedPair, index.findClosestPair());
+
+		for (int q = 0; q < 100; q++) {
+			final double x = random.nextDouble() * 1000;
+			final double y = random.nextDouble() * 1000;
+			// k nearest neighbors, sorted by distance and index
+			List<Integer> expected = new ArrayList<>();
+			for (int i = 0; i < n; i++) {
+				expected.add(i);
+			}
+			final double[] distances = new double[n];
+			for (int i = 0; i < n; i++) {
+				distances[i] = (xs[i] - x) * (xs[i] - x)
+						+ (ys[i] - y) * (ys[i] - y);
+			}
+			Collections.sort(expected, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer i, Integer j) {
+					int result = Double.compare(distances[i], distances[j]);
+					return result != 0 ? result : i - j;
+				}
+			});
+			int[] nearest = index.findNearest(x, y, 8);
+			Assert.assertEquals(8, nearest.length);
+			for (int k = 0; k < nearest.length; k++) {
+				Assert.assertEquals(expected.get(k).intValue(), nearest[k]);
+			}
+
+			// range query
+			List<Integer> within = new ArrayList<>();
+			for (int i = 0; i < n; i++) {
+				if (Math.abs(xs[i] - x) <= 50 && Math.abs(ys[i] - y) <= 30) {
+					within.add(i);
+				}
+			}
+			int[] found = index.findWithin(x - 50, y - 30, x + 50, y + 30);
+			Assert.assertEquals(within.size(), found.length);
+			for (int k = 0; k < found.length; k++) {
+				Assert.assertEquals(within.get(k).intValue(), found[k]);
+			}
+		}
+
+		// nearest neighbor of a point (excluding itself)
+		for (int i = 0; i < n; i += 50) {
+			int nearest = index.findNearest(i);
+			Assert.assertNotEquals(i, nearest);
+			for (int j = 0; j < n; j++) {
+				if (j != i) {
+					Assert.assertTrue(index.getDistanceSquared(i,
+							nearest) <= index.getDistanceSquared(i, j));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of pairs of the given nodes whose bounds overlap by
+	 * more than the given tolerance.
+	 */
+	private static int countOverlaps(List<Node> nodes, double tolerance) {
+		List<Node> sorted = new ArrayList<>(nodes);
+		Collections.sort(sorted, new Comparator<Node>() {
+			@Override
+			public int compare(Node n1, Node n2) {
+				return Double.compare(
+						LayoutProperties.getLocation(n1).x
+								- LayoutProperties.getSize(n1).width / 2,
+						LayoutProperties.getLocation(n2).x
+								- LayoutProperties.getSize(n2).width / 2);
+			}
+		});
+		int overlaps = 0;
+		for (int i = 0; i < sorted.size(); i++) {
+			Point p1 = LayoutProperties.getLocation(sorted.get(i));
+			Dimension s1 = LayoutProperties.getSize(sorted.get(i));
+			for (int j = i + 1; j < sorted.size(); j++) {
+				Point p2 = LayoutProperties.getLocation(sorted.get(j));
+				Dimension s2 = LayoutProperties.getSize(sorted.get(j));
+				if (p2.x - s2.width / 2 >= p1.x + s1.width / 2 - tolerance) {
+					break;
+				}
+				if (Math.abs(p1.y - p2.y) < (s1.height + s2.height) / 2
+						- tolerance) {
+					overlaps++;
+				}
+			}
+		}
+		return overlaps;
+	}
+
+	/**
+	 * Ensures that two overlapping nodes are separated along the dimension of
+	 * their smaller overlap, each being moved by the same distance, and that
+	 * nodes that are not movable keep their location.
+	 */
+	@Test
+	public void testOverlapRemovalSeparatesAlongSmallerOverlap() {
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			Node node = new Node();
+			LayoutProperties.setSize(node, new Dimension(10, 10));
+			nodes.add(node);
+		}
+		LayoutProperties.setLocation(nodes.get(0), new Point(0, 0));
+		LayoutProperties.setLocation(nodes.get(1), new Point(4, 1));
+		Graph graph = new Graph(nodes, new ArrayList<Edge>());
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 100, 100));
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		OverlapRemovalAlgorithm algorithm = new OverlapRemovalAlgorithm();
+		algorithm.setGap(2);
+		context.setLayoutAlgorithm(algorithm);
+		context.applyLayout(true);
+		Assert.assertEquals(new Point(-4, 0),
+				LayoutProperties.getLocation(nodes.get(0)));
+		Assert.assertEquals(new Point(8, 1),
+				LayoutProperties.getLocation(nodes.get(1)));
+
+		nodes.get(0).getAttributes().put(LayoutProperties.MOVABLE_PROPERTY,
+				false);
+		LayoutProperties.setLocation(nodes.get(1), new Point(-3, 4));
+		context.applyLayout(true);
+		Assert.assertEquals(new Point(-4, 0),
+				LayoutProperties.getLocation(nodes.get(0)));
+		Assert.assertEquals(-3, LayoutProperties.getLocation(nodes.get(1)).x,
+				1e-9);
+		Assert.assertEquals(12, LayoutProperties.getLocation(nodes.get(1)).y,
+				1e-9);
+	}
+
+	/**
+	 * Ensures that movable nodes are separated from the actual location of a
+	 * node that is not movable, even if many movable nodes have to be moved
+	 * away from it.
+	 */
+	@Test
+	public void testOverlapRemovalKeepsFixedNodes() {
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i <= 100; i++) {
+			Node node = new Node();
+			LayoutProperties.setSize(node, new Dimension(10, 10));
+			LayoutProperties.setLocation(node,
+					new Point(i == 0 ? 0 : 1 + i * 0.01, 0));
+			nodes.add(node);
+		}
+		nodes.get(0).getAttributes().put(LayoutProperties.MOVABLE_PROPERTY,
+				false);
+		Graph graph = new Graph(nodes, new ArrayList<Edge>());
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 100, 100));
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new OverlapRemovalAlgorithm());
+		context.applyLayout(true);
+		Assert.assertEquals(new Point(0, 0),
+				LayoutProperties.getLocation(nodes.get(0)));
+		Assert.assertEquals(0, countOverlaps(nodes, 1e-6));
+	}
+
+	/**
+	 * Removes the overlaps of many randomly sized and densely placed nodes.
+	 */
+	@Test
+	public void testOverlapRemovalOfManyNodes() {
+		Random random = new Random(3);
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			Node node = new Node();
+			LayoutProperties.setSize(node, new Dimension(
+					10 + random.nextInt(50), 10 + random.nextInt(20)));
+			LayoutProperties.setLocation(node, new Point(
+					random.nextDouble() * 640, random.nextDouble() * 640));
+			nodes.add(node);
+		}
+		Assert.assertTrue(countOverlaps(nodes, 1e-6) > 0);
+		Graph graph = new Graph(nodes, new ArrayList<Edge>());
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 640, 640));
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new OverlapRemovalAlgorithm());
+		context.applyLayout(true);
+		Assert.assertEquals(0, countOverlaps(nodes, 1e-6));
+	}
+
+	/**
+	 * Lays out a grid graph using the {@link MultilevelLayoutAlgorithm} and
+	 * ensures that the grid is unfolded, i.e. that adjacent nodes are placed
+	 * much closer to each other than arbitrary nodes, and that all nodes are
+	 * placed within the layout bounds.
+	 */
+	@Test
+	public void testMultilevelLayoutUnfoldsGrid() {
+		int size = 30;
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < size * size; i++) {
+			Node node = new Node();
+			LayoutProperties.setSize(node, new Dimension(1, 1));
+			LayoutProperties.setLocation(node, new Point());
+			nodes.add(node);
+		}
+		List<Edge> edges = new ArrayList<>();
+		for (int row = 0; row < size; row++) {
+			for (int column = 0; column < size; column++) {
+				Node node = nodes.get(row * size + column);
+				if (column + 1 < size) {
+					edges.add(new Edge(node, nodes.get(row * size + column + 1)));
+				}
+				if (row + 1 < size) {
+					edges.add(
+							new Edge(node, nodes.get((row + 1) * size + column)));
+				}
+			}
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 1000, 1000));
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new MultilevelLayoutAlgorithm());
+		context.applyLayout(true);
+
+		for (Node node : nodes) {
+			Point location = LayoutProperties.getLocation(node);
+			Assert.assertTrue(location.x >= 0 && location.x <= 1000);
+			Assert.assertTrue(location.y >= 0 && location.y <= 1000);
+		}
+		double edgeLength = 0;
+		for (Edge edge : edges) {
+			edgeLength += LayoutProperties.getLocation(edge.getSource())
+					.getDistance(LayoutProperties.getLocation(edge.getTarget()));
+		}
+		edgeLength /= edges.size();
+		Random random = new Random(5);
+		double distance = 0;
+		for (int i = 0; i < 1000; i++) {
+			distance += LayoutProperties
+					.getLocation(nodes.get(random.nextInt(nodes.size())))
+					.getDistance(LayoutProperties.getLocation(
+							nodes.get(random.nextInt(nodes.size()))));
+		}
+		distance /= 1000;
+		Assert.assertTrue(edgeLength < 0.1 * distance);
+	}
+
+	/**
+	 * Ensures that the changes an algorithm applies via the layout graph are
+	 * written back to the nodes in one batch when the layout graph is
+	 * committed.
+	 */
+	@Test
+	public void testLayoutGraphCommitsChangesInOneBatch() {
+		List<Node> nodes = new ArrayList<>();
+		final int[] changes = new int[1];
+		for (int i = 0; i < 9; i++) {
+			Node node = new Node();
+			LayoutProperties.setSize(node, new Dimension(10, 10));
+			LayoutProperties.setLocation(node, new Point());
+			node.getAttributes()
+					.addListener(new MapChangeListener<String, Object>() {
+						@Override
+						public void onChanged(
+								Change<? extends String, ? extends Object> change) {
+							changes[0]++;
+						}
+					});
+			nodes.add(node);
+		}
+		Graph graph = new Graph(nodes, Collections.<Edge> emptyList());
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new ILayoutAlgorithm() {
+			@Override
+			public void applyLayout(LayoutContext context, boolean clean) {
+				LayoutGraph layoutGraph = context.getLayoutGraph();
+				Assert.assertEquals(9, layoutGraph.getNodeCount());
+				for (int i = 0; i < 9; i++) {
+					layoutGraph.setLocation(i, 10 * i + 5, 20 * i + 5);
+				}
+				// nothing is written before the layout graph is committed
+				Assert.assertEquals(0, changes[0]);
+				context.commitLayoutGraph();
+			}
+		});
+		context.applyLayout(true);
+
+		// one location change per node
+		Assert.assertEquals(9, changes[0]);
+		Assert.assertEquals(new Point(5, 5),
+				LayoutProperties.getLocation(nodes.get(0)));
+		Assert.assertEquals(new Point(85, 165),
+				LayoutProperties.getLocation(nodes.get(8)));
+
+		// unchanged locations are not written again
+		changes[0] = 0;
+		context.applyLayout(true);
+		Assert.assertEquals(0, changes[0]);
+	}
+
+	/**
+	 * Ensures that the results of the algorithms that use the layout graph
+	 * are written back to the nodes when the algorithms are applied directly,
+	 * i.e. not via {@link LayoutContext#applyLayout(boolean)}.
+	 */
+	@Test
+	public void testDirectlyAppliedAlgorithmsCommitResults() {
+		ILayoutAlgorithm[] algorithms = new ILayoutAlgorithm[] {
+				new GridLayoutAlgorithm(), new TreeLayoutAlgorithm(),
+				new RadialLayoutAlgorithm(), new MultilevelLayoutAlgorithm() };
+		for (ILayoutAlgorithm algorithm : algorithms) {
+			List<Node> nodes = new ArrayList<>();
+			Graph graph = createLayeredGraph(nodes);
+			for (Node node : nodes) {
+				LayoutProperties.setLocation(node, new Point());
+			}
+			LayoutContext context = new LayoutContext();
+			context.setGraph(graph);
+			algorithm.applyLayout(context, true);
+
+			Set<Point> locations = new HashSet<>();
+			for (Node node : nodes) {
+				locations.add(LayoutProperties.getLocation(node));
+			}
+			Assert.assertEquals(algorithm.getClass().getSimpleName(),
+					nodes.size(), locations.size());
+		}
+	}
+
+	/**
+	 * Ensures that the nodes of the layout graph are captured anew when nodes
+	 * are added to or removed from the graph, and that pending changes of the
+	 * outdated layout graph are not lost.
+	 */
+	@Test
+	public void testLayoutGraphIsRecapturedWhenGraphChanges() {
+		List<Node> nodes = new ArrayList<>();
+		Graph graph = createLayeredGraph(nodes);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		LayoutGraph layoutGraph = context.getLayoutGraph();
+		Assert.assertEquals(5, context.getNodes().length);
+		layoutGraph.setLocation(0, 10, 20);
+
+		Node added = new Node();
+		graph.getNodes().add(added);
+		Assert.assertEquals(6, context.getNodes().length);
+		Assert.assertTrue(Arrays.asList(context.getNodes()).contains(added));
+		Assert.assertEquals(6, context.getLayoutGraph().getNodeCount());
+		Assert.assertEquals(new Point(10, 20),
+				LayoutProperties.getLocation(nodes.get(0)));
+
+		graph.getNodes().remove(added);
+		Assert.assertEquals(5, context.getNodes().length);
+		Assert.assertEquals(5, context.getLayoutGraph().getNodeCount());
+	}
+
+	/**
+	 * Creates a graph of a chain 0 -> 1 -> 2 -> 3, and the edges 0 -> 3 (which
+	 * spans two layers) and 0 -> 4.
+	 */
+	private static Graph createLayeredGraph(List<Node> nodes) {
+		for (int i = 0; i < 5; i++) {
+			Node node = new Node();
+			LayoutProperties.setSize(node, new Dimension(20, 10));
+			nodes.add(node);
+		}
+		Graph graph = new Graph(nodes,
+				Arrays.asList(new Edge(nodes.get(0), nodes.get(1)),
+						new Edge(nodes.get(1), nodes.get(2)),
+						new Edge(nodes.get(2), nodes.get(3)),
+						new Edge(nodes.get(0), nodes.get(3)),
+						new Edge(nodes.get(0), nodes.get(4))));
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 1000, 1000));
+		return graph;
+	}
+
+	/**
+	 * Ensures that the proper layer provider inserts dummy nodes only for
+	 * edges that span layers, and does not pad the layers.
+	 */
+	@Test
+	public void testSugiyamaProperLayerProviderInsertsDummiesOnly() {
+		List<Node> nodes = new ArrayList<>();
+		createLayeredGraph(nodes);
+		List<List<NodeWrapper>> layers = new SugiyamaLayoutAlgorithm.ProperLayerProvider()
+				.calculateLayers(new ArrayList<>(nodes));
+		Assert.assertEquals(4, layers.size());
+		Assert.assertEquals(1, layers.get(0).size());
+		// nodes 1 and 4, and a dummy for 0 -> 3
+		Assert.assertEquals(3, layers.get(1).size());
+		// node 2, and a dummy for 0 -> 3
+		Assert.assertEquals(2, layers.get(2).size());
+		Assert.assertEquals(1, layers.get(3).size());
+	}
+
+	/**
+	 * Ensures that the Brandes-Köpf coordinate assignment places the layers
+	 * with respect to the node sizes, and does not overlap adjacent nodes.
+	 */
+	@Test
+	public void testSugiyamaBrandesKoepfCoordinateAssignment() {
+		List<Node> nodes = new ArrayList<>();
+		Graph graph = createLayeredGraph(nodes);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new SugiyamaLayoutAlgorithm(
+				SugiyamaLayoutAlgorithm.Direction.VERTICAL, null,
+				new SugiyamaLayoutAlgorithm.ProperLayerProvider(),
+				new SugiyamaLayoutAlgorithm.LayerSweepCrossingReducer(),
+				new SugiyamaLayoutAlgorithm.BrandesKoepfCoordinateAssigner(10,
+						40)));
+		context.applyLayout(true);
+
+		// layers are 10 high and 40 apart
+		for (int i = 0; i < 4; i++) {
+			Assert.assertEquals(5 + i * 50,
+					LayoutProperties.getLocation(nodes.get(i)).y, 1e-9);
+		}
+		Point location1 = LayoutProperties.getLocation(nodes.get(1));
+		Point location4 = LayoutProperties.getLocation(nodes.get(4));
+		Assert.assertEquals(location1.y, location4.y, 1e-9);
+		// nodes are 20 wide and at least 10 apart
+		Assert.assertTrue(Math.abs(location1.x - location4.x) >= 30 - 1e-9);
+		// the layout starts at the left border of the bounds
+		double minX = Double.POSITIVE_INFINITY;
+		for (Node node : nodes) {
+			minX = Math.min(minX, LayoutProperties.getLocation(node).x);
+		}
+		Assert.assertEquals(10, minX, 1e-9);
+		// the chain is drawn straight
+		Assert.assertEquals(LayoutProperties.getLocation(nodes.get(2)).x,
+				location1.x, 1e-9);
+	}
+
+	/**
+	 * Creates a random layered graph with the given number of layers and nodes
+	 * per layer, whose edges connect adjacent layers only.
+	 */
+	private static Graph createRandomLayeredGraph(int layerCount,
+			int layerSize, long seed) {
+		Random random = new Random(seed);
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		for (int l = 0; l < layerCount; l++) {
+			for (int i = 0; i < layerSize; i++) {
+				Node node = new Node();
+				LayoutProperties.setSize(node, new Dimension(10, 10));
+				if (l > 0) {
+					// one to three distinct predecessors on the previous layer
+					Set<Integer> predecessors = new HashSet<>();
+					int count = 1 + random.nextInt(3);
+					while (predecessors.size() < count) {
+						predecessors.add((l - 1) * layerSize
+								+ random.nextInt(layerSize));
+					}
+					for (int predecessor : predecessors) {
+						edges.add(new Edge(nodes.get(predecessor), node));
+					}
+				}
+				nodes.add(node);
+			}
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 1000, 1000));
+		return graph;
+	}
+
+	/**
+	 * Counts the crossings of the edges of the given graph, whose nodes are
+	 * arranged in horizontal layers, by comparing all pairs of edges.
+	 */
+	private static int countCrossings(Graph graph) {
+		int crossings = 0;
+		List<Edge> edges = graph.getEdges();
+		for (int i = 0; i < edges.size(); i++) {
+			Point s1 = LayoutProperties.getLocation(edges.get(i).getSource());
+			Point t1 = LayoutProperties.getLocation(edges.get(i).getTarget());
+			for (int j = i + 1; j < edges.size(); j++) {
+				Point s2 = LayoutProperties
+						.getLocation(edges.get(j).getSource());
+				Point t2 = LayoutProperties
+						.getLocation(edges.get(j).getTarget());
+				if (s1.y == s2.y && (s1.x - s2.x) * (t1.x - t2.x) < 0) {
+					crossings++;
+				}
+			}
+		}
+		return crossings;
+	}
+
+	private static int applySugiyamaLayout(Graph graph,
+			SugiyamaLayoutAlgorithm.CrossingReducer crossingReducer) {
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new SugiyamaLayoutAlgorithm(
+				SugiyamaLayoutAlgorithm.Direction.VERTICAL, null, null,
+				crossingReducer));
+		context.applyLayout(true);
+		return countCrossings(graph);
+	}
+
+	/**
+	 * Ensures that the crossing counter yields the number of crossings of the
+	 * resulting layout.
+	 */
+	@Test
+	public void testSugiyamaCrossingCounter() {
+		final int[] counted = new int[2];
+		Graph graph = createRandomLayeredGraph(5, 20, 42);
+		int crossings = applySugiyamaLayout(graph,
+				new SugiyamaLayoutAlgorithm.CrossingReducer() {
+					@Override
+					public void crossReduction(
+							List<List<NodeWrapper>> nodes) {
+						// keep the initial order
+						counted[0] = new SugiyamaLayoutAlgorithm.CrossingCounter(
+								nodes, false).getCrossings();
+						counted[1] = new SugiyamaLayoutAlgorithm.CrossingCounter(
+								nodes, true).getCrossings();
+					}
+				});
+		Assert.assertTrue(crossings > 0);
+		Assert.assertEquals(crossings, counted[0]);
+		Assert.assertEquals(crossings, counted[1]);
+	}
+
+	/**
+	 * Applies the crossing reducers to a random layered graph, and ensures
+	 * that the greedy and barycentric heuristics do not increase the number of
+	 * crossings.
+	 */
+	@Test
+	public void testSugiyamaCrossingReductionOfRandomLayeredGraph() {
+		Graph graph = createRandomLayeredGraph(8, 50, 42);
+		int initialCrossings = applySugiyamaLayout(graph,
+				new SugiyamaLayoutAlgorithm.CrossingReducer() {
+					@Override
+					public void crossReduction(
+							List<List<NodeWrapper>> nodes) {
+						// keep the initial order
+					}
+				});
+		Assert.assertTrue(applySugiyamaLayout(graph,
+				new SugiyamaLayoutAlgorithm.GreedyCrossingReducer()) <= initialCrossings);
+		Assert.assertTrue(applySugiyamaLayout(graph,
+				new SugiyamaLayoutAlgorithm.BarycentricCrossingReducer()) <= initialCrossings);
+		applySugiyamaLayout(graph,
+				new SugiyamaLayoutAlgorithm.SplitCrossingReducer());
 	}
 
 	/**
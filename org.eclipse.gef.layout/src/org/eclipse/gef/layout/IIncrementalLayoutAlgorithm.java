@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout;
+
+import java.util.Set;
+
+import org.eclipse.gef.graph.Node;
+
+/**
+ * An {@link ILayoutAlgorithm} that is capable of updating an existing layout
+ * after local changes, i.e. that starts from the current
+ * {@link LayoutProperties#getLocation(Node) locations} of the nodes and only
+ * re-arranges the region that is affected by the changes, instead of
+ * re-computing the whole layout.
+ *
+ * @see LayoutContext#applyIncrementalLayout(Set)
+ */
+public interface IIncrementalLayoutAlgorithm extends ILayoutAlgorithm {
+
+	/**
+	 * Updates the layout of the given {@link LayoutContext} after the given
+	 * nodes have been added, removed, or otherwise changed. Nodes that are not
+	 * affected by the changes should keep their current locations.
+	 *
+	 * @param layoutContext
+	 *            The {@link LayoutContext} that provides all relevant
+	 *            information about what to layout.
+	 * @param changedNodes
+	 *            The nodes that have been added, removed, or changed since the
+	 *            last layout pass. Removed nodes are no longer contained in
+	 *            the layout context, but their neighbors are still affected.
+	 */
+	public void updateLayout(LayoutContext layoutContext,
+			Set<Node> changedNodes);
+}
@@ -14,11 +14,18 @@ package org.eclipse.gef.layout;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 
 import org.eclipse.gef.graph.Edge;
 import org.eclipse.gef.graph.Graph;
 import org.eclipse.gef.graph.Node;
 
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.ObservableList;
@@ -47,6 +54,21 @@ public class LayoutContext {
 	private final List<Runnable> postLayoutPass = new ArrayList<>();
 	private final List<Runnable> preLayoutPass = new ArrayList<>();
 	private final List<ILayoutFilter> layoutFilters = new ArrayList<>();
+	private final AtomicReference<CompletableFuture<Void>> pendingLayout = new AtomicReference<>();
+	private LayoutGraph layoutGraph;
+	// set when the nodes, edges, or filters changed after the layout graph
+	// was created, so that it has to be captured anew
+	private boolean layoutGraphStale;
+	// set when the (asynchronous) layout pass that uses this context is
+	// superseded, so that the layout algorithm can return early
+	private volatile boolean layoutCancelled;
+
+	private InvalidationListener graphObserver = new InvalidationListener() {
+		@Override
+		public void invalidated(Observable observable) {
+			layoutGraphStale = true;
+		}
+	};
 
 	/**
 	 * Adds the given ILayoutFilter to this {@link LayoutContext}.
@@ -56,6 +78,7 @@ public class LayoutContext {
 	 */
 	public void addLayoutFilter(ILayoutFilter layoutFilter) {
 		layoutFilters.add(layoutFilter);
+		layoutGraphStale = true;
 	}
 
 	/**
@@ -68,20 +91,221 @@ public class LayoutContext {
 	 *            re-compute the layout, otherwise <code>false</code>.
 	 */
 	public void applyLayout(boolean clear) {
+		cancelPendingLayout();
 		ILayoutAlgorithm layoutAlgorithm = layoutAlgorithmProperty.get();
 		if (layoutAlgorithm != null) {
 			preLayout();
-			layoutAlgorithm.applyLayout(this, clear);
+			// a superseded asynchronous layout pass may still be computing
+			// until it observes its cancellation
+			synchronized (layoutAlgorithm) {
+				layoutAlgorithm.applyLayout(this, clear);
+			}
 			postLayout();
 		}
 	}
 
+	/**
+	 * Applies the layout algorithm of this LayoutContext incrementally, i.e.
+	 * if the algorithm is an {@link IIncrementalLayoutAlgorithm}, only the
+	 * region that is affected by the given changed nodes is updated, starting
+	 * from the current node locations. Otherwise, the layout is fully
+	 * re-computed, as if {@link #applyLayout(boolean)} was called with
+	 * <code>true</code>.
+	 *
+	 * @param changedNodes
+	 *            The nodes that have been added, removed, or changed since the
+	 *            last layout pass.
+	 */
+	public void applyIncrementalLayout(Set<Node> changedNodes) {
+		cancelPendingLayout();
+		ILayoutAlgorithm layoutAlgorithm = layoutAlgorithmProperty.get();
+		if (layoutAlgorithm != null) {
+			preLayout();
+			// a superseded asynchronous layout pass may still be computing
+			// until it observes its cancellation
+			synchronized (layoutAlgorithm) {
+				if (layoutAlgorithm instanceof IIncrementalLayoutAlgorithm) {
+					((IIncrementalLayoutAlgorithm) layoutAlgorithm)
+							.updateLayout(this, changedNodes);
+				} else {
+					layoutAlgorithm.applyLayout(this, true);
+				}
+			}
+			postLayout();
+		}
+	}
+
+	/**
+	 * Applies the layout algorithm of this LayoutContext asynchronously. The
+	 * pre-layout pass is executed and the geometry of the layout relevant
+	 * nodes and edges is captured within plain arrays on the calling thread.
+	 * The layout algorithm is then applied to a detached copy of the graph
+	 * using the given <i>executor</i>, so that the graph of this context is not
+	 * accessed concurrently. Finally, the computed locations and sizes are
+	 * written back to the nodes in one batch, followed by the post-layout pass,
+	 * using the given <i>commitExecutor</i>.
+	 * <p>
+	 * A pending asynchronous layout pass is superseded (and its future
+	 * cancelled) when another layout pass is requested, so that outdated
+	 * results are never committed. Therefore, this method has to be called on
+	 * the thread that owns the graph, and the <i>commitExecutor</i> has to
+	 * execute on that thread as well (e.g. <code>Platform::runLater</code>
+	 * when the graph is rendered by JavaFX).
+	 * <p>
+	 * Algorithms are only allowed to access the layout properties of nodes and
+	 * edges (see {@link LayoutProperties}), as other attributes are not
+	 * captured. As an algorithm may hold state, it is neither applied
+	 * concurrently to different snapshots, nor concurrently to a synchronous
+	 * layout pass (see {@link #applyLayout(boolean)} and
+	 * {@link #applyIncrementalLayout(Set)}). In order not to block a
+	 * subsequent layout pass for the remainder of a superseded one, the
+	 * superseded pass is cancelled (see {@link #isLayoutCancelled()}), so that
+	 * algorithms can return early.
+	 *
+	 * @param clear
+	 *            <code>true</code> to indicate that the algorithm has to fully
+	 *            re-compute the layout, otherwise <code>false</code>.
+	 * @param executor
+	 *            The {@link Executor} that is used to apply the layout
+	 *            algorithm.
+	 * @param commitExecutor
+	 *            The {@link Executor} that is used to commit the results on
+	 *            the thread that owns the graph.
+	 * @return A {@link CompletableFuture} that is completed after the results
+	 *         have been committed, that is cancelled when the layout pass is
+	 *         superseded, or that is completed exceptionally when the layout
+	 *         pass fails or one of the executors rejects it.
+	 */
+	public CompletableFuture<Void> applyLayoutAsync(final boolean clear,
+			Executor executor, final Executor commitExecutor) {
+		cancelPendingLayout();
+		final CompletableFuture<Void> result = new CompletableFuture<>();
+		final ILayoutAlgorithm layoutAlgorithm = layoutAlgorithmProperty.get();
+		if (layoutAlgorithm == null) {
+			result.complete(null);
+			return result;
+		}
+		pendingLayout.set(result);
+		try {
+			preLayout();
+			final LayoutSnapshot snapshot = new LayoutSnapshot(this);
+			result.whenComplete(new BiConsumer<Void, Throwable>() {
+				@Override
+				public void accept(Void v, Throwable t) {
+					// stop the computation when superseded
+					if (result.isCancelled()) {
+						snapshot.cancel();
+					}
+				}
+			});
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						synchronized (layoutAlgorithm) {
+							// skip computation if superseded in the meantime
+							if (result.isDone()) {
+								return;
+							}
+							snapshot.applyLayout(layoutAlgorithm, clear);
+						}
+						commitExecutor.execute(new Runnable() {
+							@Override
+							public void run() {
+								if (result.isDone()) {
+									return;
+								}
+								try {
+									snapshot.commit();
+									postLayout();
+								} catch (Throwable t) {
+									failPendingLayout(result, t);
+									return;
+								}
+								pendingLayout.compareAndSet(result, null);
+								result.complete(null);
+							}
+						});
+					} catch (Throwable t) {
+						// includes a rejected execution of the commit
+						failPendingLayout(result, t);
+					}
+				}
+			});
+		} catch (Throwable t) {
+			// includes a rejected execution of the layout pass
+			failPendingLayout(result, t);
+		}
+		return result;
+	}
+
+	private void cancelPendingLayout() {
+		CompletableFuture<Void> pending = pendingLayout.getAndSet(null);
+		if (pending != null) {
+			pending.cancel(false);
+		}
+	}
+
+	/**
+	 * Marks the layout pass that uses this {@link LayoutContext} as
+	 * cancelled.
+	 */
+	void cancelLayout() {
+		layoutCancelled = true;
+	}
+
+	private void failPendingLayout(CompletableFuture<Void> result,
+			Throwable t) {
+		pendingLayout.compareAndSet(result, null);
+		result.completeExceptionally(t);
+	}
+
+	/**
+	 * Writes the locations and sizes that were changed via the current
+	 * {@link #getLayoutGraph() layout graph} back to the nodes in one batch,
+	 * and discards the layout graph, so that a subsequent call to
+	 * {@link #getLayoutGraph()} captures the nodes anew. An
+	 * {@link ILayoutAlgorithm} that uses the layout graph has to call this at
+	 * the end of its layout pass, so that its results are also written back
+	 * when it is applied directly (and not via {@link #applyLayout(boolean)}).
+	 */
+	public void commitLayoutGraph() {
+		if (layoutGraph != null) {
+			LayoutGraph committed = layoutGraph;
+			layoutGraph = null;
+			layoutGraphStale = false;
+			committed.commit();
+		}
+	}
+
+	/**
+	 * Returns a {@link LayoutGraph} for the layout relevant nodes and edges of
+	 * this context. The {@link LayoutGraph} is created on first access, and
+	 * changes to it are written back to the nodes in one batch by
+	 * {@link #commitLayoutGraph()}. If nodes, edges, or layout filters were
+	 * added or removed in the meantime, the current layout graph is committed
+	 * and a new one is created.
+	 *
+	 * @return The {@link LayoutGraph} of the current layout pass.
+	 */
+	public LayoutGraph getLayoutGraph() {
+		if (layoutGraph != null && layoutGraphStale) {
+			commitLayoutGraph();
+		}
+		if (layoutGraph == null) {
+			layoutGraph = new LayoutGraph(this);
+			layoutGraphStale = false;
+		}
+		return layoutGraph;
+	}
+
 	/**
 	 * Initiated by the context or by an {@link ILayoutAlgorithm} to perform
 	 * steps that are scheduled to be run after the layout pass. Should not be
 	 * called by clients.
 	 */
 	public void postLayout() {
+		commitLayoutGraph();
 		for (Runnable r : new ArrayList<>(postLayoutPass)) {
 			r.run();
 		}
@@ -93,6 +317,9 @@ public class LayoutContext {
 	 * called by clients.
 	 */
 	public void preLayout() {
+		// the pre-layout pass may change the nodes, so that they have to be
+		// captured anew
+		commitLayoutGraph();
 		for (Runnable r : preLayoutPass) {
 			r.run();
 		}
@@ -119,7 +346,14 @@ public class LayoutContext {
 		if (graph == null) {
 			graph = new Graph();
 		}
+		if (this.graph != null) {
+			this.graph.getNodes().removeListener(graphObserver);
+			this.graph.getEdges().removeListener(graphObserver);
+		}
 		this.graph = graph;
+		graph.getNodes().addListener(graphObserver);
+		graph.getEdges().addListener(graphObserver);
+		layoutGraph = null;
 	}
 
 	/**
@@ -130,6 +364,9 @@ public class LayoutContext {
 	 */
 	// TODO: remove this (algorithms should use getGraph().getNodes())
 	public Node[] getNodes() {
+		if (layoutGraph != null && !layoutGraphStale) {
+			return layoutGraph.getNodes();
+		}
 		ObservableList<Node> nodes = graph.getNodes();
 		List<Node> layoutRelevantNodes = new ArrayList<>();
 		for (Node n : nodes) {
@@ -167,6 +404,21 @@ public class LayoutContext {
 		return layoutAlgorithmProperty.get();
 	}
 
+	/**
+	 * Returns <code>true</code> when the layout pass that uses this
+	 * {@link LayoutContext} has been cancelled, because it was superseded by
+	 * another layout pass (see {@link #applyLayoutAsync(boolean, Executor,
+	 * Executor)}). In this case, its results are discarded, so that
+	 * long-running layout algorithms should check this between iterations and
+	 * return early.
+	 *
+	 * @return <code>true</code> when the layout pass has been cancelled,
+	 *         otherwise <code>false</code>.
+	 */
+	public boolean isLayoutCancelled() {
+		return layoutCancelled;
+	}
+
 	/**
 	 * Returns <code>true</code> when the given {@link Edge} is not relevant for
 	 * layout according to the configured {@link ILayoutFilter layout filters}.
@@ -228,6 +480,7 @@ public class LayoutContext {
 	 */
 	public void removeLayoutFilter(ILayoutFilter layoutFilter) {
 		layoutFilters.remove(layoutFilter);
+		layoutGraphStale = true;
 	}
 
 	/**
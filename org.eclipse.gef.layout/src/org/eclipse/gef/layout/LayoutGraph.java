@@ -0,0 +1,442 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+
+/**
+ * A {@link LayoutGraph} is a compact view of the layout relevant nodes and
+ * edges of a {@link LayoutContext}. The nodes are identified by their index,
+ * their locations and sizes are held in plain arrays, and the edges are
+ * accessible per node in compressed sparse row (CSR) form. This way, an
+ * {@link ILayoutAlgorithm} does not have to access the (observable) attributes
+ * of the nodes during the computation.
+ * <p>
+ * A {@link LayoutGraph} is obtained via {@link LayoutContext#getLayoutGraph()}
+ * . Changed locations and sizes are written back to the nodes in one batch,
+ * when the layout graph is committed (see
+ * {@link LayoutContext#commitLayoutGraph()}).
+ * Locations and sizes that are not specified for a node are represented by
+ * {@link Double#NaN}.
+ */
+public class LayoutGraph {
+
+	private final Node[] nodes;
+	private final Map<Node, Integer> indices = new IdentityHashMap<>();
+	private final double[] x, y, width, height;
+	private final boolean[] movable, resizable;
+	private final double[] aspectRatio;
+	private final boolean[] locationChanged, sizeChanged;
+	private final Edge[] edges;
+	private final int[] edgeSources, edgeTargets;
+	private final double[] edgeWeights;
+	// CSR adjacency, storing edge indices per node
+	private final int[] outgoingOffsets, outgoingEdges;
+	private final int[] incomingOffsets, incomingEdges;
+	private final Rectangle bounds;
+
+	/**
+	 * Creates a new {@link LayoutGraph} for the layout relevant nodes and edges
+	 * of the given {@link LayoutContext}.
+	 *
+	 * @param context
+	 *            The {@link LayoutContext} to capture.
+	 */
+	LayoutGraph(LayoutContext context) {
+		this(context.getNodes(), context.getEdges(),
+				LayoutProperties.getBounds(context.getGraph()));
+	}
+
+	/**
+	 * Creates a new {@link LayoutGraph} for the given nodes and edges. Edges
+	 * that are not connecting two of the given nodes are ignored.
+	 *
+	 * @param nodes
+	 *            The {@link Node}s to capture.
+	 * @param edges
+	 *            The {@link Edge}s to capture.
+	 * @param bounds
+	 *            The layout bounds, may be <code>null</code>.
+	 */
+	LayoutGraph(Node[] nodes, Edge[] edges, Rectangle bounds) {
+		this.nodes = nodes;
+		int n = nodes.length;
+		x = new double[n];
+		y = new double[n];
+		width = new double[n];
+		height = new double[n];
+		movable = new boolean[n];
+		resizable = new boolean[n];
+		aspectRatio = new double[n];
+		locationChanged = new boolean[n];
+		sizeChanged = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			Node node = nodes[i];
+			indices.put(node, i);
+			Point location = LayoutProperties.getLocation(node);
+			x[i] = location == null ? Double.NaN : location.x;
+			y[i] = location == null ? Double.NaN : location.y;
+			Dimension size = LayoutProperties.getSize(node);
+			width[i] = size == null ? Double.NaN : size.width;
+			height[i] = size == null ? Double.NaN : size.height;
+			movable[i] = LayoutProperties.isMovable(node);
+			resizable[i] = LayoutProperties.isResizable(node);
+			aspectRatio[i] = LayoutProperties.getPreferredAspectRatio(node);
+		}
+
+		// only capture edges between the captured nodes
+		Edge[] relevantEdges = new Edge[edges.length];
+		int[] sources = new int[edges.length];
+		int[] targets = new int[edges.length];
+		double[] weights = new double[edges.length];
+		int count = 0;
+		int[] outDegrees = new int[n];
+		int[] inDegrees = new int[n];
+		for (Edge edge : edges) {
+			Integer source = indices.get(edge.getSource());
+			Integer target = indices.get(edge.getTarget());
+			if (source != null && target != null) {
+				relevantEdges[count] = edge;
+				sources[count] = source;
+				targets[count] = target;
+				weights[count++] = LayoutProperties.getWeight(edge);
+				outDegrees[source]++;
+				inDegrees[target]++;
+			}
+		}
+		this.edges = Arrays.copyOf(relevantEdges, count);
+		edgeSources = Arrays.copyOf(sources, count);
+		edgeTargets = Arrays.copyOf(targets, count);
+		edgeWeights = Arrays.copyOf(weights, count);
+
+		outgoingOffsets = new int[n + 1];
+		incomingOffsets = new int[n + 1];
+		for (int i = 0; i < n; i++) {
+			outgoingOffsets[i + 1] = outgoingOffsets[i] + outDegrees[i];
+			incomingOffsets[i + 1] = incomingOffsets[i] + inDegrees[i];
+		}
+		outgoingEdges = new int[count];
+		incomingEdges = new int[count];
+		Arrays.fill(outDegrees, 0);
+		Arrays.fill(inDegrees, 0);
+		for (int e = 0; e < count; e++) {
+			int source = edgeSources[e];
+			int target = edgeTargets[e];
+			outgoingEdges[outgoingOffsets[source] + outDegrees[source]++] = e;
+			incomingEdges[incomingOffsets[target] + inDegrees[target]++] = e;
+		}
+
+		this.bounds = bounds == null ? null : bounds.getCopy();
+	}
+
+	/**
+	 * Writes the changed locations and sizes back to the nodes in one batch.
+	 */
+	void commit() {
+		for (int i = 0; i < nodes.length; i++) {
+			if (locationChanged[i]) {
+				LayoutProperties.setLocation(nodes[i], new Point(x[i], y[i]));
+				locationChanged[i] = false;
+			}
+			if (sizeChanged[i]) {
+				LayoutProperties.setSize(nodes[i],
+						new Dimension(width[i], height[i]));
+				sizeChanged[i] = false;
+			}
+		}
+	}
+
+	/**
+	 * Returns a copy of the layout bounds of the {@link Graph}, or
+	 * <code>null</code> if no bounds are specified.
+	 *
+	 * @return A copy of the layout bounds.
+	 */
+	public Rectangle getBounds() {
+		return bounds == null ? null : bounds.getCopy();
+	}
+
+	/**
+	 * Returns the {@link Edge} with the given index.
+	 *
+	 * @param edge
+	 *            The index of the edge.
+	 * @return The {@link Edge} with the given index.
+	 */
+	public Edge getEdge(int edge) {
+		return edges[edge];
+	}
+
+	/**
+	 * Returns the number of edges.
+	 *
+	 * @return The number of edges.
+	 */
+	public int getEdgeCount() {
+		return edges.length;
+	}
+
+	/**
+	 * Returns the index of the source node of the given edge.
+	 *
+	 * @param edge
+	 *            The index of the edge.
+	 * @return The index of the source node of the given edge.
+	 */
+	public int getEdgeSource(int edge) {
+		return edgeSources[edge];
+	}
+
+	/**
+	 * Returns the index of the target node of the given edge.
+	 *
+	 * @param edge
+	 *            The index of the edge.
+	 * @return The index of the target node of the given edge.
+	 */
+	public int getEdgeTarget(int edge) {
+		return edgeTargets[edge];
+	}
+
+	/**
+	 * Returns the weight of the given edge.
+	 *
+	 * @param edge
+	 *            The index of the edge.
+	 * @return The weight of the given edge.
+	 */
+	public double getEdgeWeight(int edge) {
+		return edgeWeights[edge];
+	}
+
+	/**
+	 * Returns the height of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return The height of the given node.
+	 */
+	public double getHeight(int node) {
+		return height[node];
+	}
+
+	/**
+	 * Returns the number of incoming edges of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return The number of incoming edges of the given node.
+	 */
+	public int getInDegree(int node) {
+		return incomingOffsets[node + 1] - incomingOffsets[node];
+	}
+
+	/**
+	 * Returns the index of the <i>i</i>-th incoming edge of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @param i
+	 *            The position of the edge among the incoming edges.
+	 * @return The index of the <i>i</i>-th incoming edge of the given node.
+	 */
+	public int getIncomingEdge(int node, int i) {
+		return incomingEdges[incomingOffsets[node] + i];
+	}
+
+	/**
+	 * Returns the {@link Node} with the given index.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return The {@link Node} with the given index.
+	 */
+	public Node getNode(int node) {
+		return nodes[node];
+	}
+
+	/**
+	 * Returns the number of nodes.
+	 *
+	 * @return The number of nodes.
+	 */
+	public int getNodeCount() {
+		return nodes.length;
+	}
+
+	/**
+	 * Returns a copy of the array of nodes, ordered by their index.
+	 *
+	 * @return A copy of the array of nodes.
+	 */
+	public Node[] getNodes() {
+		return nodes.clone();
+	}
+
+	/**
+	 * Returns the number of outgoing edges of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return The number of outgoing edges of the given node.
+	 */
+	public int getOutDegree(int node) {
+		return outgoingOffsets[node + 1] - outgoingOffsets[node];
+	}
+
+	/**
+	 * Returns the index of the <i>i</i>-th outgoing edge of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @param i
+	 *            The position of the edge among the outgoing edges.
+	 * @return The index of the <i>i</i>-th outgoing edge of the given node.
+	 */
+	public int getOutgoingEdge(int node, int i) {
+		return outgoingEdges[outgoingOffsets[node] + i];
+	}
+
+	/**
+	 * Returns the preferred aspect ratio of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return The preferred aspect ratio of the given node.
+	 * @see LayoutProperties#getPreferredAspectRatio(Node)
+	 */
+	public double getPreferredAspectRatio(int node) {
+		return aspectRatio[node];
+	}
+
+	/**
+	 * Returns the width of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return The width of the given node.
+	 */
+	public double getWidth(int node) {
+		return width[node];
+	}
+
+	/**
+	 * Returns the horizontal coordinate of the center of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return The horizontal coordinate of the center of the given node.
+	 */
+	public double getX(int node) {
+		return x[node];
+	}
+
+	/**
+	 * Returns the vertical coordinate of the center of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return The vertical coordinate of the center of the given node.
+	 */
+	public double getY(int node) {
+		return y[node];
+	}
+
+	/**
+	 * Returns the index of the given {@link Node}, or <code>-1</code> if the
+	 * node is not contained.
+	 *
+	 * @param node
+	 *            The {@link Node} whose index is returned.
+	 * @return The index of the given {@link Node}, or <code>-1</code>.
+	 */
+	public int indexOf(Node node) {
+		Integer index = indices.get(node);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Returns whether the given node may be moved.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return <code>true</code> if the node may be moved, otherwise
+	 *         <code>false</code>.
+	 * @see LayoutProperties#isMovable(Node)
+	 */
+	public boolean isMovable(int node) {
+		return movable[node];
+	}
+
+	/**
+	 * Returns whether the given node may be resized.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return <code>true</code> if the node may be resized, otherwise
+	 *         <code>false</code>.
+	 * @see LayoutProperties#isResizable(Node)
+	 */
+	public boolean isResizable(int node) {
+		return resizable[node];
+	}
+
+	/**
+	 * Changes the location of the center of the given node. The change is
+	 * written back to the {@link Node} when the layout pass is finished.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @param x
+	 *            The new horizontal coordinate.
+	 * @param y
+	 *            The new vertical coordinate.
+	 */
+	public void setLocation(int node, double x, double y) {
+		if (Double.compare(this.x[node], x) != 0
+				|| Double.compare(this.y[node], y) != 0) {
+			this.x[node] = x;
+			this.y[node] = y;
+			locationChanged[node] = true;
+		}
+	}
+
+	/**
+	 * Changes the size of the given node. The change is written back to the
+	 * {@link Node} when the layout pass is finished.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @param width
+	 *            The new width.
+	 * @param height
+	 *            The new height.
+	 */
+	public void setSize(int node, double width, double height) {
+		if (Double.compare(this.width[node], width) != 0
+				|| Double.compare(this.height[node], height) != 0) {
+			this.width[node] = width;
+			this.height[node] = height;
+			sizeChanged[node] = true;
+		}
+	}
+}
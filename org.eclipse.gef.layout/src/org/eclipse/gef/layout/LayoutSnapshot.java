@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+
+/**
+ * A {@link LayoutSnapshot} captures the layout relevant geometry of the nodes
+ * and edges of a {@link LayoutContext} within a {@link LayoutGraph}, so that an
+ * {@link ILayoutAlgorithm} can be applied to a detached copy of the graph on
+ * another thread, and the results can be committed back to the original nodes
+ * afterwards.
+ * <p>
+ * The snapshot has to be created and committed on the thread that owns the
+ * graph, while {@link #applyLayout(ILayoutAlgorithm, boolean)} may be called
+ * from any thread.
+ */
+class LayoutSnapshot {
+
+	private final LayoutGraph layoutGraph;
+	private final LayoutContext detachedContext = new LayoutContext();
+
+	/**
+	 * Creates a new {@link LayoutSnapshot} of the layout relevant nodes and
+	 * edges of the given {@link LayoutContext}.
+	 *
+	 * @param context
+	 *            The {@link LayoutContext} to capture.
+	 */
+	public LayoutSnapshot(LayoutContext context) {
+		layoutGraph = new LayoutGraph(context);
+	}
+
+	/**
+	 * Applies the given {@link ILayoutAlgorithm} to a detached copy of the
+	 * captured graph, and stores the resulting locations and sizes within
+	 * this snapshot.
+	 *
+	 * @param algorithm
+	 *            The {@link ILayoutAlgorithm} to apply.
+	 * @param clean
+	 *            Whether to fully re-compute the layout or not.
+	 */
+	public void applyLayout(ILayoutAlgorithm algorithm, boolean clean) {
+		int n = layoutGraph.getNodeCount();
+		List<Node> copies = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			Node copy = new Node();
+			if (!Double.isNaN(layoutGraph.getX(i))) {
+				LayoutProperties.setLocation(copy,
+						new Point(layoutGraph.getX(i), layoutGraph.getY(i)));
+			}
+			if (!Double.isNaN(layoutGraph.getWidth(i))) {
+				LayoutProperties.setSize(copy, new Dimension(
+						layoutGraph.getWidth(i), layoutGraph.getHeight(i)));
+			}
+			copy.getAttributes().put(LayoutProperties.MOVABLE_PROPERTY,
+					layoutGraph.isMovable(i));
+			copy.getAttributes().put(LayoutProperties.RESIZABLE_PROPERTY,
+					layoutGraph.isResizable(i));
+			copy.getAttributes().put(LayoutProperties.ASPECT_RATIO_PROPERTY,
+					layoutGraph.getPreferredAspectRatio(i));
+			copies.add(copy);
+		}
+		List<Edge> edgeCopies = new ArrayList<>(layoutGraph.getEdgeCount());
+		for (int e = 0; e < layoutGraph.getEdgeCount(); e++) {
+			Edge copy = new Edge(copies.get(layoutGraph.getEdgeSource(e)),
+					copies.get(layoutGraph.getEdgeTarget(e)));
+			LayoutProperties.setWeight(copy, layoutGraph.getEdgeWeight(e));
+			edgeCopies.add(copy);
+		}
+		Graph graph = new Graph(copies, edgeCopies);
+		Rectangle bounds = layoutGraph.getBounds();
+		if (bounds != null) {
+			LayoutProperties.setBounds(graph, bounds);
+		}
+
+		detachedContext.setGraph(graph);
+		algorithm.applyLayout(detachedContext, clean);
+		// write back the results of algorithms that use a layout graph
+		detachedContext.postLayout();
+
+		for (int i = 0; i < n; i++) {
+			Point location = LayoutProperties.getLocation(copies.get(i));
+			if (location != null) {
+				layoutGraph.setLocation(i, location.x, location.y);
+			}
+			Dimension size = LayoutProperties.getSize(copies.get(i));
+			if (size != null) {
+				layoutGraph.setSize(i, size.width, size.height);
+			}
+		}
+	}
+
+	/**
+	 * Cancels the application of the layout algorithm, so that it may return
+	 * early (see {@link LayoutContext#isLayoutCancelled()}). This may be called
+	 * from any thread.
+	 */
+	public void cancel() {
+		detachedContext.cancelLayout();
+	}
+
+	/**
+	 * Writes the computed locations and sizes back to the original nodes in
+	 * one batch.
+	 */
+	public void commit() {
+		layoutGraph.commit();
+	}
+}
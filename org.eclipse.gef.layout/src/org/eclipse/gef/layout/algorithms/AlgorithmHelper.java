@@ -16,6 +16,7 @@ import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.LayoutGraph;
 import org.eclipse.gef.layout.LayoutProperties;
 
 /**
@@ -116,6 +117,86 @@ class AlgorithmHelper {
 		}
 	}
 
+	/**
+	 * Fits the nodes of the given {@link LayoutGraph} within given bounds,
+	 * preserving their relative locations. If a node is resizable and the
+	 * <i>resize</i> flag is set to <code>true</code>, then the node will be
+	 * scaled according to the bounds change, i.e.
+	 * <code>scale_factor = dst_bounds / start_bounds</code>. The changes are
+	 * written back to the nodes when the caller commits the graph (see
+	 * {@link org.eclipse.gef.layout.LayoutContext#commitLayoutGraph()}).
+	 * 
+	 * @param graph
+	 *            The {@link LayoutGraph} whose nodes are fitted.
+	 * @param destinationBounds
+	 *            The {@link Rectangle} representing the layout bounds.
+	 * @param resize
+	 *            <code>true</code> to indicate that the nodes can be resized,
+	 *            otherwise <code>false</code>.
+	 */
+	public static void fitWithinBounds(LayoutGraph graph,
+			Rectangle destinationBounds, boolean resize) {
+		if (graph.getNodeCount() == 1) {
+			fitSingleNode(graph, 0, destinationBounds, resize);
+			return;
+		}
+		Rectangle startingBounds = getLayoutBounds(graph, false);
+		double sizeScale = Math.min(
+				destinationBounds.getWidth() / startingBounds.getWidth(),
+				destinationBounds.getHeight() / startingBounds.getHeight());
+		for (int i = 0; i < graph.getNodeCount(); i++) {
+			double width = graph.getWidth(i);
+			double height = graph.getHeight(i);
+			if (resize && graph.isResizable(i)) {
+				width *= sizeScale;
+				height *= sizeScale;
+				graph.setSize(i, width, height);
+			}
+			if (graph.isMovable(i)) {
+				double percentX = startingBounds.getWidth() == 0 ? 0
+						: (graph.getX(i) - startingBounds.getX())
+								/ (startingBounds.getWidth());
+				double percentY = startingBounds.getHeight() == 0 ? 0
+						: (graph.getY(i) - startingBounds.getY())
+								/ (startingBounds.getHeight());
+				graph.setLocation(i,
+						destinationBounds.getX() + width / 2 + percentX
+								* (destinationBounds.getWidth() - width),
+						destinationBounds.getY() + height / 2 + percentY
+								* (destinationBounds.getHeight() - height));
+			}
+		}
+	}
+
+	private static void fitSingleNode(LayoutGraph graph, int node,
+			Rectangle destinationBounds, boolean resize) {
+		if (graph.isMovable(node)) {
+			graph.setLocation(node,
+					destinationBounds.getX() + destinationBounds.getWidth() / 2,
+					destinationBounds.getY()
+							+ destinationBounds.getHeight() / 2);
+		}
+		if (resize && graph.isResizable(node)) {
+			setSize(graph, node, destinationBounds.getWidth(),
+					destinationBounds.getHeight());
+		}
+	}
+
+	/**
+	 * Changes the size of the given node of the given {@link LayoutGraph} to
+	 * the given width and height, respecting its preferred aspect ratio.
+	 */
+	private static void setSize(LayoutGraph graph, int node, double width,
+			double height) {
+		double preferredRatio = graph.getPreferredAspectRatio(node);
+		if (preferredRatio > 0) {
+			Dimension size = fixAspectRatio(width, height, preferredRatio);
+			graph.setSize(node, size.width, size.height);
+		} else {
+			graph.setSize(node, width, height);
+		}
+	}
+
 	/**
 	 * Resizes the nodes so that they have a maximal area without overlapping
 	 * each other, with additional empty space of 20% of node's width (or
@@ -148,6 +229,29 @@ class AlgorithmHelper {
 		}
 	}
 
+	/**
+	 * Resizes the nodes of the given {@link LayoutGraph} so that they have a
+	 * maximal area without overlapping each other, with additional empty space
+	 * of 20% of node's width (or height, if bigger). It does nothing if there's
+	 * less than two nodes. The changes are written back to the nodes when the
+	 * caller commits the graph.
+	 * 
+	 * @param graph
+	 *            The {@link LayoutGraph} whose node sizes are maximized.
+	 */
+	public static void maximizeSizes(LayoutGraph graph) {
+		if (graph.getNodeCount() > 1) {
+			Dimension minDistance = getMinimumDistance(graph);
+			double nodeSize = Math.max(minDistance.width, minDistance.height)
+					* PADDING_PERCENT;
+			for (int i = 0; i < graph.getNodeCount(); i++) {
+				if (graph.isResizable(i)) {
+					setSize(graph, i, nodeSize, nodeSize);
+				}
+			}
+		}
+	}
+
 	private static Dimension fixAspectRatio(double width, double height,
 			double preferredRatio) {
 		double actualRatio = width / height;
@@ -209,6 +313,37 @@ class AlgorithmHelper {
 				bottomSide - topSide);
 	}
 
+	/**
+	 * Find the bounds in which the nodes of the given {@link LayoutGraph} are
+	 * located (see {@link #getLayoutBounds(Node[], boolean)}).
+	 * 
+	 * @param graph
+	 *            The {@link LayoutGraph} for whose nodes the layout bounds are
+	 *            computed.
+	 * @param includeNodeSize
+	 *            <code>true</code> to indicate that the nodes' sizes should be
+	 *            taken into consideration, otherwise <code>false</code>.
+	 * @return A {@link Rectangle} representing the layout bounds of the nodes
+	 *         of the given {@link LayoutGraph}.
+	 */
+	public static Rectangle getLayoutBounds(LayoutGraph graph,
+			boolean includeNodeSize) {
+		double rightSide = Double.NEGATIVE_INFINITY;
+		double bottomSide = Double.NEGATIVE_INFINITY;
+		double leftSide = Double.POSITIVE_INFINITY;
+		double topSide = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < graph.getNodeCount(); i++) {
+			double halfWidth = includeNodeSize ? graph.getWidth(i) / 2 : 0;
+			double halfHeight = includeNodeSize ? graph.getHeight(i) / 2 : 0;
+			leftSide = Math.min(graph.getX(i) - halfWidth, leftSide);
+			topSide = Math.min(graph.getY(i) - halfHeight, topSide);
+			rightSide = Math.max(graph.getX(i) + halfWidth, rightSide);
+			bottomSide = Math.max(graph.getY(i) + halfHeight, bottomSide);
+		}
+		return new Rectangle(leftSide, topSide, rightSide - leftSide,
+				bottomSide - topSide);
+	}
+
 	/**
 	 * minDistance is the closest that any two points are together. These two
 	 * points become the center points for the two closest nodes, which we wish
@@ -237,25 +372,52 @@ class AlgorithmHelper {
 	 *         y-direction).
 	 */
 	public static Dimension getMinimumDistance(Node[] entities) {
-		Dimension horAndVertdistance = new Dimension(Double.MAX_VALUE,
-				Double.MAX_VALUE);
-		double minDistance = Double.MAX_VALUE;
-
-		// TODO: Very Slow!
+		double[] xs = new double[entities.length];
+		double[] ys = new double[entities.length];
 		for (int i = 0; i < entities.length; i++) {
-			Point location1 = LayoutProperties.getLocation(entities[i]);
-			for (int j = i + 1; j < entities.length; j++) {
-				Point location2 = LayoutProperties.getLocation(entities[j]);
-				double distanceX = location1.x - location2.x;
-				double distanceY = location1.y - location2.y;
-				double distance = distanceX * distanceX + distanceY * distanceY;
+			Point location = LayoutProperties.getLocation(entities[i]);
+			xs[i] = location.x;
+			ys[i] = location.y;
+		}
+		return getMinimumDistance(xs, ys);
+	}
 
-				if (distance < minDistance) {
-					minDistance = distance;
-					horAndVertdistance.width = Math.abs(distanceX);
-					horAndVertdistance.height = Math.abs(distanceY);
-				}
-			}
+	/**
+	 * Computes the minimum distance between the nodes of the given
+	 * {@link LayoutGraph} (see {@link #getMinimumDistance(Node[])}).
+	 * 
+	 * @param graph
+	 *            The {@link LayoutGraph} for whose nodes the minimum distance
+	 *            is computed.
+	 * @return A {@link Dimension} representing the minimum distance (in x- and
+	 *         y-direction).
+	 */
+	public static Dimension getMinimumDistance(LayoutGraph graph) {
+		int n = graph.getNodeCount();
+		double[] xs = new double[n];
+		double[] ys = new double[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = graph.getX(i);
+			ys[i] = graph.getY(i);
+		}
+		return getMinimumDistance(xs, ys);
+	}
+
+	/**
+	 * Computes the minimum distance between the given points using a
+	 * {@link NearestNeighborIndex}, so that it takes O(n log n) instead of
+	 * comparing all pairs of points.
+	 */
+	private static Dimension getMinimumDistance(double[] xs, double[] ys) {
+		Dimension horAndVertdistance = new Dimension(Double.MAX_VALUE,
+				Double.MAX_VALUE);
+		int[] closestPair = new NearestNeighborIndex(xs, ys)
+				.findClosestPair();
+		if (closestPair != null) {
+			int i = closestPair[0];
+			int j = closestPair[1];
+			horAndVertdistance.width = Math.abs(xs[i] - xs[j]);
+			horAndVertdistance.height = Math.abs(ys[i] - ys[j]);
 		}
 		return horAndVertdistance;
 	}
@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+/**
+ * A quadtree over a set of (unit mass) points, which aggregates the number of
+ * points and their center of mass per cell, so that the repulsive forces that
+ * act upon a point can be approximated in <code>O(log N)</code> using the
+ * Barnes-Hut approximation.
+ * <p>
+ * The tree is stored within primitive arrays, so that it can be rebuilt in
+ * every iteration of a force-directed layout without producing garbage. Once
+ * built, the tree is not modified by
+ * {@link #computeRepulsion(int, double, double, double[])}, so that it may be
+ * queried concurrently.
+ */
+class BarnesHutTree {
+
+	/**
+	 * Cells below this depth are not subdivided any further, so that
+	 * (nearly) coincident points do not lead to an unbounded subdivision.
+	 */
+	private static final int MAX_DEPTH = 48;
+
+	private double[] x, y;
+	private int pointCount;
+	// linked list of the points that are contained in a leaf cell
+	private int[] nextPoint = new int[0];
+
+	// cell data
+	private int cellCount;
+	private double[] cellCenterX = new double[0];
+	private double[] cellCenterY = new double[0];
+	private double[] cellHalfSize = new double[0];
+	private double[] cellMassX = new double[0];
+	private double[] cellMassY = new double[0];
+	private int[] cellPointCount = new int[0];
+	private int[] cellFirstChild = new int[0];
+	private int[] cellFirstPoint = new int[0];
+	private int[] cellDepth = new int[0];
+
+	// traversal stack (per thread, so queries may be performed concurrently)
+	private final ThreadLocal<int[]> stack = new ThreadLocal<>();
+
+	private double minDistance;
+
+	/**
+	 * Creates a new {@link BarnesHutTree} that approximates the repulsion
+	 * <code>gravitation / max(minDistance, d)^2</code> between points in
+	 * distance <code>d</code>.
+	 *
+	 * @param minDistance
+	 *            The minimum distance that is considered between points.
+	 */
+	public BarnesHutTree(double minDistance) {
+		this.minDistance = minDistance;
+	}
+
+	private int allocateCell(double centerX, double centerY, double halfSize,
+			int depth) {
+		if (cellCount == cellCenterX.length) {
+			int capacity = Math.max(16, cellCount * 2);
+			cellCenterX = grow(cellCenterX, capacity);
+			cellCenterY = grow(cellCenterY, capacity);
+			cellHalfSize = grow(cellHalfSize, capacity);
+			cellMassX = grow(cellMassX, capacity);
+			cellMassY = grow(cellMassY, capacity);
+			cellPointCount = grow(cellPointCount, capacity);
+			cellFirstChild = grow(cellFirstChild, capacity);
+			cellFirstPoint = grow(cellFirstPoint, capacity);
+			cellDepth = grow(cellDepth, capacity);
+		}
+		int cell = cellCount++;
+		cellCenterX[cell] = centerX;
+		cellCenterY[cell] = centerY;
+		cellHalfSize[cell] = halfSize;
+		cellMassX[cell] = 0;
+		cellMassY[cell] = 0;
+		cellPointCount[cell] = 0;
+		cellFirstChild[cell] = -1;
+		cellFirstPoint[cell] = -1;
+		cellDepth[cell] = depth;
+		return cell;
+	}
+
+	/**
+	 * (Re-)builds this tree for the given point coordinates.
+	 *
+	 * @param x
+	 *            The x coordinates of the points.
+	 * @param y
+	 *            The y coordinates of the points.
+	 */
+	public void build(double[] x, double[] y) {
+		this.x = x;
+		this.y = y;
+		this.pointCount = x.length;
+		if (nextPoint.length < pointCount) {
+			nextPoint = new int[pointCount];
+		}
+		cellCount = 0;
+		if (pointCount == 0) {
+			return;
+		}
+
+		// determine bounding square
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < pointCount; i++) {
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		double halfSize = Math.max(maxX - minX, maxY - minY) / 2 + minDistance;
+		int root = allocateCell((minX + maxX) / 2, (minY + maxY) / 2,
+				halfSize, 0);
+		for (int i = 0; i < pointCount; i++) {
+			insert(root, i);
+		}
+	}
+
+	/**
+	 * Adds the repulsive force that acts upon the point with the given index
+	 * to the given force vector. Cells whose size relative to their distance
+	 * exceeds the given <i>theta</i> are opened, all others are approximated
+	 * by their center of mass.
+	 *
+	 * @param i
+	 *            The index of the point for which to compute the repulsion.
+	 * @param theta
+	 *            The approximation threshold. Smaller values yield more
+	 *            accurate (and more expensive) results.
+	 * @param gravitation
+	 *            The repulsion strength.
+	 * @param force
+	 *            An array of length 2 to which the x and y components of the
+	 *            force are added.
+	 */
+	public void computeRepulsion(int i, double theta, double gravitation,
+			double[] force) {
+		if (cellCount == 0) {
+			return;
+		}
+		int[] s = stack.get();
+		if (s == null || s.length < 4 * MAX_DEPTH + 4) {
+			s = new int[4 * MAX_DEPTH + 4];
+			stack.set(s);
+		}
+		double px = x[i];
+		double py = y[i];
+		double fx = 0;
+		double fy = 0;
+		int top = 0;
+		s[top++] = 0;
+		while (top > 0) {
+			int cell = s[--top];
+			int count = cellPointCount[cell];
+			if (count == 0) {
+				continue;
+			}
+			if (cellFirstChild[cell] < 0) {
+				// leaf: compute exact forces for all contained points
+				for (int j = cellFirstPoint[cell]; j >= 0; j = nextPoint[j]) {
+					if (j != i) {
+						double dx = px - x[j];
+						double dy = py - y[j];
+						double distanceSq = Math.max(minDistance * minDistance,
+								dx * dx + dy * dy);
+						double f = gravitation / distanceSq
+								/ Math.sqrt(distanceSq);
+						fx += f * dx;
+						fy += f * dy;
+					}
+				}
+				continue;
+			}
+			double dx = px - cellMassX[cell] / count;
+			double dy = py - cellMassY[cell] / count;
+			double distanceSq = dx * dx + dy * dy;
+			double halfSize = cellHalfSize[cell];
+			if (4 * halfSize * halfSize < theta * theta * distanceSq
+					&& !contains(cell, px, py)) {
+				// far enough away, so approximate the cell by its center of
+				// mass (cells containing the point itself are always opened,
+				// so that the point does not repel itself)
+				distanceSq = Math.max(minDistance * minDistance, distanceSq);
+				double f = count * gravitation / distanceSq
+						/ Math.sqrt(distanceSq);
+				fx += f * dx;
+				fy += f * dy;
+			} else {
+				int firstChild = cellFirstChild[cell];
+				for (int c = 0; c < 4; c++) {
+					s[top++] = firstChild + c;
+				}
+			}
+		}
+		force[0] += fx;
+		force[1] += fy;
+	}
+
+	private boolean contains(int cell, double px, double py) {
+		double halfSize = cellHalfSize[cell];
+		return Math.abs(px - cellCenterX[cell]) <= halfSize
+				&& Math.abs(py - cellCenterY[cell]) <= halfSize;
+	}
+
+	private static double[] grow(double[] array, int capacity) {
+		double[] grown = new double[capacity];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	private static int[] grow(int[] array, int capacity) {
+		int[] grown = new int[capacity];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	private void insert(int root, int i) {
+		int cell = root;
+		while (true) {
+			cellPointCount[cell]++;
+			cellMassX[cell] += x[i];
+			cellMassY[cell] += y[i];
+			if (cellFirstChild[cell] >= 0) {
+				cell = cellFirstChild[cell] + quadrant(cell, x[i], y[i]);
+				continue;
+			}
+			int first = cellFirstPoint[cell];
+			if (first < 0 || cellDepth[cell] >= MAX_DEPTH) {
+				// empty leaf or maximum depth reached: chain the point
+				nextPoint[i] = first;
+				cellFirstPoint[cell] = i;
+				return;
+			}
+			// subdivide and push the contained point one level down (leafs
+			// above the maximum depth contain a single point only)
+			subdivide(cell);
+			int child = cellFirstChild[cell]
+					+ quadrant(cell, x[first], y[first]);
+			nextPoint[first] = -1;
+			cellFirstPoint[child] = first;
+			cellPointCount[child] = 1;
+			cellMassX[child] = x[first];
+			cellMassY[child] = y[first];
+			cellFirstPoint[cell] = -1;
+			cell = cellFirstChild[cell] + quadrant(cell, x[i], y[i]);
+		}
+	}
+
+	private int quadrant(int cell, double px, double py) {
+		return (px < cellCenterX[cell] ? 0 : 1)
+				+ (py < cellCenterY[cell] ? 0 : 2);
+	}
+
+	private void subdivide(int cell) {
+		double quarter = cellHalfSize[cell] / 2;
+		int depth = cellDepth[cell] + 1;
+		// children have to be allocated consecutively (in quadrant order);
+		// cell data arrays may be re-allocated, so read the data first
+		double cx = cellCenterX[cell];
+		double cy = cellCenterY[cell];
+		int firstChild = allocateCell(cx - quarter, cy - quarter, quarter,
+				depth);
+		allocateCell(cx + quarter, cy - quarter, quarter, depth);
+		allocateCell(cx - quarter, cy + quarter, quarter, depth);
+		allocateCell(cx + quarter, cy + quarter, quarter, depth);
+		cellFirstChild[cell] = firstChild;
+	}
+}
@@ -43,6 +43,8 @@ public class CompositeLayoutAlgorithm implements ILayoutAlgorithm {
 	public void applyLayout(LayoutContext context, boolean clean) {
 		for (int i = 0; i < algorithms.length; i++) {
 			algorithms[i].applyLayout(context, clean);
+			// subsequent algorithms may access the nodes directly
+			context.commitLayoutGraph();
 		}
 	}
 
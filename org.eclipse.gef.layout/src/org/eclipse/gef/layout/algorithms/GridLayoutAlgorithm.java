@@ -12,13 +12,10 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
-import org.eclipse.gef.geometry.planar.Dimension;
-import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
-import org.eclipse.gef.graph.Node;
 import org.eclipse.gef.layout.ILayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
-import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.LayoutGraph;
 
 /**
  * The {@link GridLayoutAlgorithm} lays out nodes in a grid.
@@ -91,30 +88,30 @@ public class GridLayoutAlgorithm implements ILayoutAlgorithm {
 	public void applyLayout(LayoutContext context, boolean clean) {
 		if (!clean)
 			return;
-		numChildren = context.getNodes().length;
-		Rectangle bounds = LayoutProperties.getBounds(context.getGraph());
+		LayoutGraph graph = context.getLayoutGraph();
+		numChildren = graph.getNodeCount();
+		Rectangle bounds = graph.getBounds();
 		calculateGrid(bounds);
 
 		int index = 0;
 		for (int i = 0; i < rows; i++) {
 			for (int j = 0; j < cols; j++) {
 				if ((i * cols + j) < numChildren) {
-					Node node = context.getNodes()[index++];
-					if (resize && LayoutProperties.isResizable(node))
-						LayoutProperties.setSize(node, new Dimension(
+					int node = index++;
+					if (resize && graph.isResizable(node))
+						graph.setSize(node,
 								Math.max(childrenWidth, MIN_ENTITY_SIZE),
-								Math.max(childrenHeight, MIN_ENTITY_SIZE)));
-					Dimension size = LayoutProperties.getSize(node);
+								Math.max(childrenHeight, MIN_ENTITY_SIZE));
 					double xmove = bounds.getX() + j * colWidth + offsetX
-							+ size.width / 2;
+							+ graph.getWidth(node) / 2;
 					double ymove = bounds.getY() + i * rowHeight + offsetY
-							+ size.height / 2;
-					if (LayoutProperties.isMovable(node))
-						LayoutProperties.setLocation(node,
-								new Point(xmove, ymove));
+							+ graph.getHeight(node) / 2;
+					if (graph.isMovable(node))
+						graph.setLocation(node, xmove, ymove);
 				}
 			}
 		}
+		context.commitLayoutGraph();
 	}
 
 	/**
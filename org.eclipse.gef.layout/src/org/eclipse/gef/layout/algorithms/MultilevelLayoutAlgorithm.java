@@ -0,0 +1,486 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutGraph;
+
+/**
+ * The {@link MultilevelLayoutAlgorithm} is a force-directed layout algorithm
+ * for very large graphs. Instead of relaxing a random initial placement of all
+ * nodes, it coarsens the graph repeatedly by contracting a heavy edge
+ * matching, lays out the coarsest graph, and then interpolates and refines
+ * the layout at each finer level. As the global structure of the layout is
+ * already determined at the coarse levels, only few iterations are needed at
+ * the fine levels.
+ * <p>
+ * The layout uses a spring-electrical model, where adjacent nodes attract
+ * each other with <code>d^2 / K</code> and all nodes repel each other with
+ * <code>K^3 / d^2</code>, so that adjacent nodes tend to be placed in the
+ * natural distance <code>K</code>. The repulsive forces are approximated using
+ * a Barnes-Hut quadtree, so that an iteration takes <code>O(N log N)</code>
+ * time. The step length is adapted according to the progress of the
+ * iterations (see Hu: Efficient and High Quality Force-Directed Graph
+ * Drawing).
+ * <p>
+ * The resulting layout is fitted into the layout bounds. Nodes that are not
+ * movable keep their locations.
+ */
+public class MultilevelLayoutAlgorithm implements ILayoutAlgorithm {
+
+	/**
+	 * Graphs with at most this number of nodes are not coarsened any further.
+	 */
+	private static final int COARSEST_SIZE = 32;
+
+	/**
+	 * Coarsening stops if a level has more than this fraction of the nodes of
+	 * the next finer level.
+	 */
+	private static final double MIN_REDUCTION = 0.9;
+
+	/**
+	 * The number of iterations that are performed for the coarsest level.
+	 */
+	private static final int COARSEST_ITERATIONS = 300;
+
+	/**
+	 * The default number of iterations that are performed for each finer
+	 * level.
+	 */
+	private static final int DEFAULT_ITERATIONS = 50;
+
+	/**
+	 * The Barnes-Hut approximation threshold.
+	 */
+	private static final double THETA = 1.0;
+
+	/**
+	 * The natural length of edges at the finest level. As the layout is
+	 * fitted into the layout bounds afterwards, only the ratio to the minimum
+	 * distance is relevant.
+	 */
+	private static final double NATURAL_LENGTH = 1.0;
+
+	/**
+	 * The factor by which the step length is decreased (or increased).
+	 */
+	private static final double STEP_FACTOR = 0.9;
+
+	/**
+	 * The angle by which consecutive nodes of a cluster are rotated around the
+	 * location of the cluster when they are interpolated.
+	 */
+	private static final double GOLDEN_ANGLE = Math.PI * (3 - Math.sqrt(5));
+
+	/**
+	 * The seed for the initial placement and the matching order, so that the
+	 * results are reproducible.
+	 */
+	private static final long SEED = 0x6ef1;
+
+	/**
+	 * A level of the multilevel hierarchy, i.e. a graph in compressed sparse
+	 * row representation, together with the mapping of its nodes to the nodes
+	 * of the next coarser level.
+	 */
+	private static final class Level {
+		private int size;
+		private int[] offsets;
+		private int[] neighbors;
+		private double[] weights;
+		// the number of nodes of the finest level that a node represents
+		private int[] mass;
+		// the node of the next coarser level a node is contracted into
+		private int[] coarse;
+	}
+
+	private int iterations = DEFAULT_ITERATIONS;
+
+	private boolean resize = false;
+
+	/**
+	 * Sets the number of iterations that are performed for each level except
+	 * the coarsest. Default value is 50.
+	 *
+	 * @param iterations
+	 *            The number of iterations per level.
+	 */
+	public void setIterations(int iterations) {
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Returns the number of iterations that are performed for each level
+	 * except the coarsest. Default value is 50.
+	 *
+	 * @return The number of iterations per level.
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 *
+	 * @return true if this algorithm is set to resize elements
+	 */
+	public boolean isResizing() {
+		return resize;
+	}
+
+	/**
+	 *
+	 * @param resizing
+	 *            true if this algorithm should resize elements (default is
+	 *            false)
+	 */
+	public void setResizing(boolean resizing) {
+		resize = resizing;
+	}
+
+	public void applyLayout(LayoutContext context, boolean clean) {
+		if (!clean) {
+			return;
+		}
+		LayoutGraph graph = context.getLayoutGraph();
+		int n = graph.getNodeCount();
+		if (n == 0) {
+			return;
+		}
+		Random random = new Random(SEED);
+
+		// coarsen
+		List<Level> levels = new ArrayList<>();
+		levels.add(createLevel(graph));
+		while (levels.get(levels.size() - 1).size > COARSEST_SIZE) {
+			Level coarser = coarsen(levels.get(levels.size() - 1), random);
+			if (coarser == null) {
+				break;
+			}
+			levels.add(coarser);
+		}
+
+		// lay out the coarsest level, starting at random locations
+		Level coarsest = levels.get(levels.size() - 1);
+		double length = getNaturalLength(n, coarsest.size);
+		double extent = length * Math.sqrt(coarsest.size);
+		double[] x = new double[coarsest.size];
+		double[] y = new double[coarsest.size];
+		for (int i = 0; i < coarsest.size; i++) {
+			x[i] = random.nextDouble() * extent;
+			y[i] = random.nextDouble() * extent;
+		}
+		relax(context, coarsest, x, y, length, extent,
+				COARSEST_ITERATIONS);
+
+		// interpolate and refine
+		for (int l = levels.size() - 2; l >= 0; l--) {
+			Level level = levels.get(l);
+			length = getNaturalLength(n, level.size);
+			double[] fineX = new double[level.size];
+			double[] fineY = new double[level.size];
+			// place the nodes of a cluster around its location
+			int[] placed = new int[x.length];
+			for (int i = 0; i < level.size; i++) {
+				int c = level.coarse[i];
+				int k = placed[c]++;
+				double angle = k * GOLDEN_ANGLE;
+				fineX[i] = x[c] + 0.1 * length * Math.cos(angle) * (k + 1);
+				fineY[i] = y[c] + 0.1 * length * Math.sin(angle) * (k + 1);
+			}
+			x = fineX;
+			y = fineY;
+			relax(context, level, x, y, length, length, iterations);
+		}
+		if (context.isLayoutCancelled()) {
+			// the results are discarded anyway
+			return;
+		}
+
+		for (int i = 0; i < n; i++) {
+			if (graph.isMovable(i)) {
+				graph.setLocation(i, x[i], y[i]);
+			}
+		}
+		if (resize) {
+			AlgorithmHelper.maximizeSizes(graph);
+		}
+		Rectangle bounds = graph.getBounds();
+		int insets = 4;
+		bounds.setX(bounds.getX() + insets);
+		bounds.setY(bounds.getY() + insets);
+		bounds.setWidth(bounds.getWidth() - 2 * insets);
+		bounds.setHeight(bounds.getHeight() - 2 * insets);
+		AlgorithmHelper.fitWithinBounds(graph, bounds, resize);
+		context.commitLayoutGraph();
+	}
+
+	/**
+	 * Creates the finest level from the given {@link LayoutGraph}, merging
+	 * the weights of parallel edges and ignoring loops.
+	 */
+	private static Level createLevel(LayoutGraph graph) {
+		int n = graph.getNodeCount();
+		int[] degrees = new int[n];
+		for (int e = 0; e < graph.getEdgeCount(); e++) {
+			int source = graph.getEdgeSource(e);
+			int target = graph.getEdgeTarget(e);
+			if (source >= 0 && target >= 0 && source != target) {
+				degrees[source]++;
+				degrees[target]++;
+			}
+		}
+		int[] offsets = new int[n + 1];
+		for (int i = 0; i < n; i++) {
+			offsets[i + 1] = offsets[i] + degrees[i];
+		}
+		int[] fill = Arrays.copyOf(offsets, n);
+		int[] neighbors = new int[offsets[n]];
+		double[] weights = new double[offsets[n]];
+		for (int e = 0; e < graph.getEdgeCount(); e++) {
+			int source = graph.getEdgeSource(e);
+			int target = graph.getEdgeTarget(e);
+			if (source >= 0 && target >= 0 && source != target) {
+				double weight = graph.getEdgeWeight(e);
+				weight = weight <= 0 ? 0.1 : weight;
+				neighbors[fill[source]] = target;
+				weights[fill[source]++] = weight;
+				neighbors[fill[target]] = source;
+				weights[fill[target]++] = weight;
+			}
+		}
+		Level level = new Level();
+		level.size = n;
+		level.mass = new int[n];
+		Arrays.fill(level.mass, 1);
+		int[][] clusters = new int[n][];
+		for (int i = 0; i < n; i++) {
+			clusters[i] = new int[] { i };
+		}
+		mergeEdges(level, clusters, offsets, neighbors, weights,
+				identity(n));
+		return level;
+	}
+
+	private static int[] identity(int n) {
+		int[] identity = new int[n];
+		for (int i = 0; i < n; i++) {
+			identity[i] = i;
+		}
+		return identity;
+	}
+
+	/**
+	 * Fills the adjacency of the given level, whose nodes are the given
+	 * clusters of nodes of the given (finer) adjacency. Edges within a
+	 * cluster are dropped, parallel edges are merged by summing up their
+	 * weights.
+	 */
+	private static void mergeEdges(Level level, int[][] clusters,
+			int[] fineOffsets, int[] fineNeighbors, double[] fineWeights,
+			int[] coarse) {
+		int n = clusters.length;
+		int[] offsets = new int[n + 1];
+		int[] neighbors = new int[fineNeighbors.length];
+		double[] weights = new double[fineNeighbors.length];
+		// position of the entry for a given adjacent node within the row that
+		// is currently filled
+		int[] entry = new int[n];
+		Arrays.fill(entry, -1);
+		int size = 0;
+		for (int c = 0; c < n; c++) {
+			int rowStart = size;
+			for (int v : clusters[c]) {
+				for (int k = fineOffsets[v]; k < fineOffsets[v + 1]; k++) {
+					int d = coarse[fineNeighbors[k]];
+					if (d == c) {
+						continue;
+					}
+					if (entry[d] >= rowStart) {
+						weights[entry[d]] += fineWeights[k];
+					} else {
+						entry[d] = size;
+						neighbors[size] = d;
+						weights[size++] = fineWeights[k];
+					}
+				}
+			}
+			offsets[c] = rowStart;
+		}
+		offsets[n] = size;
+		level.offsets = offsets;
+		level.neighbors = Arrays.copyOf(neighbors, size);
+		level.weights = Arrays.copyOf(weights, size);
+	}
+
+	/**
+	 * Creates the next coarser level for the given level by contracting a
+	 * heavy edge matching, which is computed by visiting the nodes in random
+	 * order. Nodes that remain unmatched are contracted into the cluster of
+	 * their heaviest neighbor, so that star-like graphs can be coarsened as
+	 * well. Returns <code>null</code> if the number of nodes cannot be reduced
+	 * sufficiently.
+	 */
+	private static Level coarsen(Level level, Random random) {
+		int n = level.size;
+		int[] order = identity(n);
+		for (int i = n - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = order[i];
+			order[i] = order[j];
+			order[j] = swap;
+		}
+
+		int[] coarse = new int[n];
+		Arrays.fill(coarse, -1);
+		int count = 0;
+		for (int v : order) {
+			if (coarse[v] >= 0) {
+				continue;
+			}
+			int best = -1;
+			double bestWeight = 0;
+			for (int k = level.offsets[v]; k < level.offsets[v + 1]; k++) {
+				int u = level.neighbors[k];
+				// prefer heavy edges between light nodes
+				double weight = level.weights[k] / level.mass[u];
+				if (coarse[u] < 0 && weight > bestWeight) {
+					best = u;
+					bestWeight = weight;
+				}
+			}
+			if (best >= 0) {
+				coarse[v] = count;
+				coarse[best] = count++;
+			}
+		}
+		for (int v : order) {
+			if (coarse[v] >= 0) {
+				continue;
+			}
+			int best = -1;
+			double bestWeight = 0;
+			for (int k = level.offsets[v]; k < level.offsets[v + 1]; k++) {
+				int u = level.neighbors[k];
+				if (coarse[u] >= 0 && level.weights[k] > bestWeight) {
+					best = u;
+					bestWeight = level.weights[k];
+				}
+			}
+			coarse[v] = best >= 0 ? coarse[best] : count++;
+		}
+		if (count > MIN_REDUCTION * n) {
+			return null;
+		}
+
+		Level coarser = new Level();
+		coarser.size = count;
+		coarser.mass = new int[count];
+		int[] clusterSizes = new int[count];
+		for (int v = 0; v < n; v++) {
+			coarser.mass[coarse[v]] += level.mass[v];
+			clusterSizes[coarse[v]]++;
+		}
+		int[][] clusters = new int[count][];
+		for (int c = 0; c < count; c++) {
+			clusters[c] = new int[clusterSizes[c]];
+			clusterSizes[c] = 0;
+		}
+		for (int v = 0; v < n; v++) {
+			clusters[coarse[v]][clusterSizes[coarse[v]]++] = v;
+		}
+		mergeEdges(coarser, clusters, level.offsets, level.neighbors,
+				level.weights, coarse);
+		level.coarse = coarse;
+		return coarser;
+	}
+
+	/**
+	 * Returns the natural length for a level of the given size, so that all
+	 * levels cover roughly the same area.
+	 */
+	private static double getNaturalLength(int finestSize, int size) {
+		return NATURAL_LENGTH * Math.sqrt((double) finestSize / size);
+	}
+
+	/**
+	 * Performs the given number of iterations for the given level, moving the
+	 * nodes along the forces by the current step length, which is adapted to
+	 * the progress of the iterations. Returns early when the layout pass is
+	 * cancelled.
+	 */
+	private static void relax(LayoutContext context, Level level, double[] x,
+			double[] y, double length, double step, int iterations) {
+		int n = level.size;
+		if (n < 2) {
+			return;
+		}
+		BarnesHutTree tree = new BarnesHutTree(1e-3 * length);
+		double gravitation = length * length * length;
+		double[] force = new double[2];
+		double[] forcesX = new double[n];
+		double[] forcesY = new double[n];
+		double energy = Double.POSITIVE_INFINITY;
+		int progress = 0;
+		for (int iteration = 0; iteration < iterations
+				&& !context.isLayoutCancelled(); iteration++) {
+			// compute all forces before moving any node
+			tree.build(x, y);
+			double newEnergy = 0;
+			for (int i = 0; i < n; i++) {
+				force[0] = 0;
+				force[1] = 0;
+				tree.computeRepulsion(i, THETA, gravitation, force);
+				for (int k = level.offsets[i]; k < level.offsets[i
+						+ 1]; k++) {
+					int j = level.neighbors[k];
+					double dx = x[j] - x[i];
+					double dy = y[j] - y[i];
+					double distance = Math.sqrt(dx * dx + dy * dy);
+					double f = level.weights[k] * distance / length;
+					force[0] += f * dx;
+					force[1] += f * dy;
+				}
+				forcesX[i] = force[0];
+				forcesY[i] = force[1];
+				newEnergy += force[0] * force[0] + force[1] * force[1];
+			}
+			for (int i = 0; i < n; i++) {
+				double f = Math.sqrt(
+						forcesX[i] * forcesX[i] + forcesY[i] * forcesY[i]);
+				if (f > 0) {
+					x[i] += step * forcesX[i] / f;
+					y[i] += step * forcesY[i] / f;
+				}
+			}
+			// adapt the step length
+			if (newEnergy < energy) {
+				if (++progress >= 5) {
+					progress = 0;
+					step /= STEP_FACTOR;
+				}
+			} else {
+				progress = 0;
+				step *= STEP_FACTOR;
+			}
+			energy = newEnergy;
+		}
+	}
+}
@@ -0,0 +1,354 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * A static two-dimensional k-d tree over points that are given by primitive
+ * coordinate arrays. It supports nearest neighbor, k-nearest neighbor, range,
+ * and closest pair queries. The tree is built in O(n log n), a (k-)nearest
+ * neighbor query takes O(log n) expected time, and the closest pair is
+ * determined in O(n log n) expected time.
+ * <p>
+ * Points are identified by their index within the coordinate arrays. The
+ * coordinate arrays are not copied, so they must not be changed while the
+ * index is in use.
+ */
+public class NearestNeighborIndex {
+
+	/**
+	 * A bounded list of neighbors, sorted by ascending distance and index.
+	 */
+	private static final class Neighbors {
+		private final int[] indices;
+		private final double[] distances;
+		private int size;
+
+		private Neighbors(int k) {
+			indices = new int[k];
+			distances = new double[k];
+		}
+
+		/**
+		 * Returns the squared distance a candidate may not exceed in order to
+		 * be taken into account.
+		 */
+		private double getBound() {
+			return size < indices.length ? Double.POSITIVE_INFINITY
+					: distances[size - 1];
+		}
+
+		private void offer(int index, double distance) {
+			int position = size;
+			while (position > 0 && (distance < distances[position - 1]
+					|| distance == distances[position - 1]
+							&& index < indices[position - 1])) {
+				position--;
+			}
+			if (position >= indices.length) {
+				return;
+			}
+			int last = Math.min(size, indices.length - 1);
+			System.arraycopy(indices, position, indices, position + 1,
+					last - position);
+			System.arraycopy(distances, position, distances, position + 1,
+					last - position);
+			indices[position] = index;
+			distances[position] = distance;
+			size = last + 1;
+		}
+	}
+
+	private final double[] xs;
+	private final double[] ys;
+	// permutation of the point indices that represents the tree: the median
+	// of a range is its root, the lower and upper halves are its subtrees
+	private final int[] tree;
+
+	/**
+	 * Constructs a new {@link NearestNeighborIndex} for the points that are
+	 * given by the passed-in coordinate arrays.
+	 *
+	 * @param xs
+	 *            The x-coordinates of the points.
+	 * @param ys
+	 *            The y-coordinates of the points.
+	 */
+	public NearestNeighborIndex(double[] xs, double[] ys) {
+		if (xs.length != ys.length) {
+			throw new IllegalArgumentException(
+					"The coordinate arrays need to be of the same length.");
+		}
+		this.xs = xs;
+		this.ys = ys;
+		tree = new int[xs.length];
+		for (int i = 0; i < tree.length; i++) {
+			tree[i] = i;
+		}
+		build(0, tree.length, 0);
+	}
+
+	/**
+	 * Returns the number of points within this index.
+	 *
+	 * @return The number of points.
+	 */
+	public int getSize() {
+		return tree.length;
+	}
+
+	/**
+	 * Returns the squared distance between the points with the given indices.
+	 *
+	 * @param i
+	 *            The index of the first point.
+	 * @param j
+	 *            The index of the second point.
+	 * @return The squared distance between the given points.
+	 */
+	public double getDistanceSquared(int i, int j) {
+		double dx = xs[i] - xs[j];
+		double dy = ys[i] - ys[j];
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Returns the index of the point that is nearest to the point with the
+	 * given index (excluding that point itself), or <code>-1</code> if this
+	 * index contains less than two points. Ties are resolved in favor of the
+	 * smaller index.
+	 *
+	 * @param i
+	 *            The index of the point whose nearest neighbor is determined.
+	 * @return The index of the nearest neighbor.
+	 */
+	public int findNearest(int i) {
+		Neighbors neighbors = new Neighbors(1);
+		search(0, tree.length, 0, xs[i], ys[i], i, neighbors);
+		return neighbors.size == 0 ? -1 : neighbors.indices[0];
+	}
+
+	/**
+	 * Returns the indices of (at most) <i>k</i> points that are nearest to the
+	 * given location, sorted by ascending distance. Ties are resolved in favor
+	 * of the smaller index.
+	 *
+	 * @param x
+	 *            The x-coordinate of the location.
+	 * @param y
+	 *            The y-coordinate of the location.
+	 * @param k
+	 *            The maximum number of points to return.
+	 * @return The indices of the <i>k</i> nearest points.
+	 */
+	public int[] findNearest(double x, double y, int k) {
+		if (k <= 0) {
+			return new int[0];
+		}
+		Neighbors neighbors = new Neighbors(Math.min(k, tree.length));
+		search(0, tree.length, 0, x, y, -1, neighbors);
+		return Arrays.copyOf(neighbors.indices, neighbors.size);
+	}
+
+	/**
+	 * Returns the indices of all points that are located within the given
+	 * bounds (inclusive), in ascending order.
+	 *
+	 * @param minX
+	 *            The minimum x-coordinate.
+	 * @param minY
+	 *            The minimum y-coordinate.
+	 * @param maxX
+	 *            The maximum x-coordinate.
+	 * @param maxY
+	 *            The maximum y-coordinate.
+	 * @return The indices of all points within the given bounds.
+	 */
+	public int[] findWithin(double minX, double minY, double maxX,
+			double maxY) {
+		int[] result = new int[16];
+		int size = 0;
+		int[] stack = new int[3 * 64];
+		int top = 0;
+		if (tree.length > 0) {
+			stack[top++] = 0;
+			stack[top++] = tree.length;
+			stack[top++] = 0;
+		}
+		while (top > 0) {
+			int depth = stack[--top];
+			int hi = stack[--top];
+			int lo = stack[--top];
+			int mid = (lo + hi) >>> 1;
+			int p = tree[mid];
+			double x = xs[p];
+			double y = ys[p];
+			if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+				if (size == result.length) {
+					result = Arrays.copyOf(result, 2 * size);
+				}
+				result[size++] = p;
+			}
+			double coordinate = depth % 2 == 0 ? x : y;
+			double min = depth % 2 == 0 ? minX : minY;
+			double max = depth % 2 == 0 ? maxX : maxY;
+			if (top + 6 > stack.length) {
+				stack = Arrays.copyOf(stack, 2 * stack.length);
+			}
+			if (lo < mid && min <= coordinate) {
+				stack[top++] = lo;
+				stack[top++] = mid;
+				stack[top++] = depth + 1;
+			}
+			if (mid + 1 < hi && max >= coordinate) {
+				stack[top++] = mid + 1;
+				stack[top++] = hi;
+				stack[top++] = depth + 1;
+			}
+		}
+		result = Arrays.copyOf(result, size);
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Returns the indices of the closest pair of points, or <code>null</code>
+	 * if this index contains less than two points. If several pairs share the
+	 * minimum distance, the lexicographically smallest pair <i>(i, j)</i> with
+	 * <i>i &lt; j</i> is returned, i.e. the same pair that a comparison of
+	 * all pairs in index order would find.
+	 *
+	 * @return An array containing the indices of the closest pair of points,
+	 *         in ascending order.
+	 */
+	public int[] findClosestPair() {
+		int n = tree.length;
+		if (n < 2) {
+			return null;
+		}
+		// determine the minimum distance and the first point that has a
+		// neighbor at that distance
+		double minDistance = Double.POSITIVE_INFINITY;
+		int first = -1;
+		for (int i = 0; i < n; i++) {
+			double distance = getDistanceSquared(i, findNearest(i));
+			if (distance < minDistance) {
+				minDistance = distance;
+				first = i;
+			}
+		}
+		// determine the smallest partner at the minimum distance; as the
+		// partner of the first point cannot precede it, it is a successor
+		double radius = Math.sqrt(minDistance) * (1 + 1e-9);
+		int[] candidates = findWithin(xs[first] - radius, ys[first] - radius,
+				xs[first] + radius, ys[first] + radius);
+		for (int j : candidates) {
+			if (j > first && getDistanceSquared(first, j) == minDistance) {
+				return new int[] { first, j };
+			}
+		}
+		// unreachable for finite coordinates
+		return new int[] { first, findNearest(first) };
+	}
+
+	private void build(int lo, int hi, int depth) {
+		while (hi - lo > 1) {
+			int mid = (lo + hi) >>> 1;
+			select(lo, hi, mid, depth % 2 == 0 ? xs : ys);
+			// recurse into the smaller half, iterate over the larger one
+			if (mid - lo < hi - mid - 1) {
+				build(lo, mid, depth + 1);
+				lo = mid + 1;
+			} else {
+				build(mid + 1, hi, depth + 1);
+				hi = mid;
+			}
+			depth++;
+		}
+	}
+
+	/**
+	 * Rearranges the given range of the tree, so that the element at position
+	 * <i>k</i> is the one that would be there if the range was sorted by the
+	 * given coordinates, all elements before it are not greater, and all
+	 * elements after it are not smaller (quickselect).
+	 */
+	private void select(int lo, int hi, int k, double[] coordinates) {
+		hi--;
+		while (hi > lo) {
+			double pivot = coordinates[tree[(lo + hi) >>> 1]];
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (coordinates[tree[i]] < pivot) {
+					i++;
+				}
+				while (coordinates[tree[j]] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					int swap = tree[i];
+					tree[i] = tree[j];
+					tree[j] = swap;
+					i++;
+					j--;
+				}
+			}
+			if (k <= j) {
+				hi = j;
+			} else if (k >= i) {
+				lo = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private void search(int lo, int hi, int depth, double x, double y,
+			int exclude, Neighbors neighbors) {
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			int p = tree[mid];
+			double dx = xs[p] - x;
+			double dy = ys[p] - y;
+			if (p != exclude) {
+				double distance = dx * dx + dy * dy;
+				if (distance <= neighbors.getBound()) {
+					neighbors.offer(p, distance);
+				}
+			}
+			double delta = depth % 2 == 0 ? dx : dy;
+			// visit the half that contains the location first
+			int nearLo, nearHi, farLo, farHi;
+			if (delta > 0) {
+				nearLo = lo;
+				nearHi = mid;
+				farLo = mid + 1;
+				farHi = hi;
+			} else {
+				nearLo = mid + 1;
+				nearHi = hi;
+				farLo = lo;
+				farHi = mid;
+			}
+			search(nearLo, nearHi, depth + 1, x, y, exclude, neighbors);
+			if (delta * delta > neighbors.getBound()) {
+				return;
+			}
+			lo = farLo;
+			hi = farHi;
+			depth++;
+		}
+	}
+}
@@ -0,0 +1,444 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutGraph;
+
+/**
+ * The {@link OverlapRemovalAlgorithm} removes overlaps between nodes while
+ * displacing them as little as possible. It does not compute a layout on its
+ * own, but is intended to be applied after another {@link ILayoutAlgorithm},
+ * e.g. by combining both within a {@link CompositeLayoutAlgorithm}.
+ * <p>
+ * Overlaps are removed in two passes, first horizontally and then
+ * vertically. In each pass, a scan-line over the node bounds generates
+ * separation constraints between neighboring nodes, which are then satisfied
+ * by merging nodes into blocks that are placed at the average of their
+ * desired positions (see Dwyer, Marriott, and Stuckey: Fast Node
+ * Overlap Removal). The horizontal pass only separates those nodes that are
+ * cheaper to separate horizontally than vertically. Both passes take
+ * O(n log n) time for typical layouts.
+ * <p>
+ * Nodes that are not movable keep their locations, i.e. other nodes are
+ * moved around them. Overlaps between nodes that are not movable are not
+ * removed.
+ */
+public class OverlapRemovalAlgorithm implements ILayoutAlgorithm {
+
+	/**
+	 * A separation constraint <code>pos(right) - pos(left) &gt;= gap</code>.
+	 */
+	private static final class Constraint {
+		private final int left;
+		private final int right;
+		private final double gap;
+		// the position the block of the right variable needs to have in order
+		// to satisfy this constraint
+		private double key;
+
+		private Constraint(int left, int right, double gap) {
+			this.left = left;
+			this.right = right;
+			this.gap = gap;
+		}
+	}
+
+	/**
+	 * A block of variables whose relative positions are fixed by active
+	 * constraints. A block that contains a fixed variable is placed so that
+	 * the fixed variable keeps its position, otherwise it is placed at the
+	 * average of the desired positions of its variables.
+	 */
+	private static final class Block {
+		private final List<Integer> variables = new ArrayList<>();
+		private final PriorityQueue<Constraint> incoming = new PriorityQueue<>(
+				11, new Comparator<Constraint>() {
+					@Override
+					public int compare(Constraint c1, Constraint c2) {
+						return Double.compare(c2.key, c1.key);
+					}
+				});
+		private double weightedPosition;
+		private double weight;
+		private double position;
+		private int fixedVariable = -1;
+	}
+
+	private double gap = 0;
+
+	/**
+	 * Sets the minimum distance between two nodes to the given value. Default
+	 * value is 0.
+	 *
+	 * @param gap
+	 *            The new minimum distance between two nodes.
+	 */
+	public void setGap(double gap) {
+		this.gap = gap;
+	}
+
+	/**
+	 * Returns the minimum distance between two nodes. Default value is 0.
+	 *
+	 * @return The minimum distance between two nodes.
+	 */
+	public double getGap() {
+		return gap;
+	}
+
+	public void applyLayout(LayoutContext context, boolean clean) {
+		LayoutGraph graph = context.getLayoutGraph();
+		int n = graph.getNodeCount();
+		if (n < 2) {
+			return;
+		}
+		double[] xs = new double[n];
+		double[] ys = new double[n];
+		double[] widths = new double[n];
+		double[] heights = new double[n];
+		boolean[] fixed = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = graph.getX(i);
+			ys[i] = graph.getY(i);
+			widths[i] = graph.getWidth(i) + gap;
+			heights[i] = graph.getHeight(i) + gap;
+			fixed[i] = !graph.isMovable(i);
+		}
+
+		removeOverlaps(xs, ys, widths, heights, fixed);
+
+		for (int i = 0; i < n; i++) {
+			if (graph.isMovable(i)) {
+				graph.setLocation(i, xs[i], ys[i]);
+			}
+		}
+		context.commitLayoutGraph();
+	}
+
+	/**
+	 * Removes the overlaps between the given boxes, which are specified by
+	 * their centers and sizes, by changing the given center coordinates.
+	 *
+	 * @param xs
+	 *            The x-coordinates of the box centers.
+	 * @param ys
+	 *            The y-coordinates of the box centers.
+	 * @param widths
+	 *            The widths of the boxes.
+	 * @param heights
+	 *            The heights of the boxes.
+	 * @param fixed
+	 *            Whether the boxes may not be moved.
+	 */
+	static void removeOverlaps(double[] xs, double[] ys, double[] widths,
+			double[] heights, boolean[] fixed) {
+		List<Constraint> constraints = generateConstraints(xs, ys, widths,
+				heights, true);
+		solve(xs, fixed, constraints);
+		constraints = generateConstraints(ys, xs, heights, widths, false);
+		solve(ys, fixed, constraints);
+	}
+
+	/**
+	 * Generates the separation constraints for the primary dimension using a
+	 * scan-line that sweeps over the secondary dimension. If
+	 * <i>onlyIfCheaper</i> is set, overlapping nodes are only separated in
+	 * the primary dimension if their overlap is smaller there than in the
+	 * secondary dimension.
+	 */
+	private static List<Constraint> generateConstraints(
+			final double[] positions, final double[] secondaryPositions,
+			final double[] sizes, final double[] secondarySizes,
+			boolean onlyIfCheaper) {
+		final int n = positions.length;
+		// events 0..n-1 open a node, events n..2n-1 close it
+		Integer[] events = new Integer[2 * n];
+		for (int i = 0; i < events.length; i++) {
+			events[i] = i;
+		}
+		Arrays.sort(events, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer e1, Integer e2) {
+				int result = Double.compare(getEventPosition(e1),
+						getEventPosition(e2));
+				if (result == 0) {
+					// close before open, so that touching nodes are ignored
+					result = Boolean.compare(e1 < n, e2 < n);
+				}
+				return result != 0 ? result : e1 - e2;
+			}
+
+			private double getEventPosition(int event) {
+				int node = event % n;
+				return secondaryPositions[node] + (event < n ? -0.5 : 0.5)
+						* secondarySizes[node];
+			}
+		});
+
+		TreeSet<Integer> scanLine = new TreeSet<>(new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i, Integer j) {
+				int result = Double.compare(positions[i], positions[j]);
+				return result != 0 ? result : i - j;
+			}
+		});
+		List<Constraint> constraints = new ArrayList<>();
+		if (onlyIfCheaper) {
+			List<Set<Integer>> leftNeighbors = new ArrayList<>(n);
+			List<Set<Integer>> rightNeighbors = new ArrayList<>(n);
+			for (int i = 0; i < n; i++) {
+				leftNeighbors.add(new HashSet<Integer>());
+				rightNeighbors.add(new HashSet<Integer>());
+			}
+			for (Integer event : events) {
+				int v = event % n;
+				Set<Integer> left = leftNeighbors.get(v);
+				Set<Integer> right = rightNeighbors.get(v);
+				if (event < n) {
+					scanLine.add(v);
+					collectNeighbors(v, scanLine.headSet(v, false)
+							.descendingSet(), positions, secondaryPositions,
+							sizes, secondarySizes, left);
+					collectNeighbors(v, scanLine.tailSet(v, false), positions,
+							secondaryPositions, sizes, secondarySizes, right);
+					for (Integer u : left) {
+						Set<Integer> rightOfLeft = rightNeighbors.get(u);
+						rightOfLeft.removeAll(right);
+						rightOfLeft.add(v);
+					}
+					for (Integer u : right) {
+						Set<Integer> leftOfRight = leftNeighbors.get(u);
+						leftOfRight.removeAll(left);
+						leftOfRight.add(v);
+					}
+				} else {
+					for (Integer u : left) {
+						constraints.add(new Constraint(u, v,
+								(sizes[u] + sizes[v]) / 2));
+						Set<Integer> rightOfLeft = rightNeighbors.get(u);
+						rightOfLeft.addAll(right);
+						rightOfLeft.remove(v);
+					}
+					for (Integer u : right) {
+						constraints.add(new Constraint(v, u,
+								(sizes[u] + sizes[v]) / 2));
+						Set<Integer> leftOfRight = leftNeighbors.get(u);
+						leftOfRight.addAll(left);
+						leftOfRight.remove(v);
+					}
+					scanLine.remove(v);
+					left.clear();
+					right.clear();
+				}
+			}
+		} else {
+			int[] leftNeighbor = new int[n];
+			int[] rightNeighbor = new int[n];
+			for (Integer event : events) {
+				int v = event % n;
+				if (event < n) {
+					scanLine.add(v);
+					Integer left = scanLine.lower(v);
+					Integer right = scanLine.higher(v);
+					leftNeighbor[v] = left == null ? -1 : left;
+					rightNeighbor[v] = right == null ? -1 : right;
+					if (left != null) {
+						rightNeighbor[left] = v;
+					}
+					if (right != null) {
+						leftNeighbor[right] = v;
+					}
+				} else {
+					int left = leftNeighbor[v];
+					int right = rightNeighbor[v];
+					if (left >= 0) {
+						constraints.add(new Constraint(left, v,
+								(sizes[left] + sizes[v]) / 2));
+						rightNeighbor[left] = right;
+					}
+					if (right >= 0) {
+						constraints.add(new Constraint(v, right,
+								(sizes[right] + sizes[v]) / 2));
+						leftNeighbor[right] = left;
+					}
+					scanLine.remove(v);
+				}
+			}
+		}
+		return constraints;
+	}
+
+	/**
+	 * Collects the neighbors of the given node in the order of the given
+	 * candidates, until a node is found that does not overlap the given node
+	 * in the primary dimension. Overlapping nodes are only collected if their
+	 * overlap is not bigger in the primary dimension than in the secondary
+	 * dimension.
+	 */
+	private static void collectNeighbors(int v, Iterable<Integer> candidates,
+			double[] positions, double[] secondaryPositions, double[] sizes,
+			double[] secondarySizes, Set<Integer> neighbors) {
+		for (Integer u : candidates) {
+			double overlap = (sizes[u] + sizes[v]) / 2
+					- Math.abs(positions[u] - positions[v]);
+			if (overlap <= 0) {
+				neighbors.add(u);
+				return;
+			}
+			double secondaryOverlap = (secondarySizes[u] + secondarySizes[v])
+					/ 2 - Math.abs(secondaryPositions[u]
+							- secondaryPositions[v]);
+			if (overlap <= secondaryOverlap) {
+				neighbors.add(u);
+			}
+		}
+	}
+
+	/**
+	 * Moves the given positions so that all constraints are satisfied, by
+	 * processing the variables in the order of their positions, and merging
+	 * the block of each variable with the blocks on its left as long as one
+	 * of its incoming constraints is violated. Constraints between two blocks
+	 * that both contain fixed variables cannot be satisfied and are dropped.
+	 */
+	private static void solve(final double[] positions, boolean[] fixed,
+			List<Constraint> constraints) {
+		int n = positions.length;
+		List<List<Constraint>> incoming = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			incoming.add(new ArrayList<Constraint>());
+		}
+		for (Constraint c : constraints) {
+			incoming.get(c.right).add(c);
+		}
+		// the constraints respect the order of the positions, so that it is
+		// a topological order of the constraint graph
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i, Integer j) {
+				int result = Double.compare(positions[i], positions[j]);
+				return result != 0 ? result : i - j;
+			}
+		});
+
+		Block[] blocks = new Block[n];
+		double[] offsets = new double[n];
+		for (Integer v : order) {
+			Block block = new Block();
+			block.variables.add(v);
+			block.weight = 1;
+			block.weightedPosition = positions[v];
+			block.position = positions[v];
+			if (fixed[v]) {
+				block.fixedVariable = v;
+			}
+			blocks[v] = block;
+			for (Constraint c : incoming.get(v)) {
+				c.key = blocks[c.left].position + offsets[c.left] + c.gap
+						- offsets[v];
+				block.incoming.add(c);
+			}
+			// merge left as long as an incoming constraint is violated
+			while (!block.incoming.isEmpty()) {
+				Constraint c = block.incoming.peek();
+				if (blocks[c.left] == block) {
+					block.incoming.poll();
+					continue;
+				}
+				// blocks on the left only move further left when merged, so
+				// that a key may only be too big
+				double key = blocks[c.left].position + offsets[c.left] + c.gap
+						- offsets[c.right];
+				if (key < c.key) {
+					block.incoming.poll();
+					c.key = key;
+					block.incoming.add(c);
+				} else if (c.key > block.position) {
+					block.incoming.poll();
+					if (block.fixedVariable < 0
+							|| blocks[c.left].fixedVariable < 0) {
+						block = merge(blocks[c.left], block, c, positions,
+								blocks, offsets);
+					}
+				} else {
+					break;
+				}
+			}
+		}
+
+		for (int i = 0; i < n; i++) {
+			positions[i] = blocks[i].position + offsets[i];
+		}
+	}
+
+	/**
+	 * Merges the given blocks so that the given constraint becomes active,
+	 * moving the variables of the smaller block into the bigger one. At most
+	 * one of the given blocks may contain a fixed variable.
+	 */
+	private static Block merge(Block left, Block right, Constraint c,
+			double[] positions, Block[] blocks, double[] offsets) {
+		double distance = offsets[c.left] + c.gap - offsets[c.right];
+		Block target, source;
+		if (left.variables.size() >= right.variables.size()) {
+			target = left;
+			source = right;
+		} else {
+			target = right;
+			source = left;
+			distance = -distance;
+		}
+		for (Integer v : source.variables) {
+			offsets[v] += distance;
+			blocks[v] = target;
+		}
+		target.variables.addAll(source.variables);
+		target.weightedPosition += source.weightedPosition
+				- distance * source.weight;
+		target.weight += source.weight;
+		if (source.fixedVariable >= 0) {
+			target.fixedVariable = source.fixedVariable;
+		}
+		if (target.fixedVariable >= 0) {
+			target.position = positions[target.fixedVariable]
+					- offsets[target.fixedVariable];
+		} else {
+			target.position = target.weightedPosition / target.weight;
+		}
+		// the offsets of the source variables changed, so re-key their
+		// incoming constraints
+		for (Constraint d : source.incoming) {
+			if (blocks[d.left] != target) {
+				d.key = blocks[d.left].position + offsets[d.left] + d.gap
+						- offsets[d.right];
+				target.incoming.add(d);
+			}
+		}
+		return target;
+	}
+}
@@ -12,12 +12,10 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
-import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
-import org.eclipse.gef.graph.Node;
 import org.eclipse.gef.layout.ILayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
-import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.LayoutGraph;
 
 /**
  * This layout will take the given entities, apply a tree layout to them, and
@@ -47,41 +45,37 @@ public class RadialLayoutAlgorithm implements ILayoutAlgorithm {
 		if (!clean)
 			return;
 		treeLayout.internalApplyLayout(layoutContext);
-		Node[] entities = layoutContext.getNodes();
-		Rectangle bounds = LayoutProperties.getBounds(layoutContext.getGraph())
-				.getCopy();
-		computeRadialPositions(entities, bounds);
+		LayoutGraph graph = layoutContext.getLayoutGraph();
+		Rectangle bounds = graph.getBounds();
+		computeRadialPositions(graph, bounds);
 		if (resize)
-			AlgorithmHelper.maximizeSizes(entities);
+			AlgorithmHelper.maximizeSizes(graph);
 		int insets = 4;
 		bounds.setX(bounds.getX() + insets);
 		bounds.setY(bounds.getY() + insets);
 		bounds.setWidth(bounds.getWidth() - 2 * insets);
 		bounds.setHeight(bounds.getHeight() - 2 * insets);
-		AlgorithmHelper.fitWithinBounds(entities, bounds, resize);
+		AlgorithmHelper.fitWithinBounds(graph, bounds, resize);
+		layoutContext.commitLayoutGraph();
 	}
 
-	private void computeRadialPositions(Node[] entities, Rectangle bounds) {
-		Rectangle layoutBounds = AlgorithmHelper.getLayoutBounds(entities,
-				false);
+	private void computeRadialPositions(LayoutGraph graph, Rectangle bounds) {
+		Rectangle layoutBounds = AlgorithmHelper.getLayoutBounds(graph, false);
 		layoutBounds.setX(bounds.getX());
 		layoutBounds.setWidth(bounds.getWidth());
-		for (int i = 0; i < entities.length; i++) {
-			Point location = LayoutProperties.getLocation(entities[i]);
+		for (int i = 0; i < graph.getNodeCount(); i++) {
 			if (layoutBounds.getWidth() == 0 || layoutBounds.getHeight() == 0) {
-				location.x = 0;
-				location.y = 0;
+				graph.setLocation(i, 0, 0);
 			} else {
-				double percenttheta = (location.x - layoutBounds.getX())
+				double percenttheta = (graph.getX(i) - layoutBounds.getX())
 						/ layoutBounds.getWidth();
-				double distance = (location.y - layoutBounds.getY())
+				double distance = (graph.getY(i) - layoutBounds.getY())
 						/ layoutBounds.getHeight();
 				double theta = startDegree
 						+ Math.abs(endDegree - startDegree) * percenttheta;
-				location.x = distance * Math.cos(theta);
-				location.y = distance * Math.sin(theta);
+				graph.setLocation(i, distance * Math.cos(theta),
+						distance * Math.sin(theta));
 			}
-			LayoutProperties.setLocation(entities[i], location);
 		}
 	}
 
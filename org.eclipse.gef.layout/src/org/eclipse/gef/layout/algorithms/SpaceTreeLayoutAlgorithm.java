@@ -281,31 +281,11 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 		public boolean flushLocationChanges(double thicknessSoFar) {
 			boolean madeChanges = false;
 			if (node != null) {
-				Dimension nodeSize = LayoutProperties.getSize(node);
-				double x = 0, y = 0;
-				switch (direction) {
-				case TOP_DOWN:
-					x = bounds.getX() + positionInLayer;
-					y = thicknessSoFar + nodeSize.height / 2;
-					break;
-				case BOTTOM_UP:
-					x = bounds.getX() + positionInLayer;
-					y = bounds.getY() + bounds.getHeight() - thicknessSoFar
-							- nodeSize.height / 2;
-					break;
-				case LEFT_RIGHT:
-					x = thicknessSoFar + nodeSize.height / 2;
-					y = bounds.getY() + positionInLayer;
-					break;
-				case RIGHT_LEFT:
-					x = bounds.getX() + bounds.getWidth() - thicknessSoFar
-							- nodeSize.height / 2;
-					y = bounds.getY() + positionInLayer;
-					break;
-				}
+				Point location = computeLocation(this, thicknessSoFar);
 				Point currentLocation = LayoutProperties.getLocation(node);
-				if (currentLocation.x != x || currentLocation.y != y) {
-					LayoutProperties.setLocation(node, new Point(x, y));
+				if (currentLocation.x != location.x
+						|| currentLocation.y != location.y) {
+					LayoutProperties.setLocation(node, location);
 					SpaceTreeNode spaceTreeNode = (SpaceTreeNode) treeObserver
 							.getTreeNode(node);
 					spaceTreeNode
@@ -808,6 +788,10 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 	private double branchGap = leafGap + 5;
 	private double layerGap = 20;
 
+	private boolean tidy = false;
+
+	private TidyTreeLayoutHelper tidyTree;
+
 	/**
 	 * Sets the distance between leaf nodes to the given value. Default value is
 	 * 15.
@@ -818,6 +802,7 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	public void setLeafGap(double value) {
 		this.leafGap = value;
+		tidyTree = null;
 	}
 
 	/**
@@ -830,6 +815,7 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	public void setBranchGap(double value) {
 		this.branchGap = value;
+		tidyTree = null;
 	}
 
 	/**
@@ -843,6 +829,34 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 		this.layerGap = value;
 	}
 
+	/**
+	 * Specifies whether node positions are to be computed using a
+	 * {@link TidyTreeLayoutHelper}. In this case, nodes are not moved within
+	 * their layers one after the other, but the positions of all expanded
+	 * nodes are computed in time linear to the number of nodes, and
+	 * expanding another layer only recomputes the subtrees containing the
+	 * newly expanded nodes. This keeps expansion changes interactive for large
+	 * trees. Default value is <code>false</code>.
+	 * 
+	 * @param tidy
+	 *            <code>true</code> if a tidy tree layout is to be computed,
+	 *            otherwise <code>false</code>.
+	 */
+	public void setTidy(boolean tidy) {
+		this.tidy = tidy;
+	}
+
+	/**
+	 * Returns whether node positions are computed using a
+	 * {@link TidyTreeLayoutHelper}. Default value is <code>false</code>.
+	 * 
+	 * @return <code>true</code> if a tidy tree layout is computed, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isTidy() {
+		return this.tidy;
+	}
+
 	/**
 	 * Returns the distance between leaf nodes. Default value is 15.
 	 * 
@@ -938,6 +952,11 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 		treeObserver = new TreeLayoutHelper(spaceTreeNodeFactory);
 		treeObserver.computeTree(layoutContext.getNodes());
 
+		if (tidy) {
+			applyTidyLayout(clean);
+			return;
+		}
+
 		if (clean) {
 			maximizeExpansion((SpaceTreeNode) treeObserver.getSuperRoot());
 		}
@@ -947,6 +966,155 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 		superRoot.flushLocationChanges(0);
 	}
 
+	/**
+	 * Expands the tree layer by layer as long as the expanded nodes fit into
+	 * the available space (if <i>clean</i> is <code>true</code>), and
+	 * positions the expanded nodes using a {@link TidyTreeLayoutHelper}.
+	 * 
+	 * @param clean
+	 *            <code>true</code> if the expansion state is to be
+	 *            recomputed, otherwise <code>false</code>.
+	 */
+	private void applyTidyLayout(boolean clean) {
+		final SpaceTreeNode superRoot = (SpaceTreeNode) treeObserver
+				.getSuperRoot();
+		if (tidyTree == null) {
+			tidyTree = new TidyTreeLayoutHelper(leafGap, branchGap) {
+				@Override
+				protected double getBreadth(TreeNode node) {
+					return ((SpaceTreeNode) node).spaceRequiredForNode();
+				}
+
+				@Override
+				protected List<TreeNode> getChildren(TreeNode node) {
+					return ((SpaceTreeNode) node).expanded
+							? node.getChildren()
+							: Collections.<TreeNode> emptyList();
+				}
+			};
+		}
+		// only the subtrees that changed since the last layout pass are
+		// recomputed
+		tidyTree.prune(superRoot);
+		tidyTree.layout(superRoot);
+
+		double availableSpace = (direction == TOP_DOWN
+				|| direction == BOTTOM_UP) ? bounds.getWidth()
+						: bounds.getHeight();
+		if (clean) {
+			List<TreeNode> nodesInThisLayer = new ArrayList<>();
+			nodesInThisLayer.add(superRoot);
+			for (int layer = 0; !nodesInThisLayer.isEmpty(); layer++) {
+				List<TreeNode> nodesInNextLayer = new ArrayList<>();
+				List<SpaceTreeNode> expandedNodes = new ArrayList<>();
+				for (TreeNode node : nodesInThisLayer) {
+					SpaceTreeNode spaceTreeNode = (SpaceTreeNode) node;
+					if (!spaceTreeNode.children.isEmpty()
+							&& !spaceTreeNode.expanded) {
+						spaceTreeNode.expanded = true;
+						tidyTree.invalidate(spaceTreeNode);
+						expandedNodes.add(spaceTreeNode);
+					}
+					if (spaceTreeNode.expanded) {
+						nodesInNextLayer.addAll(spaceTreeNode.children);
+					}
+				}
+				tidyTree.layout(superRoot);
+				// the roots are always expanded
+				if (layer > 1 && tidyTree.getRightExtent()
+						- tidyTree.getLeftExtent() > availableSpace) {
+					for (SpaceTreeNode node : expandedNodes) {
+						node.expanded = false;
+						tidyTree.invalidate(node);
+					}
+					tidyTree.layout(superRoot);
+					break;
+				}
+				nodesInThisLayer = nodesInNextLayer;
+			}
+		}
+
+		// center the tree within the available space
+		double extent = tidyTree.getRightExtent() - tidyTree.getLeftExtent();
+		double offset = Math.max(0, (availableSpace - extent) / 2)
+				- tidyTree.getLeftExtent();
+		List<Double> layerThicknesses = new ArrayList<>();
+		List<TreeNode> stack = new ArrayList<>();
+		stack.add(superRoot);
+		while (!stack.isEmpty()) {
+			SpaceTreeNode node = (SpaceTreeNode) stack
+					.remove(stack.size() - 1);
+			node.positionInLayer = tidyTree.getPosition(node) + offset;
+			if (node.node != null) {
+				Dimension size = LayoutProperties.getSize(node.node);
+				double thickness = (direction == TOP_DOWN
+						|| direction == BOTTOM_UP) ? size.height : size.width;
+				while (layerThicknesses.size() <= node.depth) {
+					layerThicknesses.add(0.0);
+				}
+				layerThicknesses.set(node.depth, Math.max(thickness,
+						layerThicknesses.get(node.depth)));
+			}
+			if (node.expanded) {
+				stack.addAll(node.children);
+			}
+		}
+
+		// sum of thicknesses and gaps for all layers 'above' a layer
+		double[] thicknessSoFar = new double[layerThicknesses.size()];
+		for (int i = 0; i < thicknessSoFar.length; i++) {
+			thicknessSoFar[i] = (i == 0 ? 0
+					: thicknessSoFar[i - 1] + layerThicknesses.get(i - 1))
+					+ layerGap;
+		}
+		stack.addAll(superRoot.children);
+		while (!stack.isEmpty()) {
+			SpaceTreeNode node = (SpaceTreeNode) stack
+					.remove(stack.size() - 1);
+			LayoutProperties.setLocation(node.node,
+					computeLocation(node, thicknessSoFar[node.depth]));
+			if (node.expanded) {
+				stack.addAll(node.children);
+			}
+		}
+	}
+
+	/**
+	 * Computes the location of the given node depending on its position in
+	 * layer and the given thickness of the layers 'above' it.
+	 * 
+	 * @param node
+	 *            The {@link SpaceTreeNode} for which to compute the location.
+	 * @param thicknessSoFar
+	 *            sum of thicknesses and gaps for all layers 'above' the node
+	 * @return The location of the given node.
+	 */
+	private Point computeLocation(SpaceTreeNode node, double thicknessSoFar) {
+		Dimension nodeSize = LayoutProperties.getSize(node.node);
+		double x = 0, y = 0;
+		switch (direction) {
+		case TOP_DOWN:
+			x = bounds.getX() + node.positionInLayer;
+			y = thicknessSoFar + nodeSize.height / 2;
+			break;
+		case BOTTOM_UP:
+			x = bounds.getX() + node.positionInLayer;
+			y = bounds.getY() + bounds.getHeight() - thicknessSoFar
+					- nodeSize.height / 2;
+			break;
+		case LEFT_RIGHT:
+			x = thicknessSoFar + nodeSize.height / 2;
+			y = bounds.getY() + node.positionInLayer;
+			break;
+		case RIGHT_LEFT:
+			x = bounds.getX() + bounds.getWidth() - thicknessSoFar
+					- nodeSize.height / 2;
+			y = bounds.getY() + node.positionInLayer;
+			break;
+		}
+		return new Point(x, y);
+	}
+
 	private void maximizeExpansion(SpaceTreeNode nodeToExpand) {
 		protectedNode = nodeToExpand;
 		double availableSpace = getAvailableSpace();
@@ -14,13 +14,25 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
 
 import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Edge;
 import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.IIncrementalLayoutAlgorithm;
 import org.eclipse.gef.layout.ILayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
 import org.eclipse.gef.layout.LayoutProperties;
@@ -37,7 +49,7 @@ import org.eclipse.gef.layout.LayoutProperties;
  * @author Mateusz Matela
  * @author mwienand
  */
-public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
+public class SpringLayoutAlgorithm implements IIncrementalLayoutAlgorithm {
 
 	/**
 	 * The default value for the spring layout number of iterations.
@@ -74,16 +86,53 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	private static final double DEFAULT_SPRING_GRAVITATION = 2.0f;
 
+	/**
+	 * The default value for the Barnes-Hut approximation threshold, which
+	 * disables the approximation.
+	 */
+	private static final double DEFAULT_BARNES_HUT_THETA = 0;
+
+	/**
+	 * The default value for the number of iterations that are performed when
+	 * the layout is updated incrementally.
+	 */
+	private static final int DEFAULT_INCREMENTAL_ITERATIONS = 100;
+
+	/**
+	 * The number of hops (starting at the changed nodes) up to which nodes are
+	 * moved when the layout is updated incrementally.
+	 */
+	private static final int INCREMENTAL_REGION_DEPTH = 2;
+
+	/**
+	 * The angle by which consecutive nodes are rotated around the barycenter
+	 * of their neighbors when they are placed during an incremental update.
+	 */
+	private static final double GOLDEN_ANGLE = Math.PI * (3 - Math.sqrt(5));
+
 	/**
 	 * Minimum distance considered between nodes
 	 */
 	private static final double MIN_DISTANCE = 1.0d;
 
+	/**
+	 * The number of chunks into which the nodes are partitioned when forces
+	 * are computed in parallel. It is independent of the parallelism of the
+	 * {@link ForkJoinPool}, so that results are reproducible.
+	 */
+	private static final int PARALLEL_CHUNK_COUNT = 64;
+
 	/**
 	 * The variable can be customized to set the number of iterations used.
 	 */
 	private int sprIterations = DEFAULT_SPRING_ITERATIONS;
 
+	/**
+	 * The variable can be customized to set the number of iterations used when
+	 * the layout is updated incrementally.
+	 */
+	private int incrementalIterations = DEFAULT_INCREMENTAL_ITERATIONS;
+
 	/**
 	 * This variable can be customized to set the max number of MS the algorithm
 	 * should run
@@ -96,6 +145,12 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	private boolean sprRandom = DEFAULT_SPRING_RANDOM;
 
+	/**
+	 * The seed of the random numbers used for the initial placement, or
+	 * <code>null</code> if the random numbers are not seeded.
+	 */
+	private Long randomSeed;
+
 	/**
 	 * The variable can be customized to set the spring layout move-control.
 	 */
@@ -117,14 +172,34 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	private double sprGravitation = DEFAULT_SPRING_GRAVITATION;
 
+	/**
+	 * The variable can be customized to set the Barnes-Hut approximation
+	 * threshold used for the computation of repulsive forces.
+	 */
+	private double barnesHutTheta = DEFAULT_BARNES_HUT_THETA;
+
 	/**
 	 * Variable indicating whether the algorithm should resize elements.
 	 */
 	private boolean resize = false;
 
 	private int iteration;
-	private double[][] srcDestToSumOfWeights;
+	// sums of weights of the edges between adjacent nodes, stored in
+	// compressed sparse row format, i.e. the entries for node i are stored
+	// within [adjacencyOffsets[i], adjacencyOffsets[i + 1])
+	private int[] adjacencyOffsets;
+	private int[] adjacentNodes;
+	private double[] adjacentSumOfWeights;
+	// scratch row used to look up the sum of weights between two nodes in
+	// constant time when computing exact forces
+	private double[] sumOfWeightsRow;
+	private BarnesHutTree barnesHutTree;
+	// per chunk force buffers and scratch rows for the parallel computation
+	// of exact forces
+	private double[][] chunkForcesX, chunkForcesY, chunkSumOfWeightsRows;
+	private ForkJoinPool forkJoinPool;
 	private Node[] entities;
+	private boolean[] movable;
 	private double[] forcesX, forcesY;
 	private double[] locationsX, locationsY;
 	private double[] sizeW, sizeH;
@@ -146,6 +221,10 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 
 		while (performAnotherNonContinuousIteration()) {
+			if (layoutContext.isLayoutCancelled()) {
+				// the results are discarded anyway
+				return;
+			}
 			computeOneIteration();
 		}
 
@@ -164,6 +243,157 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 	}
 
+	/**
+	 * Updates the layout starting from the current locations of the nodes.
+	 * Only the nodes within two hops of the given changed nodes are moved, all
+	 * other nodes keep their locations. Changed nodes that are adjacent to
+	 * unchanged nodes are placed next to the barycenter of these before the
+	 * region is relaxed, so that newly added nodes start out close to their
+	 * neighbors.
+	 * <p>
+	 * As the forces are only computed for the nodes within the affected
+	 * region, an incremental update of a region of <code>R</code> nodes
+	 * requires <code>O(R * N)</code> (or <code>O(R log N)</code> if the
+	 * {@link #setBarnesHutTheta(double) Barnes-Hut approximation} is enabled)
+	 * time per {@link #setIncrementalIterations(int) iteration}.
+	 */
+	@Override
+	public void updateLayout(LayoutContext layoutContext,
+			Set<Node> changedNodes) {
+		this.layoutContext = layoutContext;
+		initLayout(layoutContext, false);
+
+		HashMap<Node, Integer> entityToPosition = new HashMap<>();
+		for (int i = 0; i < entities.length; i++) {
+			entityToPosition.put(entities[i], i);
+		}
+
+		// determine the affected region by a breadth first search (removed
+		// nodes are not layout relevant, but are traversed nevertheless, so
+		// that their former neighbors are affected)
+		boolean[] inRegion = new boolean[entities.length];
+		int regionSize = 0;
+		List<Node> frontier = new ArrayList<>(changedNodes);
+		Set<Node> visited = new HashSet<>(changedNodes);
+		for (int depth = 0; depth <= INCREMENTAL_REGION_DEPTH; depth++) {
+			List<Node> next = new ArrayList<>();
+			for (Node node : frontier) {
+				Integer index = entityToPosition.get(node);
+				if (index != null && movable[index.intValue()]) {
+					inRegion[index.intValue()] = true;
+					regionSize++;
+				}
+				if (depth < INCREMENTAL_REGION_DEPTH) {
+					for (Node neighbor : node.getNeighbors()) {
+						if (visited.add(neighbor)) {
+							next.add(neighbor);
+						}
+					}
+				}
+			}
+			frontier = next;
+		}
+		if (regionSize == 0) {
+			return;
+		}
+		int[] region = new int[regionSize];
+		for (int i = 0, r = 0; i < entities.length; i++) {
+			// nodes outside of the region are fixed
+			movable[i] = inRegion[i];
+			if (inRegion[i]) {
+				region[r++] = i;
+			}
+		}
+
+		// place changed nodes next to their unchanged neighbors
+		boolean[] changed = new boolean[entities.length];
+		int placed = 0;
+		for (Node node : changedNodes) {
+			Integer index = entityToPosition.get(node);
+			if (index == null || !movable[index.intValue()]) {
+				continue;
+			}
+			int i = index.intValue();
+			changed[i] = true;
+			double x = 0;
+			double y = 0;
+			int count = 0;
+			for (Node neighbor : node.getNeighbors()) {
+				Integer j = entityToPosition.get(neighbor);
+				if (j != null && !changedNodes.contains(neighbor)) {
+					x += locationsX[j.intValue()];
+					y += locationsY[j.intValue()];
+					count++;
+				}
+			}
+			if (count > 0) {
+				double angle = placed++ * GOLDEN_ANGLE;
+				double radius = Math.max(sizeW[i], sizeH[i]);
+				locationsX[i] = x / count + radius * Math.cos(angle);
+				locationsY[i] = y / count + radius * Math.sin(angle);
+			}
+		}
+
+		// the layout is not necessarily in equilibrium (as the bounds scale is
+		// continuously adjusted during a full layout pass), so the residual
+		// forces that act upon the region without the changed nodes are
+		// compensated, so that unchanged nodes only react to the changes
+		double[] normalizedX = new double[entities.length];
+		double[] normalizedY = new double[entities.length];
+		normalize(locationsX, locationsY, normalizedX, normalizedY);
+		computeRegionForces(region, normalizedX, normalizedY);
+		double[] residualX = new double[entities.length];
+		double[] residualY = new double[entities.length];
+		double[] force = new double[2];
+		for (int i : region) {
+			if (!changed[i]) {
+				force[0] = forcesX[i];
+				force[1] = forcesY[i];
+				for (int j : region) {
+					if (changed[j]) {
+						computePairForce(i, j, normalizedX, normalizedY, force,
+								-1);
+					}
+				}
+				residualX[i] = force[0];
+				residualY[i] = force[1];
+			}
+		}
+		// changed nodes are exposed to the residual forces of their
+		// unchanged neighbors
+		for (int i : region) {
+			if (changed[i]) {
+				int count = 0;
+				for (int a = adjacencyOffsets[i]; a < adjacencyOffsets[i
+						+ 1]; a++) {
+					int j = adjacentNodes[a];
+					if (inRegion[j] && !changed[j]) {
+						residualX[i] += residualX[j];
+						residualY[i] += residualY[j];
+						count++;
+					}
+				}
+				if (count > 0) {
+					residualX[i] /= count;
+					residualY[i] /= count;
+				}
+			}
+		}
+
+		for (int k = 0; k < incrementalIterations; k++) {
+			normalize(locationsX, locationsY, normalizedX, normalizedY);
+			computeRegionForces(region, normalizedX, normalizedY);
+			for (int i : region) {
+				forcesX[i] -= residualX[i];
+				forcesY[i] -= residualY[i];
+			}
+			moveNodes(forcesX, forcesY, locationsX, locationsY);
+		}
+		for (int i : region) {
+			saveLocation(i);
+		}
+	}
+
 	/**
 	 * Performs the given number of iterations.
 	 * 
@@ -338,6 +568,27 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		return sprIterations;
 	}
 
+	/**
+	 * Sets the number of iterations that are performed when the layout is
+	 * {@link #updateLayout(LayoutContext, Set) updated incrementally}.
+	 *
+	 * @param iterations
+	 *            The number of incremental iterations.
+	 */
+	public void setIncrementalIterations(int iterations) {
+		incrementalIterations = iterations;
+	}
+
+	/**
+	 * Returns the number of iterations that are performed when the layout is
+	 * {@link #updateLayout(LayoutContext, Set) updated incrementally}.
+	 *
+	 * @return The number of incremental iterations.
+	 */
+	public int getIncrementalIterations() {
+		return incrementalIterations;
+	}
+
 	/**
 	 * Sets whether or not this SpringLayoutAlgorithm will layout the nodes
 	 * randomly before beginning iterations.
@@ -360,35 +611,148 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		return sprRandom;
 	}
 
+	/**
+	 * Sets the seed of the random numbers used to place the nodes randomly
+	 * before beginning iterations (see {@link #setRandom(boolean)}). If a seed
+	 * is set, each layout pass starts from the same initial placement, so
+	 * that the results are reproducible. By default, the random numbers are
+	 * not seeded.
+	 *
+	 * @param seed
+	 *            The seed of the random numbers, or <code>null</code> to use
+	 *            unseeded random numbers.
+	 */
+	public void setRandomSeed(Long seed) {
+		randomSeed = seed;
+	}
+
+	/**
+	 * Returns the seed of the random numbers used to place the nodes randomly
+	 * before beginning iterations.
+	 *
+	 * @return The seed of the random numbers, or <code>null</code> if
+	 *         unseeded random numbers are used.
+	 * @see #setRandomSeed(Long)
+	 */
+	public Long getRandomSeed() {
+		return randomSeed;
+	}
+
+	/**
+	 * Sets the threshold for the Barnes-Hut approximation of the repulsive
+	 * forces between nodes. If set to a value greater than <code>0</code>, the
+	 * repulsion exerted by a group of far away nodes is approximated by the
+	 * repulsion of their center of mass, if the ratio between the extent of
+	 * the group and its distance is less than the given <i>theta</i>. This
+	 * reduces the costs of an iteration from <code>O(N^2)</code> to
+	 * <code>O(N log N)</code>. Reasonable values lie between <code>0.5</code>
+	 * and <code>1.0</code>, where smaller values yield more accurate results.
+	 * <p>
+	 * A value of <code>0</code> (the default) disables the approximation, so
+	 * that all pairwise forces are computed exactly, which is appropriate for
+	 * small graphs.
+	 *
+	 * @param theta
+	 *            The Barnes-Hut approximation threshold, or <code>0</code> to
+	 *            compute exact forces.
+	 */
+	public void setBarnesHutTheta(double theta) {
+		if (theta < 0) {
+			throw new IllegalArgumentException(
+					"Theta may not be negative, but was " + theta + ".");
+		}
+		barnesHutTheta = theta;
+	}
+
+	/**
+	 * Returns the threshold for the Barnes-Hut approximation of the repulsive
+	 * forces between nodes.
+	 *
+	 * @return The Barnes-Hut approximation threshold, or <code>0</code> if
+	 *         exact forces are computed.
+	 * @see #setBarnesHutTheta(double)
+	 */
+	public double getBarnesHutTheta() {
+		return barnesHutTheta;
+	}
+
+	/**
+	 * Sets the {@link ForkJoinPool} that is used to compute forces and
+	 * positions in parallel. If set to <code>null</code> (the default), all
+	 * computations are performed sequentially by the calling thread.
+	 * <p>
+	 * The nodes are partitioned into a fixed number of chunks, whose forces
+	 * are accumulated within separate buffers and summed up in a fixed order
+	 * afterwards. The results are thus independent of the parallelism of the
+	 * given pool and reproducible for a given initial placement, but they may
+	 * slightly differ from those of the sequential computation due to the
+	 * changed order of floating point operations.
+	 *
+	 * @param forkJoinPool
+	 *            The {@link ForkJoinPool} to use for parallel computations, or
+	 *            <code>null</code> to compute sequentially.
+	 */
+	public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * Returns the {@link ForkJoinPool} that is used to compute forces and
+	 * positions in parallel.
+	 *
+	 * @return The {@link ForkJoinPool} used for parallel computations, or
+	 *         <code>null</code> if computations are performed sequentially.
+	 * @see #setForkJoinPool(ForkJoinPool)
+	 */
+	public ForkJoinPool getForkJoinPool() {
+		return forkJoinPool;
+	}
+
 	private long startTime = 0;
 
 	private void initLayout(LayoutContext context) {
+		initLayout(context, sprRandom);
+	}
+
+	private void initLayout(LayoutContext context, boolean random) {
 		entities = context.getNodes();
 		bounds = LayoutProperties.getBounds(context.getGraph());
 		loadLocations();
 
-		srcDestToSumOfWeights = new double[entities.length][entities.length];
 		HashMap<Node, Integer> entityToPosition = new HashMap<>();
 		for (int i = 0; i < entities.length; i++) {
 			entityToPosition.put(entities[i], new Integer(i));
 		}
 
+		// collect edges between layout relevant nodes (in both directions)
 		Edge[] connections = context.getEdges();
+		int[] sources = new int[2 * connections.length];
+		int[] targets = new int[2 * connections.length];
+		double[] weights = new double[2 * connections.length];
+		int[] degrees = new int[entities.length];
+		int count = 0;
 		for (int i = 0; i < connections.length; i++) {
 			Edge connection = connections[i];
 			Integer source = entityToPosition.get(connection.getSource());
 			Integer target = entityToPosition.get(connection.getTarget());
-			if (source == null || target == null)
+			// loops do not contribute any forces
+			if (source == null || target == null
+					|| source.intValue() == target.intValue())
 				continue;
 			double weight = LayoutProperties.getWeight(connection);
 			weight = (weight <= 0 ? 0.1 : weight);
-			srcDestToSumOfWeights[source.intValue()][target
-					.intValue()] += weight;
-			srcDestToSumOfWeights[target.intValue()][source
-					.intValue()] += weight;
+			sources[count] = source.intValue();
+			targets[count] = target.intValue();
+			weights[count++] = weight;
+			sources[count] = target.intValue();
+			targets[count] = source.intValue();
+			weights[count++] = weight;
+			degrees[source.intValue()]++;
+			degrees[target.intValue()]++;
 		}
+		initAdjacency(sources, targets, weights, degrees, count);
 
-		if (sprRandom)
+		if (random)
 			placeRandomly(); // put vertices in random places
 
 		iteration = 1;
@@ -396,6 +760,53 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		startTime = System.currentTimeMillis();
 	}
 
+	/**
+	 * Fills the compressed sparse row representation of the sums of weights
+	 * between adjacent nodes from the given (directed) edge data, merging the
+	 * weights of parallel edges.
+	 */
+	private void initAdjacency(int[] sources, int[] targets, double[] weights,
+			int[] degrees, int count) {
+		int n = entities.length;
+		int[] offsets = new int[n + 1];
+		for (int i = 0; i < n; i++) {
+			offsets[i + 1] = offsets[i] + degrees[i];
+		}
+		int[] nodes = new int[count];
+		double[] sums = new double[count];
+		int[] fill = new int[n];
+		// position of the entry for a given adjacent node within the row that
+		// is currently filled
+		int[] entry = new int[n];
+		Arrays.fill(entry, -1);
+		// bucket edges by source (preserving their order)
+		int[] bucketed = new int[count];
+		for (int e = 0; e < count; e++) {
+			bucketed[offsets[sources[e]] + fill[sources[e]]++] = e;
+		}
+		int size = 0;
+		for (int i = 0; i < n; i++) {
+			int rowStart = size;
+			for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+				int e = bucketed[k];
+				int j = targets[e];
+				if (entry[j] >= rowStart) {
+					sums[entry[j]] += weights[e];
+				} else {
+					entry[j] = size;
+					nodes[size] = j;
+					sums[size++] = weights[e];
+				}
+			}
+			offsets[i] = rowStart;
+		}
+		offsets[n] = size;
+		adjacencyOffsets = offsets;
+		adjacentNodes = nodes;
+		adjacentSumOfWeights = sums;
+		sumOfWeightsRow = new double[n];
+	}
+
 	private void loadLocations() {
 		if (locationsX == null || locationsX.length != entities.length) {
 			int length = entities.length;
@@ -405,8 +816,12 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 			sizeH = new double[length];
 			forcesX = new double[length];
 			forcesY = new double[length];
+			movable = new boolean[length];
 		}
 		for (int i = 0; i < entities.length; i++) {
+			// cache movable flags, so attributes are not accessed when
+			// computing positions
+			movable[i] = LayoutProperties.isMovable(entities[i]);
 			Point location = LayoutProperties.getLocation(entities[i]);
 			locationsX[i] = location.x;
 			locationsY[i] = location.y;
@@ -420,18 +835,22 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		if (entities == null)
 			return;
 		for (int i = 0; i < entities.length; i++) {
-			// TODO ensure no dynamic layout passes are triggered as a result of
-			// storing the positions
-			// TODO: check where NaN values originate from
-			if (Double.isNaN(locationsX[i]) || Double.isNaN(locationsY[i])) {
-				locationsX[i] = 0;
-				locationsY[i] = 0;
-			}
-			LayoutProperties.setLocation(entities[i],
-					new Point(locationsX[i], locationsY[i]));
+			saveLocation(i);
 		}
 	}
 
+	private void saveLocation(int i) {
+		// TODO ensure no dynamic layout passes are triggered as a result of
+		// storing the positions
+		// TODO: check where NaN values originate from
+		if (Double.isNaN(locationsX[i]) || Double.isNaN(locationsY[i])) {
+			locationsX[i] = 0;
+			locationsY[i] = 0;
+		}
+		LayoutProperties.setLocation(entities[i],
+				new Point(locationsX[i], locationsY[i]));
+	}
+
 	/**
 	 * Scales the current iteration counter based on how long the algorithm has
 	 * been running for. You can set the MaxTime in maxTimeMS!
@@ -494,7 +913,9 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	}
 
 	/**
-	 * Puts vertices in random places, all between (0,0) and (1,1).
+	 * Puts vertices in random places, all between (0,0) and (1,1). The random
+	 * numbers are seeded with the {@link #getRandomSeed() random seed}, if
+	 * set.
 	 */
 	protected void placeRandomly() {
 		if (locationsX.length == 0) {
@@ -511,11 +932,13 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 			locationsY[0] = bounds.getY();
 			locationsX[1] = bounds.getX() + bounds.getWidth();
 			locationsY[1] = bounds.getY() + bounds.getHeight();
+			Random random = randomSeed == null ? new Random()
+					: new Random(randomSeed);
 			for (int i = 2; i < locationsX.length; i++) {
 				locationsX[i] = bounds.getX()
-						+ Math.random() * bounds.getWidth();
+						+ random.nextDouble() * bounds.getWidth();
 				locationsY[i] = bounds.getY()
-						+ Math.random() * bounds.getHeight();
+						+ random.nextDouble() * bounds.getHeight();
 			}
 		}
 	}
@@ -540,69 +963,20 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 				locationsY[i] = this.locationsY[i];
 			}
 		}
-		// TODO: Again really really slow!
+		if (barnesHutTheta > 0 && barnesHutTree == null) {
+			barnesHutTree = new BarnesHutTree(MIN_DISTANCE);
+		}
 
 		for (int k = 0; k < 2; k++) {
-			for (int i = 0; i < this.locationsX.length; i++) {
-
-				for (int j = i + 1; j < locationsX.length; j++) {
-					double dx = (locationsX[i] - locationsX[j])
-							/ bounds.getWidth() / boundsScaleX;
-					double dy = (locationsY[i] - locationsY[j])
-							/ bounds.getHeight() / boundsScaleY;
-					double distance_sq = dx * dx + dy * dy;
-					// make sure distance and distance squared not too small
-					distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
-							distance_sq);
-					double distance = Math.sqrt(distance_sq);
-
-					// If there are relationships between srcObj and destObj
-					// then decrease force on srcObj (a pull) in direction of
-					// destObj
-					// If no relation between srcObj and destObj then increase
-					// force on srcObj (a push) from direction of destObj.
-					double sumOfWeights = srcDestToSumOfWeights[i][j];
-
-					double f;
-					if (sumOfWeights > 0) {
-						// nodes are pulled towards each other
-						f = -sprStrain * Math.log(distance / sprLength)
-								* sumOfWeights;
-					} else {
-						// nodes are repelled from each other
-						f = sprGravitation / (distance_sq);
-					}
-					double dfx = f * dx / distance;
-					double dfy = f * dy / distance;
-
-					forcesX[k][i] += dfx;
-					forcesY[k][i] += dfy;
-
-					forcesX[k][j] -= dfx;
-					forcesY[k][j] -= dfy;
-				}
-			}
-
-			for (int i = 0; i < entities.length; i++) {
-				if (LayoutProperties.isMovable(entities[i])) {
-					double deltaX = sprMove * forcesX[k][i];
-					double deltaY = sprMove * forcesY[k][i];
-
-					// constrain movement, so that nodes don't shoot way off to
-					// the
-					// edge
-					double dist = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
-					double maxMovement = 0.2d * sprMove;
-					if (dist > maxMovement) {
-						deltaX *= maxMovement / dist;
-						deltaY *= maxMovement / dist;
-					}
-
-					locationsX[i] += deltaX * bounds.getWidth() * boundsScaleX;
-					locationsY[i] += deltaY * bounds.getHeight() * boundsScaleY;
-				}
+			if (barnesHutTheta > 0) {
+				computeApproximateForces(locationsX, locationsY, forcesX[k],
+						forcesY[k]);
+			} else {
+				computeExactForces(locationsX, locationsY, forcesX[k],
+						forcesY[k]);
 			}
 
+			moveNodes(forcesX[k], forcesY[k], locationsX, locationsY);
 		}
 		// // initialize all forces to zero
 		for (int i = 0; i < this.entities.length; i++) {
@@ -622,29 +996,355 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 
 	}
 
+	/**
+	 * Computes the forces between all pairs of nodes exactly, which requires
+	 * <code>O(N^2)</code> time.
+	 */
+	private void computeExactForces(final double[] locationsX,
+			final double[] locationsY, double[] forcesX, double[] forcesY) {
+		final int n = locationsX.length;
+		if (forkJoinPool == null || n == 0) {
+			for (int i = 0; i < n; i++) {
+				computeExactForces(i, locationsX, locationsY, forcesX, forcesY,
+						sumOfWeightsRow);
+			}
+			return;
+		}
+
+		// accumulate the forces of interleaved rows (so the work is balanced)
+		// within per chunk buffers
+		final int chunkCount = Math.min(PARALLEL_CHUNK_COUNT, n);
+		if (chunkForcesX == null || chunkForcesX.length != chunkCount
+				|| chunkForcesX[0].length != n) {
+			chunkForcesX = new double[chunkCount][n];
+			chunkForcesY = new double[chunkCount][n];
+			chunkSumOfWeightsRows = new double[chunkCount][n];
+		}
+		parallelFor(chunkCount, new IntConsumer() {
+			@Override
+			public void accept(int c) {
+				Arrays.fill(chunkForcesX[c], 0);
+				Arrays.fill(chunkForcesY[c], 0);
+				for (int i = c; i < n; i += chunkCount) {
+					computeExactForces(i, locationsX, locationsY,
+							chunkForcesX[c], chunkForcesY[c],
+							chunkSumOfWeightsRows[c]);
+				}
+			}
+		});
+
+		// reduce the buffers in a fixed order (so results are reproducible)
+		final double[] resultX = forcesX;
+		final double[] resultY = forcesY;
+		parallelFor(chunkCount, new IntConsumer() {
+			@Override
+			public void accept(int c) {
+				for (int i = c * n / chunkCount; i < (c + 1) * n
+						/ chunkCount; i++) {
+					for (int b = 0; b < chunkCount; b++) {
+						resultX[i] += chunkForcesX[b][i];
+						resultY[i] += chunkForcesY[b][i];
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Computes the forces between the node with index <i>i</i> and all nodes
+	 * with a greater index, accumulating them within the given force arrays.
+	 */
+	private void computeExactForces(int i, double[] locationsX,
+			double[] locationsY, double[] forcesX, double[] forcesY,
+			double[] sumOfWeightsRow) {
+		// look up the weights of the edges to adjacent nodes in constant
+		// time
+		for (int a = adjacencyOffsets[i]; a < adjacencyOffsets[i + 1]; a++) {
+			sumOfWeightsRow[adjacentNodes[a]] = adjacentSumOfWeights[a];
+		}
+
+		for (int j = i + 1; j < locationsX.length; j++) {
+			double dx = (locationsX[i] - locationsX[j]) / bounds.getWidth()
+					/ boundsScaleX;
+			double dy = (locationsY[i] - locationsY[j]) / bounds.getHeight()
+					/ boundsScaleY;
+			double distance_sq = dx * dx + dy * dy;
+			// make sure distance and distance squared not too small
+			distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE, distance_sq);
+			double distance = Math.sqrt(distance_sq);
+
+			// If there are relationships between srcObj and destObj
+			// then decrease force on srcObj (a pull) in direction of
+			// destObj
+			// If no relation between srcObj and destObj then increase
+			// force on srcObj (a push) from direction of destObj.
+			double sumOfWeights = sumOfWeightsRow[j];
+
+			double f;
+			if (sumOfWeights > 0) {
+				// nodes are pulled towards each other
+				f = -sprStrain * Math.log(distance / sprLength) * sumOfWeights;
+			} else {
+				// nodes are repelled from each other
+				f = sprGravitation / (distance_sq);
+			}
+			double dfx = f * dx / distance;
+			double dfy = f * dy / distance;
+
+			forcesX[i] += dfx;
+			forcesY[i] += dfy;
+
+			forcesX[j] -= dfx;
+			forcesY[j] -= dfy;
+		}
+
+		for (int a = adjacencyOffsets[i]; a < adjacencyOffsets[i + 1]; a++) {
+			sumOfWeightsRow[adjacentNodes[a]] = 0;
+		}
+	}
+
+	/**
+	 * Computes the forces using a Barnes-Hut approximation of the repulsion
+	 * between all nodes, which requires <code>O(N log N)</code> time. As
+	 * adjacent nodes do not repel each other, their (approximated) repulsion
+	 * is compensated before adding the (exact) spring forces, which requires
+	 * <code>O(E)</code> time.
+	 */
+	private void computeApproximateForces(double[] locationsX,
+			double[] locationsY, final double[] forcesX,
+			final double[] forcesY) {
+		// compute repulsion within normalized coordinates
+		final double[] normalizedX = new double[locationsX.length];
+		final double[] normalizedY = new double[locationsY.length];
+		normalize(locationsX, locationsY, normalizedX, normalizedY);
+		barnesHutTree.build(normalizedX, normalizedY);
+
+		// the forces of each node are computed independently, so chunks may be
+		// processed in parallel
+		final int n = locationsX.length;
+		final int chunkCount = forkJoinPool == null ? 1
+				: Math.min(PARALLEL_CHUNK_COUNT, n);
+		parallelFor(chunkCount, new IntConsumer() {
+			@Override
+			public void accept(int c) {
+				double[] force = new double[2];
+				for (int i = c * n / chunkCount; i < (c + 1) * n
+						/ chunkCount; i++) {
+					force[0] = 0;
+					force[1] = 0;
+					barnesHutTree.computeRepulsion(i, barnesHutTheta,
+							sprGravitation, force);
+					computeSpringForces(i, normalizedX, normalizedY, force);
+					forcesX[i] += force[0];
+					forcesY[i] += force[1];
+				}
+			}
+		});
+	}
+
+	/**
+	 * Computes the forces that act upon the nodes of the given region (and
+	 * only these), either exactly or using the Barnes-Hut approximation.
+	 */
+	private void computeRegionForces(final int[] region,
+			final double[] normalizedX, final double[] normalizedY) {
+		if (barnesHutTheta > 0) {
+			if (barnesHutTree == null) {
+				barnesHutTree = new BarnesHutTree(MIN_DISTANCE);
+			}
+			barnesHutTree.build(normalizedX, normalizedY);
+		}
+
+		final int n = region.length;
+		final int chunkCount = forkJoinPool == null ? 1
+				: Math.min(PARALLEL_CHUNK_COUNT, n);
+		parallelFor(chunkCount, new IntConsumer() {
+			@Override
+			public void accept(int c) {
+				double[] force = new double[2];
+				for (int r = c * n / chunkCount; r < (c + 1) * n
+						/ chunkCount; r++) {
+					int i = region[r];
+					force[0] = 0;
+					force[1] = 0;
+					if (barnesHutTheta > 0) {
+						barnesHutTree.computeRepulsion(i, barnesHutTheta,
+								sprGravitation, force);
+					} else {
+						computeRepulsion(i, normalizedX, normalizedY, force);
+					}
+					computeSpringForces(i, normalizedX, normalizedY, force);
+					forcesX[i] = force[0];
+					forcesY[i] = force[1];
+				}
+			}
+		});
+	}
+
+	/**
+	 * Adds the force that the node with index <i>j</i> exerts upon the node
+	 * with index <i>i</i>, multiplied by the given factor, to the given force
+	 * vector, using normalized coordinates.
+	 */
+	private void computePairForce(int i, int j, double[] normalizedX,
+			double[] normalizedY, double[] force, double factor) {
+		double dx = normalizedX[i] - normalizedX[j];
+		double dy = normalizedY[i] - normalizedY[j];
+		double distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
+				dx * dx + dy * dy);
+		double distance = Math.sqrt(distance_sq);
+		double sumOfWeights = 0;
+		for (int a = adjacencyOffsets[i]; a < adjacencyOffsets[i + 1]; a++) {
+			if (adjacentNodes[a] == j) {
+				sumOfWeights = adjacentSumOfWeights[a];
+			}
+		}
+		double f;
+		if (sumOfWeights > 0) {
+			f = -sprStrain * Math.log(distance / sprLength) * sumOfWeights;
+		} else {
+			f = sprGravitation / distance_sq;
+		}
+		force[0] += factor * f * dx / distance;
+		force[1] += factor * f * dy / distance;
+	}
+
+	/**
+	 * Adds the repulsion that all other nodes exert upon the node with index
+	 * <i>i</i> to the given force vector, using normalized coordinates.
+	 */
+	private void computeRepulsion(int i, double[] normalizedX,
+			double[] normalizedY, double[] force) {
+		for (int j = 0; j < normalizedX.length; j++) {
+			if (j != i) {
+				double dx = normalizedX[i] - normalizedX[j];
+				double dy = normalizedY[i] - normalizedY[j];
+				double distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
+						dx * dx + dy * dy);
+				double distance = Math.sqrt(distance_sq);
+				double f = sprGravitation / distance_sq;
+				force[0] += f * dx / distance;
+				force[1] += f * dy / distance;
+			}
+		}
+	}
+
+	/**
+	 * Replaces the repulsion that the nodes adjacent to the node with index
+	 * <i>i</i> exert upon it by the attraction of the springs between them,
+	 * using normalized coordinates.
+	 */
+	private void computeSpringForces(int i, double[] normalizedX,
+			double[] normalizedY, double[] force) {
+		for (int a = adjacencyOffsets[i]; a < adjacencyOffsets[i + 1]; a++) {
+			int j = adjacentNodes[a];
+			double dx = normalizedX[i] - normalizedX[j];
+			double dy = normalizedY[i] - normalizedY[j];
+			double distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
+					dx * dx + dy * dy);
+			double distance = Math.sqrt(distance_sq);
+			// replace repulsion by attraction
+			double f = -sprStrain * Math.log(distance / sprLength)
+					* adjacentSumOfWeights[a] - sprGravitation / distance_sq;
+			force[0] += f * dx / distance;
+			force[1] += f * dy / distance;
+		}
+	}
+
+	/**
+	 * Transforms the given locations into the normalized coordinates in which
+	 * forces are computed.
+	 */
+	private void normalize(double[] locationsX, double[] locationsY,
+			double[] normalizedX, double[] normalizedY) {
+		double scaleX = bounds.getWidth() * boundsScaleX;
+		double scaleY = bounds.getHeight() * boundsScaleY;
+		for (int i = 0; i < locationsX.length; i++) {
+			normalizedX[i] = locationsX[i] / scaleX;
+			normalizedY[i] = locationsY[i] / scaleY;
+		}
+	}
+
 	/**
 	 * Computes the position for each node in this SpringLayoutAlgorithm. The
 	 * computed position will be stored in the data repository. position =
 	 * position + sprMove * force
 	 */
 	protected void computePositions() {
-		for (int i = 0; i < entities.length; i++) {
-			if (LayoutProperties.isMovable(entities[i])) {
-				double deltaX = sprMove * forcesX[i];
-				double deltaY = sprMove * forcesY[i];
-
-				// constrain movement, so that nodes don't shoot way off to the
-				// edge
-				double dist = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
-				double maxMovement = 0.2d * sprMove;
-				if (dist > maxMovement) {
-					deltaX *= maxMovement / dist;
-					deltaY *= maxMovement / dist;
+		moveNodes(forcesX, forcesY, locationsX, locationsY);
+	}
+
+	/**
+	 * Moves all movable nodes according to the given forces, i.e. position =
+	 * position + sprMove * force.
+	 */
+	private void moveNodes(final double[] forcesX, final double[] forcesY,
+			final double[] locationsX, final double[] locationsY) {
+		final int n = entities.length;
+		final int chunkCount = forkJoinPool == null ? 1
+				: Math.min(PARALLEL_CHUNK_COUNT, n);
+		parallelFor(chunkCount, new IntConsumer() {
+			@Override
+			public void accept(int c) {
+				for (int i = c * n / chunkCount; i < (c + 1) * n
+						/ chunkCount; i++) {
+					if (movable[i]) {
+						double deltaX = sprMove * forcesX[i];
+						double deltaY = sprMove * forcesY[i];
+
+						// constrain movement, so that nodes don't shoot way off
+						// to the edge
+						double dist = Math
+								.sqrt(deltaX * deltaX + deltaY * deltaY);
+						double maxMovement = 0.2d * sprMove;
+						if (dist > maxMovement) {
+							deltaX *= maxMovement / dist;
+							deltaY *= maxMovement / dist;
+						}
+
+						locationsX[i] += deltaX * bounds.getWidth()
+								* boundsScaleX;
+						locationsY[i] += deltaY * bounds.getHeight()
+								* boundsScaleY;
+					}
 				}
+			}
+		});
+	}
 
-				locationsX[i] += deltaX * bounds.getWidth() * boundsScaleX;
-				locationsY[i] += deltaY * bounds.getHeight() * boundsScaleY;
+	/**
+	 * Runs the given chunk computation for all chunk indices in
+	 * <code>[0, chunkCount)</code>, using the {@link #getForkJoinPool() fork
+	 * join pool} if one is set, and waits for its completion.
+	 */
+	private void parallelFor(int chunkCount, final IntConsumer chunk) {
+		if (forkJoinPool == null || chunkCount <= 1) {
+			for (int c = 0; c < chunkCount; c++) {
+				chunk.accept(c);
+			}
+			return;
+		}
+		List<Callable<Void>> tasks = new ArrayList<>(chunkCount);
+		for (int c = 0; c < chunkCount; c++) {
+			final int index = c;
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					chunk.accept(index);
+					return null;
+				}
+			});
+		}
+		try {
+			for (Future<Void> f : forkJoinPool.invokeAll(tasks)) {
+				f.get();
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(
+					"Interrupted while computing spring layout.", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
 		}
 	}
 
@@ -18,6 +18,7 @@
 package org.eclipse.gef.layout.algorithms;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -92,6 +93,244 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 		void crossReduction(List<List<NodeWrapper>> nodes);
 	}
 
+	/**
+	 * Counts the edge crossings of a layered graph. The neighbors of each
+	 * {@link NodeWrapper} are captured once as primitive index arrays, while
+	 * their positions are read from the current {@link NodeWrapper#index}
+	 * whenever crossings are counted, so that a {@link CrossingCounter} can be
+	 * reused while the layers are reordered.
+	 * <p>
+	 * The crossings between two adjacent layers are counted with the
+	 * accumulator tree of Barth, Jünger, and Mutzel
+	 * (http://dx.doi.org/10.1007/3-540-36151-0_13) in O(E log V).
+	 */
+	public static class CrossingCounter {
+
+		private static final int[] NO_NEIGHBORS = new int[0];
+
+		private final NodeWrapper[] wrappers;
+		private final int[][] layers;
+		private final int[] levels;
+		private final Map<NodeWrapper, Integer> ids = new IdentityHashMap<>();
+		// neighbors on lower and higher layers, indexed by id
+		private final int[][] upper;
+		private final int[][] lower;
+
+		/**
+		 * Constructs a new {@link CrossingCounter} for the given layers.
+		 * 
+		 * @param layers
+		 *            The layers, represented each as a list of
+		 *            {@link NodeWrapper}s.
+		 * @param graphEdges
+		 *            <code>true</code> to consider the edges between the
+		 *            wrapped {@link Node}s, which may span several layers, or
+		 *            <code>false</code> to consider the predecessor and
+		 *            successor links of the {@link NodeWrapper}s, which
+		 *            connect adjacent layers only.
+		 */
+		public CrossingCounter(List<List<NodeWrapper>> layers,
+				boolean graphEdges) {
+			this.layers = new int[layers.size()][];
+			int n = 0;
+			for (int l = 0; l < layers.size(); l++) {
+				List<NodeWrapper> layer = layers.get(l);
+				this.layers[l] = new int[layer.size()];
+				for (int i = 0; i < layer.size(); i++) {
+					ids.put(layer.get(i), n);
+					this.layers[l][i] = n++;
+				}
+			}
+			wrappers = new NodeWrapper[n];
+			levels = new int[n];
+			Map<Node, Integer> nodeIds = new IdentityHashMap<>();
+			for (int l = 0; l < layers.size(); l++) {
+				for (int i = 0; i < this.layers[l].length; i++) {
+					int id = this.layers[l][i];
+					wrappers[id] = layers.get(l).get(i);
+					levels[id] = l;
+					if (wrappers[id].node != null)
+						nodeIds.put(wrappers[id].node, id);
+				}
+			}
+
+			upper = new int[n][];
+			lower = new int[n][];
+			int[] buffer = new int[n];
+			for (int v = 0; v < n; v++) {
+				NodeWrapper nw = wrappers[v];
+				if (graphEdges) {
+					if (nw.node == null) {
+						upper[v] = NO_NEIGHBORS;
+						lower[v] = NO_NEIGHBORS;
+						continue;
+					}
+					int upperCount = 0;
+					int lowerCount = n;
+					for (Node neighbor : nw.node.getNeighbors()) {
+						Integer id = nodeIds.get(neighbor);
+						if (id == null || levels[id] == levels[v])
+							continue;
+						// collect upper neighbors from the front and lower
+						// neighbors from the back of the buffer
+						if (levels[id] < levels[v])
+							buffer[upperCount++] = id;
+						else
+							buffer[--lowerCount] = id;
+					}
+					upper[v] = Arrays.copyOf(buffer, upperCount);
+					lower[v] = Arrays.copyOfRange(buffer, lowerCount, n);
+				} else {
+					upper[v] = getIds(nw.pred, levels[v] - 1);
+					lower[v] = getIds(nw.succ, levels[v] + 1);
+				}
+			}
+		}
+
+		private int[] getIds(List<NodeWrapper> neighbors, int level) {
+			int[] result = new int[neighbors.size()];
+			int count = 0;
+			for (NodeWrapper neighbor : neighbors) {
+				Integer id = ids.get(neighbor);
+				if (id != null && levels[id] == level)
+					result[count++] = id;
+			}
+			return count == result.length ? result
+					: Arrays.copyOf(result, count);
+		}
+
+		private int[] getSortedPositions(int[] neighbors) {
+			int[] positions = new int[neighbors.length];
+			for (int i = 0; i < neighbors.length; i++)
+				positions[i] = wrappers[neighbors[i]].index;
+			Arrays.sort(positions);
+			return positions;
+		}
+
+		/**
+		 * Returns the number of crossings between the edges of the given
+		 * {@link NodeWrapper}s (which have to be on the same layer) if
+		 * <i>left</i> is placed before <i>right</i>, irrespective of their
+		 * current positions.
+		 * 
+		 * @param left
+		 *            The {@link NodeWrapper} that is placed first.
+		 * @param right
+		 *            The {@link NodeWrapper} that is placed second.
+		 * @return The number of crossings between the edges of the given
+		 *         {@link NodeWrapper}s.
+		 */
+		public int getCrossings(NodeWrapper left, NodeWrapper right) {
+			Integer u = ids.get(left);
+			Integer v = ids.get(right);
+			if (u == null || v == null || u.equals(v))
+				return 0;
+			return getCrossings(upper[u], upper[v])
+					+ getCrossings(lower[u], lower[v]);
+		}
+
+		private int getCrossings(int[] leftNeighbors, int[] rightNeighbors) {
+			if (leftNeighbors.length == 0 || rightNeighbors.length == 0)
+				return 0;
+			int[] leftPositions = getSortedPositions(leftNeighbors);
+			int[] rightPositions = getSortedPositions(rightNeighbors);
+			// count the pairs where the left edge ends behind the right edge
+			int crossings = 0;
+			int i = 0;
+			for (int position : rightPositions) {
+				while (i < leftPositions.length
+						&& leftPositions[i] <= position)
+					i++;
+				crossings += leftPositions.length - i;
+			}
+			return crossings;
+		}
+
+		/**
+		 * Returns the number of crossings between the edges that connect the
+		 * given layer with the next layer.
+		 * 
+		 * @param layer
+		 *            The index of the upper layer.
+		 * @return The number of crossings between the given and the next
+		 *         layer.
+		 */
+		public int getCrossings(int layer) {
+			int[] upperLayer = sortByPosition(layers[layer]);
+			int[] lowerLayer = layers[layer + 1];
+			int lowerSize = 0;
+			int edgeCount = 0;
+			for (int v : lowerLayer)
+				lowerSize = Math.max(lowerSize, wrappers[v].index + 1);
+			for (int u : upperLayer)
+				edgeCount += lower[u].length;
+
+			// the lower end points of the edges, ordered lexicographically by
+			// upper and lower position
+			int[] ends = new int[edgeCount];
+			int count = 0;
+			for (int u : upperLayer) {
+				int offset = count;
+				for (int v : lower[u]) {
+					// edges in graph mode may span several layers
+					if (levels[v] == layer + 1)
+						ends[count++] = wrappers[v].index;
+				}
+				Arrays.sort(ends, offset, count);
+			}
+
+			// insert the end points into the accumulator tree, counting the
+			// end points that have already been inserted to the right
+			int firstIndex = 1;
+			while (firstIndex < lowerSize)
+				firstIndex <<= 1;
+			int[] tree = new int[2 * firstIndex - 1];
+			firstIndex -= 1;
+			long crossings = 0;
+			for (int e = 0; e < count; e++) {
+				int index = ends[e] + firstIndex;
+				tree[index]++;
+				while (index > 0) {
+					if ((index & 1) != 0)
+						crossings += tree[index + 1];
+					index = (index - 1) >> 1;
+					tree[index]++;
+				}
+			}
+			return (int) Math.min(crossings, Integer.MAX_VALUE);
+		}
+
+		/**
+		 * Returns the total number of crossings between adjacent layers.
+		 * 
+		 * @return The total number of crossings between adjacent layers.
+		 */
+		public int getCrossings() {
+			long crossings = 0;
+			for (int l = 0; l < layers.length - 1; l++)
+				crossings += getCrossings(l);
+			return (int) Math.min(crossings, Integer.MAX_VALUE);
+		}
+
+		private int[] sortByPosition(int[] layer) {
+			int[] sorted = new int[layer.length];
+			final int[] positions = new int[layer.length];
+			Integer[] order = new Integer[layer.length];
+			for (int i = 0; i < layer.length; i++) {
+				positions[i] = wrappers[layer[i]].index;
+				order[i] = i;
+			}
+			Arrays.sort(order, new Comparator<Integer>() {
+				public int compare(Integer i1, Integer i2) {
+					return Integer.compare(positions[i1], positions[i2]);
+				}
+			});
+			for (int i = 0; i < layer.length; i++)
+				sorted[i] = layer[order[i]];
+			return sorted;
+		}
+	}
+
 	/**
 	 * @author Rene Kuhlemann
 	 */
@@ -243,16 +482,43 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 			}
 		}
 
+		/**
+		 * Copies the current order of the layers.
+		 */
+		private List<List<NodeWrapper>> copyLayers() {
+			List<List<NodeWrapper>> copy = new ArrayList<>(layers.size());
+			for (List<NodeWrapper> layer : layers)
+				copy.add(new ArrayList<>(layer));
+			return copy;
+		}
+
 		public void crossReduction(List<List<NodeWrapper>> nodes) {
 			this.layers = nodes;
 			padLayers();
+			// keep track of the order with the fewest crossings, because the
+			// sweeps do not necessarily improve the order monotonically
+			CrossingCounter counter = new CrossingCounter(layers, false);
+			int fewestCrossings = counter.getCrossings();
+			List<List<NodeWrapper>> bestLayers = copyLayers();
 			// reduce and refine iteratively, depending on the depth of the
 			// graph
 			for (int i = 0; i < layers.size(); i++) {
 				reduceCrossings();
 				refineLayers();
+				int crossings = counter.getCrossings();
+				if (crossings < fewestCrossings) {
+					fewestCrossings = crossings;
+					bestLayers = copyLayers();
+				}
 			}
 			reduceCrossings();
+			if (counter.getCrossings() > fewestCrossings) {
+				for (int i = 0; i < layers.size(); i++) {
+					layers.get(i).clear();
+					layers.get(i).addAll(bestLayers.get(i));
+					updateIndex(layers.get(i));
+				}
+			}
 			unpadLayers();
 		}
 	}
@@ -267,119 +533,18 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 	 * 
 	 */
 	public static class SplitCrossingReducer implements CrossingReducer {
-		private final Map<Node, NodeWrapper> map = new IdentityHashMap<>();
-
-		/**
-		 * Filters the multiple connections from the two arrays
-		 * 
-		 * @param a
-		 * @param b
-		 * @return
-		 */
-		private ArrayList<Node> unionOfNodes(Collection<Node> a,
-				Collection<Node> b) {
-			ArrayList<Node> res = new ArrayList<>(a);
-			for (Node n : b) {
-				if (!res.contains(n)) {
-					res.add(n);
-				}
-			}
-			return res;
-		}
+		private CrossingCounter counter;
 
 		/**
 		 * Returns the number of crosses between the two nodes and those
-		 * connected to them.
+		 * connected to them, if nodeA is placed before nodeB.
 		 * 
 		 * @param nodeA
 		 * @param nodeB
 		 * @return
 		 */
 		private int numberOfCrosses(NodeWrapper nodeA, NodeWrapper nodeB) {
-			int numOfCrosses = 0;
-			if (nodeA.equals(nodeB))
-				return 0;
-
-			// Filter nodes connected with bidirectional edges
-			ArrayList<Node> adjacentNodesOfA = unionOfNodes(
-					nodeA.node.getPredecessorNodes(),
-					nodeA.node.getSuccessorNodes());
-			ArrayList<Node> adjacentNodesOfB = unionOfNodes(
-					nodeB.node.getPredecessorNodes(),
-					nodeB.node.getSuccessorNodes());
-
-			for (Node aNode : adjacentNodesOfA) {
-				ArrayList<Integer> alreadyCrossed = new ArrayList<>();
-				NodeWrapper aNodeWrapper = map.get(aNode);
-				for (int i = 0; i < adjacentNodesOfB.size(); i++) {
-					NodeWrapper nw = map.get(adjacentNodesOfB.get(i));
-					if (!alreadyCrossed.contains(i) && nw != null) {
-						// only if on the same side
-						if ((nw.layer > nodeA.layer
-								&& aNodeWrapper.layer > nodeA.layer)
-								|| (nw.layer < nodeA.layer
-										&& aNodeWrapper.layer < nodeA.layer)) {
-							if (nodeA.index < nodeB.index) {
-								if (aNodeWrapper.index > nw.index) {
-									numOfCrosses++;
-									alreadyCrossed.add(i);
-								} else if (nw.index == aNodeWrapper.index) {
-									if (nodeA.index >= nw.index) {
-										// implies nodeB.index > nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nodeA.layer < nw.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& nw.layer < nodeA.layer)) {
-											// top-left or bottom-left quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									} else if (nodeB.index <= nw.index) {
-										// implies nodeA.index < nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& aNodeWrapper.layer < nodeB.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& aNodeWrapper.layer > nodeB.layer)) {
-											// top-right or bottom-right quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									}
-								}
-							} else if (nodeA.index > nodeB.index) {
-								if (aNodeWrapper.index < nw.index) {
-									numOfCrosses++;
-									alreadyCrossed.add(i);
-								} else if (nw.index == aNodeWrapper.index) {
-									if (nodeB.index >= nw.index) {
-										// implies nodeB.index > nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nodeB.layer > aNodeWrapper.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& aNodeWrapper.layer > nodeB.layer)) {
-											// top-left or bottom-left quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									} else if (nodeA.index <= nw.index) {
-										// implies nodeA.index < nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nw.layer > nodeA.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& nw.layer < nodeA.layer)) {
-											// top-right or bottom-right quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									}
-								}
-							}
-						}
-					}
-				}
-			}
-
-			return numOfCrosses;
+			return counter.getCrossings(nodeA, nodeB);
 		}
 
 		/**
@@ -409,10 +574,9 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 						right.add(node);
 					else {
 						if (num1 == num2 && num1 > 0) {
-							int tmpindex = map.get(pivot.node).index;
-							map.get(pivot.node).index = map
-									.get(node.node).index;
-							map.get(node.node).index = tmpindex;
+							int tmpindex = pivot.index;
+							pivot.index = node.index;
+							node.index = tmpindex;
 						}
 						if (node.index < pivot.index)
 							left.add(node);
@@ -430,15 +594,18 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 
 		public void crossReduction(List<List<NodeWrapper>> nodes) {
-			// Building the map
-			for (List<NodeWrapper> layer : nodes)
-				for (NodeWrapper nw : layer)
-					map.put(nw.node, nw);
+			counter = new CrossingCounter(nodes, true);
 			for (int i = 0; i < nodes.size(); i++) {
-				if (!nodes.get(i).isEmpty()) {
-					splitHeuristic(nodes.get(i));
+				List<NodeWrapper> layer = nodes.get(i);
+				if (!layer.isEmpty()) {
+					List<NodeWrapper> ordered = splitHeuristic(layer);
+					layer.clear();
+					layer.addAll(ordered);
+					for (int index = 0; index < layer.size(); index++)
+						layer.get(index).index = index;
 				}
 			}
+			counter = null;
 		}
 	}
 
@@ -451,121 +618,19 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 	 * 
 	 */
 	public static class GreedyCrossingReducer implements CrossingReducer {
-		private final Map<Node, NodeWrapper> map = new IdentityHashMap<>();
 		private List<List<NodeWrapper>> layers = new ArrayList<>();
-		private Map<Integer, Integer> crossesForLayers = new IdentityHashMap<>();
-
-		/**
-		 * Filters the multiple connections from the two arrays.
-		 * 
-		 * @param a
-		 * @param b
-		 * @return
-		 */
-		private ArrayList<Node> unionOfNodes(Collection<Node> a,
-				Collection<Node> b) {
-			ArrayList<Node> res = new ArrayList<>(a);
-			for (Node n : b) {
-				if (!res.contains(n)) {
-					res.add(n);
-				}
-			}
-			return res;
-		}
+		private CrossingCounter counter;
 
 		/**
 		 * Returns the number of crosses between the two nodes and those
-		 * connected to them.
+		 * connected to them, if nodeA is placed before nodeB.
 		 * 
 		 * @param nodeA
 		 * @param nodeB
 		 * @return
 		 */
 		private int numberOfCrosses(NodeWrapper nodeA, NodeWrapper nodeB) {
-			int numOfCrosses = 0;
-			if (nodeA.equals(nodeB))
-				return 0;
-
-			// Filter nodes connected with bidirectional edges
-			ArrayList<Node> adjacentNodesOfA = unionOfNodes(
-					nodeA.node.getPredecessorNodes(),
-					nodeA.node.getSuccessorNodes());
-			ArrayList<Node> adjacentNodesOfB = unionOfNodes(
-					nodeB.node.getPredecessorNodes(),
-					nodeB.node.getSuccessorNodes());
-
-			for (Node aNode : adjacentNodesOfA) {
-				ArrayList<Integer> alreadyCrossed = new ArrayList<>();
-				NodeWrapper aNodeWrapper = map.get(aNode);
-				for (int i = 0; i < adjacentNodesOfB.size(); i++) {
-					NodeWrapper nw = map.get(adjacentNodesOfB.get(i));
-					if (!alreadyCrossed.contains(i) && nw != null) {
-						// only if on the same side
-						if ((nw.layer > nodeA.layer
-								&& aNodeWrapper.layer > nodeA.layer)
-								|| (nw.layer < nodeA.layer
-										&& aNodeWrapper.layer < nodeA.layer)) {
-							if (nodeA.index < nodeB.index) {
-								if (aNodeWrapper.index > nw.index) {
-									numOfCrosses++;
-									alreadyCrossed.add(i);
-								} else if (nw.index == aNodeWrapper.index) {
-									if (nodeA.index >= nw.index) {
-										// implies nodeB.index > nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nodeA.layer < nw.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& nw.layer < nodeA.layer)) {
-											// top-left or bottom-left quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									} else if (nodeB.index <= nw.index) {
-										// implies nodeA.index < nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& aNodeWrapper.layer < nodeB.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& aNodeWrapper.layer > nodeB.layer)) {
-											// top-right or bottom-right quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									}
-								}
-							} else if (nodeA.index > nodeB.index) {
-								if (aNodeWrapper.index < nw.index) {
-									numOfCrosses++;
-									alreadyCrossed.add(i);
-								} else if (nw.index == aNodeWrapper.index) {
-									if (nodeB.index >= nw.index) {
-										// implies nodeB.index > nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nodeB.layer > aNodeWrapper.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& aNodeWrapper.layer > nodeB.layer)) {
-											// top-left or bottom-left quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									} else if (nodeA.index <= nw.index) {
-										// implies nodeA.index < nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nw.layer > nodeA.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& nw.layer < nodeA.layer)) {
-											// top-right or bottom-right quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									}
-								}
-							}
-						}
-					}
-				}
-			}
-
-			return numOfCrosses;
+			return counter.getCrossings(nodeA, nodeB);
 		}
 
 		/**
@@ -584,24 +649,16 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 								layer.get(i + 1));
 						int num2 = numberOfCrosses(layer.get(i + 1),
 								layer.get(i));
-						if (num1 > num2 || (num1 == num2 && num1 > 0)) {
-							if (!crossesForLayers
-									.containsKey((layer.get(i).layer))
-									|| crossesForLayers
-											.get(layer.get(i).layer) > num2) {
-								crossesForLayers.put(layer.get(i).layer, num2);
-								res = true;
-								int level = layer.get(0).layer;
-
-								NodeWrapper tmp = layers.get(level).get(i);
-								int tmpindex = layers.get(level).get(i).index;
-								layers.get(level).get(i).index = layers
-										.get(level).get(i + 1).index;
-								layers.get(level).set(i,
-										layers.get(level).get(i + 1));
-								layers.get(level).get(i + 1).index = tmpindex;
-								layers.get(level).set(i + 1, tmp);
-							}
+						// a switch strictly reduces the number of crossings,
+						// so that the heuristic terminates
+						if (num1 > num2) {
+							res = true;
+							NodeWrapper tmp = layer.get(i);
+							int tmpindex = tmp.index;
+							tmp.index = layer.get(i + 1).index;
+							layer.set(i, layer.get(i + 1));
+							layer.get(i).index = tmpindex;
+							layer.set(i + 1, tmp);
 						}
 					}
 				}
@@ -610,13 +667,8 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 
 		public void crossReduction(List<List<NodeWrapper>> nodes) {
-			crossesForLayers.clear();
 			layers = nodes;
-
-			// Builds the map
-			for (List<NodeWrapper> layer : nodes)
-				for (NodeWrapper node : layer)
-					map.put(node.node, node);
+			counter = new CrossingCounter(nodes, true);
 
 			// After three iteration with no change it stops
 			int iteration = 0;
@@ -631,6 +683,7 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 				if (!change)
 					iteration++;
 			}
+			counter = null;
 		}
 	}
 
@@ -1210,6 +1263,591 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 
 	}
 
+	/**
+	 * A {@link LayerProvider} that decorates another {@link LayerProvider} so
+	 * that the resulting hierarchy is proper, i.e. it does only have edges
+	 * between two consecutive layers. Dummy {@link NodeWrapper}s are inserted
+	 * for exactly those edges that span more than one layer, so that the
+	 * layers are not padded to a common width.
+	 * <p>
+	 * Edges that point from a higher to a lower layer are treated as if they
+	 * were reversed, while edges between nodes on the same layer are ignored.
+	 */
+	public static class ProperLayerProvider implements LayerProvider {
+
+		private final LayerProvider layerProvider;
+
+		/**
+		 * Constructs a new {@link ProperLayerProvider} that decorates a
+		 * {@link SimpleLayerProvider}.
+		 */
+		public ProperLayerProvider() {
+			this(new SimpleLayerProvider());
+		}
+
+		/**
+		 * Constructs a new {@link ProperLayerProvider} that decorates the
+		 * given {@link LayerProvider}.
+		 * 
+		 * @param layerProvider
+		 *            The {@link LayerProvider} that assigns the nodes to
+		 *            layers.
+		 */
+		public ProperLayerProvider(LayerProvider layerProvider) {
+			this.layerProvider = layerProvider;
+		}
+
+		private static void updateIndex(List<NodeWrapper> list) {
+			for (int index = 0; index < list.size(); index++)
+				list.get(index).index = index;
+		}
+
+		public List<List<NodeWrapper>> calculateLayers(List<Node> nodes) {
+			// the decorated provider may modify the given list
+			List<Node> graphNodes = new ArrayList<>(nodes);
+			List<List<NodeWrapper>> layers = layerProvider
+					.calculateLayers(nodes);
+
+			// remove the dummies of the decorated provider and record the
+			// layer of each node
+			Map<Node, NodeWrapper> map = new IdentityHashMap<>();
+			Map<Node, Integer> levels = new IdentityHashMap<>();
+			for (int level = 0; level < layers.size(); level++) {
+				Iterator<NodeWrapper> it = layers.get(level).iterator();
+				while (it.hasNext()) {
+					NodeWrapper nw = it.next();
+					if (nw.node == null) {
+						it.remove();
+					} else {
+						nw.pred.clear();
+						nw.succ.clear();
+						map.put(nw.node, nw);
+						levels.put(nw.node, level);
+					}
+				}
+			}
+
+			// chain the nodes of each edge via dummies on the layers in
+			// between
+			for (Node node : graphNodes) {
+				NodeWrapper source = map.get(node);
+				if (source == null)
+					continue;
+				for (Edge edge : node.getOutgoingEdges()) {
+					NodeWrapper target = map.get(edge.getTarget());
+					if (target == null)
+						continue;
+					int sourceLevel = levels.get(source.node);
+					int targetLevel = levels.get(target.node);
+					if (sourceLevel == targetLevel)
+						continue;
+					NodeWrapper upper = sourceLevel < targetLevel ? source
+							: target;
+					NodeWrapper lower = upper == source ? target : source;
+					int lowerLevel = Math.max(sourceLevel, targetLevel);
+					for (int level = Math.min(sourceLevel, targetLevel)
+							+ 1; level < lowerLevel; level++) {
+						NodeWrapper dummy = new NodeWrapper(level);
+						dummy.addPredecessor(upper);
+						upper.addSuccessor(dummy);
+						layers.get(level).add(dummy);
+						upper = dummy;
+					}
+					lower.addPredecessor(upper);
+					upper.addSuccessor(lower);
+				}
+			}
+
+			for (List<NodeWrapper> layer : layers)
+				updateIndex(layer);
+			return layers;
+		}
+	}
+
+	/**
+	 * Implements the CrossingReducer interface. This algorithm sweeps up and
+	 * down the layers and orders each layer by the barycenter of the adjacent
+	 * nodes on the previous layer. In contrast to the
+	 * {@link BarycentricCrossingReducer}, the layers are not padded, so that
+	 * the effort is linear in the number of nodes and edges per sweep. It is
+	 * intended to be used with a proper hierarchy, e.g. as provided by a
+	 * {@link ProperLayerProvider}.
+	 */
+	public static class LayerSweepCrossingReducer implements CrossingReducer {
+
+		private static final int DEFAULT_SWEEPS = 24;
+
+		private final int sweeps;
+
+		/**
+		 * Constructs a new {@link LayerSweepCrossingReducer} that performs a
+		 * default number of sweeps.
+		 */
+		public LayerSweepCrossingReducer() {
+			this(DEFAULT_SWEEPS);
+		}
+
+		/**
+		 * Constructs a new {@link LayerSweepCrossingReducer} that performs the
+		 * given number of sweeps.
+		 * 
+		 * @param sweeps
+		 *            The number of (alternating downward and upward) sweeps.
+		 */
+		public LayerSweepCrossingReducer(int sweeps) {
+			this.sweeps = sweeps;
+		}
+
+		private static void updateIndex(List<NodeWrapper> list) {
+			for (int index = 0; index < list.size(); index++)
+				list.get(index).index = index;
+		}
+
+		private void orderByBarycenter(List<NodeWrapper> layer, boolean down) {
+			final Map<NodeWrapper, Double> barycenters = new IdentityHashMap<>();
+			for (NodeWrapper nw : layer) {
+				List<NodeWrapper> neighbors = down ? nw.pred : nw.succ;
+				if (neighbors.isEmpty()) {
+					// keep the current position
+					barycenters.put(nw, (double) nw.index);
+				} else {
+					double sum = 0;
+					for (NodeWrapper neighbor : neighbors)
+						sum += neighbor.index;
+					barycenters.put(nw, sum / neighbors.size());
+				}
+			}
+			// the sort is stable, so that ties keep their relative order
+			Collections.sort(layer, new Comparator<NodeWrapper>() {
+				public int compare(NodeWrapper node1, NodeWrapper node2) {
+					return Double.compare(barycenters.get(node1),
+							barycenters.get(node2));
+				}
+			});
+			updateIndex(layer);
+		}
+
+		public void crossReduction(List<List<NodeWrapper>> nodes) {
+			for (List<NodeWrapper> layer : nodes)
+				updateIndex(layer);
+			for (int sweep = 0; sweep < sweeps; sweep++) {
+				if ((sweep & 1) == 0) {
+					for (int index = 1; index < nodes.size(); index++)
+						orderByBarycenter(nodes.get(index), true);
+				} else {
+					for (int index = nodes.size() - 2; index >= 0; index--)
+						orderByBarycenter(nodes.get(index), false);
+				}
+			}
+		}
+	}
+
+	/**
+	 * An interface for heuristics that assign coordinates to the nodes once
+	 * their layers and the order within each layer have been determined.
+	 */
+	public static interface CoordinateAssigner {
+
+		/**
+		 * Assigns locations to the (non-dummy) nodes of the given layers.
+		 * 
+		 * @param layers
+		 *            The ordered layers, represented each as a list of
+		 *            {@link NodeWrapper}s.
+		 * @param direction
+		 *            The {@link Direction} in which the layers are arranged.
+		 * @param bounds
+		 *            The layout bounds.
+		 */
+		void assignCoordinates(List<List<NodeWrapper>> layers,
+				Direction direction, Rectangle bounds);
+	}
+
+	/**
+	 * Implements the CoordinateAssigner interface based on the algorithm of
+	 * Brandes and Köpf (http://dx.doi.org/10.1007/3-540-45848-4_3). Nodes are
+	 * aligned with their median neighbors into vertical blocks (favoring
+	 * straight inner segments between dummy nodes), the blocks are compacted
+	 * for each of the four combinations of vertical and horizontal direction,
+	 * and the four resulting layouts are balanced. The effort is linear in the
+	 * number of nodes and edges of the proper hierarchy.
+	 * <p>
+	 * In contrast to the default grid placement, the nodes are placed with
+	 * respect to their sizes, so that the layout does not scale to the layout
+	 * bounds but starts at their top-left corner.
+	 */
+	public static class BrandesKoepfCoordinateAssigner
+			implements CoordinateAssigner {
+
+		private static final double DEFAULT_NODE_SPACING = 10;
+		private static final double DEFAULT_LAYER_SPACING = 40;
+
+		private final double nodeSpacing;
+		private final double layerSpacing;
+
+		// per layout state, indexed by node id
+		private int[][] layers;
+		private int[][] preds;
+		private int[][] succs;
+		private NodeWrapper[] wrappers;
+		private double[] breadth;
+		private Set<Long> conflicts;
+
+		/**
+		 * Constructs a new {@link BrandesKoepfCoordinateAssigner} with default
+		 * spacings.
+		 */
+		public BrandesKoepfCoordinateAssigner() {
+			this(DEFAULT_NODE_SPACING, DEFAULT_LAYER_SPACING);
+		}
+
+		/**
+		 * Constructs a new {@link BrandesKoepfCoordinateAssigner} with the
+		 * given spacings.
+		 * 
+		 * @param nodeSpacing
+		 *            The minimum distance between two adjacent nodes of a
+		 *            layer.
+		 * @param layerSpacing
+		 *            The distance between two adjacent layers.
+		 */
+		public BrandesKoepfCoordinateAssigner(double nodeSpacing,
+				double layerSpacing) {
+			this.nodeSpacing = nodeSpacing;
+			this.layerSpacing = layerSpacing;
+		}
+
+		public void assignCoordinates(List<List<NodeWrapper>> layerList,
+				Direction direction, Rectangle bounds) {
+			boolean vertical = direction == Direction.VERTICAL;
+
+			// number the wrappers by layer and position
+			Map<NodeWrapper, Integer> ids = new IdentityHashMap<>();
+			layers = new int[layerList.size()][];
+			int n = 0;
+			for (int l = 0; l < layers.length; l++) {
+				List<NodeWrapper> layer = layerList.get(l);
+				layers[l] = new int[layer.size()];
+				for (int i = 0; i < layer.size(); i++) {
+					ids.put(layer.get(i), n);
+					layers[l][i] = n++;
+				}
+			}
+			wrappers = new NodeWrapper[n];
+			int[] levels = new int[n];
+			for (int l = 0; l < layers.length; l++) {
+				for (int i = 0; i < layers[l].length; i++) {
+					wrappers[layers[l][i]] = layerList.get(l).get(i);
+					levels[layers[l][i]] = l;
+				}
+			}
+
+			// capture the extent of the nodes within and across the layers
+			breadth = new double[n];
+			double[] layerDepths = new double[layers.length];
+			for (int v = 0; v < n; v++) {
+				if (wrappers[v].node == null)
+					continue;
+				Dimension size = LayoutProperties.getSize(wrappers[v].node);
+				if (size != null) {
+					breadth[v] = vertical ? size.width : size.height;
+					layerDepths[levels[v]] = Math.max(layerDepths[levels[v]],
+							vertical ? size.height : size.width);
+				}
+			}
+
+			// restrict the neighbors to the adjacent layers
+			preds = new int[n][];
+			succs = new int[n][];
+			for (int v = 0; v < n; v++) {
+				preds[v] = getNeighbors(wrappers[v].pred, ids, levels,
+						levels[v] - 1);
+				succs[v] = getNeighbors(wrappers[v].succ, ids, levels,
+						levels[v] + 1);
+			}
+
+			markConflicts();
+
+			// compute the four alignments and balance them
+			double[][] xs = new double[4][];
+			double[] widths = new double[4];
+			int smallest = 0;
+			for (int a = 0; a < 4; a++) {
+				xs[a] = computeAlignment((a & 1) == 0, (a & 2) == 0);
+				widths[a] = getMax(xs[a]) - getMin(xs[a]);
+				if (widths[a] < widths[smallest])
+					smallest = a;
+			}
+			double min = getMin(xs[smallest]);
+			double max = getMax(xs[smallest]);
+			for (int a = 0; a < 4; a++) {
+				double delta = (a & 2) == 0 ? min - getMin(xs[a])
+						: max - getMax(xs[a]);
+				for (int v = 0; v < n; v++)
+					xs[a][v] += delta;
+			}
+			double[] x = new double[n];
+			double[] candidates = new double[4];
+			for (int v = 0; v < n; v++) {
+				for (int a = 0; a < 4; a++)
+					candidates[a] = xs[a][v];
+				Arrays.sort(candidates);
+				x[v] = (candidates[1] + candidates[2]) / 2;
+			}
+
+			// place the layers one after the other, starting at the top-left
+			// corner of the layout bounds
+			double offset = -getMin(x);
+			double[] layerPositions = new double[layers.length];
+			double position = 0;
+			for (int l = 0; l < layers.length; l++) {
+				if (l > 0)
+					position += layerSpacing;
+				layerPositions[l] = position + layerDepths[l] / 2;
+				position += layerDepths[l];
+			}
+			for (int v = 0; v < n; v++) {
+				if (wrappers[v].node == null)
+					continue;
+				double within = x[v] + offset;
+				double across = layerPositions[levels[v]];
+				LayoutProperties.setLocation(wrappers[v].node,
+						vertical
+								? new Point(bounds.getX() + within,
+										bounds.getY() + across)
+								: new Point(bounds.getX() + across,
+										bounds.getY() + within));
+			}
+
+			layers = null;
+			preds = null;
+			succs = null;
+			wrappers = null;
+			breadth = null;
+			conflicts = null;
+		}
+
+		private static int[] getNeighbors(List<NodeWrapper> neighbors,
+				Map<NodeWrapper, Integer> ids, int[] levels, int level) {
+			int[] result = new int[neighbors.size()];
+			int count = 0;
+			for (NodeWrapper neighbor : neighbors) {
+				Integer id = ids.get(neighbor);
+				if (id != null && levels[id] == level)
+					result[count++] = id;
+			}
+			return Arrays.copyOf(result, count);
+		}
+
+		/**
+		 * Returns the upper dummy neighbor of the given node if it is a dummy
+		 * itself, i.e. if the node is the lower end of an inner segment.
+		 * Otherwise returns <code>-1</code>.
+		 */
+		private int getInnerSegmentUpper(int v) {
+			if (wrappers[v].isDummy()) {
+				for (int u : preds[v]) {
+					if (wrappers[u].isDummy())
+						return u;
+				}
+			}
+			return -1;
+		}
+
+		private static long getSegmentKey(int upper, int lower) {
+			return ((long) upper << 32) | lower;
+		}
+
+		/**
+		 * Marks all non-inner segments that cross an inner segment (type 1
+		 * conflicts), so that the alignment keeps long edges straight.
+		 */
+		private void markConflicts() {
+			conflicts = new HashSet<>();
+			int[] positions = new int[wrappers.length];
+			for (int[] layer : layers) {
+				for (int i = 0; i < layer.length; i++)
+					positions[layer[i]] = i;
+			}
+			for (int l = 0; l < layers.length - 1; l++) {
+				int[] upper = layers[l];
+				int[] lower = layers[l + 1];
+				int k0 = 0;
+				int scanned = 0;
+				for (int l1 = 0; l1 < lower.length; l1++) {
+					int inner = getInnerSegmentUpper(lower[l1]);
+					if (l1 == lower.length - 1 || inner >= 0) {
+						int k1 = inner >= 0 ? positions[inner]
+								: upper.length - 1;
+						for (; scanned <= l1; scanned++) {
+							int v = lower[scanned];
+							for (int u : preds[v]) {
+								int k = positions[u];
+								if ((k < k0 || k > k1) && !(wrappers[u]
+										.isDummy() && wrappers[v].isDummy()))
+									conflicts.add(getSegmentKey(u, v));
+							}
+						}
+						k0 = k1;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Computes the coordinates of all nodes for one of the four
+		 * alignments, i.e. aligning each node with its median upper (if
+		 * <i>down</i>) or lower neighbor, and compacting the blocks to the left
+		 * (if <i>left</i>) or to the right.
+		 */
+		private double[] computeAlignment(boolean down, boolean left) {
+			int n = wrappers.length;
+			// orient the layers according to the alignment
+			int[][] oriented = new int[layers.length][];
+			int[] positions = new int[n];
+			for (int l = 0; l < layers.length; l++) {
+				int[] layer = layers[down ? l : layers.length - 1 - l];
+				oriented[l] = new int[layer.length];
+				for (int i = 0; i < layer.length; i++) {
+					int v = layer[left ? i : layer.length - 1 - i];
+					oriented[l][i] = v;
+					positions[v] = i;
+				}
+			}
+			int[][] neighbors = down ? preds : succs;
+
+			// vertical alignment
+			int[] root = new int[n];
+			int[] align = new int[n];
+			for (int v = 0; v < n; v++) {
+				root[v] = v;
+				align[v] = v;
+			}
+			for (int l = 1; l < oriented.length; l++) {
+				int r = -1;
+				for (int v : oriented[l]) {
+					int[] upper = sortByPosition(neighbors[v], positions);
+					int d = upper.length;
+					for (int m = (d - 1) / 2; d > 0 && m <= d / 2; m++) {
+						if (align[v] == v) {
+							int u = upper[m];
+							long key = down ? getSegmentKey(u, v)
+									: getSegmentKey(v, u);
+							if (!conflicts.contains(key) && r < positions[u]) {
+								align[u] = v;
+								root[v] = root[u];
+								align[v] = root[v];
+								r = positions[u];
+							}
+						}
+					}
+				}
+			}
+
+			// horizontal compaction via a constraint graph between the blocks
+			int[] edgeSources = new int[n];
+			int[] edgeTargets = new int[n];
+			double[] edgeWeights = new double[n];
+			int edgeCount = 0;
+			int[] inDegree = new int[n];
+			int[] outDegree = new int[n];
+			for (int[] layer : oriented) {
+				for (int i = 1; i < layer.length; i++) {
+					int u = layer[i - 1];
+					int v = layer[i];
+					edgeSources[edgeCount] = root[u];
+					edgeTargets[edgeCount] = root[v];
+					edgeWeights[edgeCount++] = (breadth[u] + breadth[v]) / 2
+							+ nodeSpacing;
+					outDegree[root[u]]++;
+					inDegree[root[v]]++;
+				}
+			}
+			int[][] outEdges = new int[n][];
+			int[][] inEdges = new int[n][];
+			for (int v = 0; v < n; v++) {
+				outEdges[v] = new int[outDegree[v]];
+				inEdges[v] = new int[inDegree[v]];
+				outDegree[v] = 0;
+				inDegree[v] = 0;
+			}
+			for (int e = 0; e < edgeCount; e++) {
+				outEdges[edgeSources[e]][outDegree[edgeSources[e]]++] = e;
+				inEdges[edgeTargets[e]][inDegree[edgeTargets[e]]++] = e;
+			}
+
+			// topological order of the blocks (the constraint graph is
+			// acyclic, because aligned segments do not cross)
+			int[] order = new int[n];
+			int count = 0;
+			int[] pending = new int[n];
+			for (int v = 0; v < n; v++) {
+				pending[v] = inEdges[v].length;
+				if (root[v] == v && pending[v] == 0)
+					order[count++] = v;
+			}
+			for (int i = 0; i < count; i++) {
+				for (int e : outEdges[order[i]]) {
+					if (--pending[edgeTargets[e]] == 0)
+						order[count++] = edgeTargets[e];
+				}
+			}
+
+			// place each block as far to the left as possible, and then move
+			// it towards its right neighbors where this is possible
+			double[] blockX = new double[n];
+			for (int i = 0; i < count; i++) {
+				int v = order[i];
+				for (int e : inEdges[v])
+					blockX[v] = Math.max(blockX[v],
+							blockX[edgeSources[e]] + edgeWeights[e]);
+			}
+			for (int i = count - 1; i >= 0; i--) {
+				int v = order[i];
+				double min = Double.POSITIVE_INFINITY;
+				for (int e : outEdges[v])
+					min = Math.min(min,
+							blockX[edgeTargets[e]] - edgeWeights[e]);
+				if (min != Double.POSITIVE_INFINITY)
+					blockX[v] = Math.max(blockX[v], min);
+			}
+
+			double[] x = new double[n];
+			for (int v = 0; v < n; v++)
+				x[v] = left ? blockX[root[v]] : -blockX[root[v]];
+			return x;
+		}
+
+		private static int[] sortByPosition(int[] nodes, int[] positions) {
+			int[] sorted = nodes.clone();
+			// insertion sort, because the number of neighbors is small
+			for (int i = 1; i < sorted.length; i++) {
+				int v = sorted[i];
+				int j = i - 1;
+				while (j >= 0 && positions[sorted[j]] > positions[v]) {
+					sorted[j + 1] = sorted[j];
+					j--;
+				}
+				sorted[j + 1] = v;
+			}
+			return sorted;
+		}
+
+		private double getMin(double[] x) {
+			double min = Double.POSITIVE_INFINITY;
+			for (int v = 0; v < x.length; v++)
+				min = Math.min(min, x[v] - breadth[v] / 2);
+			return min == Double.POSITIVE_INFINITY ? 0 : min;
+		}
+
+		private double getMax(double[] x) {
+			double max = Double.NEGATIVE_INFINITY;
+			for (int v = 0; v < x.length; v++)
+				max = Math.max(max, x[v] + breadth[v] / 2);
+			return max == Double.NEGATIVE_INFINITY ? 0 : max;
+		}
+	}
+
 	private List<List<NodeWrapper>> layers = new ArrayList<>();
 	private Map<Node, NodeWrapper> map = new IdentityHashMap<>();
 	private final Direction direction;
@@ -1220,6 +1858,7 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 
 	private LayerProvider layerProvider;
 	private CrossingReducer crossingReducer;
+	private CoordinateAssigner coordinateAssigner;
 
 	/**
 	 * Constructs a tree-like, layered layout of a directed graph.
@@ -1240,6 +1879,37 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	public SugiyamaLayoutAlgorithm(Direction dir, Dimension dim,
 			LayerProvider layering, CrossingReducer crossing) {
+		this(dir, dim, layering, crossing, null);
+	}
+
+	/**
+	 * Constructs a tree-like, layered layout of a directed graph, which uses
+	 * the given {@link CoordinateAssigner} to place the nodes. To avoid padding
+	 * and to keep long edges straight, combine a {@link ProperLayerProvider}, a
+	 * {@link LayerSweepCrossingReducer}, and a
+	 * {@link BrandesKoepfCoordinateAssigner}.
+	 * 
+	 * @param dir
+	 *            {@link Direction#HORIZONTAL}: left to right -
+	 *            {@link Direction#VERTICAL} : top to bottom
+	 * 
+	 * @param dim
+	 *            - desired size of the layout area. Uses the BOUNDS_PROPERTY of
+	 *            the LayoutContext if not set
+	 * 
+	 * @param layering
+	 *            - implementation of LayerProvider interface
+	 * 
+	 * @param crossing
+	 *            - implementation of CrossingReducer interface
+	 * 
+	 * @param coordinates
+	 *            - implementation of CoordinateAssigner interface. Places the
+	 *            nodes on an equidistant grid if not set
+	 */
+	public SugiyamaLayoutAlgorithm(Direction dir, Dimension dim,
+			LayerProvider layering, CrossingReducer crossing,
+			CoordinateAssigner coordinates) {
 		direction = dir;
 		dimension = dim;
 
@@ -1247,6 +1917,7 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 				: layering;
 		crossingReducer = (crossing == null) ? new BarycentricCrossingReducer()
 				: crossing;
+		coordinateAssigner = coordinates;
 	}
 
 	/**
@@ -1360,6 +2031,10 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 		if (dimension != null)
 			boundary = new Rectangle(0, 0, dimension.getWidth(),
 					dimension.getHeight());
+		if (coordinateAssigner != null) {
+			coordinateAssigner.assignCoordinates(layers, direction, boundary);
+			return;
+		}
 		double dx = boundary.getWidth() / layers.size();
 		double dy = boundary.getHeight() / (last + 1);
 		if (direction == Direction.HORIZONTAL)
@@ -0,0 +1,415 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.algorithms.TreeLayoutHelper.TreeNode;
+
+/**
+ * A helper class that computes tidy tree layouts for {@link TreeNode}
+ * structures in time linear to the number of nodes. Every subtree is
+ * represented by its left and right contour, i.e. the outermost extent of the
+ * subtree per layer. Sibling subtrees are placed next to each other as close
+ * as their contours permit, and a parent is centered above its first and its
+ * last child (Reingold-Tilford). Contours are linked lists whose tails are
+ * shared between a subtree and its ancestors, so that merging two subtrees
+ * only visits the layers both of them have in common, which leads to linear
+ * overall running time, as with the algorithm of Walker in the improvement of
+ * Buchheim, Jünger, and Leipert.
+ * <p>
+ * The contours and child offsets are cached per {@link #getKey(TreeNode) key}
+ * , which is the laid out {@link Node} per default. This way, a helper can be
+ * kept across layout passes, even if the {@link TreeNode} structure is
+ * re-computed in between. {@link #layout(TreeNode)} detects the nodes whose
+ * breadth or (laid out) children changed since the last layout, and only
+ * recomputes the nodes on the paths from those nodes to the root.
+ * {@link #prune(TreeNode)} discards the cached information of nodes that were
+ * removed.
+ * <p>
+ * The helper only determines the positions within the layers, i.e. the
+ * breadth positions. The depth positions have to be computed by the layout
+ * algorithm.
+ */
+public abstract class TidyTreeLayoutHelper {
+
+	/**
+	 * An immutable contour entry, i.e. the extent of a subtree in one layer,
+	 * relative to the origin of the contour.
+	 */
+	private static final class Contour {
+		private final double value;
+		private final Contour next;
+
+		private Contour(double value, Contour next) {
+			this.value = value;
+			this.next = next;
+		}
+	}
+
+	/**
+	 * The cached layout information of a subtree.
+	 */
+	private static final class Subtree {
+		private Contour left;
+		private Contour right;
+		// offsets of the contours' values relative to the subtree root
+		private double leftOrigin;
+		private double rightOrigin;
+		private int height;
+		// offsets of the children relative to the subtree root
+		private double[] childOffsets;
+		// breadth and children keys the subtree was computed for
+		private double breadth;
+		private Object[] childKeys;
+		private boolean valid;
+		// number of the layout pass in which the subtree was computed
+		private int computedIn;
+		private double position;
+	}
+
+	private final double siblingGap;
+	private final double subtreeGap;
+	private final Map<Object, Subtree> subtrees = new IdentityHashMap<>();
+	private int layoutCount;
+	private double leftExtent;
+	private double rightExtent;
+
+	/**
+	 * Constructs a new {@link TidyTreeLayoutHelper} that separates siblings by
+	 * the given sibling gap, and all other nodes within one layer by the given
+	 * subtree gap.
+	 *
+	 * @param siblingGap
+	 *            The distance between nodes that share the same parent.
+	 * @param subtreeGap
+	 *            The distance between nodes of different parents.
+	 */
+	public TidyTreeLayoutHelper(double siblingGap, double subtreeGap) {
+		this.siblingGap = siblingGap;
+		this.subtreeGap = subtreeGap;
+	}
+
+	/**
+	 * Returns the breadth of the given {@link TreeNode}, i.e. its size within
+	 * its layer.
+	 *
+	 * @param node
+	 *            The {@link TreeNode} for which to return the breadth.
+	 * @return The breadth of the given {@link TreeNode}.
+	 */
+	protected abstract double getBreadth(TreeNode node);
+
+	/**
+	 * Returns the key under which the layout information of the given
+	 * {@link TreeNode} is cached. Per default, this is the {@link Node} of the
+	 * given {@link TreeNode}, or the {@link TreeNode} itself if it does not
+	 * correspond to a {@link Node} (e.g. the super root).
+	 *
+	 * @param node
+	 *            The {@link TreeNode} for which to return the key.
+	 * @return The key of the given {@link TreeNode}.
+	 */
+	protected Object getKey(TreeNode node) {
+		return node.getNode() == null ? node : node.getNode();
+	}
+
+	/**
+	 * Returns the children of the given {@link TreeNode} that are to be laid
+	 * out. Per default, all children are returned. May be overwritten to
+	 * exclude the children of collapsed nodes.
+	 *
+	 * @param node
+	 *            The {@link TreeNode} for which to return the children.
+	 * @return The children of the given {@link TreeNode} that are to be laid
+	 *         out.
+	 */
+	protected List<TreeNode> getChildren(TreeNode node) {
+		return node.getChildren();
+	}
+
+	/**
+	 * Invalidates the cached layout information of the given {@link TreeNode}
+	 * and of all its ancestors, so that they are recomputed by the next
+	 * {@link #layout(TreeNode)}. Changes of the breadth or of the children of
+	 * a node are detected by {@link #layout(TreeNode)}, so that this only has
+	 * to be called if the layout of a node is to be recomputed for other
+	 * reasons.
+	 *
+	 * @param node
+	 *            The {@link TreeNode} that changed.
+	 */
+	public void invalidate(TreeNode node) {
+		while (node != null) {
+			Subtree subtree = subtrees.get(getKey(node));
+			if (subtree != null) {
+				if (!subtree.valid) {
+					// all ancestors of an invalid node are invalid, too
+					return;
+				}
+				subtree.valid = false;
+			}
+			node = node.getParent();
+		}
+	}
+
+	/**
+	 * Discards all cached layout information, so that the next
+	 * {@link #layout(TreeNode)} recomputes the whole tree. Needs to be called
+	 * when the tree structure is recomputed.
+	 */
+	public void invalidateAll() {
+		subtrees.clear();
+	}
+
+	/**
+	 * Discards the cached layout information of all nodes that are not
+	 * contained in the tree that is rooted at the given {@link TreeNode}
+	 * (including the children of collapsed nodes), e.g. because they were
+	 * removed from the graph.
+	 *
+	 * @param root
+	 *            The root {@link TreeNode} of the current tree.
+	 */
+	public void prune(TreeNode root) {
+		Set<Object> keys = Collections
+				.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		List<TreeNode> stack = new ArrayList<>();
+		stack.add(root);
+		while (!stack.isEmpty()) {
+			TreeNode node = stack.remove(stack.size() - 1);
+			keys.add(getKey(node));
+			stack.addAll(node.getChildren());
+		}
+		subtrees.keySet().retainAll(keys);
+	}
+
+	/**
+	 * Lays out the tree that is rooted at the given {@link TreeNode}. Only
+	 * the nodes whose breadth or children changed since the last layout, or
+	 * that were {@link #invalidate(TreeNode) invalidated}, and their ancestors
+	 * are recomputed. Afterwards, the positions of all nodes can be queried
+	 * using {@link #getPosition(TreeNode)}.
+	 *
+	 * @param root
+	 *            The root {@link TreeNode} of the tree to lay out.
+	 */
+	public void layout(TreeNode root) {
+		// collect the nodes in pre-order, so that children are visited before
+		// their parents when traversing in reverse
+		List<TreeNode> nodes = new ArrayList<>();
+		List<TreeNode> stack = new ArrayList<>();
+		stack.add(root);
+		while (!stack.isEmpty()) {
+			TreeNode node = stack.remove(stack.size() - 1);
+			nodes.add(node);
+			stack.addAll(getChildren(node));
+		}
+		layoutCount++;
+		for (int i = nodes.size() - 1; i >= 0; i--) {
+			TreeNode node = nodes.get(i);
+			if (isChanged(node)) {
+				computeSubtree(node);
+			}
+		}
+
+		// assign positions relative to the root
+		Subtree rootSubtree = subtrees.get(getKey(root));
+		rootSubtree.position = 0;
+		leftExtent = Double.POSITIVE_INFINITY;
+		rightExtent = Double.NEGATIVE_INFINITY;
+		stack.add(root);
+		while (!stack.isEmpty()) {
+			TreeNode node = stack.remove(stack.size() - 1);
+			Subtree subtree = subtrees.get(getKey(node));
+			leftExtent = Math.min(leftExtent,
+					subtree.position - subtree.breadth / 2);
+			rightExtent = Math.max(rightExtent,
+					subtree.position + subtree.breadth / 2);
+			List<TreeNode> children = getChildren(node);
+			for (int i = 0; i < children.size(); i++) {
+				TreeNode child = children.get(i);
+				subtrees.get(getKey(child)).position = subtree.position
+						+ subtree.childOffsets[i];
+				stack.add(child);
+			}
+		}
+	}
+
+	/**
+	 * Returns the center position of the given {@link TreeNode} within its
+	 * layer, relative to the root of the last {@link #layout(TreeNode)}.
+	 *
+	 * @param node
+	 *            The {@link TreeNode} for which to return the position.
+	 * @return The position of the given {@link TreeNode}.
+	 */
+	public double getPosition(TreeNode node) {
+		Subtree subtree = subtrees.get(getKey(node));
+		if (subtree == null) {
+			throw new IllegalArgumentException(
+					"The given node was not laid out.");
+		}
+		return subtree.position;
+	}
+
+	/**
+	 * Returns the minimum position that is covered by a node of the last
+	 * {@link #layout(TreeNode)}, relative to the root.
+	 *
+	 * @return The left extent of the last layout.
+	 */
+	public double getLeftExtent() {
+		return leftExtent;
+	}
+
+	/**
+	 * Returns the maximum position that is covered by a node of the last
+	 * {@link #layout(TreeNode)}, relative to the root.
+	 *
+	 * @return The right extent of the last layout.
+	 */
+	public double getRightExtent() {
+		return rightExtent;
+	}
+
+	/**
+	 * Determines if the layout information of the given {@link TreeNode} has
+	 * to be recomputed, expecting that its children were already processed
+	 * within the current layout pass.
+	 */
+	private boolean isChanged(TreeNode node) {
+		Subtree subtree = subtrees.get(getKey(node));
+		if (subtree == null || !subtree.valid
+				|| subtree.breadth != getBreadth(node)) {
+			return true;
+		}
+		List<TreeNode> children = getChildren(node);
+		if (children.size() != subtree.childKeys.length) {
+			return true;
+		}
+		for (int i = 0; i < children.size(); i++) {
+			if (subtree.childKeys[i] != getKey(children.get(i)) || subtrees
+					.get(subtree.childKeys[i]).computedIn == layoutCount) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void computeSubtree(TreeNode node) {
+		Subtree subtree = subtrees.get(getKey(node));
+		if (subtree == null) {
+			subtree = new Subtree();
+			subtrees.put(getKey(node), subtree);
+		}
+		subtree.valid = true;
+		subtree.computedIn = layoutCount;
+
+		double breadth = getBreadth(node);
+		List<TreeNode> children = getChildren(node);
+		subtree.breadth = breadth;
+		subtree.childKeys = new Object[children.size()];
+		for (int i = 0; i < children.size(); i++) {
+			subtree.childKeys[i] = getKey(children.get(i));
+		}
+		if (children.isEmpty()) {
+			subtree.left = new Contour(-breadth / 2, null);
+			subtree.right = new Contour(breadth / 2, null);
+			subtree.leftOrigin = 0;
+			subtree.rightOrigin = 0;
+			subtree.height = 1;
+			subtree.childOffsets = new double[0];
+			return;
+		}
+
+		// place the children from left to right, relative to the first child
+		double[] offsets = new double[children.size()];
+		Subtree first = subtrees.get(subtree.childKeys[0]);
+		Contour left = first.left;
+		Contour right = first.right;
+		double leftOrigin = first.leftOrigin;
+		double rightOrigin = first.rightOrigin;
+		int height = first.height;
+		for (int i = 1; i < children.size(); i++) {
+			Subtree child = subtrees.get(subtree.childKeys[i]);
+			// determine the separation from the contours both have in common
+			Contour r = right;
+			Contour l = child.left;
+			double separation = Double.NEGATIVE_INFINITY;
+			boolean siblings = true;
+			while (r != null && l != null) {
+				separation = Math.max(separation,
+						r.value + rightOrigin - l.value - child.leftOrigin
+								+ (siblings ? siblingGap : subtreeGap));
+				siblings = false;
+				r = r.next;
+				l = l.next;
+			}
+			offsets[i] = separation;
+
+			// merge the contours, sharing the tail of the deeper one
+			if (child.height >= height) {
+				right = child.right;
+				rightOrigin = child.rightOrigin + separation;
+			} else {
+				right = prepend(child.right, child.height,
+						child.rightOrigin + separation - rightOrigin, r);
+			}
+			if (child.height > height) {
+				double newLeftOrigin = child.leftOrigin + separation;
+				left = prepend(left, height, leftOrigin - newLeftOrigin, l);
+				leftOrigin = newLeftOrigin;
+			}
+			height = Math.max(height, child.height);
+		}
+
+		// center the node above its first and last child
+		double center = offsets[offsets.length - 1] / 2;
+		for (int i = 0; i < offsets.length; i++) {
+			offsets[i] -= center;
+		}
+		leftOrigin -= center;
+		rightOrigin -= center;
+		subtree.left = new Contour(-breadth / 2 - leftOrigin, left);
+		subtree.right = new Contour(breadth / 2 - rightOrigin, right);
+		subtree.leftOrigin = leftOrigin;
+		subtree.rightOrigin = rightOrigin;
+		subtree.height = height + 1;
+		subtree.childOffsets = offsets;
+	}
+
+	/**
+	 * Copies the first <i>count</i> entries of the given contour, shifted by
+	 * the given amount, and appends the given tail to the copy.
+	 */
+	private static Contour prepend(Contour contour, int count, double shift,
+			Contour tail) {
+		double[] values = new double[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = contour.value + shift;
+			contour = contour.next;
+		}
+		Contour result = tail;
+		for (int i = count - 1; i >= 0; i--) {
+			result = new Contour(values[i], result);
+		}
+		return result;
+	}
+}
@@ -14,14 +14,18 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.gef.geometry.planar.Dimension;
-import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Node;
-import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.IIncrementalLayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutGraph;
 import org.eclipse.gef.layout.LayoutProperties;
 import org.eclipse.gef.layout.algorithms.TreeLayoutHelper.TreeNode;
 
@@ -37,7 +41,7 @@ import org.eclipse.gef.layout.algorithms.TreeLayoutHelper.TreeNode;
  * @author Miles Parker
  * @author mwienand
  */
-public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
+public class TreeLayoutAlgorithm implements IIncrementalLayoutAlgorithm {
 
 	/**
 	 * Tree direction constant for which root is placed at the top and branches
@@ -67,14 +71,23 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 
 	private boolean resize = false;
 
+	private boolean tidy = false;
+
 	private Rectangle bounds;
 
 	private double leafSize, layerSize;
 
 	private TreeLayoutHelper treeObserver;
 
+	private TidyTreeLayoutHelper tidyTree;
+
+	private LayoutGraph layoutGraph;
+
 	private Dimension nodeSpace;
 
+	// leaf offsets of the roots of the trees in the last layout pass
+	private Map<Node, Integer> rootLeafOffsets;
+
 	/**
 	 * Create a default Tree Layout.
 	 */
@@ -119,6 +132,8 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	public void setNodeSpace(Dimension nodeSpace) {
 		this.nodeSpace = nodeSpace;
+		// enforce a full layout pass on the next incremental update
+		rootLeafOffsets = null;
 	}
 
 	/**
@@ -140,9 +155,11 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	public void setDirection(int direction) {
 		if (direction == TOP_DOWN || direction == BOTTOM_UP
-				|| direction == LEFT_RIGHT || direction == RIGHT_LEFT)
+				|| direction == LEFT_RIGHT || direction == RIGHT_LEFT) {
 			this.direction = direction;
-		else
+			// enforce a full layout pass on the next incremental update
+			rootLeafOffsets = null;
+		} else
 			throw new IllegalArgumentException(
 					"Invalid direction: " + direction);
 	}
@@ -165,20 +182,77 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 		resize = resizing;
 	}
 
+	/**
+	 * 
+	 * @return true if this algorithm is set to compute a tidy tree layout
+	 */
+	public boolean isTidy() {
+		return tidy;
+	}
+
+	/**
+	 * Specifies whether a tidy tree layout is to be computed (see
+	 * {@link TidyTreeLayoutHelper}). Per default, every leaf is assigned its
+	 * own slot within its layer, so that subtrees are placed side by side. In
+	 * a tidy tree layout, subtrees are packed as close as their contours
+	 * permit instead, which results in a more compact layout.
+	 * 
+	 * @param tidy
+	 *            true if this algorithm should compute a tidy tree layout
+	 *            (default is false)
+	 */
+	public void setTidy(boolean tidy) {
+		this.tidy = tidy;
+		// enforce a full layout pass on the next incremental update
+		rootLeafOffsets = null;
+	}
+
 	public void applyLayout(LayoutContext layoutContext, boolean clean) {
 		if (!clean)
 			return;
 
 		internalApplyLayout(layoutContext);
 
-		Node[] entities = layoutContext.getNodes();
+		LayoutGraph graph = layoutContext.getLayoutGraph();
 		if (resize) {
-			AlgorithmHelper.maximizeSizes(entities);
+			AlgorithmHelper.maximizeSizes(graph);
 		}
-		scaleEntities(entities);
+		scaleEntities(graph);
+		layoutContext.commitLayoutGraph();
 	}
 
-	private void scaleEntities(Node[] entities) {
+	/**
+	 * Updates the layout by re-computing the tree structure, but only
+	 * re-positioning the nodes of those trees that contain a changed node (or
+	 * a neighbor of a changed node), or whose leaf offset changed. As the
+	 * spacing depends on the number of leaves of all trees unless a
+	 * {@link #setNodeSpace(Dimension) node space} is specified, a full layout
+	 * is computed otherwise.
+	 */
+	@Override
+	public void updateLayout(LayoutContext layoutContext,
+			Set<Node> changedNodes) {
+		if (tidy || nodeSpace == null || rootLeafOffsets == null
+				|| !bounds.equals(
+						LayoutProperties.getBounds(layoutContext.getGraph()))) {
+			applyLayout(layoutContext, true);
+			return;
+		}
+
+		Set<Node> affectedNodes = new HashSet<>();
+		for (Node node : changedNodes) {
+			affectedNodes.add(node);
+			affectedNodes.addAll(node.getNeighbors());
+		}
+		internalApplyLayout(layoutContext, affectedNodes);
+
+		if (resize) {
+			AlgorithmHelper.maximizeSizes(layoutContext.getLayoutGraph());
+		}
+		layoutContext.commitLayoutGraph();
+	}
+
+	private void scaleEntities(LayoutGraph graph) {
 		if (nodeSpace == null) {
 			Rectangle resizedBounds = new Rectangle(bounds);
 			int insets = 4;
@@ -186,7 +260,7 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 			resizedBounds.setY(resizedBounds.getY() + insets);
 			resizedBounds.setWidth(resizedBounds.getWidth() - 2 * insets);
 			resizedBounds.setHeight(resizedBounds.getHeight() - 2 * insets);
-			AlgorithmHelper.fitWithinBounds(entities, resizedBounds, resize);
+			AlgorithmHelper.fitWithinBounds(graph, resizedBounds, resize);
 		}
 	}
 
@@ -198,19 +272,64 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 	 *            The {@link LayoutContext} to use.
 	 */
 	void internalApplyLayout(LayoutContext context) {
+		internalApplyLayout(context, null);
+	}
+
+	/**
+	 * Performs a layout pass for the tree, only positioning the nodes of
+	 * those trees that contain one of the given affected nodes, or whose leaf
+	 * offset changed since the last layout pass. If <code>null</code> is
+	 * passed in, all nodes are positioned.
+	 */
+	private void internalApplyLayout(LayoutContext context,
+			Set<Node> affectedNodes) {
+		layoutGraph = context.getLayoutGraph();
+		Node[] entities = layoutGraph.getNodes();
 		treeObserver = new TreeLayoutHelper(null);
-		treeObserver.computeTree(context.getNodes());
+		treeObserver.computeTree(entities);
 
 		TreeNode superRoot = treeObserver.getSuperRoot();
-		bounds = LayoutProperties.getBounds(context.getGraph());
+		bounds = layoutGraph.getBounds();
 		updateLeafAndLayerSizes();
+
+		if (tidy) {
+			computeTidyPositions(entities);
+			rootLeafOffsets = null;
+			layoutGraph = null;
+			return;
+		}
+
+		// determine the roots of the trees that contain affected nodes
+		Set<TreeNode> affectedRoots = new HashSet<>();
+		if (affectedNodes != null) {
+			for (Node node : entities) {
+				if (affectedNodes.contains(node)) {
+					TreeNode treeNode = treeObserver.getTreeNode(node);
+					while (treeNode.getParent() != superRoot) {
+						treeNode = treeNode.getParent();
+					}
+					affectedRoots.add(treeNode);
+				}
+			}
+		}
+
+		Map<Node, Integer> leafOffsets = new IdentityHashMap<>();
 		int leafCountSoFar = 0;
 		for (Iterator<TreeNode> iterator = superRoot.getChildren()
 				.iterator(); iterator.hasNext();) {
 			TreeNode rootInfo = iterator.next();
-			computePositionRecursively(rootInfo, leafCountSoFar);
+			Integer previousLeafOffset = rootLeafOffsets == null ? null
+					: rootLeafOffsets.get(rootInfo.getNode());
+			if (affectedNodes == null || affectedRoots.contains(rootInfo)
+					|| previousLeafOffset == null
+					|| previousLeafOffset.intValue() != leafCountSoFar) {
+				computePositionRecursively(rootInfo, leafCountSoFar);
+			}
+			leafOffsets.put(rootInfo.getNode(), leafCountSoFar);
 			leafCountSoFar = leafCountSoFar + rootInfo.numOfLeaves;
 		}
+		rootLeafOffsets = leafOffsets;
+		layoutGraph = null;
 	}
 
 	private void updateLeafAndLayerSizes() {
@@ -234,6 +353,30 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 	}
 
+	/**
+	 * Computes the positions of all nodes using a
+	 * {@link TidyTreeLayoutHelper}, so that each node occupies one leaf size
+	 * within its layer.
+	 */
+	private void computeTidyPositions(Node[] entities) {
+		if (tidyTree == null) {
+			tidyTree = new TidyTreeLayoutHelper(0, 0) {
+				@Override
+				protected double getBreadth(TreeNode node) {
+					return node.getNode() == null ? 0 : leafSize;
+				}
+			};
+		}
+		// the cached layout is reused for the unchanged subtrees
+		tidyTree.prune(treeObserver.getSuperRoot());
+		tidyTree.layout(treeObserver.getSuperRoot());
+		double offset = -tidyTree.getLeftExtent();
+		for (Node node : entities) {
+			TreeNode entityInfo = treeObserver.getTreeNode(node);
+			setLocation(entityInfo, tidyTree.getPosition(entityInfo) + offset);
+		}
+	}
+
 	/**
 	 * Computes positions recursively until the leaf nodes are reached.
 	 */
@@ -241,35 +384,40 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 			int relativePosition) {
 		double breadthPosition = relativePosition
 				+ entityInfo.numOfLeaves / 2.0;
+		setLocation(entityInfo, breadthPosition * leafSize);
+
+		for (Iterator<TreeNode> iterator = entityInfo.children
+				.iterator(); iterator.hasNext();) {
+			TreeNode childInfo = iterator.next();
+			computePositionRecursively(childInfo, relativePosition);
+			relativePosition += childInfo.numOfLeaves;
+		}
+	}
+
+	/**
+	 * Sets the location of the given node according to the given position
+	 * within its layer, and the layer that corresponds to its depth.
+	 */
+	private void setLocation(TreeNode entityInfo, double breadth) {
 		double depthPosition = (entityInfo.depth + 0.5);
+		int node = layoutGraph.indexOf(entityInfo.getNode());
 
 		switch (direction) {
 		case TOP_DOWN:
-			LayoutProperties.setLocation(entityInfo.getNode(), new Point(
-					breadthPosition * leafSize, depthPosition * layerSize));
+			layoutGraph.setLocation(node, breadth, depthPosition * layerSize);
 			break;
 		case BOTTOM_UP:
-			LayoutProperties.setLocation(entityInfo.getNode(),
-					new Point(breadthPosition * leafSize,
-							bounds.getHeight() - depthPosition * layerSize));
+			layoutGraph.setLocation(node, breadth,
+					bounds.getHeight() - depthPosition * layerSize);
 			break;
 		case LEFT_RIGHT:
-			LayoutProperties.setLocation(entityInfo.getNode(), new Point(
-					depthPosition * layerSize, breadthPosition * leafSize));
+			layoutGraph.setLocation(node, depthPosition * layerSize, breadth);
 			break;
 		case RIGHT_LEFT:
-			LayoutProperties.setLocation(entityInfo.getNode(),
-					new Point(bounds.getWidth() - depthPosition * layerSize,
-							breadthPosition * leafSize));
+			layoutGraph.setLocation(node,
+					bounds.getWidth() - depthPosition * layerSize, breadth);
 			break;
 		}
-
-		for (Iterator<TreeNode> iterator = entityInfo.children
-				.iterator(); iterator.hasNext();) {
-			TreeNode childInfo = iterator.next();
-			computePositionRecursively(childInfo, relativePosition);
-			relativePosition += childInfo.numOfLeaves;
-		}
 	}
 
 	@Override
@@ -291,6 +439,7 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 			break;
 		}
 		sb.append(", resize : " + resize);
+		sb.append(", tidy : " + tidy);
 		sb.append(" }");
 		// TODO: include node space??
 		return sb.toString();
@@ -16,6 +16,7 @@
  * single column or row (
  * {@link org.eclipse.gef.layout.algorithms.BoxLayoutAlgorithm}), or which
  * simply prevent overlapping of nodes (
- * {@link org.eclipse.gef.layout.algorithms.HorizontalShiftAlgorithm}).
+ * {@link org.eclipse.gef.layout.algorithms.HorizontalShiftAlgorithm},
+ * {@link org.eclipse.gef.layout.algorithms.OverlapRemovalAlgorithm}).
  */
 package org.eclipse.gef.layout.algorithms;
\ No newline at end of file
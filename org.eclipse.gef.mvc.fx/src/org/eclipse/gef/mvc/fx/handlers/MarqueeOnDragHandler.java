@@ -12,11 +12,14 @@
  *******************************************************************************/
 package org.eclipse.gef.mvc.fx.handlers;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.Set;
 
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -31,10 +34,12 @@ import org.eclipse.gef.mvc.fx.parts.IRootPart;
 import org.eclipse.gef.mvc.fx.parts.IVisualPart;
 import org.eclipse.gef.mvc.fx.parts.PartUtils;
 import org.eclipse.gef.mvc.fx.viewer.IViewer;
+import org.eclipse.gef.mvc.fx.viewer.InfiniteCanvasViewer;
 
 import com.google.common.reflect.TypeToken;
 import com.google.inject.Provider;
 
+import javafx.geometry.BoundingBox;
 import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
 import javafx.scene.Node;
@@ -95,12 +100,38 @@ public class MarqueeOnDragHandler extends AbstractHandler
 	// TODO: move to utility
 	public static List<Node> findContainedNodes(Node root, double x0, double y0,
 			double x1, double y1) {
+		return findContainedNodes(Collections.singletonList(root), x0, y0, x1,
+				y1);
+	}
+
+	/**
+	 * Returns a {@link List} of all {@link Node}s that are descendants of the
+	 * given root {@link Node}s (or the root {@link Node}s themselves) and fully
+	 * contained within the bounds specified by <code>[x0, y0, x1, y1]</code>.
+	 * The root {@link Node}s are expected to be siblings, given in paint
+	 * order.
+	 *
+	 * @param roots
+	 *            The root {@link Node}s.
+	 * @param x0
+	 *            The minimum x-coordinate.
+	 * @param y0
+	 *            The minimum y-coordinate.
+	 * @param x1
+	 *            The maximum x-coordinate.
+	 * @param y1
+	 *            The maximum y-coordinate.
+	 * @return A {@link List} containing all {@link Node}s that are descendants
+	 *         of the given root {@link Node}s and fully contained within the
+	 *         specified bounds.
+	 */
+	public static List<Node> findContainedNodes(List<? extends Node> roots,
+			double x0, double y0, double x1, double y1) {
 		Bounds bounds;
 		double bx1, bx0, by1, by0;
 
 		List<Node> containedNodes = new ArrayList<>();
-		Queue<Node> nodes = new LinkedList<>();
-		nodes.add(root);
+		Queue<Node> nodes = new ArrayDeque<>(roots);
 
 		while (!nodes.isEmpty()) {
 			Node current = nodes.remove();
@@ -219,8 +250,20 @@ public class MarqueeOnDragHandler extends AbstractHandler
 		double[] bbox = bbox(start, end);
 
 		// find nodes contained in bbox
-		List<Node> nodes = findContainedNodes(rootVisual.getScene().getRoot(),
-				bbox[0], bbox[1], bbox[2], bbox[3]);
+		List<Node> nodes;
+		if (root.getViewer() instanceof InfiniteCanvasViewer) {
+			// only process the visuals of those top-level content parts that
+			// intersect the bbox
+			List<Node> visuals = ((InfiniteCanvasViewer) root.getViewer())
+					.getVisualBoundsIndex()
+					.getVisualsIntersecting(new BoundingBox(bbox[0], bbox[1],
+							bbox[2] - bbox[0], bbox[3] - bbox[1]));
+			nodes = findContainedNodes(visuals, bbox[0], bbox[1], bbox[2],
+					bbox[3]);
+		} else {
+			nodes = findContainedNodes(rootVisual.getScene().getRoot(),
+					bbox[0], bbox[1], bbox[2], bbox[3]);
+		}
 
 		// find content parts for contained nodes
 		List<IContentPart<? extends Node>> parts = getParts(nodes);
@@ -256,12 +299,15 @@ public class MarqueeOnDragHandler extends AbstractHandler
 	 */
 	protected List<IContentPart<? extends Node>> getParts(List<Node> nodes) {
 		List<IContentPart<? extends Node>> parts = new ArrayList<>();
+		Set<IVisualPart<? extends Node>> visitedParts = Collections
+				.newSetFromMap(
+						new IdentityHashMap<IVisualPart<? extends Node>, Boolean>());
 		IViewer viewer = getHost().getRoot().getViewer();
 		for (Node node : nodes) {
 			IVisualPart<? extends Node> part = PartUtils
 					.retrieveVisualPart(viewer, node);
 			if (part != null && part instanceof IContentPart
-					&& !parts.contains(part)) {
+					&& visitedParts.add(part)) {
 				parts.add((IContentPart<? extends Node>) part);
 			}
 		}
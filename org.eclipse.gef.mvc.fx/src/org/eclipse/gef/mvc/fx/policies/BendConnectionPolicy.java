@@ -38,6 +38,8 @@ import org.eclipse.gef.mvc.fx.parts.IVisualPart;
 import org.eclipse.gef.mvc.fx.parts.PartUtils;
 import org.eclipse.gef.mvc.fx.providers.IAnchorProvider;
 import org.eclipse.gef.mvc.fx.viewer.IViewer;
+import org.eclipse.gef.mvc.fx.viewer.InfiniteCanvasViewer;
+import org.eclipse.gef.mvc.fx.viewer.VisualBoundsIndex;
 
 import com.google.inject.Provider;
 
@@ -259,8 +261,7 @@ public class BendConnectionPolicy extends AbstractPolicy {
 			Point selectedPointCurrentPositionInScene = FX2Geometry
 					.toPoint(getConnection().localToScene(
 							Geometry2FX.toFXPoint(positionInLocal)));
-			List<Node> pickedNodes = NodeUtils.getNodesAt(
-					getHost().getRoot().getVisual(),
+			List<Node> pickedNodes = getNodesAt(
 					selectedPointCurrentPositionInScene.x,
 					selectedPointCurrentPositionInScene.y);
 			anchor = getCompatibleAnchor(explicitAnchorIndex,
@@ -451,6 +452,28 @@ public class BendConnectionPolicy extends AbstractPolicy {
 		return DEFAULT_OVERLAY_THRESHOLD;
 	}
 
+	/**
+	 * Returns the {@link Node}s at the given scene position, the top-most
+	 * first. If the viewer maintains a {@link VisualBoundsIndex}, only the
+	 * visuals of those top-level content parts whose bounds contain the
+	 * position are processed.
+	 */
+	private List<Node> getNodesAt(double sceneX, double sceneY) {
+		IViewer viewer = getHost().getRoot().getViewer();
+		if (!(viewer instanceof InfiniteCanvasViewer)) {
+			return NodeUtils.getNodesAt(getHost().getRoot().getVisual(),
+					sceneX, sceneY);
+		}
+		List<Node> visuals = ((InfiniteCanvasViewer) viewer)
+				.getVisualBoundsIndex().getVisualsAt(sceneX, sceneY);
+		List<Node> pickedNodes = new ArrayList<>();
+		for (int i = visuals.size() - 1; i >= 0; i--) {
+			pickedNodes.addAll(
+					NodeUtils.getNodesAt(visuals.get(i), sceneX, sceneY));
+		}
+		return pickedNodes;
+	}
+
 	private List<IContentPart<? extends Node>> getParts(
 			List<Node> nodesUnderMouse) {
 		List<IContentPart<? extends Node>> parts = new ArrayList<>();
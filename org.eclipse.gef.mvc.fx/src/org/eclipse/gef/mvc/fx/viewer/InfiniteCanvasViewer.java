@@ -152,6 +152,8 @@ public class InfiniteCanvasViewer implements IViewer {
 
 	private ReadOnlyObjectWrapper<IDomain> domainProperty = new ReadOnlyObjectWrapper<>();
 
+	private VisualBoundsIndex visualBoundsIndex;
+
 	/**
 	 * Creates a new {@link InfiniteCanvasViewer}.
 	 */
@@ -249,6 +251,12 @@ public class InfiniteCanvasViewer implements IViewer {
 		ads.dispose();
 		ads = null;
 
+		// dispose spatial index
+		if (visualBoundsIndex != null) {
+			visualBoundsIndex.dispose();
+			visualBoundsIndex = null;
+		}
+
 		// clear content part map
 		if (!contentPartMap.isEmpty()) {
 			throw new IllegalStateException(
@@ -402,6 +410,21 @@ public class InfiniteCanvasViewer implements IViewer {
 		return visualPartMap;
 	}
 
+	/**
+	 * Returns the {@link VisualBoundsIndex} that indexes the visuals of the
+	 * top-level {@link IContentPart}s of this {@link InfiniteCanvasViewer}. It
+	 * is created lazily upon the first call.
+	 *
+	 * @return The {@link VisualBoundsIndex} of this
+	 *         {@link InfiniteCanvasViewer}.
+	 */
+	public VisualBoundsIndex getVisualBoundsIndex() {
+		if (visualBoundsIndex == null) {
+			visualBoundsIndex = new VisualBoundsIndex(this);
+		}
+		return visualBoundsIndex;
+	}
+
 	@Override
 	public final boolean isActive() {
 		return acs.isActive();
@@ -0,0 +1,459 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.mvc.fx.viewer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.gef.mvc.fx.parts.IContentPart;
+import org.eclipse.gef.mvc.fx.parts.IRootPart;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.collections.MapChangeListener;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+
+/**
+ * The {@link VisualBoundsIndex} is a spatial index (a uniform grid) of the
+ * bounds of the visuals of the top-level {@link IContentPart}s of an
+ * {@link IViewer}, i.e. of those {@link IContentPart}s that are children of
+ * the {@link IRootPart}. It can be used to determine the visuals at a given
+ * position or within a given area without walking the whole scene graph.
+ * <p>
+ * The index is maintained based on the changes of the
+ * {@link IViewer#getContentPartMap()}, and the bounds (in parent) of the
+ * indexed visuals. As the bounds of a top-level visual include those of the
+ * visuals of all nested {@link IContentPart}s, the nested visuals can be
+ * determined by processing the returned visuals. Bounds are stored relative to
+ * the visual of the {@link IRootPart}, so that they are not affected by
+ * scrolling or zooming. Changes of the visual hierarchy between the visual of
+ * the {@link IRootPart} and the top-level visuals (e.g. the layers) are not
+ * tracked.
+ * <p>
+ * Changes are recorded only, and the index is updated lazily when it is
+ * queried. In order to return the visuals in paint order without scanning
+ * their parents upon each query, the index of each visual within the children
+ * of its parent is maintained as well, and is re-computed when the children of
+ * one of the parents change.
+ */
+public class VisualBoundsIndex {
+
+	/**
+	 * The default size of the (square) grid cells.
+	 */
+	public static final double DEFAULT_CELL_SIZE = 256;
+
+	/**
+	 * Visuals that would be registered in more grid cells are stored
+	 * separately and tested whenever the index is queried.
+	 */
+	private static final int MAX_CELLS_PER_VISUAL = 64;
+
+	private IViewer viewer;
+	private double cellSize;
+
+	// bounds (minX, minY, maxX, maxY) of the indexed visuals; null if the
+	// bounds could not be determined (or have not been determined yet)
+	private Map<Node, double[]> bounds = new IdentityHashMap<>();
+	private Map<Long, List<Node>> cells = new HashMap<>();
+	private Set<Node> largeVisuals = Collections
+			.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+	private Set<Node> dirtyVisuals = Collections
+			.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+
+	// paint order keys of the indexed visuals, which are only valid if
+	// orderKeysDirty is false
+	private Map<Node, Integer> orderKeys = new IdentityHashMap<>();
+	private boolean orderKeysDirty;
+	// parents of the indexed visuals (whose children are observed), and the
+	// number of indexed visuals per parent
+	private Map<Node, Parent> parentOf = new IdentityHashMap<>();
+	private Map<Parent, Integer> parents = new IdentityHashMap<>();
+
+	private InvalidationListener childrenObserver = new InvalidationListener() {
+		@Override
+		public void invalidated(Observable observable) {
+			orderKeysDirty = true;
+		}
+	};
+
+	private Comparator<Node> paintOrderComparator = new Comparator<Node>() {
+		@Override
+		public int compare(Node n1, Node n2) {
+			return Integer.compare(orderKeys.get(n1), orderKeys.get(n2));
+		}
+	};
+
+	private InvalidationListener visualObserver = new InvalidationListener() {
+		@Override
+		public void invalidated(Observable observable) {
+			// bean is the visual whose parent or bounds in parent changed
+			Object visual = ((ReadOnlyProperty<?>) observable).getBean();
+			if (bounds.containsKey(visual)) {
+				dirtyVisuals.add((Node) visual);
+			}
+		}
+	};
+
+	private MapChangeListener<Object, IContentPart<? extends Node>> contentPartMapObserver = new MapChangeListener<Object, IContentPart<? extends Node>>() {
+		@Override
+		public void onChanged(
+				MapChangeListener.Change<? extends Object, ? extends IContentPart<? extends Node>> change) {
+			if (change.wasRemoved()) {
+				onContentPartRemoved(change.getValueRemoved());
+			}
+			if (change.wasAdded()) {
+				onContentPartAdded(change.getValueAdded());
+			}
+		}
+	};
+
+	/**
+	 * Creates a new {@link VisualBoundsIndex} for the given {@link IViewer},
+	 * using the {@link #DEFAULT_CELL_SIZE}.
+	 *
+	 * @param viewer
+	 *            The {@link IViewer} whose {@link IContentPart}s are to be
+	 *            indexed.
+	 */
+	public VisualBoundsIndex(IViewer viewer) {
+		this(viewer, DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * Creates a new {@link VisualBoundsIndex} for the given {@link IViewer},
+	 * using the given cell size.
+	 *
+	 * @param viewer
+	 *            The {@link IViewer} whose {@link IContentPart}s are to be
+	 *            indexed.
+	 * @param cellSize
+	 *            The size of the (square) grid cells.
+	 */
+	public VisualBoundsIndex(IViewer viewer, double cellSize) {
+		if (cellSize <= 0) {
+			throw new IllegalArgumentException(
+					"cellSize has to be positive, but is " + cellSize + ".");
+		}
+		this.viewer = viewer;
+		this.cellSize = cellSize;
+		viewer.contentPartMapProperty().addListener(contentPartMapObserver);
+		for (IContentPart<? extends Node> part : viewer.getContentPartMap()
+				.values()) {
+			onContentPartAdded(part);
+		}
+	}
+
+	private void addToCells(Node visual, double[] b) {
+		int minCol = toCell(b[0]);
+		int minRow = toCell(b[1]);
+		int maxCol = toCell(b[2]);
+		int maxRow = toCell(b[3]);
+		if ((long) (maxCol - minCol + 1)
+				* (maxRow - minRow + 1) > MAX_CELLS_PER_VISUAL) {
+			largeVisuals.add(visual);
+			return;
+		}
+		for (int col = minCol; col <= maxCol; col++) {
+			for (int row = minRow; row <= maxRow; row++) {
+				Long key = toKey(col, row);
+				List<Node> cell = cells.get(key);
+				if (cell == null) {
+					cell = new ArrayList<>(4);
+					cells.put(key, cell);
+				}
+				cell.add(visual);
+			}
+		}
+	}
+
+	/**
+	 * Computes the bounds of the given visual relative to the visual of the
+	 * {@link IRootPart}.
+	 *
+	 * @param visual
+	 *            The visual for which to compute the bounds.
+	 * @return The bounds (minX, minY, maxX, maxY) of the visual, or
+	 *         <code>null</code> if the visual is not nested within the visual
+	 *         of the {@link IRootPart}.
+	 */
+	private double[] computeBounds(Node visual) {
+		// XXX: Always query the bounds, so that invalidation listeners are
+		// notified about subsequent changes.
+		Bounds b = visual.getBoundsInParent();
+		IRootPart<? extends Node> rootPart = viewer.getRootPart();
+		Node rootVisual = rootPart == null ? null : rootPart.getVisual();
+		Parent parent = visual.getParent();
+		while (parent != rootVisual) {
+			if (parent == null) {
+				return null;
+			}
+			b = parent.localToParent(b);
+			parent = parent.getParent();
+		}
+		return new double[] { b.getMinX(), b.getMinY(), b.getMaxX(),
+				b.getMaxY() };
+	}
+
+	/**
+	 * Unregisters all listeners and clears this {@link VisualBoundsIndex}.
+	 */
+	public void dispose() {
+		viewer.contentPartMapProperty().removeListener(contentPartMapObserver);
+		for (Node visual : bounds.keySet()) {
+			visual.parentProperty().removeListener(visualObserver);
+			visual.boundsInParentProperty().removeListener(visualObserver);
+		}
+		for (Parent parent : parents.keySet()) {
+			parent.getChildrenUnmodifiable().removeListener(childrenObserver);
+		}
+		bounds.clear();
+		cells.clear();
+		largeVisuals.clear();
+		dirtyVisuals.clear();
+		orderKeys.clear();
+		parentOf.clear();
+		parents.clear();
+		viewer = null;
+	}
+
+	/**
+	 * Returns the indexed visuals whose bounds contain the given scene
+	 * position, in paint order (i.e. the top-most visual is the last one).
+	 * The returned visuals have to be tested precisely by the caller, as only
+	 * their bounds are considered here.
+	 *
+	 * @param sceneX
+	 *            The x-coordinate of the position in scene coordinates.
+	 * @param sceneY
+	 *            The y-coordinate of the position in scene coordinates.
+	 * @return A {@link List} containing the indexed visuals whose bounds
+	 *         contain the given position.
+	 */
+	public List<Node> getVisualsAt(double sceneX, double sceneY) {
+		return getVisualsIntersecting(
+				new BoundingBox(sceneX, sceneY, 0, 0));
+	}
+
+	/**
+	 * Returns the indexed visuals whose bounds intersect the given bounds (in
+	 * scene coordinates), in paint order (i.e. the top-most visual is the
+	 * last one).
+	 *
+	 * @param boundsInScene
+	 *            The {@link Bounds} in scene coordinates.
+	 * @return A {@link List} containing the indexed visuals whose bounds
+	 *         intersect the given bounds.
+	 */
+	public List<Node> getVisualsIntersecting(Bounds boundsInScene) {
+		IRootPart<? extends Node> rootPart = viewer.getRootPart();
+		if (rootPart == null || bounds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		update();
+
+		Bounds q = rootPart.getVisual().sceneToLocal(boundsInScene);
+		Set<Node> candidates = Collections
+				.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+		int minCol = toCell(q.getMinX());
+		int minRow = toCell(q.getMinY());
+		int maxCol = toCell(q.getMaxX());
+		int maxRow = toCell(q.getMaxY());
+		if ((long) (maxCol - minCol + 1) * (maxRow - minRow + 1) > bounds
+				.size()) {
+			// the query area is large, so test all visuals instead
+			for (Node visual : bounds.keySet()) {
+				if (intersects(bounds.get(visual), q)) {
+					candidates.add(visual);
+				}
+			}
+		} else {
+			for (int col = minCol; col <= maxCol; col++) {
+				for (int row = minRow; row <= maxRow; row++) {
+					List<Node> cell = cells.get(toKey(col, row));
+					if (cell != null) {
+						for (Node visual : cell) {
+							if (intersects(bounds.get(visual), q)) {
+								candidates.add(visual);
+							}
+						}
+					}
+				}
+			}
+			for (Node visual : largeVisuals) {
+				if (intersects(bounds.get(visual), q)) {
+					candidates.add(visual);
+				}
+			}
+		}
+		return sortInPaintOrder(candidates);
+	}
+
+	private boolean intersects(double[] b, Bounds q) {
+		return b != null && b[0] <= q.getMaxX() && b[2] >= q.getMinX()
+				&& b[1] <= q.getMaxY() && b[3] >= q.getMinY();
+	}
+
+	private void onContentPartAdded(IContentPart<? extends Node> part) {
+		// only index top-level content parts
+		if (part.getParent() == null
+				|| part.getParent() != viewer.getRootPart()) {
+			return;
+		}
+		Node visual = part.getVisual();
+		if (visual == null || bounds.containsKey(visual)) {
+			return;
+		}
+		bounds.put(visual, null);
+		dirtyVisuals.add(visual);
+		visual.parentProperty().addListener(visualObserver);
+		visual.boundsInParentProperty().addListener(visualObserver);
+	}
+
+	private void onContentPartRemoved(IContentPart<? extends Node> part) {
+		Node visual = part.getVisual();
+		if (visual == null || !bounds.containsKey(visual)) {
+			return;
+		}
+		visual.parentProperty().removeListener(visualObserver);
+		visual.boundsInParentProperty().removeListener(visualObserver);
+		removeFromCells(visual, bounds.remove(visual));
+		dirtyVisuals.remove(visual);
+		setParent(visual, null);
+	}
+
+	private void removeFromCells(Node visual, double[] b) {
+		if (b == null) {
+			return;
+		}
+		if (largeVisuals.remove(visual)) {
+			return;
+		}
+		for (int col = toCell(b[0]); col <= toCell(b[2]); col++) {
+			for (int row = toCell(b[1]); row <= toCell(b[3]); row++) {
+				Long key = toKey(col, row);
+				List<Node> cell = cells.get(key);
+				if (cell != null) {
+					cell.remove(visual);
+					if (cell.isEmpty()) {
+						cells.remove(key);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets the parent whose children are observed for the given visual, and
+	 * updates the observed parents accordingly.
+	 */
+	private void setParent(Node visual, Parent parent) {
+		Parent oldParent = parent == null ? parentOf.remove(visual)
+				: parentOf.put(visual, parent);
+		if (oldParent == parent) {
+			return;
+		}
+		if (oldParent != null) {
+			int count = parents.get(oldParent) - 1;
+			if (count == 0) {
+				parents.remove(oldParent);
+				oldParent.getChildrenUnmodifiable()
+						.removeListener(childrenObserver);
+			} else {
+				parents.put(oldParent, count);
+			}
+		}
+		if (parent != null) {
+			Integer count = parents.get(parent);
+			if (count == null) {
+				parents.put(parent, 1);
+				parent.getChildrenUnmodifiable().addListener(childrenObserver);
+			} else {
+				parents.put(parent, count + 1);
+			}
+		}
+		orderKeysDirty = true;
+	}
+
+	/**
+	 * Sorts the given visuals in paint order, i.e. according to their order
+	 * within their parents' children.
+	 */
+	private List<Node> sortInPaintOrder(Set<Node> visuals) {
+		List<Node> sorted = new ArrayList<>(visuals);
+		if (sorted.size() > 1) {
+			updateOrderKeys();
+			Collections.sort(sorted, paintOrderComparator);
+		}
+		return sorted;
+	}
+
+	private int toCell(double coordinate) {
+		return (int) Math.floor(coordinate / cellSize);
+	}
+
+	private Long toKey(int col, int row) {
+		return ((long) col << 32) | (row & 0xffffffffL);
+	}
+
+	/**
+	 * Re-computes the bounds of all visuals that changed since the last
+	 * update.
+	 */
+	private void update() {
+		if (dirtyVisuals.isEmpty()) {
+			return;
+		}
+		for (Node visual : dirtyVisuals) {
+			setParent(visual, visual.getParent());
+			removeFromCells(visual, bounds.get(visual));
+			double[] b = computeBounds(visual);
+			bounds.put(visual, b);
+			if (b != null) {
+				addToCells(visual, b);
+			}
+		}
+		dirtyVisuals.clear();
+	}
+
+	/**
+	 * Re-computes the paint order keys of all visuals if the children of one
+	 * of their parents changed since the last update. Visuals of different
+	 * parents are ordered by parent.
+	 */
+	private void updateOrderKeys() {
+		if (!orderKeysDirty) {
+			return;
+		}
+		orderKeys.clear();
+		int key = 0;
+		for (Parent parent : parents.keySet()) {
+			for (Node child : parent.getChildrenUnmodifiable()) {
+				if (bounds.containsKey(child)) {
+					orderKeys.put(child, key++);
+				}
+			}
+		}
+		orderKeysDirty = false;
+	}
+}
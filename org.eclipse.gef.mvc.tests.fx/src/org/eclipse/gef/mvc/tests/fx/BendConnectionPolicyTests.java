@@ -1375,6 +1375,70 @@ public class BendConnectionPolicyTests {
 		}));
 	}
 
+	@Test
+	public void test_move_end_point_onto_anchorage() throws Throwable {
+		final org.eclipse.gef.geometry.planar.Rectangle A = new org.eclipse.gef.geometry.planar.Rectangle(0, 0, 50, 50);
+		final org.eclipse.gef.geometry.planar.Rectangle B = new org.eclipse.gef.geometry.planar.Rectangle(300, 0, 50,
+				50);
+		final org.eclipse.gef.geometry.planar.Rectangle C = new org.eclipse.gef.geometry.planar.Rectangle(150, 100, 50,
+				50);
+		final ConnectionContent connectionContent = new ConnectionContent(A, B);
+		connectionContent.isSimple = true;
+		final List<Object> contents = new ArrayList<>();
+		contents.add(A);
+		contents.add(B);
+		contents.add(C);
+		contents.add(connectionContent);
+		final IViewer viewer = createViewer(contents);
+
+		final ConnectionPart connection = (ConnectionPart) viewer.getContentPartMap().get(connectionContent);
+		final AnchoragePart anchorageB = (AnchoragePart) viewer.getContentPartMap().get(B);
+		final AnchoragePart anchorageC = (AnchoragePart) viewer.getContentPartMap().get(C);
+		assertEquals(anchorageB.getVisual(), connection.getVisual().getEndAnchor().getAnchorage());
+
+		// select end point
+		final BendConnectionPolicy bendPolicy = connection.getAdapter(BendConnectionPolicy.class);
+		final Point endPoint = ctx.runAndWait(new RunnableWithResult<Point>() {
+			@Override
+			public Point run() {
+				bendPolicy.init();
+				int endAnchorHandle = bendPolicy.getExplicitIndexAtOrAfter(1);
+				bendPolicy.select(endAnchorHandle);
+				return getPosition(bendPolicy, endAnchorHandle);
+			}
+		});
+
+		// move end point onto the center of C, which is found via the visual
+		// bounds index of the viewer
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				bendPolicy.move(endPoint, C.getCenter());
+			}
+		});
+
+		// verify that the connection is attached to C
+		assertEquals(anchorageC.getVisual(), connection.getVisual().getEndAnchor().getAnchorage());
+
+		// move end point to an empty position
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				bendPolicy.move(endPoint, new Point(175, 190));
+			}
+		});
+
+		// verify that the connection is no longer attached
+		assertTrue(connection.getVisual().getEndAnchor() instanceof StaticAnchor);
+
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				bendPolicy.commit();
+			}
+		});
+	}
+
 	@Test
 	public void test_move_explicit_orthogonal_segment_overlay() throws Throwable {
 		final List<Object> contents = TestModels.getAB_AB_simple();
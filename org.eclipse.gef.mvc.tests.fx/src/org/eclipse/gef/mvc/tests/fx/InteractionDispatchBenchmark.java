@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.mvc.tests.fx;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import javax.swing.SwingUtilities;
+
+import org.eclipse.gef.common.adapt.AdapterKey;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.mvc.fx.MvcFxModule;
+import org.eclipse.gef.mvc.fx.domain.IDomain;
+import org.eclipse.gef.mvc.fx.handlers.FocusAndSelectOnClickHandler;
+import org.eclipse.gef.mvc.fx.handlers.HoverOnHoverHandler;
+import org.eclipse.gef.mvc.fx.handlers.TranslateSelectedOnDragHandler;
+import org.eclipse.gef.mvc.fx.parts.AbstractContentPart;
+import org.eclipse.gef.mvc.fx.parts.DefaultHoverFeedbackPartFactory;
+import org.eclipse.gef.mvc.fx.parts.IContentPart;
+import org.eclipse.gef.mvc.fx.parts.IContentPartFactory;
+import org.eclipse.gef.mvc.fx.parts.ITransformableContentPart;
+import org.eclipse.gef.mvc.fx.policies.TransformPolicy;
+import org.eclipse.gef.mvc.fx.providers.ShapeBoundsProvider;
+import org.eclipse.gef.mvc.fx.viewer.IViewer;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.multibindings.MapBinder;
+
+import javafx.application.Platform;
+import javafx.embed.swing.JFXPanel;
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.PickResult;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.transform.Affine;
+
+/**
+ * A standalone benchmark that measures the time needed to dispatch hover and
+ * drag interactions through an {@link IViewer} that is configured by the
+ * {@link MvcFxModule}. As the visited parts, handlers, and policies are looked
+ * up via their adapters for each event, this benchmark mainly reflects the
+ * performance of the adapter lookups.
+ * <p>
+ * It is not part of the test suite, as its results depend on the machine it
+ * is executed on. Run it via its {@link #main(String[])} method, optionally
+ * passing the number of measured rounds as the first argument.
+ */
+public class InteractionDispatchBenchmark {
+
+	static class BoxPart extends AbstractContentPart<Rectangle> implements ITransformableContentPart<Rectangle> {
+		private Affine transform = new Affine();
+
+		@Override
+		protected Rectangle doCreateVisual() {
+			return new Rectangle(BOX_SIZE, BOX_SIZE);
+		}
+
+		@Override
+		protected SetMultimap<? extends Object, String> doGetContentAnchorages() {
+			return HashMultimap.create();
+		}
+
+		@Override
+		protected List<? extends Object> doGetContentChildren() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		protected void doRefreshVisual(Rectangle visual) {
+			visual.setX(getContent().x);
+			visual.setY(getContent().y);
+		}
+
+		@Override
+		public Point getContent() {
+			return (Point) super.getContent();
+		}
+
+		@Override
+		public Affine getContentTransform() {
+			return transform;
+		}
+
+		@Override
+		public void setContentTransform(Affine transform) {
+			this.transform = transform;
+		}
+	}
+
+	static class BoxPartFactory implements IContentPartFactory {
+		@Inject
+		private Injector injector;
+
+		@Override
+		public IContentPart<? extends Node> createContentPart(Object content, Map<Object, Object> contextMap) {
+			if (content instanceof Point) {
+				return injector.getInstance(BoxPart.class);
+			} else {
+				throw new IllegalArgumentException(content.getClass().toString());
+			}
+		}
+	}
+
+	private static final int BOX_SIZE = 20;
+	private static final int GRID_SIZE = 20;
+	private static final int DRAG_STEPS = 50;
+	private static final int WARMUP_ROUNDS = 20;
+
+	/**
+	 * Runs the benchmark on the JavaFX application thread.
+	 *
+	 * @param args
+	 *            The number of measured rounds (optional, defaults to 50).
+	 * @throws Exception
+	 *             if the JavaFX toolkit cannot be initialized.
+	 */
+	public static void main(String[] args) throws Exception {
+		final int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+		final CountDownLatch initialized = new CountDownLatch(1);
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				new JFXPanel(); // initializes JavaFX
+				initialized.countDown();
+			}
+		});
+		initialized.await();
+
+		final CountDownLatch finished = new CountDownLatch(1);
+		Platform.runLater(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					new InteractionDispatchBenchmark().run(rounds);
+				} finally {
+					finished.countDown();
+				}
+			}
+		});
+		finished.await();
+		Platform.exit();
+		System.exit(0);
+	}
+
+	private final List<Node> visuals = new ArrayList<>();
+	private Scene scene;
+	private long events;
+
+	private InteractionDispatchBenchmark() {
+		Injector injector = Guice.createInjector(new MvcFxModule() {
+			@Override
+			protected void bindAbstractContentPartAdapters(MapBinder<AdapterKey<?>, Object> adapterMapBinder) {
+				super.bindAbstractContentPartAdapters(adapterMapBinder);
+				adapterMapBinder.addBinding(AdapterKey.defaultRole()).to(HoverOnHoverHandler.class);
+				adapterMapBinder.addBinding(AdapterKey.defaultRole()).to(FocusAndSelectOnClickHandler.class);
+				adapterMapBinder.addBinding(AdapterKey.defaultRole()).to(TranslateSelectedOnDragHandler.class);
+				adapterMapBinder.addBinding(AdapterKey.defaultRole()).to(TransformPolicy.class);
+				adapterMapBinder
+						.addBinding(AdapterKey.role(DefaultHoverFeedbackPartFactory.HOVER_FEEDBACK_GEOMETRY_PROVIDER))
+						.to(ShapeBoundsProvider.class);
+			}
+
+			@Override
+			protected void configure() {
+				super.configure();
+				binder().bind(IContentPartFactory.class).to(BoxPartFactory.class);
+			}
+		});
+		IDomain domain = injector.getInstance(IDomain.class);
+		IViewer viewer = domain.getAdapter(AdapterKey.get(IViewer.class, IDomain.CONTENT_VIEWER_ROLE));
+		scene = new Scene(viewer.getCanvas(), GRID_SIZE * BOX_SIZE * 2, GRID_SIZE * BOX_SIZE * 2);
+		JFXPanel panel = new JFXPanel();
+		panel.setScene(scene);
+		domain.activate();
+
+		List<Point> contents = new ArrayList<>();
+		for (int i = 0; i < GRID_SIZE; i++) {
+			for (int j = 0; j < GRID_SIZE; j++) {
+				contents.add(new Point(i * BOX_SIZE * 2, j * BOX_SIZE * 2));
+			}
+		}
+		viewer.getContents().setAll(contents);
+		for (Point content : contents) {
+			visuals.add(viewer.getContentPartMap().get(content).getVisual());
+		}
+	}
+
+	/**
+	 * Fires a {@link MouseEvent} of the given type at the given scene
+	 * coordinates to the given target {@link Node}.
+	 */
+	private void fire(Node target, EventType<MouseEvent> type, double sceneX, double sceneY) {
+		Point2D local = target.sceneToLocal(sceneX, sceneY);
+		boolean pressed = type != MouseEvent.MOUSE_MOVED && type != MouseEvent.MOUSE_RELEASED;
+		MouseButton button = type == MouseEvent.MOUSE_MOVED ? MouseButton.NONE : MouseButton.PRIMARY;
+		int clickCount = type == MouseEvent.MOUSE_PRESSED || type == MouseEvent.MOUSE_RELEASED ? 1 : 0;
+		Event.fireEvent(target,
+				new MouseEvent(target, target, type, local.getX(), local.getY(), sceneX, sceneY, button, clickCount,
+						false, false, false, false, pressed, false, false, false, false, false,
+						new PickResult(target, sceneX, sceneY)));
+		events++;
+	}
+
+	/**
+	 * Hovers all boxes, and drags every tenth box back and forth.
+	 */
+	private void interact() {
+		for (Node visual : visuals) {
+			Point2D center = visual.localToScene(BOX_SIZE / 2, BOX_SIZE / 2);
+			fire(visual, MouseEvent.MOUSE_MOVED, center.getX(), center.getY());
+		}
+		for (int i = 0; i < visuals.size(); i += 10) {
+			Node visual = visuals.get(i);
+			Point2D center = visual.localToScene(BOX_SIZE / 2, BOX_SIZE / 2);
+			fire(visual, MouseEvent.MOUSE_PRESSED, center.getX(), center.getY());
+			for (int step = 1; step <= DRAG_STEPS; step++) {
+				fire(visual, MouseEvent.MOUSE_DRAGGED, center.getX() + step % BOX_SIZE, center.getY());
+			}
+			fire(visual, MouseEvent.MOUSE_DRAGGED, center.getX(), center.getY());
+			fire(visual, MouseEvent.MOUSE_RELEASED, center.getX(), center.getY());
+		}
+	}
+
+	private void run(int rounds) {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			interact();
+		}
+		events = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < rounds; i++) {
+			interact();
+		}
+		long duration = System.nanoTime() - start;
+		System.out.println(String.format("%d events dispatched in %.1f ms (%.2f us per event)", events,
+				duration / 1e6, duration / 1e3 / events));
+	}
+}
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.mvc.tests.fx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.gef.common.adapt.AdapterKey;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.mvc.fx.MvcFxModule;
+import org.eclipse.gef.mvc.fx.domain.IDomain;
+import org.eclipse.gef.mvc.fx.models.SelectionModel;
+import org.eclipse.gef.mvc.fx.parts.AbstractContentPart;
+import org.eclipse.gef.mvc.fx.parts.IContentPart;
+import org.eclipse.gef.mvc.fx.parts.IContentPartFactory;
+import org.eclipse.gef.mvc.fx.viewer.IViewer;
+import org.eclipse.gef.mvc.fx.viewer.InfiniteCanvasViewer;
+import org.eclipse.gef.mvc.fx.viewer.VisualBoundsIndex;
+import org.eclipse.gef.mvc.tests.fx.rules.FXNonApplicationThreadRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+
+import javafx.geometry.BoundingBox;
+import javafx.scene.Node;
+
+/**
+ * Tests for the {@link VisualBoundsIndex} of the {@link InfiniteCanvasViewer}.
+ */
+public class VisualBoundsIndexTests {
+
+	private static class BoxPart extends AbstractContentPart<javafx.scene.shape.Rectangle> {
+		@Override
+		protected javafx.scene.shape.Rectangle doCreateVisual() {
+			return new javafx.scene.shape.Rectangle();
+		}
+
+		@Override
+		protected SetMultimap<? extends Object, String> doGetContentAnchorages() {
+			return HashMultimap.create();
+		}
+
+		@Override
+		protected List<? extends Object> doGetContentChildren() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		protected void doRefreshVisual(javafx.scene.shape.Rectangle visual) {
+			visual.setX(getContent().getX());
+			visual.setY(getContent().getY());
+			visual.setWidth(getContent().getWidth());
+			visual.setHeight(getContent().getHeight());
+		}
+
+		@Override
+		public Rectangle getContent() {
+			return (Rectangle) super.getContent();
+		}
+	}
+
+	private static class BoxPartFactory implements IContentPartFactory {
+		@Inject
+		private Injector injector;
+
+		@Override
+		public IContentPart<? extends Node> createContentPart(Object content, Map<Object, Object> contextMap) {
+			if (content instanceof Rectangle) {
+				return injector.getInstance(BoxPart.class);
+			} else {
+				throw new IllegalArgumentException(content.getClass().toString());
+			}
+		}
+	}
+
+	@Rule
+	public FXNonApplicationThreadRule ctx = new FXNonApplicationThreadRule();
+
+	private final Rectangle a = new Rectangle(10, 10, 100, 100);
+	private final Rectangle b = new Rectangle(60, 60, 100, 100);
+	private final Rectangle c = new Rectangle(300, 300, 50, 50);
+
+	private IDomain domain;
+	private InfiniteCanvasViewer viewer;
+
+	private InfiniteCanvasViewer createViewer() throws Throwable {
+		domain = Guice.createInjector(new MvcFxModule() {
+			@Override
+			protected void configure() {
+				super.configure();
+				binder().bind(IContentPartFactory.class).to(BoxPartFactory.class);
+			}
+		}).getInstance(IDomain.class);
+		viewer = (InfiniteCanvasViewer) domain.getAdapter(AdapterKey.get(IViewer.class, IDomain.CONTENT_VIEWER_ROLE));
+		ctx.createScene(viewer.getCanvas(), 500, 500);
+		ctx.runAndWait(() -> {
+			domain.activate();
+			viewer.getContents().setAll(Arrays.asList(a, b, c));
+		});
+		return viewer;
+	}
+
+	private Node getVisual(Object content) {
+		return viewer.getContentPartMap().get(content).getVisual();
+	}
+
+	/**
+	 * Ensures that visuals are indexed when their parts are added, and removed
+	 * from the index when their parts are removed.
+	 */
+	@Test
+	public void addAndRemove() throws Throwable {
+		createViewer();
+		ctx.runAndWait(() -> {
+			VisualBoundsIndex index = viewer.getVisualBoundsIndex();
+			assertEquals(Arrays.asList(getVisual(a)), index.getVisualsAt(20, 20));
+			assertEquals(Arrays.asList(getVisual(c)), index.getVisualsAt(320, 320));
+			assertTrue(index.getVisualsAt(250, 250).isEmpty());
+
+			// add a part after the index was created
+			Rectangle d = new Rectangle(200, 200, 100, 100);
+			viewer.getContents().add(d);
+			assertEquals(Arrays.asList(getVisual(d)), index.getVisualsAt(250, 250));
+
+			// remove parts
+			viewer.getContents().removeAll(a, d);
+			assertTrue(index.getVisualsAt(20, 20).isEmpty());
+			assertTrue(index.getVisualsAt(250, 250).isEmpty());
+			assertEquals(Arrays.asList(getVisual(b)), index.getVisualsAt(100, 100));
+		});
+	}
+
+	/**
+	 * Ensures that the index is updated when a visual is moved.
+	 */
+	@Test
+	public void move() throws Throwable {
+		createViewer();
+		ctx.runAndWait(() -> {
+			VisualBoundsIndex index = viewer.getVisualBoundsIndex();
+			Node visualC = getVisual(c);
+			assertEquals(Arrays.asList(visualC), index.getVisualsAt(320, 320));
+
+			// move c far away, so that it is registered in other grid cells
+			visualC.setTranslateX(1000);
+			visualC.setTranslateY(1000);
+			assertTrue(index.getVisualsAt(320, 320).isEmpty());
+			assertEquals(Arrays.asList(visualC), index.getVisualsAt(1320, 1320));
+			assertEquals(Arrays.asList(visualC),
+					index.getVisualsIntersecting(new BoundingBox(1200, 1200, 200, 200)));
+		});
+	}
+
+	/**
+	 * Ensures that the visuals are returned in paint order, also after the
+	 * children of their parent were reordered.
+	 */
+	@Test
+	public void paintOrder() throws Throwable {
+		createViewer();
+		ctx.runAndWait(() -> {
+			VisualBoundsIndex index = viewer.getVisualBoundsIndex();
+			Node visualA = getVisual(a);
+			Node visualB = getVisual(b);
+			assertEquals(Arrays.asList(visualA, visualB), index.getVisualsAt(80, 80));
+			assertEquals(Arrays.asList(visualA, visualB, getVisual(c)),
+					index.getVisualsIntersecting(new BoundingBox(0, 0, 400, 400)));
+
+			// bring a to the front
+			visualA.toFront();
+			assertEquals(Arrays.asList(visualB, visualA), index.getVisualsAt(80, 80));
+			assertEquals(Arrays.asList(visualB, getVisual(c), visualA),
+					index.getVisualsIntersecting(new BoundingBox(0, 0, 400, 400)));
+		});
+	}
+
+	/**
+	 * Ensures that a marquee selection, which queries the index, selects
+	 * exactly the parts whose visuals are contained in the marquee area.
+	 */
+	@Test
+	public void marqueeSelection() throws Throwable {
+		createViewer();
+
+		// drag a marquee around a and b, which does not contain c
+		ctx.mouseMove(viewer.getCanvas(), 5, 5);
+		ctx.mousePress();
+		ctx.mouseDrag(100, 100);
+		ctx.mouseDrag(200, 200);
+		ctx.mouseRelease();
+
+		ctx.runAndWait(() -> {
+			List<IContentPart<? extends Node>> selection = viewer.getAdapter(SelectionModel.class)
+					.getSelectionUnmodifiable();
+			assertEquals(2, selection.size());
+			assertTrue(selection.contains(viewer.getContentPartMap().get(a)));
+			assertTrue(selection.contains(viewer.getContentPartMap().get(b)));
+		});
+	}
+}
@@ -333,6 +333,19 @@ public class ZestProperties {
 	 */
 	public static final String LAYOUT_ALGORITHM__G = "graph-layout-algorithm";
 
+	/**
+	 * This attribute determines whether changes to the graph (e.g. adding or
+	 * hiding nodes) are layouted incrementally, i.e. whether bursts of changes
+	 * are coalesced into a single layout pass per pulse, which only updates the
+	 * region that is affected by the changes (if supported by the layout
+	 * algorithm). If not set, a full layout pass is performed for every
+	 * change.
+	 *
+	 * @see #getLayoutIncremental(Graph)
+	 * @see #setLayoutIncremental(Graph, Boolean)
+	 */
+	public static final String LAYOUT_INCREMENTAL__G = "graph-layout-incremental";
+
 	/**
 	 * Returns the value of the {@link #CONTROL_POINTS__E} attribute of the
 	 * given {@link Edge}.
@@ -736,6 +749,23 @@ public class ZestProperties {
 		return (ILayoutAlgorithm) value;
 	}
 
+	/**
+	 * Returns the value of the {@link #LAYOUT_INCREMENTAL__G} attribute of the
+	 * given {@link Graph}.
+	 *
+	 * @param graph
+	 *            The {@link Graph} of which the incremental layout flag is
+	 *            determined.
+	 * @return The incremental layout flag of the given {@link Graph}.
+	 */
+	public static Boolean getLayoutIncremental(Graph graph) {
+		Object value = graph.attributesProperty().get(LAYOUT_INCREMENTAL__G);
+		if (value instanceof Provider) {
+			return (Boolean) ((Provider<?>) value).get();
+		}
+		return (Boolean) value;
+	}
+
 	/**
 	 * Returns the value of the {@link #LAYOUT_IRRELEVANT__NE} attribute of the
 	 * given {@link Edge}. If the attribute is not set for the given
@@ -1910,6 +1940,24 @@ public class ZestProperties {
 		}
 	}
 
+	/**
+	 * Sets the value of the {@link #LAYOUT_INCREMENTAL__G} attribute of the
+	 * given {@link Graph} to the given value.
+	 *
+	 * @param graph
+	 *            The {@link Graph} of which the incremental layout flag is
+	 *            changed.
+	 * @param layoutIncremental
+	 *            The new incremental layout flag for the given {@link Graph}.
+	 */
+	public static void setLayoutIncremental(Graph graph, Boolean layoutIncremental) {
+		if (layoutIncremental == null) {
+			graph.getAttributes().remove(LAYOUT_INCREMENTAL__G);
+		} else {
+			graph.attributesProperty().put(LAYOUT_INCREMENTAL__G, layoutIncremental);
+		}
+	}
+
 	/**
 	 * Sets the value of the {@link #LAYOUT_IRRELEVANT__NE} attribute of the
 	 * given {@link Edge} to the given value.
@@ -12,8 +12,11 @@
  *******************************************************************************/
 package org.eclipse.gef.zest.fx.behaviors;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.eclipse.gef.fx.nodes.InfiniteCanvas;
 import org.eclipse.gef.geometry.planar.Rectangle;
@@ -35,6 +38,8 @@ import org.eclipse.gef.zest.fx.models.NavigationModel.ViewportState;
 import org.eclipse.gef.zest.fx.parts.GraphPart;
 import org.eclipse.gef.zest.fx.parts.NodePart;
 
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.ListChangeListener;
@@ -46,6 +51,18 @@ import javafx.scene.Parent;
 /**
  * The {@link GraphLayoutBehavior} is responsible for initiating layout passes.
  * It is only applicable to {@link GraphPart}.
+ * <p>
+ * If the {@link ZestProperties#LAYOUT_INCREMENTAL__G} attribute is set for the
+ * graph, changes to the children and to the {@link HidingModel} are not
+ * layouted immediately. Instead, they are coalesced into a single layout pass
+ * per pulse, which only updates the region that is affected by the changed
+ * nodes (see {@link LayoutContext#applyIncrementalLayout(Set)}).
+ * <p>
+ * If a {@link #setLayoutExecutor(Executor) layout executor} is set, full
+ * layout passes are computed on that executor, and the results are committed
+ * on the JavaFX application thread (see
+ * {@link LayoutContext#applyLayoutAsync(boolean, Executor, Executor)}), so
+ * that the UI stays responsive while a large graph is layouted.
  *
  * @author mwienand
  *
@@ -88,19 +105,53 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 	private ListChangeListener<IVisualPart<? extends Node>> childrenObserver = new ListChangeListener<IVisualPart<? extends Node>>() {
 		@Override
 		public void onChanged(ListChangeListener.Change<? extends IVisualPart<? extends Node>> c) {
-			applyLayout(true, null);
+			if (isLayoutIncremental()) {
+				while (c.next()) {
+					collectChangedNodes(c.getRemoved());
+					collectChangedNodes(c.getAddedSubList());
+				}
+				scheduleLayout(false);
+			} else {
+				applyLayout(true, null);
+			}
 		}
 	};
 
 	private SetChangeListener<org.eclipse.gef.graph.Node> hidingModelObserver = new SetChangeListener<org.eclipse.gef.graph.Node>() {
 		@Override
 		public void onChanged(SetChangeListener.Change<? extends org.eclipse.gef.graph.Node> change) {
-			applyLayout(true, null);
+			if (isLayoutIncremental()) {
+				if (change.wasRemoved()) {
+					changedNodes.add(change.getElementRemoved());
+				}
+				if (change.wasAdded()) {
+					changedNodes.add(change.getElementAdded());
+				}
+				scheduleLayout(false);
+			} else {
+				applyLayout(true, null);
+			}
 		}
 	};
 
 	private boolean skipNextLayout;
 
+	// nodes that changed since the last incremental layout pass
+	private final Set<org.eclipse.gef.graph.Node> changedNodes = new HashSet<>();
+
+	private boolean cleanLayoutScheduled;
+
+	private AnimationTimer pulseTimer;
+
+	private Executor layoutExecutor;
+
+	private Executor applicationThreadExecutor = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			Platform.runLater(command);
+		}
+	};
+
 	/**
 	 * Performs one layout pass using the static layout algorithm that is
 	 * configured for the layout context.
@@ -111,24 +162,106 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 	 *            An extra {@link Object} that is passed-on to the
 	 *            {@link ILayoutAlgorithm}.
 	 */
-	@SuppressWarnings("unchecked")
 	public void applyLayout(boolean clean, Object extra) {
-		// check child parts exist for all content children
-		if (getHost().getChildrenUnmodifiable().size() != getHost().getContentChildrenUnmodifiable().size()) {
-			return;
-		} else {
-			List<IContentPart<? extends Node>> childContentParts = PartUtils
-					.filterParts(getHost().getChildrenUnmodifiable(), IContentPart.class);
-			for (IContentPart<? extends Node> cp : childContentParts) {
-				if (!getHost().getContentChildrenUnmodifiable().contains(cp.getContent())) {
-					return;
+		LayoutContext layoutContext = prepareLayoutContext();
+		if (layoutContext != null) {
+			// apply layout (if no algorithm is set, will be a no-op)
+			if (layoutExecutor != null) {
+				layoutContext.applyLayoutAsync(true, layoutExecutor, applicationThreadExecutor);
+			} else {
+				layoutContext.applyLayout(true);
+			}
+		}
+	}
+
+	/**
+	 * Performs one layout pass that only updates the region that is affected
+	 * by the given changed nodes, if supported by the layout algorithm that is
+	 * configured for the layout context. Otherwise performs a full layout pass.
+	 *
+	 * @param changedNodes
+	 *            The nodes that have been added, removed, shown, or hidden
+	 *            since the last layout pass.
+	 * @return <code>true</code> if the layout pass was performed (or skipped
+	 *         on purpose), <code>false</code> if it could not be performed
+	 *         because the child parts are not yet synchronized with the
+	 *         content children.
+	 */
+	protected boolean applyIncrementalLayout(Set<org.eclipse.gef.graph.Node> changedNodes) {
+		if (!isChildrenSynchronized()) {
+			return false;
+		}
+		LayoutContext layoutContext = prepareLayoutContext();
+		if (layoutContext != null) {
+			layoutContext.applyIncrementalLayout(changedNodes);
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the nodes that are affected by the given (added or removed) child
+	 * parts to the changed nodes, i.e. the content node of a node part, or the
+	 * source and target nodes of the content edge of an edge part.
+	 */
+	private void collectChangedNodes(List<? extends IVisualPart<? extends Node>> parts) {
+		for (IVisualPart<? extends Node> part : parts) {
+			if (part instanceof IContentPart) {
+				Object content = ((IContentPart<? extends Node>) part).getContent();
+				if (content instanceof org.eclipse.gef.graph.Node) {
+					changedNodes.add((org.eclipse.gef.graph.Node) content);
+				} else if (content instanceof Edge) {
+					changedNodes.add(((Edge) content).getSource());
+					changedNodes.add(((Edge) content).getTarget());
 				}
 			}
 		}
+	}
+
+	/**
+	 * Returns <code>true</code> if child parts exist for all content children,
+	 * otherwise <code>false</code>.
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean isChildrenSynchronized() {
+		if (getHost().getChildrenUnmodifiable().size() != getHost().getContentChildrenUnmodifiable().size()) {
+			return false;
+		}
+		List<IContentPart<? extends Node>> childContentParts = PartUtils
+				.filterParts(getHost().getChildrenUnmodifiable(), IContentPart.class);
+		for (IContentPart<? extends Node> cp : childContentParts) {
+			if (!getHost().getContentChildrenUnmodifiable().contains(cp.getContent())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns <code>true</code> if the {@link ZestProperties#LAYOUT_INCREMENTAL__G}
+	 * attribute is set for the graph, otherwise <code>false</code>.
+	 *
+	 * @return <code>true</code> if changes are layouted incrementally,
+	 *         otherwise <code>false</code>.
+	 */
+	protected boolean isLayoutIncremental() {
+		return Boolean.TRUE.equals(ZestProperties.getLayoutIncremental(getHost().getContent()));
+	}
+
+	/**
+	 * Prepares the {@link LayoutContext} for a layout pass, i.e. updates its
+	 * layout algorithm and graph. Returns <code>null</code> if no layout pass
+	 * should be performed, because the child parts are not yet synchronized
+	 * with the content children, or because the layout pass is skipped.
+	 */
+	private LayoutContext prepareLayoutContext() {
+		// check child parts exist for all content children
+		if (!isChildrenSynchronized()) {
+			return null;
+		}
 
 		if (skipNextLayout) {
 			skipNextLayout = false;
-			return;
+			return null;
 		}
 
 		Graph graph = getHost().getContent();
@@ -150,9 +283,7 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		if (layoutContext.getGraph() != graph) {
 			layoutContext.setGraph(graph);
 		}
-
-		// apply layout (if no algorithm is set, will be a no-op)
-		layoutContext.applyLayout(true);
+		return layoutContext;
 	}
 
 	/**
@@ -261,6 +392,13 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 	protected void doDeactivate() {
 		getHost().getChildrenUnmodifiable().removeListener(childrenObserver);
 
+		// discard scheduled layout passes
+		if (pulseTimer != null) {
+			pulseTimer.stop();
+		}
+		changedNodes.clear();
+		cleanLayoutScheduled = false;
+
 		final HidingModel hidingModel = getHost().getRoot().getViewer().getAdapter(HidingModel.class);
 		if (hidingModel != null) {
 			hidingModel.hiddenProperty().removeListener(hidingModelObserver);
@@ -300,6 +438,17 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		return getHost().getAdapter(LayoutContext.class);
 	}
 
+	/**
+	 * Returns the {@link Executor} that is used to compute full layout passes,
+	 * or <code>null</code> if layout passes are computed on the JavaFX
+	 * application thread.
+	 *
+	 * @return The {@link Executor} that is used to compute full layout passes.
+	 */
+	public Executor getLayoutExecutor() {
+		return layoutExecutor;
+	}
+
 	/**
 	 * Returns the {@link NodePart} that contains the nested graph to which the
 	 * behavior corresponds, if this behavior is related to a nested graph.
@@ -346,6 +495,53 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		}
 	}
 
+	/**
+	 * Schedules a layout pass for the next pulse, so that all changes that
+	 * occur until then are coalesced into a single layout pass.
+	 *
+	 * @param clean
+	 *            <code>true</code> to perform a full layout pass,
+	 *            <code>false</code> to perform an incremental layout pass for
+	 *            the changed nodes.
+	 */
+	protected void scheduleLayout(boolean clean) {
+		cleanLayoutScheduled |= clean;
+		if (pulseTimer == null) {
+			pulseTimer = new AnimationTimer() {
+				@Override
+				public void handle(long now) {
+					stop();
+					if (cleanLayoutScheduled) {
+						cleanLayoutScheduled = false;
+						changedNodes.clear();
+						applyLayout(true, null);
+					} else if (applyIncrementalLayout(new HashSet<>(changedNodes))) {
+						changedNodes.clear();
+					} else {
+						// child parts are not yet synchronized, so retry
+						// with the next pulse
+						scheduleLayout(false);
+					}
+				}
+			};
+		}
+		// starting an already started timer has no effect
+		pulseTimer.start();
+	}
+
+	/**
+	 * Sets the {@link Executor} that is used to compute full layout passes. If
+	 * set to <code>null</code> (the default), layout passes are computed
+	 * synchronously on the JavaFX application thread.
+	 *
+	 * @param layoutExecutor
+	 *            The {@link Executor} that is used to compute full layout
+	 *            passes, or <code>null</code>.
+	 */
+	public void setLayoutExecutor(Executor layoutExecutor) {
+		this.layoutExecutor = layoutExecutor;
+	}
+
 	/**
 	 * Updates the bounds property from the visual (viewport or nesting node)
 	 */
@@ -354,7 +550,11 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		Rectangle oldBounds = LayoutProperties.getBounds(getHost().getContent());
 		if (oldBounds != newBounds && (oldBounds == null || !oldBounds.equals(newBounds))) {
 			LayoutProperties.setBounds(getHost().getContent(), newBounds);
-			applyLayout(true, null);
+			if (isLayoutIncremental()) {
+				scheduleLayout(true);
+			} else {
+				applyLayout(true, null);
+			}
 		}
 	}
 }
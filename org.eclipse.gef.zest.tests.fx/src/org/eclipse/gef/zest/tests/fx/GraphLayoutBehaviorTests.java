@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.zest.tests.fx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.common.adapt.AdapterKey;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.IIncrementalLayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.mvc.fx.domain.IDomain;
+import org.eclipse.gef.mvc.fx.viewer.IViewer;
+import org.eclipse.gef.mvc.tests.fx.rules.FXNonApplicationThreadRule;
+import org.eclipse.gef.zest.fx.ZestFxModule;
+import org.eclipse.gef.zest.fx.ZestProperties;
+import org.eclipse.gef.zest.fx.behaviors.GraphLayoutBehavior;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.google.inject.Guice;
+
+/**
+ * Tests for the {@link GraphLayoutBehavior}.
+ */
+public class GraphLayoutBehaviorTests {
+
+	/**
+	 * Places all nodes in a row when applied, and moves only the changed nodes
+	 * below that row when updated.
+	 */
+	private static class RowLayoutAlgorithm implements IIncrementalLayoutAlgorithm {
+
+		private final CountDownLatch updated = new CountDownLatch(1);
+		private final Set<Node> updatedNodes = new HashSet<>();
+
+		@Override
+		public void applyLayout(LayoutContext layoutContext, boolean clean) {
+			Node[] nodes = layoutContext.getNodes();
+			for (int i = 0; i < nodes.length; i++) {
+				LayoutProperties.setLocation(nodes[i], new Point(50 + 100 * i, 50));
+			}
+		}
+
+		@Override
+		public void updateLayout(LayoutContext layoutContext, Set<Node> changedNodes) {
+			for (Node node : layoutContext.getNodes()) {
+				if (changedNodes.contains(node)) {
+					LayoutProperties.setLocation(node, new Point(50, 200));
+				}
+			}
+			updatedNodes.addAll(changedNodes);
+			updated.countDown();
+		}
+	}
+
+	@Rule
+	public FXNonApplicationThreadRule ctx = new FXNonApplicationThreadRule();
+
+	/**
+	 * Ensures that only the changed nodes are moved when a node is added to a
+	 * graph that is layouted incrementally.
+	 */
+	@Test
+	public void incrementalLayoutMovesChangedNodesOnly() throws Throwable {
+		final IDomain domain = Guice.createInjector(new ZestFxModule()).getInstance(IDomain.class);
+		final IViewer viewer = domain.getAdapter(AdapterKey.get(IViewer.class, IDomain.CONTENT_VIEWER_ROLE));
+		ctx.createScene(viewer.getCanvas(), 500, 500);
+
+		final RowLayoutAlgorithm algorithm = new RowLayoutAlgorithm();
+		final Graph graph = new Graph.Builder().nodes(new Node(), new Node(), new Node()).build();
+		ZestProperties.setLayoutAlgorithm(graph, algorithm);
+		ZestProperties.setLayoutIncremental(graph, true);
+		ctx.runAndWait(() -> {
+			domain.activate();
+			viewer.getContents().setAll(Collections.singletonList(graph));
+		});
+
+		final List<Node> nodes = new ArrayList<>(graph.getNodes());
+		final List<Point> positions = ctx.runAndWait(() -> {
+			List<Point> result = new ArrayList<>();
+			for (Node node : nodes) {
+				result.add(ZestProperties.getPosition(node).getCopy());
+			}
+			return result;
+		});
+
+		// add a node, which is layouted with the next pulse
+		final Node added = new Node();
+		ctx.runAndWait(() -> {
+			graph.getNodes().add(added);
+		});
+		assertTrue(algorithm.updated.await(5, TimeUnit.SECONDS));
+		assertEquals(Collections.singleton(added), algorithm.updatedNodes);
+
+		ctx.runAndWait(() -> {
+			for (int i = 0; i < nodes.size(); i++) {
+				assertEquals(positions.get(i), ZestProperties.getPosition(nodes.get(i)));
+			}
+			viewer.getContents().clear();
+			domain.deactivate();
+		});
+	}
+}